@@ -215,9 +215,22 @@ tasks {
 
     /* ------------------------ Unit-Tests ----------------------------- */
     test {
-        useJUnit()
+        useJUnit {
+            // Benchmarks (Zeitmessungen) nur auf Wunsch, z. B. ./gradlew test -Pedupy.benchmark --tests '*Benchmark*'
+            if (!providers.gradleProperty("edupy.benchmark").isPresent) {
+                excludeCategories("de.code14.edupydebugger.Benchmark")
+            }
+        }
         jvmArgs("--add-exports", "java.base/jdk.internal.vm=ALL-UNNAMED")
         systemProperty("java.awt.headless", "true")
+        // Replay-Benchmark: simulierte Latenz pro Debugger-Roundtrip, z. B. -Pedupy.replay.latencyMs=5
+        providers.gradleProperty("edupy.replay.latencyMs").orNull?.let {
+            systemProperty("edupy.replay.latencyMs", it)
+        }
+        // Objektdiagramm-Benchmark: Smetana bis zu dieser Knotenzahl messen, z. B. -Pedupy.diagram.benchmark.smetanaMax=1000
+        providers.gradleProperty("edupy.diagram.benchmark.smetanaMax").orNull?.let {
+            systemProperty("edupy.diagram.benchmark.smetanaMax", it)
+        }
     }
 
     /* ------------------------ Integration-Tests (echte IDE) ---------- */
@@ -0,0 +1,333 @@
+package de.code14.edupydebugger.analysis.dynamicanalysis;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
+import com.jetbrains.python.debugger.PyDebugValue;
+import com.jetbrains.python.debugger.PyDebuggerException;
+import com.jetbrains.python.debugger.PyFrameAccessor;
+import org.jetbrains.annotations.Nullable;
+
+import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Issues {@code evaluate} requests asynchronously so that independent probes overlap instead of paying one
+ * debugger round trip after the other.
+ * <p>
+ * pydevd processes several outstanding commands, but flooding it slows down the IDE's own requests. The client
+ * therefore keeps at most {@code maxInFlight} requests in flight per frame accessor (system property
+ * {@value #MAX_IN_FLIGHT_PROPERTY}, default {@value #DEFAULT_MAX_IN_FLIGHT}) and queues the rest in submission
+ * order. All requests go through the {@link EvaluationGateway}, so memoization, the budget and the counters apply
+ * unchanged.
+ * <p>
+ * The analyzers compose these futures into non-blocking stages instead of parking pooled threads on latches;
+ * {@link #withTimeout(CompletableFuture, String, Supplier)} bounds every stage (system property
+ * {@value #STAGE_TIMEOUT_PROPERTY}, default {@value #DEFAULT_STAGE_TIMEOUT_MS} ms) so that a debugger that
+ * never answers cannot stall an analysis.
+ * <p>
+ * A watchdog abandons single requests that run longer than {@value #HARD_LIMIT_PROPERTY} ms (default
+ * {@value #DEFAULT_HARD_LIMIT_MS}, 0 disables it), e.g. a user {@code __repr__} stuck in code the debuggee-side
+ * budgets of the {@link ProbeModule} cannot interrupt. The future fails with
+ * {@link EvaluationGateway#ABANDONED_MESSAGE}, the slot is handed to the next queued request and the expression
+ * is answered with a placeholder for the rest of the pause (see {@link EvaluationGateway#abandon}). The blocked
+ * debugger call itself cannot be cancelled; it is left to finish on its own.
+ * <p>
+ * Requests whose future was cancelled while they waited in the queue are dropped without a round trip.
+ * <p>
+ * Clients made by {@link #create(EvaluationGateway)} run on the application pool. Tests that depend on
+ * thread-local mocks (Mockito's static and construction mocks) inject a different executor with
+ * {@link #setDefaultExecutor(Executor)}.
+ */
+public class AsyncEvaluationClient {
+
+    private static final Logger LOGGER = Logger.getInstance(AsyncEvaluationClient.class);
+
+    /** System property overriding the maximum number of evaluate requests in flight per frame accessor. */
+    public static final String MAX_IN_FLIGHT_PROPERTY = "edupy.eval.maxInFlight";
+
+    /** Default maximum number of evaluate requests in flight per frame accessor. */
+    public static final int DEFAULT_MAX_IN_FLIGHT = 4;
+
+    /** System property overriding the time (ms) after which an analysis stage gives up waiting for the debugger. */
+    public static final String STAGE_TIMEOUT_PROPERTY = "edupy.analysis.timeoutMs";
+
+    /** Default time (ms) after which an analysis stage gives up waiting for the debugger. */
+    public static final int DEFAULT_STAGE_TIMEOUT_MS = 10000;
+
+    /** System property overriding the time (ms) after which the watchdog abandons a single request (0 = off). */
+    public static final String HARD_LIMIT_PROPERTY = "edupy.probe.hardLimitMs";
+
+    /** Default time (ms) after which the watchdog abandons a single request. */
+    public static final int DEFAULT_HARD_LIMIT_MS = 5000;
+
+    /** Requests of one frame accessor: running count and queued tasks. Guarded by its own monitor. */
+    private static final class Lane {
+        private final Deque<Runnable> pending = new ArrayDeque<>();
+        private int inFlight;
+    }
+
+    private final EvaluationGateway gateway;
+    private final Executor executor;
+    private final int maxInFlight;
+    private final Map<PyFrameAccessor, Lane> lanes = Collections.synchronizedMap(new IdentityHashMap<>());
+    private final long hardLimitMs = Math.max(0, Integer.getInteger(HARD_LIMIT_PROPERTY, DEFAULT_HARD_LIMIT_MS));
+    private final AtomicLong abandoned = new AtomicLong();
+
+    /** Test seam: executor of the clients made by {@link #create}; {@code null} selects the application pool. */
+    private static volatile Executor defaultExecutor;
+
+    /**
+     * Creates a client for the given gateway with an explicit executor.
+     *
+     * @param gateway     the gateway performing (and memoizing) the evaluations
+     * @param executor    the executor running the requests
+     * @param maxInFlight maximum number of requests in flight per frame accessor (at least 1)
+     */
+    public AsyncEvaluationClient(EvaluationGateway gateway, Executor executor, int maxInFlight) {
+        this.gateway = gateway;
+        this.executor = executor;
+        this.maxInFlight = Math.max(1, maxInFlight);
+    }
+
+    /**
+     * Creates a client with the default executor, the application pool unless a test replaced it, and the
+     * configured number of requests in flight.
+     *
+     * @param gateway the gateway performing (and memoizing) the evaluations
+     * @return a new client
+     */
+    public static AsyncEvaluationClient create(EvaluationGateway gateway) {
+        Executor executor = defaultExecutor;
+        return new AsyncEvaluationClient(gateway, executor != null ? executor : AppExecutorUtil.getAppExecutorService(),
+                Integer.getInteger(MAX_IN_FLIGHT_PROPERTY, DEFAULT_MAX_IN_FLIGHT));
+    }
+
+    // Visible for tests
+    public static void setDefaultExecutor(Executor executor) {
+        defaultExecutor = executor;
+    }
+
+    /**
+     * Schedules the evaluation of an expression in the current frame of the given accessor.
+     * The future completes exceptionally with the {@link com.jetbrains.python.debugger.PyDebuggerException}
+     * thrown by the debugger or the gateway.
+     *
+     * @param accessor   the frame accessor
+     * @param expression the Python expression
+     * @return the future debugger value
+     */
+    public CompletableFuture<PyDebugValue> evaluate(PyFrameAccessor accessor, String expression) {
+        return evaluate(accessor, expression, true);
+    }
+
+    /**
+     * Schedules the evaluation of an expression like {@link #evaluate(PyFrameAccessor, String)}, optionally
+     * untrimmed (see {@link EvaluationGateway#evaluate(PyFrameAccessor, String, boolean)}).
+     *
+     * @param accessor   the frame accessor
+     * @param expression the Python expression
+     * @param trimResult whether the debugger may trim long values
+     * @return the future debugger value
+     */
+    public CompletableFuture<PyDebugValue> evaluate(PyFrameAccessor accessor, String expression, boolean trimResult) {
+        return evaluate(accessor, null, expression, trimResult);
+    }
+
+    /**
+     * Schedules the evaluation of an expression in the given stack frame (see
+     * {@link EvaluationGateway#evaluate(PyFrameAccessor, String, String, boolean)}). All frames of a debug process
+     * share the lane of its accessor.
+     *
+     * @param accessor   the frame accessor
+     * @param frameId    the pydevd id of the frame, or {@code null} for the current frame
+     * @param expression the Python expression
+     * @param trimResult whether the debugger may trim long values
+     * @return the future debugger value
+     */
+    public CompletableFuture<PyDebugValue> evaluate(PyFrameAccessor accessor, @Nullable String frameId, String expression,
+                                                    boolean trimResult) {
+        return submit(accessor, expression, () -> gateway.evaluate(accessor, frameId, expression, trimResult),
+                () -> gateway.abandon(accessor, frameId, expression, trimResult));
+    }
+
+    /**
+     * Schedules a call that talks to the debugger (e.g. a {@link ProbeModule} helper) in the lane of the given
+     * accessor, so that it counts against the same in-flight limit as {@link #evaluate(PyFrameAccessor, String)}.
+     *
+     * @param accessor the frame accessor the call talks to
+     * @param call     the blocking call
+     * @param <T>      the result type
+     * @return the future result; completes exceptionally with whatever the call throws
+     */
+    public <T> CompletableFuture<T> submit(PyFrameAccessor accessor, Callable<T> call) {
+        return submit(accessor, "helper call", call, () -> {});
+    }
+
+    /**
+     * Schedules a call in the lane of the given accessor under the watchdog.
+     *
+     * @param accessor    the frame accessor the call talks to
+     * @param description what the call does, for the watchdog report
+     * @param call        the blocking call
+     * @param onAbandon   run once if the watchdog gives up on the call
+     */
+    private <T> CompletableFuture<T> submit(PyFrameAccessor accessor, String description, Callable<T> call, Runnable onAbandon) {
+        CompletableFuture<T> future = new CompletableFuture<>();
+        Lane lane = lanes.computeIfAbsent(accessor, a -> new Lane());
+        AtomicBoolean released = new AtomicBoolean();
+        Runnable release = () -> {
+            if (released.compareAndSet(false, true)) next(lane);
+        };
+        Runnable task = () -> {
+            if (future.isDone()) {
+                // Cancelled while queued: no round trip, hand the slot on
+                release.run();
+                return;
+            }
+            watch(future, description, release, onAbandon);
+            try {
+                future.complete(call.call());
+            } catch (Throwable t) {
+                future.completeExceptionally(t);
+            } finally {
+                release.run();
+            }
+        };
+
+        boolean runNow;
+        synchronized (lane) {
+            runNow = lane.inFlight < maxInFlight;
+            if (runNow) {
+                lane.inFlight++;
+            } else {
+                lane.pending.addLast(task);
+            }
+        }
+        if (runNow) {
+            dispatch(task);
+        }
+        return future;
+    }
+
+    /**
+     * Starts the watchdog of a running call: if it has not completed after the hard limit, its future fails, the
+     * abandonment is reported and the lane slot is released for the next request.
+     */
+    private void watch(CompletableFuture<?> future, String description, Runnable release, Runnable onAbandon) {
+        if (hardLimitMs <= 0) return;
+        Executor timer = CompletableFuture.delayedExecutor(hardLimitMs, TimeUnit.MILLISECONDS);
+        CompletableFuture.runAsync(() -> {
+            if (future.isDone()) return;
+            onAbandon.run();
+            if (future.completeExceptionally(new PyDebuggerException(EvaluationGateway.ABANDONED_MESSAGE
+                    + " after " + hardLimitMs + " ms: " + description))) {
+                abandoned.incrementAndGet();
+                LOGGER.warn("Debugger did not answer within " + hardLimitMs + " ms, abandoning: " + description);
+                release.run();
+            }
+        }, timer);
+    }
+
+    /** @return the number of requests the watchdog abandoned so far */
+    public long getAbandonedCount() {
+        return abandoned.get();
+    }
+
+    /**
+     * Waits for all given futures, ignoring their individual failures (callers handle them per future).
+     *
+     * @param futures the futures to wait for
+     */
+    public static void awaitAll(Collection<? extends CompletableFuture<?>> futures) {
+        try {
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).join();
+        } catch (CompletionException ignore) {
+            // individual failures are reported through the futures themselves
+        }
+    }
+
+    /**
+     * Returns a future completing once all given futures are done, regardless of their individual outcome
+     * (callers handle failures per future). Unlike {@link #awaitAll(Collection)} it does not block.
+     *
+     * @param futures the futures to wait for
+     * @return a future that never completes exceptionally
+     */
+    public static CompletableFuture<Void> allSettled(Collection<? extends CompletableFuture<?>> futures) {
+        return CompletableFuture.allOf(futures.toArray(new CompletableFuture<?>[0])).handle((ignored, error) -> null);
+    }
+
+    /**
+     * Bounds an analysis stage by the configured stage timeout. When the stage fails or does not complete in
+     * time, the returned future completes with the fallback instead; the stage itself is left running.
+     *
+     * @param stage    the stage to bound
+     * @param name     stage name used in the log
+     * @param fallback supplies the result used on timeout or failure
+     * @param <T>      the result type
+     * @return a future that never completes exceptionally
+     */
+    public static <T> CompletableFuture<T> withTimeout(CompletableFuture<T> stage, String name, Supplier<T> fallback) {
+        long timeout = Math.max(1, Integer.getInteger(STAGE_TIMEOUT_PROPERTY, DEFAULT_STAGE_TIMEOUT_MS));
+        return stage.copy().orTimeout(timeout, TimeUnit.MILLISECONDS).handle((result, error) -> {
+            if (error == null) return result;
+            Throwable cause = unwrap(error);
+            if (cause instanceof TimeoutException) {
+                LOGGER.warn("Analysis stage '" + name + "' timed out after " + timeout + " ms; using partial results");
+            } else {
+                LOGGER.debug("Analysis stage '" + name + "' failed; using partial results", cause);
+            }
+            return fallback.get();
+        });
+    }
+
+    /**
+     * Unwraps the {@link CompletionException} layer added by {@link CompletableFuture} composition.
+     *
+     * @param t a failure reported by a future of this client
+     * @return the original cause
+     */
+    public static Throwable unwrap(Throwable t) {
+        return (t instanceof CompletionException && t.getCause() != null) ? t.getCause() : t;
+    }
+
+    /** @return the gateway all requests are sent through */
+    public EvaluationGateway getGateway() {
+        return gateway;
+    }
+
+    /** @return the maximum number of requests in flight per frame accessor */
+    public int getMaxInFlight() {
+        return maxInFlight;
+    }
+
+    private void next(Lane lane) {
+        Runnable next;
+        synchronized (lane) {
+            next = lane.pending.pollFirst();
+            if (next == null) {
+                lane.inFlight--;
+            }
+        }
+        if (next != null) {
+            dispatch(next);
+        }
+    }
+
+    private void dispatch(Runnable task) {
+        try {
+            executor.execute(task);
+        } catch (RuntimeException rejected) {
+            // Executor shut down (IDE closing): run inline so that no future is left incomplete
+            task.run();
+        }
+    }
+}
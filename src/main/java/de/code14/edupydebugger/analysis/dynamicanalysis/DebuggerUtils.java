@@ -4,16 +4,13 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.xdebugger.XDebugSession;
 import com.intellij.xdebugger.frame.XExecutionStack;
 import com.intellij.xdebugger.frame.XStackFrame;
-import com.intellij.xdebugger.frame.XCompositeNode;
 import com.intellij.xdebugger.frame.XValueChildrenList;
-import com.intellij.xdebugger.frame.XDebuggerTreeNodeHyperlink;
-import com.intellij.ui.SimpleTextAttributes;
 import com.jetbrains.python.debugger.*;
 import org.jetbrains.annotations.NotNull;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 import java.util.concurrent.CopyOnWriteArrayList;
-import java.util.concurrent.CountDownLatch;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -27,6 +24,9 @@ public class DebuggerUtils {
 
     private static final int INITIAL_FRAME_INDEX = 1;
 
+    /** Time (ms) to wait for the children of one call stack frame before showing it as {@code name()}. */
+    private static final int FRAME_CHILDREN_TIMEOUT_MS = 250;
+
     /**
      * Retrieves a list of {@link PyThreadInfo} objects representing all threads managed by the given
      * PyCharm debug session.
@@ -53,18 +53,30 @@ public class DebuggerUtils {
      * @return a map of thread info objects to their respective lists of stack frames
      */
     public static Map<PyThreadInfo, List<PyStackFrame>> getStackFramesPerThread(XDebugSession debugSession) {
+        return getStackFramesPerThreadAsync(debugSession).join();
+    }
+
+    /**
+     * Retrieves stack frames for each suspended thread like {@link #getStackFramesPerThread(XDebugSession)}
+     * without blocking the calling thread. The frames of all threads are requested at once; the future
+     * completes once every thread delivered its last frame (or the stage timeout of
+     * {@link AsyncEvaluationClient} elapsed, in which case the frames received so far are used).
+     *
+     * @param debugSession the current debugging session
+     * @return the future map of thread info objects to their complete lists of stack frames
+     */
+    public static CompletableFuture<Map<PyThreadInfo, List<PyStackFrame>>> getStackFramesPerThreadAsync(XDebugSession debugSession) {
         PyDebugProcess debugProcess = (PyDebugProcess) debugSession.getDebugProcess();
         Collection<PyThreadInfo> threadInfos = debugProcess.getThreads();
 
-        Map<PyThreadInfo, List<PyStackFrame>> perThreadFrames = new HashMap<>();
+        Map<PyThreadInfo, CompletableFuture<List<PyStackFrame>>> perThreadFrames = new LinkedHashMap<>();
 
         // Iterate through each thread, extract its frames, and store them in the map
         for (PyThreadInfo threadInfo : threadInfos) {
             // Prüfen, ob der Thread suspended ist
             if (threadInfo.getState() == PyThreadInfo.State.SUSPENDED) {
                 PyExecutionStack executionStack = new PyExecutionStack(debugProcess, threadInfo);
-                List<PyStackFrame> stackFrames = extractStackFrames(executionStack);
-                perThreadFrames.put(threadInfo, stackFrames);
+                perThreadFrames.put(threadInfo, extractStackFrames(executionStack));
             } else if (threadInfo.getState() == PyThreadInfo.State.RUNNING) {
                 LOGGER.debug("Still running thread: " + threadInfo.getName()
                         + " (state=" + threadInfo.getState() + ")");
@@ -74,7 +86,11 @@ public class DebuggerUtils {
             }
         }
 
-        return perThreadFrames;
+        return AsyncEvaluationClient.allSettled(perThreadFrames.values()).thenApply(ignored -> {
+            Map<PyThreadInfo, List<PyStackFrame>> frames = new HashMap<>();
+            perThreadFrames.forEach((threadInfo, stackFrames) -> frames.put(threadInfo, stackFrames.join()));
+            return frames;
+        });
     }
 
     /**
@@ -82,10 +98,11 @@ public class DebuggerUtils {
      * This method starts with the top frame and asynchronously retrieves the remaining frames.
      *
      * @param executionStack the execution stack to extract frames from
-     * @return a list of {@link PyStackFrame} objects representing the stack frames in the execution stack
+     * @return the future list of {@link PyStackFrame} objects, complete once the debugger sent the last frame
      */
-    private static @NotNull List<PyStackFrame> extractStackFrames(PyExecutionStack executionStack) {
+    private static @NotNull CompletableFuture<List<PyStackFrame>> extractStackFrames(PyExecutionStack executionStack) {
         List<PyStackFrame> stackFrames = new CopyOnWriteArrayList<>();
+        CompletableFuture<List<PyStackFrame>> complete = new CompletableFuture<>();
 
         // Add the top stack frame (most recent frame), ensuring it's not null
         PyStackFrame topFrame = executionStack.getTopFrame();
@@ -102,12 +119,16 @@ public class DebuggerUtils {
                         stackFrames.add((PyStackFrame) frame);
                     }
                 }
+                if (last) {
+                    complete.complete(List.copyOf(stackFrames));
+                }
             }
 
             @Override
             public void errorOccurred(@NotNull String errorMessage) {
                 // Log the error or handle it appropriately
                 LOGGER.error("Error occurred while fetching stack frames: " + errorMessage);
+                complete.complete(List.copyOf(stackFrames));
             }
 
             @Override
@@ -117,7 +138,7 @@ public class DebuggerUtils {
             }
         });
 
-        return stackFrames;
+        return AsyncEvaluationClient.withTimeout(complete, "stack frames", () -> List.copyOf(stackFrames));
     }
 
     /**
@@ -125,156 +146,225 @@ public class DebuggerUtils {
      * Falls back to "name()" if argument inspection is not available.
      */
     public static List<String> formatCallstackFrames(List<PyStackFrame> frames) {
-        if (frames == null) return Collections.emptyList();
-        List<String> out = new ArrayList<>();
+        return formatCallstackFrames(frames, new EvaluationGateway());
+    }
+
+    /**
+     * Formats the call stack like {@link #formatCallstackFrames(List)}, sending all evaluations through the
+     * given gateway so that frame children and expressions already fetched during this pause are reused.
+     * Once the {@link ProbeModule} is installed, the parameters of a frame are fetched with one short helper call
+     * instead of the inline {@code inspect} expressions.
+     *
+     * @param frames  the frames of the selected thread, top frame first
+     * @param gateway the evaluation gateway of the current pause
+     * @return one formatted entry per frame
+     */
+    public static List<String> formatCallstackFrames(List<PyStackFrame> frames, EvaluationGateway gateway) {
+        return formatCallstackFrames(frames, AsyncEvaluationClient.create(gateway));
+    }
+
+    /**
+     * Formats the call stack like {@link #formatCallstackFrames(List, EvaluationGateway)}, sending the evaluations
+     * of every frame through the given client so that they count against its in-flight limit and its watchdog.
+     *
+     * @param frames the frames of the selected thread, top frame first
+     * @param client the evaluation client of the current pause
+     * @return one formatted entry per frame
+     */
+    public static List<String> formatCallstackFrames(List<PyStackFrame> frames, AsyncEvaluationClient client) {
+        return formatCallstackFramesAsync(frames, client).join();
+    }
+
+    /**
+     * Formats the call stack like {@link #formatCallstackFrames(List, AsyncEvaluationClient)} without blocking the
+     * calling thread. The children of all frames are requested at once; a frame whose children do not arrive
+     * within {@value #FRAME_CHILDREN_TIMEOUT_MS} ms, whose formatting exceeds the stage timeout of the client or
+     * whose evaluation fails is shown as {@code name()}.
+     *
+     * @param frames the frames of the selected thread, top frame first
+     * @param client the evaluation client of the current pause
+     * @return the future entries, one per frame; never completes exceptionally
+     */
+    public static CompletableFuture<List<String>> formatCallstackFramesAsync(List<PyStackFrame> frames, AsyncEvaluationClient client) {
+        if (frames == null) return CompletableFuture.completedFuture(Collections.emptyList());
+        EvaluationGateway gateway = client.getGateway();
+        List<CompletableFuture<String>> entries = new ArrayList<>();
         Map<String, Integer> nameOccurrence = new HashMap<>();
         for (int idx = 0; idx < frames.size(); idx++) {
             PyStackFrame f = frames.get(idx);
             String base = f.getName();
             if (base == null || base.isEmpty()) base = "<module>";
-            String[] holder = new String[]{base + "()"};
-            CountDownLatch latch = new CountDownLatch(1);
             final int depth = idx;
             final String baseName = base;
+            final String fallback = base + "()";
             final int occurrence = nameOccurrence.merge(base, 1, Integer::sum) - 1; // 0-based for this name
+            CompletableFuture<String> entry;
             try {
-                f.computeChildren(new XCompositeNode() {
-                    @Override
-                    public void addChildren(@NotNull XValueChildrenList children, boolean last) {
-                        try {
-                            if (children.size() > 0 && children.getValue(0) instanceof PyDebugValue) {
-                                PyDebugValue ctx = (PyDebugValue) children.getValue(0);
-                                // Build both depth-based and name-based expressions and prefer depth-based
-                                String safeName = baseName.replace("'", "\\'");
-                                String safeFileBase = "";
-                                try {
-                                    if (f.getSourcePosition() != null && f.getSourcePosition().getFile() != null) {
-                                        String fb = f.getSourcePosition().getFile().getName();
-                                        if (fb != null) safeFileBase = fb.replace("'", "\\'");
-                                    }
-                                } catch (Throwable ignore) {}
-                                // Only take real parameter names from the frame (args + *varargs + **kwargs);
-                                // do NOT merge general locals here to avoid showing non-parameters.
-                                String namesExprDepth = String.format(
-                                        "(lambda _sys,_ins,_n: (lambda _av: ','.join([a for a in (list(_av.args)+([] if _av.varargs is None else [_av.varargs])+([] if _av.keywords is None else [_av.keywords])) if a and not a.startswith('__') and not a.startswith('_pydev_') and not a.startswith('__py')]))(_ins.getargvalues(_sys._getframe(_n))))(__import__('sys'), __import__('inspect'), %d)",
-                                        depth);
-                                String namesExprByName = String.format(
-                                        "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else ','.join(__ins.getargvalues(__matches[%d].frame).args)))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s']))(__import__('inspect'))",
-                                        occurrence, occurrence, safeName);
-                                String namesExprByFile = safeFileBase.isEmpty() ? "" : String.format(
-                                        "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else ','.join(__ins.getargvalues(__matches[%d].frame).args)))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s' and getattr(fi,'filename','').endswith('%s')]))(__import__('inspect'))",
-                                        occurrence, occurrence, safeName, safeFileBase);
-                                String namesByCodeByName = String.format(
-                                        "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else (lambda __f,__c,__ac,__kc,__fl: "+
-                                                "','.join(list(__c.co_varnames[:__ac]) + "+
-                                                "([] if not (__fl & 4) else [__c.co_varnames[__ac+__kc]]) + "+
-                                                "([] if not (__fl & 8) else [__c.co_varnames[__ac+__kc + (1 if (__fl & 4) else 0)]]) + "+
-                                                "list(__c.co_varnames[__ac:__ac+__kc]) ))(__matches[%d].frame, __matches[%d].frame.f_code, __matches[%d].frame.f_code.co_argcount, __matches[%d].frame.f_code.co_kwonlyargcount, __matches[%d].frame.f_code.co_flags)))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s']))(__import__('inspect'))",
-                                        occurrence, occurrence, occurrence, occurrence, occurrence, occurrence, safeName);
-                                // No locals fallback here either; if name-based selection fails, we show name() only.
-                                if ("<module>".equals(baseName)) {
-                                    holder[0] = baseName + "()"; // avoid dumping module locals
-                                } else {
-                                    // Prefer file+name selection first (most precise), then depth, then name-only
-                                    String namesCsv = "";
-                                    if (!namesExprByFile.isEmpty()) {
-                                        try {
-                                            PyDebugValue nvf = ctx.getFrameAccessor().evaluate(namesExprByFile, false, true);
-                                            namesCsv = nvf != null && nvf.getValue() != null ? nvf.getValue() : "";
-                                        } catch (Throwable ignore) {}
-                                    }
-                                    if (namesCsv.isEmpty()) {
-                                        try {
-                                            PyDebugValue namesVal = ctx.getFrameAccessor().evaluate(namesExprDepth, false, true);
-                                            namesCsv = namesVal != null && namesVal.getValue() != null ? namesVal.getValue() : "";
-                                        } catch (Throwable ignore) {}
-                                    }
-                                    if (namesCsv.isEmpty()) {
-                                        try {
-                                            PyDebugValue nv = ctx.getFrameAccessor().evaluate(namesExprByName, false, true);
-                                            namesCsv = nv != null && nv.getValue() != null ? nv.getValue() : "";
-                                        } catch (Throwable ignore) {}
-                                    }
-                                    // Final fallback: derive names from code object layout
-                                    if (namesCsv.isEmpty()) {
-                                        try {
-                                            PyDebugValue nv2 = ctx.getFrameAccessor().evaluate(namesByCodeByName, false, true);
-                                            namesCsv = nv2 != null && nv2.getValue() != null ? nv2.getValue() : "";
-                                        } catch (Throwable ignore) {}
-                                    }
-                                    List<String> parts = new ArrayList<>();
-                                    if (!namesCsv.isEmpty()) {
-                                        // Deduplicate while preserving order
-                                        LinkedHashSet<String> ordered = new LinkedHashSet<>();
-                                        for (String s : namesCsv.split(",")) { String t = s.trim(); if (!t.isEmpty()) ordered.add(t); }
-                                        ordered.remove("_sys"); ordered.remove("_ins"); ordered.remove("_n");
-                                        String[] names = ordered.toArray(new String[0]);
-                                        int limit = Math.min(names.length, 12); // safeguard against pathological cases
-                                        for (int i = 0; i < limit; i++) {
-                                            String an = names[i].trim(); if (an.isEmpty()) continue;
-                                            if ("_sys".equals(an) || "_ins".equals(an) || "_n".equals(an)) continue;
-                                            String anEsc = an.replace("'", "\\'");
-                                            // Prefer depth-based value lookup; fallback to name-based frame if needed
-                                            String valExpr = String.format(
-                                                    "(lambda _sys,_ins,_n,_a: (lambda __av,__b: ((('refid:'+str(__b.id(__av.locals.get(_a, None))))) if (not isinstance(__av.locals.get(_a, None),(__b.int,__b.float,__b.str,__b.bool,__b.list,__b.dict,__b.tuple,__b.set))) else repr(__av.locals.get(_a, None))))(_ins.getargvalues(_sys._getframe(_n)), __import__('builtins')))(__import__('sys'), __import__('inspect'), %d, '%s')",
-                                                    depth, anEsc);
-                                            String valExprByName = String.format(
-                                                    "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else (lambda __av,__b: ((('refid:'+str(__b.id(__av.locals.get('%s', None))))) if (not isinstance(__av.locals.get('%s', None),(__b.int,__b.float,__b.str,__b.bool,__b.list,__b.dict,__b.tuple,__b.set))) else repr(__av.locals.get('%s', None))))(__ins.getargvalues(__matches[%d].frame), __import__('builtins'))))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s']))(__import__('inspect'))",
-                                                    occurrence, anEsc, anEsc, anEsc, occurrence, safeName);
-                                            String valExprByFile = safeFileBase.isEmpty() ? "" : String.format(
-                                                    "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else (lambda __av,__b: ((('refid:'+str(__b.id(__av.locals.get('%s', None))))) if (not isinstance(__av.locals.get('%s', None),(__b.int,__b.float,__b.str,__b.bool,__b.list,__b.dict,__b.tuple,__b.set))) else repr(__av.locals.get('%s', None))))(__ins.getargvalues(__matches[%d].frame), __import__('builtins'))))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s' and getattr(fi,'filename','').endswith('%s')]))(__import__('inspect'))",
-                                                    occurrence, anEsc, anEsc, anEsc, occurrence, safeName, safeFileBase);
-                                            try {
-                                                String vv = "";
-                                                if (!valExprByFile.isEmpty()) {
-                                                    PyDebugValue rvf = ctx.getFrameAccessor().evaluate(valExprByFile, false, true);
-                                                    vv = rvf != null && rvf.getValue() != null ? rvf.getValue() : "";
-                                                }
-                                                if (vv.isEmpty()) {
-                                                    PyDebugValue rv = ctx.getFrameAccessor().evaluate(valExpr, false, true);
-                                                    vv = rv != null && rv.getValue() != null ? rv.getValue() : vv;
-                                                }
-                                                if (vv.isEmpty()) {
-                                                    PyDebugValue rv2 = ctx.getFrameAccessor().evaluate(valExprByName, false, true);
-                                                    vv = rv2 != null && rv2.getValue() != null ? rv2.getValue() : vv;
-                                                }
-                                                if (vv.length() > 120) vv = vv.substring(0, 120) + " …";
-                                                parts.add(an + "=" + vv);
-                                            } catch (Throwable te) {
-                                                parts.add(an + "=");
-                                            }
-                                        }
-                                    }
-                                    String args = String.join(", ", parts);
-                                    if (args.length() > 200) args = args.substring(0, 200) + " …";
-                                    holder[0] = baseName + "(" + args + ")";
+                CompletableFuture<PyDebugValue> context = gateway.computeChildrenAsync(f)
+                        .thenApply(chunks -> {
+                            for (XValueChildrenList children : chunks) {
+                                if (children.size() > 0 && children.getValue(0) instanceof PyDebugValue ctx) {
+                                    return ctx;
                                 }
                             }
-                        } catch (Exception e) {
-                            LOGGER.debug("formatCallstackFrames: evaluation failed, falling back", e);
-                        } finally {
-                            if (last) latch.countDown();
-                        }
-                    }
-
-                    @Override public void tooManyChildren(int remaining) {}
-                    @Override public void tooManyChildren(int remaining, @NotNull Runnable addNextChildren) {}
-                    @Override public void setAlreadySorted(boolean alreadySorted) {}
-                    @Override public void setErrorMessage(@NotNull String errorMessage) { if (latch.getCount() > 0) latch.countDown(); }
-                    @Override public void setErrorMessage(@NotNull String errorMessage, @org.jetbrains.annotations.Nullable XDebuggerTreeNodeHyperlink link) { if (latch.getCount() > 0) latch.countDown(); }
-                    @Override public void setMessage(@NotNull String message, @org.jetbrains.annotations.Nullable javax.swing.Icon icon, @NotNull SimpleTextAttributes attributes, @org.jetbrains.annotations.Nullable XDebuggerTreeNodeHyperlink link) {}
-                });
-                // Wait a little longer to reliably receive children in real sessions
-                // (still bounded to keep tests fast when mocks don't call back)
-                latch.await(250, TimeUnit.MILLISECONDS);
-            } catch (InterruptedException ie) {
-                Thread.currentThread().interrupt();
+                            return (PyDebugValue) null;
+                        })
+                        // Bounded to keep tests fast when mocks don't call back
+                        .completeOnTimeout(null, FRAME_CHILDREN_TIMEOUT_MS, TimeUnit.MILLISECONDS);
+                entry = context
+                        .thenCompose(ctx -> ctx == null ? CompletableFuture.completedFuture(fallback)
+                                // The probe call and the inline lookups block: run them in the lane of the frame
+                                : AsyncEvaluationClient.withTimeout(client.submit(ctx.getFrameAccessor(),
+                                        () -> formatFrame(f, ctx, depth, baseName, occurrence, gateway)),
+                                        "call stack entry " + baseName, () -> fallback))
+                        .exceptionally(t -> {
+                            LOGGER.debug("formatCallstackFrames: evaluation failed, falling back", t);
+                            return fallback;
+                        });
             } catch (Throwable t) {
                 LOGGER.debug("formatCallstackFrames: computeChildren failed, falling back", t);
+                entry = CompletableFuture.completedFuture(fallback);
+            }
+            entries.add(entry);
+        }
+        return CompletableFuture.allOf(entries.toArray(new CompletableFuture<?>[0]))
+                .thenApply(ignored -> entries.stream().map(CompletableFuture::join).toList());
+    }
+
+    /**
+     * Formats one call stack entry like "func(a=1, b='x')".
+     *
+     * @param f          the frame
+     * @param ctx        a value of the frame providing the frame accessor
+     * @param depth      position of the frame in the call stack, top frame = 0
+     * @param baseName   function name of the frame
+     * @param occurrence 0-based occurrence of the function name in the call stack
+     * @param gateway    the evaluation gateway of the current pause
+     * @return the formatted entry
+     */
+    private static String formatFrame(PyStackFrame f, PyDebugValue ctx, int depth, String baseName, int occurrence,
+                                      EvaluationGateway gateway) {
+        String holder = baseName + "()";
+        // Build both depth-based and name-based expressions and prefer depth-based
+        String safeName = baseName.replace("'", "\\'");
+        String fileBase = "";
+        try {
+            if (f.getSourcePosition() != null && f.getSourcePosition().getFile() != null) {
+                String fb = f.getSourcePosition().getFile().getName();
+                if (fb != null) fileBase = fb;
+            }
+        } catch (Throwable ignore) {}
+        String safeFileBase = fileBase.replace("'", "\\'");
+        // Only take real parameter names from the frame (args + *varargs + **kwargs);
+        // do NOT merge general locals here to avoid showing non-parameters.
+        String namesExprDepth = String.format(
+                "(lambda _sys,_ins,_n: (lambda _av: ','.join([a for a in (list(_av.args)+([] if _av.varargs is None else [_av.varargs])+([] if _av.keywords is None else [_av.keywords])) if a and not a.startswith('__') and not a.startswith('_pydev_') and not a.startswith('__py')]))(_ins.getargvalues(_sys._getframe(_n))))(__import__('sys'), __import__('inspect'), %d)",
+                depth);
+        String namesExprByName = String.format(
+                "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else ','.join(__ins.getargvalues(__matches[%d].frame).args)))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s']))(__import__('inspect'))",
+                occurrence, occurrence, safeName);
+        String namesExprByFile = safeFileBase.isEmpty() ? "" : String.format(
+                "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else ','.join(__ins.getargvalues(__matches[%d].frame).args)))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s' and getattr(fi,'filename','').endswith('%s')]))(__import__('inspect'))",
+                occurrence, occurrence, safeName, safeFileBase);
+        String namesByCodeByName = String.format(
+                "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else (lambda __f,__c,__ac,__kc,__fl: "+
+                        "','.join(list(__c.co_varnames[:__ac]) + "+
+                        "([] if not (__fl & 4) else [__c.co_varnames[__ac+__kc]]) + "+
+                        "([] if not (__fl & 8) else [__c.co_varnames[__ac+__kc + (1 if (__fl & 4) else 0)]]) + "+
+                        "list(__c.co_varnames[__ac:__ac+__kc]) ))(__matches[%d].frame, __matches[%d].frame.f_code, __matches[%d].frame.f_code.co_argcount, __matches[%d].frame.f_code.co_kwonlyargcount, __matches[%d].frame.f_code.co_flags)))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s']))(__import__('inspect'))",
+                occurrence, occurrence, occurrence, occurrence, occurrence, occurrence, safeName);
+        // No locals fallback here either; if name-based selection fails, we show name() only.
+        List<String[]> probed = "<module>".equals(baseName) ? null
+                : gateway.getProbeModule().frameArguments(ctx.getFrameAccessor(), baseName, fileBase, occurrence);
+        if ("<module>".equals(baseName)) {
+            holder = baseName + "()"; // avoid dumping module locals
+        } else if (probed != null) {
+            // The helper module located the frame and answered all parameters in one call
+            List<String> parts = new ArrayList<>();
+            for (int i = 0; i < Math.min(probed.size(), 12); i++) {
+                String vv = probed.get(i)[1];
+                if (vv.length() > 120) vv = vv.substring(0, 120) + " …";
+                parts.add(probed.get(i)[0] + "=" + vv);
+            }
+            String args = String.join(", ", parts);
+            if (args.length() > 200) args = args.substring(0, 200) + " …";
+            holder = baseName + "(" + args + ")";
+        } else {
+            // Prefer file+name selection first (most precise), then depth, then name-only
+            String namesCsv = "";
+            if (!namesExprByFile.isEmpty()) {
+                try {
+                    PyDebugValue nvf = gateway.evaluate(ctx.getFrameAccessor(), namesExprByFile);
+                    namesCsv = nvf != null && nvf.getValue() != null ? nvf.getValue() : "";
+                } catch (Throwable ignore) {}
+            }
+            if (namesCsv.isEmpty()) {
+                try {
+                    PyDebugValue namesVal = gateway.evaluate(ctx.getFrameAccessor(), namesExprDepth);
+                    namesCsv = namesVal != null && namesVal.getValue() != null ? namesVal.getValue() : "";
+                } catch (Throwable ignore) {}
+            }
+            if (namesCsv.isEmpty()) {
+                try {
+                    PyDebugValue nv = gateway.evaluate(ctx.getFrameAccessor(), namesExprByName);
+                    namesCsv = nv != null && nv.getValue() != null ? nv.getValue() : "";
+                } catch (Throwable ignore) {}
+            }
+            // Final fallback: derive names from code object layout
+            if (namesCsv.isEmpty()) {
+                try {
+                    PyDebugValue nv2 = gateway.evaluate(ctx.getFrameAccessor(), namesByCodeByName);
+                    namesCsv = nv2 != null && nv2.getValue() != null ? nv2.getValue() : "";
+                } catch (Throwable ignore) {}
+            }
+            List<String> parts = new ArrayList<>();
+            if (!namesCsv.isEmpty()) {
+                // Deduplicate while preserving order
+                LinkedHashSet<String> ordered = new LinkedHashSet<>();
+                for (String s : namesCsv.split(",")) { String t = s.trim(); if (!t.isEmpty()) ordered.add(t); }
+                ordered.remove("_sys"); ordered.remove("_ins"); ordered.remove("_n");
+                String[] names = ordered.toArray(new String[0]);
+                int limit = Math.min(names.length, 12); // safeguard against pathological cases
+                for (int i = 0; i < limit; i++) {
+                    String an = names[i].trim(); if (an.isEmpty()) continue;
+                    if ("_sys".equals(an) || "_ins".equals(an) || "_n".equals(an)) continue;
+                    String anEsc = an.replace("'", "\\'");
+                    // Prefer depth-based value lookup; fallback to name-based frame if needed
+                    String valExpr = String.format(
+                            "(lambda _sys,_ins,_n,_a: (lambda __av,__b: ((('refid:'+str(__b.id(__av.locals.get(_a, None))))) if (not isinstance(__av.locals.get(_a, None),(__b.int,__b.float,__b.str,__b.bool,__b.list,__b.dict,__b.tuple,__b.set))) else repr(__av.locals.get(_a, None))))(_ins.getargvalues(_sys._getframe(_n)), __import__('builtins')))(__import__('sys'), __import__('inspect'), %d, '%s')",
+                            depth, anEsc);
+                    String valExprByName = String.format(
+                            "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else (lambda __av,__b: ((('refid:'+str(__b.id(__av.locals.get('%s', None))))) if (not isinstance(__av.locals.get('%s', None),(__b.int,__b.float,__b.str,__b.bool,__b.list,__b.dict,__b.tuple,__b.set))) else repr(__av.locals.get('%s', None))))(__ins.getargvalues(__matches[%d].frame), __import__('builtins'))))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s']))(__import__('inspect'))",
+                            occurrence, anEsc, anEsc, anEsc, occurrence, safeName);
+                    String valExprByFile = safeFileBase.isEmpty() ? "" : String.format(
+                            "(lambda __ins: (lambda __matches: ('' if len(__matches)<=%d else (lambda __av,__b: ((('refid:'+str(__b.id(__av.locals.get('%s', None))))) if (not isinstance(__av.locals.get('%s', None),(__b.int,__b.float,__b.str,__b.bool,__b.list,__b.dict,__b.tuple,__b.set))) else repr(__av.locals.get('%s', None))))(__ins.getargvalues(__matches[%d].frame), __import__('builtins'))))([fi for fi in __ins.stack() if getattr(fi,'function','')=='%s' and getattr(fi,'filename','').endswith('%s')]))(__import__('inspect'))",
+                            occurrence, anEsc, anEsc, anEsc, occurrence, safeName, safeFileBase);
+                    try {
+                        String vv = "";
+                        if (!valExprByFile.isEmpty()) {
+                            PyDebugValue rvf = gateway.evaluate(ctx.getFrameAccessor(), valExprByFile);
+                            vv = rvf != null && rvf.getValue() != null ? rvf.getValue() : "";
+                        }
+                        if (vv.isEmpty()) {
+                            PyDebugValue rv = gateway.evaluate(ctx.getFrameAccessor(), valExpr);
+                            vv = rv != null && rv.getValue() != null ? rv.getValue() : vv;
+                        }
+                        if (vv.isEmpty()) {
+                            PyDebugValue rv2 = gateway.evaluate(ctx.getFrameAccessor(), valExprByName);
+                            vv = rv2 != null && rv2.getValue() != null ? rv2.getValue() : vv;
+                        }
+                        if (vv.length() > 120) vv = vv.substring(0, 120) + " …";
+                        parts.add(an + "=" + vv);
+                    } catch (Throwable te) {
+                        parts.add(an + "=");
+                    }
+                }
             }
-            out.add(holder[0]);
+            String args = String.join(", ", parts);
+            if (args.length() > 200) args = args.substring(0, 200) + " …";
+            holder = baseName + "(" + args + ")";
         }
-        return out;
+        return holder;
     }
 
 }
@@ -0,0 +1,585 @@
+package de.code14.edupydebugger.analysis.dynamicanalysis;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.ui.SimpleTextAttributes;
+import com.intellij.xdebugger.frame.XCompositeNode;
+import com.intellij.xdebugger.frame.XDebuggerTreeNodeHyperlink;
+import com.intellij.xdebugger.frame.XValueChildrenList;
+import com.jetbrains.python.debugger.PyDebugValue;
+import com.jetbrains.python.debugger.PyDebuggerException;
+import com.jetbrains.python.debugger.PyFrameAccessor;
+import com.jetbrains.python.debugger.PyStackFrame;
+import org.jetbrains.annotations.NotNull;
+import org.jetbrains.annotations.Nullable;
+
+import javax.swing.*;
+import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Single entry point for all debugger round trips of one pause (a "generation").
+ * <p>
+ * {@link VariableAnalyzer}, {@link ObjectAnalyzer} and {@link DebuggerUtils#formatCallstackFrames(List, EvaluationGateway)}
+ * evaluate many identical expressions against the same suspended process. The gateway:
+ * <ul>
+ *   <li>memoizes {@code evaluate} results per frame accessor, stack frame and expression until {@link #invalidate()}
+ *       and lets concurrent callers of the same expression share one request,</li>
+ *   <li>evaluates expressions meant for a frame other than the session's current one in that frame (see
+ *       {@link #frameExpression(String, String)}),</li>
+ *   <li>shares object ids between {@code id(x)} and {@code __builtins__.id(x)},</li>
+ *   <li>records and replays {@code computeChildren} results per stack frame,</li>
+ *   <li>enforces a per-generation budget of real round trips (system property {@value #BUDGET_PROPERTY}),</li>
+ *   <li>counts requests and round trips per expression kind (see {@link #kindOf(String)}),</li>
+ *   <li>owns the {@link ProbeModule} whose answers are stored via {@link #remember(PyFrameAccessor, String, PyDebugValue)}.</li>
+ * </ul>
+ * Results are only valid while the debuggee stays suspended; the owner must call {@link #invalidate()} on resume.
+ * <p>
+ * pydevd evaluates every expression in the session's current frame, which the owner reports through
+ * {@link #setCurrentFrameId(String)}. Expressions for another frame, a caller or a frame of another thread, are
+ * identified by the pydevd frame id ({@link PyStackFrame#getFrameId()}, the Python {@code id()} of the frame object)
+ * and wrapped into a lookup of that frame, so the same name bound in two frames never shares a result.
+ */
+public class EvaluationGateway {
+
+    private static final Logger LOGGER = Logger.getInstance(EvaluationGateway.class);
+
+    /** System property overriding the maximum number of round trips per generation. */
+    public static final String BUDGET_PROPERTY = "edupy.eval.budget";
+
+    /** Default maximum number of round trips per generation. */
+    public static final int DEFAULT_BUDGET = 5000;
+
+    /** Message prefix of the exception thrown once the budget is exhausted. */
+    public static final String BUDGET_EXHAUSTED_MESSAGE = "Evaluation budget exhausted";
+
+    /** Message prefix of failures of evaluations the watchdog of {@link AsyncEvaluationClient} gave up on. */
+    public static final String ABANDONED_MESSAGE = "Evaluation abandoned";
+
+    private static final Pattern ID_EXPRESSION = Pattern.compile("^(?:__builtins__\\.)?id\\((.+)\\)$");
+
+    /** pydevd frame ids are the {@code id()} of the Python frame object; other ids cannot be looked up. */
+    private static final Pattern FRAME_ID = Pattern.compile("\\d+");
+
+    /**
+     * Memo key; the accessor is compared by identity since it stands for one debug process. The frame is the id of
+     * the frame the expression was evaluated in, {@code null} only while the current frame is unknown.
+     */
+    private record Key(PyFrameAccessor accessor, @Nullable String frameId, String expression, boolean trimmed) {
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Key k && k.accessor == accessor && k.trimmed == trimmed
+                    && Objects.equals(k.frameId, frameId) && k.expression.equals(expression);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * (31 * System.identityHashCode(accessor) + Objects.hashCode(frameId)) + expression.hashCode()
+                    + (trimmed ? 1 : 0);
+        }
+    }
+
+    /**
+     * Request and round-trip counters of one expression kind.
+     *
+     * @param requests   evaluations requested by the analyzers
+     * @param roundTrips evaluations actually sent to the debugger
+     */
+    public record KindStats(long requests, long roundTrips) {
+        public long saved() {
+            return requests - roundTrips;
+        }
+    }
+
+    private final int budget;
+
+    private final Map<Key, PyDebugValue> results = new ConcurrentHashMap<>();
+    private final Map<Key, PyDebugValue> ids = new ConcurrentHashMap<>();
+    private final Map<Key, CompletableFuture<PyDebugValue>> inFlight = new ConcurrentHashMap<>();
+    private final Map<PyStackFrame, List<XValueChildrenList>> children =
+            Collections.synchronizedMap(new IdentityHashMap<>());
+
+    private final Map<String, AtomicLong> requests = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> roundTrips = new ConcurrentHashMap<>();
+    private final AtomicLong generationRoundTrips = new AtomicLong();
+    private final AtomicBoolean budgetWarned = new AtomicBoolean();
+    private final AtomicLong generation = new AtomicLong();
+    private volatile @Nullable String currentFrameId;
+
+    private final ProbeModule probeModule = new ProbeModule(this);
+
+    /**
+     * Creates a gateway with the budget from {@value #BUDGET_PROPERTY} (default {@value #DEFAULT_BUDGET}).
+     */
+    public EvaluationGateway() {
+        this(Integer.getInteger(BUDGET_PROPERTY, DEFAULT_BUDGET));
+    }
+
+    /**
+     * Creates a gateway with an explicit budget.
+     *
+     * @param budget maximum number of round trips per generation; values {@code <= 0} disable the limit
+     */
+    public EvaluationGateway(int budget) {
+        this.budget = budget;
+    }
+
+    /**
+     * Evaluates an expression in the current frame of the given accessor, or returns the memoized result.
+     * Results flagged as evaluation errors are memoized as well because they are deterministic while paused;
+     * thrown {@link PyDebuggerException}s (e.g. "Process is running") are not.
+     *
+     * @param accessor   the frame accessor (usually the {@code PyDebugProcess})
+     * @param expression the Python expression
+     * @return the debugger value
+     * @throws PyDebuggerException if the debugger fails or the budget is exhausted
+     */
+    public PyDebugValue evaluate(PyFrameAccessor accessor, String expression) throws PyDebuggerException {
+        return evaluate(accessor, expression, true);
+    }
+
+    /**
+     * Evaluates an expression like {@link #evaluate(PyFrameAccessor, String)}, optionally asking the debugger not to
+     * trim long values (needed for the JSON answers of the {@link ProbeModule}). Trimmed and untrimmed results are
+     * memoized separately.
+     *
+     * @param accessor    the frame accessor (usually the {@code PyDebugProcess})
+     * @param expression  the Python expression
+     * @param trimResult  whether the debugger may trim long values
+     * @return the debugger value
+     * @throws PyDebuggerException if the debugger fails or the budget is exhausted
+     */
+    public PyDebugValue evaluate(PyFrameAccessor accessor, String expression, boolean trimResult) throws PyDebuggerException {
+        return evaluate(accessor, null, expression, trimResult);
+    }
+
+    /**
+     * Evaluates an expression like {@link #evaluate(PyFrameAccessor, String, boolean)} in the given stack frame. Unless
+     * it is the current frame, the expression is sent wrapped by {@link #frameExpression(String, String)}; ids that
+     * are no pydevd frame ids (custom frames) fall back to the current frame. Results are memoized per frame.
+     *
+     * @param accessor    the frame accessor (usually the {@code PyDebugProcess})
+     * @param frameId     the pydevd id of the frame, or {@code null} for the current frame
+     * @param expression  the Python expression
+     * @param trimResult  whether the debugger may trim long values
+     * @return the debugger value
+     * @throws PyDebuggerException if the debugger fails or the budget is exhausted
+     */
+    public PyDebugValue evaluate(PyFrameAccessor accessor, @Nullable String frameId, String expression, boolean trimResult)
+            throws PyDebuggerException {
+        String kind = kindOf(expression);
+        counter(requests, kind).incrementAndGet();
+
+        Key key = key(accessor, frameId, expression, trimResult);
+        PyDebugValue cached = results.get(key);
+        if (cached != null) return cached;
+
+        Key idKey = idKey(key);
+        if (idKey != null) {
+            PyDebugValue sharedId = ids.get(idKey);
+            if (sharedId != null) return sharedId;
+        }
+
+        // Concurrent callers asking for the same expression wait for the request already in flight
+        CompletableFuture<PyDebugValue> own = new CompletableFuture<>();
+        CompletableFuture<PyDebugValue> pending = inFlight.putIfAbsent(key, own);
+        if (pending != null) {
+            return awaitPending(pending);
+        }
+        try {
+            // A request for the same expression may have finished between the lookup above and putIfAbsent
+            PyDebugValue finished = results.get(key);
+            if (finished == null && idKey != null) finished = ids.get(idKey);
+            if (finished != null) {
+                own.complete(finished);
+                return finished;
+            }
+            spend(kind, expression);
+            PyDebugValue value = accessor.evaluate(isTargeted(frameId) ? frameExpression(frameId, expression) : expression,
+                    false, trimResult);
+            if (value != null) {
+                results.put(key, value);
+                if (idKey != null && !value.isErrorOnEval() && isNumeric(value.getValue())) {
+                    ids.putIfAbsent(idKey, value);
+                }
+            }
+            own.complete(value);
+            return value;
+        } catch (PyDebuggerException | RuntimeException e) {
+            own.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, own);
+        }
+    }
+
+    /**
+     * Stores a result obtained by other means (a {@link ProbeModule} answer) as if {@code expression} had been
+     * evaluated in this generation. Existing results are kept; nothing is counted.
+     *
+     * @param accessor   the frame accessor the result belongs to
+     * @param expression the (trimmed) expression the result answers
+     * @param value      the result
+     */
+    public void remember(PyFrameAccessor accessor, String expression, PyDebugValue value) {
+        remember(accessor, expression, value, true);
+    }
+
+    /**
+     * Stores a result like {@link #remember(PyFrameAccessor, String, PyDebugValue)} for a trimmed or an untrimmed
+     * evaluation of {@code expression}.
+     *
+     * @param accessor   the frame accessor the result belongs to
+     * @param expression the expression the result answers
+     * @param value      the result
+     * @param trimResult whether the result answers the trimmed evaluation
+     */
+    public void remember(PyFrameAccessor accessor, String expression, PyDebugValue value, boolean trimResult) {
+        remember(accessor, null, expression, value, trimResult);
+    }
+
+    /**
+     * Stores a result like {@link #remember(PyFrameAccessor, String, PyDebugValue, boolean)} for an evaluation in the
+     * given stack frame.
+     *
+     * @param accessor   the frame accessor the result belongs to
+     * @param frameId    the pydevd id of the frame, or {@code null} for the current frame
+     * @param expression the expression the result answers
+     * @param value      the result
+     * @param trimResult whether the result answers the trimmed evaluation
+     */
+    public void remember(PyFrameAccessor accessor, @Nullable String frameId, String expression, PyDebugValue value,
+                         boolean trimResult) {
+        Key key = key(accessor, frameId, expression, trimResult);
+        results.putIfAbsent(key, value);
+        Key idKey = idKey(key);
+        if (idKey != null && !value.isErrorOnEval() && isNumeric(value.getValue())) {
+            ids.putIfAbsent(idKey, value);
+        }
+    }
+
+    /**
+     * Marks an expression whose evaluation did not return within the hard limit: until {@link #invalidate()} it is
+     * answered with a {@code TimeoutError} placeholder instead of being sent again, and callers waiting for the
+     * request in flight are released. Should the debugger still answer, the real result replaces the placeholder.
+     *
+     * @param accessor   the frame accessor
+     * @param frameId    the pydevd id of the frame, or {@code null} for the current frame
+     * @param expression the abandoned expression
+     * @param trimResult whether the abandoned evaluation was trimmed
+     */
+    public void abandon(PyFrameAccessor accessor, @Nullable String frameId, String expression, boolean trimResult) {
+        Key key = key(accessor, frameId, expression, trimResult);
+        results.putIfAbsent(key, new PyDebugValue(expression, "TimeoutError", null, ProbeModule.TIMED_OUT, false, null,
+                false, false, true, null, accessor));
+        CompletableFuture<PyDebugValue> pending = inFlight.get(key);
+        if (pending != null) {
+            pending.completeExceptionally(new PyDebuggerException(ABANDONED_MESSAGE + ": " + expression));
+        }
+    }
+
+    /**
+     * Sets the session's current stack frame, the one pydevd evaluates plain expressions in. Results memoized while
+     * the current frame was unknown are dropped; results of known frames stay valid for the whole pause.
+     *
+     * @param frameId the pydevd id of the current frame, or {@code null} if unknown
+     */
+    public void setCurrentFrameId(@Nullable String frameId) {
+        if (Objects.equals(currentFrameId, frameId)) return;
+        currentFrameId = frameId;
+        results.keySet().removeIf(key -> key.frameId() == null);
+        ids.keySet().removeIf(key -> key.frameId() == null);
+    }
+
+    /** @return the pydevd id of the session's current frame, {@code null} if unknown */
+    public @Nullable String getCurrentFrameId() {
+        return currentFrameId;
+    }
+
+    /**
+     * Wraps an expression so that it is evaluated in the frame with the given pydevd id, whichever thread it belongs
+     * to, the way pydevd evaluates in the current frame: with the frame's globals updated by its locals as globals
+     * and its locals as locals. The frame is found among the stacks of all threads ({@code sys._current_frames()}).
+     * The wrapped expression raises {@code StopIteration} if the frame no longer exists.
+     *
+     * @param frameId    the pydevd id of the frame
+     * @param expression the Python expression
+     * @return the wrapped expression
+     */
+    public static String frameExpression(String frameId, String expression) {
+        return "(lambda __b: (lambda __f: __b.eval(" + ProbeModule.pyString(expression)
+                + ", {**__f.f_globals, **__f.f_locals}, __f.f_locals))(__b.next(__f"
+                + " for __t in __import__('sys')._current_frames().values()"
+                + " for __f, _ in __import__('traceback').walk_stack(__t) if __b.id(__f) == " + frameId + ")))"
+                + "(__import__('builtins'))";
+    }
+
+    /** @return the debuggee-side helper module used with this gateway */
+    public ProbeModule getProbeModule() {
+        return probeModule;
+    }
+
+    /**
+     * Computes the children (locals) of a stack frame once per generation and replays them to later callers.
+     * Only complete results are cached; errors are forwarded and the next caller asks again.
+     *
+     * @param frame the stack frame
+     * @param node  the node receiving the children
+     */
+    public void computeChildren(PyStackFrame frame, XCompositeNode node) {
+        counter(requests, "children").incrementAndGet();
+        List<XValueChildrenList> cached = children.get(frame);
+        if (cached != null) {
+            for (int i = 0; i < cached.size(); i++) {
+                node.addChildren(cached.get(i), i == cached.size() - 1);
+            }
+            return;
+        }
+
+        try {
+            spend("children", "computeChildren(" + frame.getFrameId() + ")");
+        } catch (PyDebuggerException e) {
+            node.setErrorMessage(e.getMessage());
+            return;
+        }
+        long startGeneration = generation.get();
+        List<XValueChildrenList> received = new ArrayList<>();
+        frame.computeChildren(new XCompositeNode() {
+            @Override
+            public void addChildren(@NotNull XValueChildrenList list, boolean last) {
+                received.add(list);
+                if (last && generation.get() == startGeneration) {
+                    children.put(frame, new ArrayList<>(received));
+                }
+                node.addChildren(list, last);
+            }
+
+            @Override
+            public void tooManyChildren(int remaining) {
+                node.tooManyChildren(remaining);
+            }
+
+            @Override
+            public void tooManyChildren(int remaining, @NotNull Runnable addNextChildren) {
+                node.tooManyChildren(remaining, addNextChildren);
+            }
+
+            @Override
+            public void setAlreadySorted(boolean alreadySorted) {
+                node.setAlreadySorted(alreadySorted);
+            }
+
+            @Override
+            public void setErrorMessage(@NotNull String errorMessage) {
+                node.setErrorMessage(errorMessage);
+            }
+
+            @Override
+            public void setErrorMessage(@NotNull String errorMessage, @Nullable XDebuggerTreeNodeHyperlink link) {
+                node.setErrorMessage(errorMessage, link);
+            }
+
+            @Override
+            public void setMessage(@NotNull String message, @Nullable Icon icon, @NotNull SimpleTextAttributes attributes, @Nullable XDebuggerTreeNodeHyperlink link) {
+                node.setMessage(message, icon, attributes, link);
+            }
+        });
+    }
+
+    /**
+     * Fetches the children of a stack frame like {@link #computeChildren(PyStackFrame, XCompositeNode)} and
+     * completes once the last chunk has arrived, instead of making the caller wait on a latch.
+     *
+     * @param frame the stack frame
+     * @return the future chunks in arrival order; completes exceptionally with a {@link PyDebuggerException}
+     *         when the debugger reports an error
+     */
+    public CompletableFuture<List<XValueChildrenList>> computeChildrenAsync(PyStackFrame frame) {
+        CompletableFuture<List<XValueChildrenList>> future = new CompletableFuture<>();
+        List<XValueChildrenList> received = Collections.synchronizedList(new ArrayList<>());
+        computeChildren(frame, new XCompositeNode() {
+            @Override
+            public void addChildren(@NotNull XValueChildrenList list, boolean last) {
+                received.add(list);
+                if (last) {
+                    future.complete(new ArrayList<>(received));
+                }
+            }
+
+            @Override
+            public void tooManyChildren(int remaining) {
+                // No further chunk follows unless requested; work with what arrived
+                future.complete(new ArrayList<>(received));
+            }
+
+            @Override
+            public void tooManyChildren(int remaining, @NotNull Runnable addNextChildren) {
+                tooManyChildren(remaining);
+            }
+
+            @Override
+            public void setAlreadySorted(boolean alreadySorted) {}
+
+            @Override
+            public void setErrorMessage(@NotNull String errorMessage) {
+                future.completeExceptionally(new PyDebuggerException(errorMessage));
+            }
+
+            @Override
+            public void setErrorMessage(@NotNull String errorMessage, @Nullable XDebuggerTreeNodeHyperlink link) {
+                future.completeExceptionally(new PyDebuggerException(errorMessage));
+            }
+
+            @Override
+            public void setMessage(@NotNull String message, @Nullable Icon icon, @NotNull SimpleTextAttributes attributes, @Nullable XDebuggerTreeNodeHyperlink link) {}
+        });
+        return future;
+    }
+
+    /**
+     * Drops all memoized results and starts a new generation. Counters are kept so that a session summary
+     * can be logged; use {@link #resetStats()} to clear them.
+     */
+    public void invalidate() {
+        generation.incrementAndGet();
+        results.clear();
+        ids.clear();
+        children.clear();
+        generationRoundTrips.set(0);
+        budgetWarned.set(false);
+    }
+
+    /** Clears the request and round-trip counters. */
+    public void resetStats() {
+        requests.clear();
+        roundTrips.clear();
+    }
+
+    /** @return the number of the current generation, incremented by every {@link #invalidate()} */
+    public long getGeneration() {
+        return generation.get();
+    }
+
+    /** @return the number of round trips sent in the current generation */
+    public long getGenerationRoundTrips() {
+        return generationRoundTrips.get();
+    }
+
+    /** @return the configured budget per generation ({@code <= 0} means unlimited) */
+    public int getBudget() {
+        return budget;
+    }
+
+    /**
+     * Returns a snapshot of the counters per expression kind, sorted by kind.
+     *
+     * @return kind → requests and round trips
+     */
+    public Map<String, KindStats> getStats() {
+        Map<String, KindStats> out = new TreeMap<>();
+        for (Map.Entry<String, AtomicLong> e : requests.entrySet()) {
+            AtomicLong trips = roundTrips.get(e.getKey());
+            out.put(e.getKey(), new KindStats(e.getValue().get(), trips == null ? 0 : trips.get()));
+        }
+        return out;
+    }
+
+    /**
+     * Formats the counters as a single log line, e.g. {@code id=12/5 dir=3/3}.
+     *
+     * @return requests/round trips per kind
+     */
+    public String formatStats() {
+        StringJoiner joiner = new StringJoiner(" ");
+        getStats().forEach((kind, s) -> joiner.add(kind + "=" + s.requests() + "/" + s.roundTrips()));
+        return joiner.toString();
+    }
+
+    /**
+     * Classifies an expression for the counters.
+     *
+     * @param expression the Python expression
+     * @return one of {@code probe|callstack|id|repr|len|page|dir|isinstance|static|scope|globals|attribute|other}
+     */
+    public static String kindOf(String expression) {
+        String e = expression.trim();
+        if (e.startsWith(ProbeModule.MODULE_NAME + ".") || e.endsWith("ModuleType('" + ProbeModule.MODULE_NAME + "'))")) return "probe";
+        if (e.contains("__ins.stack()") || e.contains("_sys._getframe(_n)")) return "callstack";
+        if (e.startsWith("id(") || e.startsWith("__builtins__.id(")) return "id";
+        if (e.startsWith("repr(")) return "repr";
+        if (e.startsWith("len(")) return "len";
+        if (e.contains("__import__('itertools').islice(")) return "page";
+        if (e.startsWith("dir(")) return "dir";
+        if (e.startsWith("isinstance(")) return "isinstance";
+        if (e.contains(".__class__.__dict__.get(")) return "static";
+        if (e.startsWith("locals().get(") || (e.startsWith("globals().get(") && e.endsWith("is not None"))) return "scope";
+        if (e.contains("globals()")) return "globals";
+        if (e.contains(".")) return "attribute";
+        return "other";
+    }
+
+    /**
+     * Returns {@code true} for exceptions that are expected while analyzing (process resumed, budget exhausted,
+     * evaluation abandoned by the watchdog, which reports it itself) and therefore should not be logged as warnings.
+     *
+     * @param e the exception thrown by {@link #evaluate(PyFrameAccessor, String)}
+     * @return whether the exception is benign
+     */
+    public static boolean isBenign(PyDebuggerException e) {
+        String msg = e.getMessage();
+        return msg != null && (msg.contains("Process is running") || msg.startsWith(BUDGET_EXHAUSTED_MESSAGE)
+                || msg.startsWith(ABANDONED_MESSAGE));
+    }
+
+    private void spend(String kind, String what) throws PyDebuggerException {
+        long used = generationRoundTrips.incrementAndGet();
+        if (budget > 0 && used > budget) {
+            generationRoundTrips.decrementAndGet();
+            if (budgetWarned.compareAndSet(false, true)) {
+                LOGGER.warn(BUDGET_EXHAUSTED_MESSAGE + " (" + budget + " round trips); skipping further evaluations until resume");
+            }
+            throw new PyDebuggerException(BUDGET_EXHAUSTED_MESSAGE + ": " + what);
+        }
+        counter(roundTrips, kind).incrementAndGet();
+    }
+
+    private static PyDebugValue awaitPending(CompletableFuture<PyDebugValue> pending) throws PyDebuggerException {
+        try {
+            return pending.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof PyDebuggerException pe) throw pe;
+            if (e.getCause() instanceof RuntimeException re) throw re;
+            throw e;
+        }
+    }
+
+    private Key key(PyFrameAccessor accessor, @Nullable String frameId, String expression, boolean trimResult) {
+        return new Key(accessor, frameId != null ? frameId : currentFrameId, expression, trimResult);
+    }
+
+    private boolean isTargeted(@Nullable String frameId) {
+        return frameId != null && !frameId.equals(currentFrameId) && FRAME_ID.matcher(frameId).matches();
+    }
+
+    private static @Nullable Key idKey(Key key) {
+        Matcher m = ID_EXPRESSION.matcher(key.expression().trim());
+        return m.matches() ? new Key(key.accessor(), key.frameId(), "id:" + m.group(1).trim(), true) : null;
+    }
+
+    private static boolean isNumeric(@Nullable String s) {
+        if (s == null || s.isEmpty()) return false;
+        for (int i = 0; i < s.length(); i++) {
+            if (!Character.isDigit(s.charAt(i))) return false;
+        }
+        return true;
+    }
+
+    private static AtomicLong counter(Map<String, AtomicLong> map, String kind) {
+        return map.computeIfAbsent(kind, k -> new AtomicLong());
+    }
+}
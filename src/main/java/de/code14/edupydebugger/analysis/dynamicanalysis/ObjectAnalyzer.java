@@ -1,31 +1,41 @@
 package de.code14.edupydebugger.analysis.dynamicanalysis;
 
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.ui.SimpleTextAttributes;
-import com.intellij.xdebugger.frame.XCompositeNode;
-import com.intellij.xdebugger.frame.XDebuggerTreeNodeHyperlink;
 import com.intellij.xdebugger.frame.XValueChildrenList;
 import com.jetbrains.python.debugger.PyDebugValue;
 import com.jetbrains.python.debugger.PyDebuggerException;
 import com.jetbrains.python.debugger.PyStackFrame;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
-import javax.swing.*;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The ObjectAnalyzer class is responsible for analyzing objects within Python stack frames.
  * It collects information about objects, such as their attributes and references to other objects,
  * and stores this information in a map for further use.
+ * <p>
+ * By default only the eager frames are analyzed: the top frame(s) (system property
+ * {@value #EAGER_FRAMES_PROPERTY}, default {@value #DEFAULT_EAGER_FRAMES}) and the module frame, whose
+ * globals the variables table always shows. The remaining caller frames are analyzed on demand through
+ * {@link #analyzeObjects(Collection)}.
+ * <p>
+ * Every frame is probed in itself: the evaluations carry the frame's id, so that the {@link EvaluationGateway}
+ * evaluates them in that frame even if it is not the session's current one, and a name bound in two frames
+ * yields the objects of each.
  */
 public class ObjectAnalyzer {
 
     private static final Logger LOGGER = Logger.getInstance(ObjectAnalyzer.class);
 
-    private static final String ID_EXPRESSION_FORMAT = "id(%s)";
-    private static final String DIR_EXPRESSION_FORMAT = "dir(%s)";
+    /** System property overriding the number of top frames analyzed eagerly; values {@code <= 0} analyze all frames. */
+    public static final String EAGER_FRAMES_PROPERTY = "edupy.objects.eagerFrames";
+
+    /** Default number of top frames analyzed eagerly. */
+    public static final int DEFAULT_EAGER_FRAMES = 1;
+
+    static final String ID_EXPRESSION_FORMAT = "id(%s)";
+    static final String DIR_EXPRESSION_FORMAT = "dir(%s)";
     private static final String UNKNOWN_VALUE = "unknown";
     private static final String PRIVATE_PREFIX = "__";
     private static final String PROTECTED_PREFIX = "_";
@@ -57,123 +67,270 @@ public class ObjectAnalyzer {
     // List of Python stack frames to be analyzed.
     private final List<PyStackFrame> pyStackFrames;
 
+    // Client through which all debugger round trips of the current pause are sent (memoized, pipelined).
+    private final AsyncEvaluationClient client;
+
     /**
      * Constructor for ObjectAnalyzer.
      *
      * @param pyStackFrames a list of Python stack frames to analyze
      */
     public ObjectAnalyzer(List<PyStackFrame> pyStackFrames) {
+        this(pyStackFrames, new EvaluationGateway());
+    }
+
+    /**
+     * Constructor for ObjectAnalyzer sharing an evaluation gateway with other analyzers of the same pause.
+     *
+     * @param pyStackFrames a list of Python stack frames to analyze
+     * @param gateway the evaluation gateway of the current pause
+     */
+    public ObjectAnalyzer(List<PyStackFrame> pyStackFrames, EvaluationGateway gateway) {
+        this(pyStackFrames, AsyncEvaluationClient.create(gateway));
+    }
+
+    /**
+     * Constructor for ObjectAnalyzer issuing independent probes concurrently through the given client.
+     *
+     * @param pyStackFrames a list of Python stack frames to analyze
+     * @param client the evaluation client of the current pause
+     */
+    public ObjectAnalyzer(List<PyStackFrame> pyStackFrames, AsyncEvaluationClient client) {
         this.pyStackFrames = pyStackFrames;
+        this.client = client;
     }
 
     /**
-     * Analyzes the objects in the stack frames.
-     * This method iterates through the provided stack frames, collecting information about objects and their attributes.
+     * Analyzes the objects in the eager stack frames (see {@link #getEagerFrameIndices()}).
+     * This method iterates through these stack frames, collecting information about objects and their attributes.
      */
     public void analyzeObjects() {
-        objects.clear();
-        CountDownLatch latch = new CountDownLatch(this.pyStackFrames.size());
+        analyzeObjects(getEagerFrameIndices());
+    }
+
+    /**
+     * Analyzes the objects in the given stack frames only, replacing previously collected objects.
+     *
+     * @param frameIndices indices into the analyzed stack frames, top frame = 0; invalid indices are ignored
+     */
+    public void analyzeObjects(Collection<Integer> frameIndices) {
+        analyzeObjectsAsync(frameIndices).join();
+    }
+
+    /**
+     * Analyzes the objects in the given stack frames without blocking the calling thread. The children of all
+     * frames are requested at once; the frames are then processed one after the other, top frame first. The
+     * returned future completes once {@link #getObjects()} holds the result (partial results after the stage
+     * timeout of {@link AsyncEvaluationClient}); it never completes exceptionally.
+     *
+     * @param frameIndices indices into the analyzed stack frames, top frame = 0; invalid indices are ignored
+     * @return the future collected objects
+     */
+    public CompletableFuture<Map<String, ObjectInfo>> analyzeObjectsAsync(Collection<Integer> frameIndices) {
+        Map<String, ObjectInfo> collected = new ConcurrentHashMap<>();
+        List<CompletableFuture<List<XValueChildrenList>>> children = new ArrayList<>();
+        List<PyStackFrame> frames = new ArrayList<>();
+        for (int index : new TreeSet<>(frameIndices)) {
+            if (index >= 0 && index < this.pyStackFrames.size()) {
+                PyStackFrame frame = this.pyStackFrames.get(index);
+                frames.add(frame);
+                children.add(client.getGateway().computeChildrenAsync(frame));
+            }
+        }
 
-        for (PyStackFrame frame : this.pyStackFrames) {
-            collectObjects(frame, latch);
+        CompletableFuture<Void> stage = CompletableFuture.completedFuture(null);
+        for (int i = 0; i < frames.size(); i++) {
+            PyStackFrame frame = frames.get(i);
+            CompletableFuture<List<XValueChildrenList>> frameChildren = children.get(i);
+            stage = stage.thenCompose(ignored -> collectObjects(frame, frameChildren, collected));
         }
 
-        try {
-            latch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
+        return AsyncEvaluationClient.withTimeout(stage.thenApply(ignored -> collected), "objects",
+                        () -> new HashMap<>(collected))
+                .thenApply(result -> {
+                    objects.clear();
+                    objects.putAll(result);
+                    return objects;
+                });
+    }
+
+    /**
+     * Returns the indices of the frames analyzed by {@link #analyzeObjects()}: the top frame(s) and the module
+     * (bottom) frame.
+     *
+     * @return ascending frame indices
+     */
+    public List<Integer> getEagerFrameIndices() {
+        int size = this.pyStackFrames.size();
+        int eager = Integer.getInteger(EAGER_FRAMES_PROPERTY, DEFAULT_EAGER_FRAMES);
+        SortedSet<Integer> indices = new TreeSet<>();
+        for (int i = 0; i < size && (eager <= 0 || i < eager); i++) {
+            indices.add(i);
         }
+        if (size > 0) indices.add(size - 1);
+        return new ArrayList<>(indices);
     }
 
     /**
-     * Collects objects from a specific stack frame and stores them in the objects map.
+     * Returns the indices of the frames skipped by {@link #analyzeObjects()}, to be analyzed on demand.
      *
-     * @param pyStackFrame the Python stack frame to analyze
-     * @param latch a CountDownLatch to synchronize the completion of object collection
+     * @return ascending frame indices, top-most first
      */
-    private void collectObjects(PyStackFrame pyStackFrame, CountDownLatch latch) {
-        pyStackFrame.computeChildren(new XCompositeNode() {
-            @Override
-            public void addChildren(@NotNull XValueChildrenList children, boolean last) {
-                LOGGER.debug("Collecting objects for PyStackFrame: " + pyStackFrame.getFrameId());
+    public List<Integer> getDeferredFrameIndices() {
+        List<Integer> eager = getEagerFrameIndices();
+        List<Integer> deferred = new ArrayList<>();
+        for (int i = 0; i < this.pyStackFrames.size(); i++) {
+            if (!eager.contains(i)) deferred.add(i);
+        }
+        return deferred;
+    }
 
+    /**
+     * Collects objects from a specific stack frame and stores them in the given map.
+     *
+     * @param pyStackFrame the Python stack frame to analyze
+     * @param frameChildren the future children of the frame
+     * @param collected the map receiving the objects
+     * @return a future completing once all objects reachable from the frame are gathered
+     */
+    private CompletableFuture<Void> collectObjects(PyStackFrame pyStackFrame,
+                                                   CompletableFuture<List<XValueChildrenList>> frameChildren,
+                                                   Map<String, ObjectInfo> collected) {
+        return frameChildren.thenCompose(chunks -> {
+            LOGGER.debug("Collecting objects for PyStackFrame: " + pyStackFrame.getFrameId());
+
+            List<PyDebugValue> values = new ArrayList<>();
+            for (XValueChildrenList children : chunks) {
                 for (int i = 0; i < children.size(); i++) {
-                    PyDebugValue value = (PyDebugValue) children.getValue(i);
-                    String id = determinePythonId(value, value.getName());
-
-                    if (isUserDefinedInstance(value)) {
-                        gatherAttributeInformation(value, id);
-                    }
-                }
-
-                if (last) {
-                    latch.countDown();
-                    LOGGER.debug("Latch decremented, remaining count: " + latch.getCount());
+                    values.add((PyDebugValue) children.getValue(i));
                 }
             }
-
-            @Override
-            public void tooManyChildren(int remaining) {}
-
-            @Override
-            public void tooManyChildren(int remaining, @NotNull Runnable addNextChildren) {
-                XCompositeNode.super.tooManyChildren(remaining, addNextChildren);
+            if (values.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
             }
-
-            @Override
-            public void setAlreadySorted(boolean alreadySorted) {}
-
-            @Override
-            public void setErrorMessage(@NotNull String errorMessage) {}
-
-            @Override
-            public void setErrorMessage(@NotNull String errorMessage, @Nullable XDebuggerTreeNodeHyperlink link) {}
-
-            @Override
-            public void setMessage(@NotNull String message, @Nullable Icon icon, @NotNull SimpleTextAttributes attributes, @Nullable XDebuggerTreeNodeHyperlink link) {}
+            PyDebugValue first = values.get(0);
+            String frameId = pyStackFrame.getFrameId();
+            // Usually already answered for the VariableAnalyzer; serves the id and instance checks below
+            return client.submit(first.getFrameAccessor(),
+                            () -> client.getGateway().getProbeModule().prefetchVariables(first.getFrameAccessor(), frameId))
+                    .exceptionally(error -> false)
+                    .thenCompose(ignored -> {
+                        // Ids and instance checks of all values are requested concurrently
+                        List<CompletableFuture<String>> ids = new ArrayList<>();
+                        List<CompletableFuture<Boolean>> userDefined = new ArrayList<>();
+                        for (PyDebugValue value : values) {
+                            ids.add(determinePythonIdAsync(value, frameId, value.getName()));
+                            userDefined.add(isUserDefinedInstanceAsync(value, frameId));
+                        }
+                        List<CompletableFuture<?>> probes = new ArrayList<>(ids);
+                        probes.addAll(userDefined);
+                        return AsyncEvaluationClient.allSettled(probes).thenCompose(settled -> {
+                            // Objects are gathered depth-first in frame order
+                            CompletableFuture<Void> chain = CompletableFuture.completedFuture(null);
+                            for (int i = 0; i < values.size(); i++) {
+                                if (userDefined.get(i).join()) {
+                                    PyDebugValue value = values.get(i);
+                                    String id = ids.get(i).join();
+                                    chain = chain.thenCompose(done -> gatherAttributeInformation(value, frameId, id, collected));
+                                }
+                            }
+                            return chain;
+                        });
+                    });
+        }).exceptionally(error -> {
+            LOGGER.debug("Objects of PyStackFrame " + pyStackFrame.getFrameId() + " unavailable", error);
+            return null;
         });
     }
 
     /**
-     * Gathers attribute information for a given object and stores it in the objects map.
+     * Gathers attribute information for a given object and stores it in the given map.
      * It also handles references to other objects.
+     * <p>
+     * The attribute values are requested as one concurrent batch, followed by one batch for the static checks
+     * and the ids of referenced objects; referenced objects are then gathered recursively, one after the other.
      *
      * @param value the Python debug value representing the object
+     * @param frameId the id of the stack frame the object is named in
      * @param pyObjId the ID of the Python object
+     * @param collected the map receiving the objects
+     * @return a future completing once the object and all objects it references are gathered
      */
-    private void gatherAttributeInformation(PyDebugValue value, String pyObjId) {
-        // Evaluate dir() to get all attributes of the object
-        String attributesListStr = evaluateExpression(value, String.format(DIR_EXPRESSION_FORMAT, value.getName()));
-        String[] attributeNames = parseAttributeNames(attributesListStr);
-
-        List<AttributeInfo> attributes = new ArrayList<>();
-        List<String> references = new ArrayList<>();
-
-        references.add(value.getName() + ":" + value.getType());
-
-        for (String attrName : attributeNames) {
-            attrName = attrName.trim().replace("'", ""); // Clean attribute name
-            // Skip dunder attributes and a small deny‑list of typical thread/sync internals
-            if (attrName.endsWith("__") || INTERNAL_ATTR_NAMES.contains(attrName)) {
-                continue; // Skip attributes and methods ending with double underscore or that are from ABC module
-            }
+    private CompletableFuture<Void> gatherAttributeInformation(PyDebugValue value, String frameId, String pyObjId,
+                                                               Map<String, ObjectInfo> collected) {
+        // One helper call answers dir(), the attribute values and the static/id probes below from the gateway memo
+        return client.submit(value.getFrameAccessor(),
+                        () -> client.getGateway().getProbeModule().prefetchObject(value.getFrameAccessor(), frameId,
+                                value.getName()))
+                .exceptionally(error -> false)
+                // Evaluate dir() to get all attributes of the object
+                .thenCompose(ignored -> evaluateExpressionAsync(value, frameId,
+                        String.format(DIR_EXPRESSION_FORMAT, value.getName())))
+                .thenCompose(attributesListStr -> {
+                    List<String> names = new ArrayList<>();
+                    List<CompletableFuture<PyDebugValue>> attrValues = new ArrayList<>();
+                    for (String attrName : parseAttributeNames(attributesListStr)) {
+                        attrName = attrName.trim().replace("'", ""); // Clean attribute name
+                        // Skip dunder attributes and a small deny‑list of typical thread/sync internals
+                        if (attrName.endsWith("__") || INTERNAL_ATTR_NAMES.contains(attrName)) {
+                            continue; // Skip attributes and methods ending with double underscore or that are from ABC module
+                        }
+                        names.add(attrName);
+                        attrValues.add(evaluateExpressionValueAsync(value, frameId, value.getName() + "." + attrName));
+                    }
+                    return AsyncEvaluationClient.allSettled(attrValues)
+                            .thenCompose(settled -> gatherAttributes(value, frameId, pyObjId, names, attrValues, collected));
+                });
+    }
 
-            PyDebugValue attrValue = evaluateExpressionValue(value, value.getName() + "." + attrName);
+    /**
+     * Second half of {@link #gatherAttributeInformation(PyDebugValue, String, String, Map)}, once the attribute
+     * values have arrived.
+     */
+    private CompletableFuture<Void> gatherAttributes(PyDebugValue value, String frameId, String pyObjId, List<String> names,
+                                                     List<CompletableFuture<PyDebugValue>> attrValues,
+                                                     Map<String, ObjectInfo> collected) {
+        List<String> keptNames = new ArrayList<>();
+        List<PyDebugValue> keptValues = new ArrayList<>();
+        List<CompletableFuture<String>> visibilities = new ArrayList<>();
+        List<CompletableFuture<String>> referenceIds = new ArrayList<>();
+        for (int i = 0; i < names.size(); i++) {
+            String attrName = names.get(i);
+            PyDebugValue attrValue = attrValues.get(i).join();
             if (attrValue == null || isMethod(Objects.requireNonNull(attrValue.getType()))) {
                 continue;
             }
+            keptNames.add(attrName);
+            keptValues.add(attrValue);
+            visibilities.add(determineVisibilityAsync(value, frameId, attrName));
+            referenceIds.add(isReference(attrValue)
+                    ? determinePythonIdAsync(value, frameId, value.getName() + "." + attrName)
+                    : CompletableFuture.completedFuture(null));
+        }
+        List<CompletableFuture<String>> probes = new ArrayList<>(visibilities);
+        probes.addAll(referenceIds);
 
-            String attrValueStr = determineAttributeValue(value, attrName, attrValue);
-            String visibility = determineVisibility(value, attrName);
+        List<AttributeInfo> attributes = new ArrayList<>();
+        List<String> references = new ArrayList<>();
+        references.add(value.getName() + ":" + value.getType());
 
-            attributes.add(new AttributeInfo(getOriginalAttributeName(value, attrName), attrValue.getType(), attrValueStr, visibility));
+        CompletableFuture<Void> chain = AsyncEvaluationClient.allSettled(probes);
+        for (int i = 0; i < keptNames.size(); i++) {
+            String attrName = keptNames.get(i);
+            PyDebugValue attrValue = keptValues.get(i);
+            CompletableFuture<String> referenceId = referenceIds.get(i);
+            CompletableFuture<String> visibility = visibilities.get(i);
+            chain = chain.thenCompose(ignored -> determineAttributeValue(attrName, attrValue, frameId, referenceId, collected))
+                    .thenAccept(attrValueStr -> attributes.add(new AttributeInfo(
+                            getOriginalAttributeName(value, attrName), attrValue.getType(), attrValueStr, visibility.join())));
         }
 
-        if (objects.containsKey(pyObjId)) {
-            objects.get(pyObjId).references().add(value.getName() + ":" + value.getType());
-        } else {
-            objects.put(pyObjId, new ObjectInfo(references, attributes));
-        }
+        return chain.thenRun(() -> {
+            ObjectInfo known = collected.putIfAbsent(pyObjId, new ObjectInfo(references, attributes));
+            if (known != null) {
+                known.references().add(value.getName() + ":" + value.getType());
+            }
+        });
     }
 
     /**
@@ -206,43 +363,61 @@ public class ObjectAnalyzer {
      * it attempts to retrieve the ID via `__builtins__.id()`.
      *
      * @param value the Python debug value representing the object
+     * @param frameId the id of the stack frame the object is named in
      * @param valueName the name of the Python object as a string
-     * @return the ID of the Python object as a string, or an empty string if an error occurs
+     * @return the future ID of the Python object as a string, or an empty string if an error occurs
      */
-    private String determinePythonId(PyDebugValue value, String valueName) {
-        String id = evaluateExpression(value, String.format(ID_EXPRESSION_FORMAT, valueName));
-
-        // In case some objects/variables are overwriting inbuilt attributes/methods
-        if (id.contains("not callable")) {
-            id = evaluateExpression(value, String.format("__builtins__.id(%s)", valueName));
-        }
+    private CompletableFuture<String> determinePythonIdAsync(PyDebugValue value, String frameId, String valueName) {
+        return evaluateExpressionAsync(value, frameId, String.format(ID_EXPRESSION_FORMAT, valueName)).thenCompose(id -> {
+            // In case some objects/variables are overwriting inbuilt attributes/methods
+            if (id.contains("not callable")) {
+                return evaluateExpressionAsync(value, frameId, String.format("__builtins__.id(%s)", valueName));
+            }
+            return CompletableFuture.completedFuture(id);
+        });
+    }
 
-        return id;
+    /**
+     * Checks whether an attribute value refers to another object (as opposed to a primitive value).
+     *
+     * @param attrValue the Python debug value representing the attribute's value
+     * @return true if the value is an object reference
+     */
+    private boolean isReference(PyDebugValue attrValue) {
+        return Objects.requireNonNull(attrValue.getValue()).contains("object");
     }
 
     /**
      * Determines the value of an attribute, including handling references to other objects.
      *
-     * @param value the Python debug value representing the object
      * @param attrName the name of the attribute
      * @param attrValue the Python debug value representing the attribute's value
-     * @return the attribute value as a string
+     * @param frameId the id of the stack frame the attribute's owner is named in
+     * @param referenceId the (completed) future ID of the referenced object; yields {@code null} for plain values
+     * @param collected the map receiving referenced objects
+     * @return the future attribute value as a string, once a referenced object has been gathered
      */
-    private String determineAttributeValue(PyDebugValue value, String attrName, PyDebugValue attrValue) {
-        if (Objects.requireNonNull(attrValue.getValue()).contains("object")) {
-            // Get the ID of the referenced object
-            try {
-                String id = determinePythonId(value, value.getName() + "." + attrName);
-                if (!Objects.requireNonNull(attrValue.getType()).contains("_abc_data")) {
-                    gatherAttributeInformation(attrValue, id);
+    private CompletableFuture<String> determineAttributeValue(String attrName, PyDebugValue attrValue, String frameId,
+                                                              CompletableFuture<String> referenceId,
+                                                              Map<String, ObjectInfo> collected) {
+        if (!isReference(attrValue)) {
+            return CompletableFuture.completedFuture(attrValue.getValue());
+        }
+        // Get the ID of the referenced object
+        try {
+            String id = referenceId.join();
+            CompletableFuture<Void> referenced = Objects.requireNonNull(attrValue.getType()).contains("_abc_data")
+                    ? CompletableFuture.completedFuture(null)
+                    : gatherAttributeInformation(attrValue, frameId, id, collected);
+            return referenced.handle((ignored, error) -> {
+                if (error != null) {
+                    LOGGER.error("Error gathering referenced object: " + attrName, error);
                 }
                 return "refid:" + id;
-            } catch (Exception e) {
-                LOGGER.error("Error getting ID for referenced object: " + attrName, e);
-                return UNKNOWN_VALUE;
-            }
-        } else {
-            return attrValue.getValue();
+            });
+        } catch (Exception e) {
+            LOGGER.error("Error getting ID for referenced object: " + attrName, e);
+            return CompletableFuture.completedFuture(UNKNOWN_VALUE);
         }
     }
 
@@ -260,88 +435,89 @@ public class ObjectAnalyzer {
      * Determines the visibility of an attribute or method based on its name.
      *
      * @param value the Python debug value representing the object
+     * @param frameId the id of the stack frame the object is named in
      * @param attributeName the name of the attribute or method
-     * @return "private", "protected", or "public" based on the attribute's name
+     * @return the future "private", "protected", "static" or "public" based on the attribute's name
      */
-    private String determineVisibility(PyDebugValue value, String attributeName) {
+    private CompletableFuture<String> determineVisibilityAsync(PyDebugValue value, String frameId, String attributeName) {
         if (attributeName.startsWith(PRIVATE_PREFIX) && !attributeName.endsWith(PRIVATE_PREFIX)) {
-            return "private";
+            return CompletableFuture.completedFuture("private");
         } else if (attributeName.startsWith(PROTECTED_PREFIX)) {
-            return "protected";
-        } else if (isStaticAttribute(value, attributeName)) {
-            return STATIC_KEYWORD;
-        } else {
-            return "public";
+            return CompletableFuture.completedFuture("protected");
         }
+        return isStaticAttributeAsync(value, frameId, attributeName)
+                .thenApply(isStatic -> isStatic ? STATIC_KEYWORD : "public");
     }
 
     /**
      * Determines if an attribute is static.
      *
      * @param value the Python debug value representing the object
+     * @param frameId the id of the stack frame the object is named in
      * @param attrName the name of the attribute
-     * @return true if the attribute is static, false otherwise
+     * @return the future result; true if the attribute is static, false otherwise
      */
-    private boolean isStaticAttribute(PyDebugValue value, String attrName) {
-        try {
-            String isClassVar = evaluateExpression(value, value.getName() + ".__class__.__dict__.get('" + attrName + "', None) is not None");
-            return Boolean.parseBoolean(isClassVar);
-        } catch (Exception e) {
-            LOGGER.error("Error determining if attribute is static: " + attrName, e);
-            return false;
-        }
+    private CompletableFuture<Boolean> isStaticAttributeAsync(PyDebugValue value, String frameId, String attrName) {
+        return evaluateExpressionAsync(value, frameId, staticAttributeExpression(value.getName(), attrName))
+                .thenApply(Boolean::parseBoolean);
     }
 
     /**
      * Checks if the given value is a user-defined instance, excluding built-in types.
      *
      * @param value the Python debug value representing the object
-     * @return true if the value is a user-defined instance, false otherwise
+     * @param frameId the id of the stack frame the object is named in
+     * @return the future result; true if the value is a user-defined instance, false otherwise
      */
-    private boolean isUserDefinedInstance(PyDebugValue value) {
-        String isInstance = evaluateExpression(value, "isinstance(" + value.getName() + ", object) and not isinstance(" + value.getName() + ", (int, float, str, bool, list, dict, tuple, set))");
-        return Boolean.parseBoolean(isInstance);
+    private CompletableFuture<Boolean> isUserDefinedInstanceAsync(PyDebugValue value, String frameId) {
+        return evaluateExpressionAsync(value, frameId, userInstanceExpression(value.getName()))
+                .thenApply(Boolean::parseBoolean);
+    }
+
+    /** @return the probe checking whether {@code attrName} is defined on the class of {@code objectName} */
+    static String staticAttributeExpression(String objectName, String attrName) {
+        return objectName + ".__class__.__dict__.get('" + attrName + "', None) is not None";
+    }
+
+    /** @return the probe checking whether {@code name} is an instance of a non-builtin type */
+    static String userInstanceExpression(String name) {
+        return "isinstance(" + name + ", object) and not isinstance(" + name + ", (int, float, str, bool, list, dict, tuple, set))";
     }
 
     /**
-     * Evaluates a Python expression in the context of the stack frame and returns the result as a PyDebugValue.
+     * Schedules the evaluation of a Python expression in the context of the stack frame.
      *
      * @param value the Python debug value representing the object
+     * @param frameId the id of the stack frame to evaluate in
      * @param expression the Python expression to evaluate
-     * @return the result of the expression as a PyDebugValue, or null if an error occurs
+     * @return the future result of the expression as a PyDebugValue; yields null if an error occurs
      */
-    private PyDebugValue evaluateExpressionValue(PyDebugValue value, String expression) {
-        try {
-            return value.getFrameAccessor().evaluate(expression, false, true);
-        } catch (PyDebuggerException e) {
-            // Reduce noise when the process resumed between calls
-            if (e.getMessage() != null && e.getMessage().contains("Process is running")) {
-                LOGGER.debug("Skip evaluation while running: " + expression);
-                return null;
+    private CompletableFuture<PyDebugValue> evaluateExpressionValueAsync(PyDebugValue value, String frameId,
+                                                                         String expression) {
+        return client.evaluate(value.getFrameAccessor(), frameId, expression, true).handle((result, error) -> {
+            if (error == null) return result;
+            Throwable cause = AsyncEvaluationClient.unwrap(error);
+            // Reduce noise when the process resumed between calls or the budget is exhausted
+            if (cause instanceof PyDebuggerException e && EvaluationGateway.isBenign(e)) {
+                LOGGER.debug("Skip evaluation: " + expression);
+            } else {
+                LOGGER.warn("Error evaluating expression: " + expression, cause);
             }
-            LOGGER.warn("Error evaluating expression: " + expression, e);
             return null;
-        }
+        });
     }
 
     /**
-     * Evaluates a Python expression in the context of the stack frame.
+     * Schedules the evaluation of a Python expression in the context of the stack frame.
      *
      * @param value the Python debug value representing the object
+     * @param frameId the id of the stack frame to evaluate in
      * @param expression the Python expression to evaluate
-     * @return the result of the expression as a string, or an empty string if an error occurs
+     * @return the future result of the expression as a string; empty if an error occurs
      */
-    private String evaluateExpression(PyDebugValue value, String expression) {
-        try {
-            return value.getFrameAccessor().evaluate(expression, false, true).getValue();
-        } catch (PyDebuggerException e) {
-            if (e.getMessage() != null && e.getMessage().contains("Process is running")) {
-                LOGGER.debug("Skip evaluation while running: " + expression);
-                return "";
-            }
-            LOGGER.warn("Error evaluating expression: " + expression, e);
-            return "";
-        }
+    private CompletableFuture<String> evaluateExpressionAsync(PyDebugValue value, String frameId, String expression) {
+        return evaluateExpressionValueAsync(value, frameId, expression)
+                .thenApply(result -> result == null || result.getValue() == null ? "" : result.getValue());
     }
 
     /**
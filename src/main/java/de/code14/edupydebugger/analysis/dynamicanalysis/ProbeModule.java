@@ -0,0 +1,347 @@
+package de.code14.edupydebugger.analysis.dynamicanalysis;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
+import com.intellij.openapi.diagnostic.Logger;
+import com.jetbrains.python.debugger.PyDebugValue;
+import com.jetbrains.python.debugger.PyDebuggerException;
+import com.jetbrains.python.debugger.PyFrameAccessor;
+import org.jetbrains.annotations.Nullable;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.*;
+
+/**
+ * Debuggee-side helper module {@value #MODULE_NAME} (resource {@value #RESOURCE}).
+ * <p>
+ * The module is installed once per debug process on the first pause that needs it. Afterwards one short call
+ * such as {@code __edupy_probe.variables(locals(), globals())} answers, as JSON, what the analyzers would
+ * otherwise request as dozens of separate expressions, and {@code __edupy_probe.frame(...)} replaces the long
+ * {@code inspect} lambdas of {@link DebuggerUtils#formatCallstackFrames(List, EvaluationGateway)}.
+ * <p>
+ * The analyzers keep sending their usual expressions: {@link #prefetchVariables(PyFrameAccessor)} and
+ * {@link #prefetchObject(PyFrameAccessor, String)} store the answers in the {@link EvaluationGateway} under
+ * exactly those expressions, so the analyzers are served from the memo and anything the module did not answer
+ * still goes to the debugger. Calls for a frame other than the current one are evaluated in that frame and their
+ * answers stored under its id (see {@link EvaluationGateway#frameExpression(String, String)}). If installation
+ * fails (old interpreter, restricted builtins) everything falls back to the inline expressions. The system property
+ * {@value #ENABLED_PROPERTY}{@code =false} disables the module.
+ * <p>
+ * User code the module reaches ({@code __repr__}, properties, {@code __getattr__}) runs under a deadline
+ * enforced inside the debuggee by a trace function: one value may take {@value #ITEM_BUDGET_PROPERTY} ms
+ * (default {@value #DEFAULT_ITEM_BUDGET_MS}), one call {@value #CALL_BUDGET_PROPERTY} ms (default
+ * {@value #DEFAULT_CALL_BUDGET_MS}). Values over budget are answered as {@value #TIMED_OUT} and the call
+ * returns its partial results. Code that cannot be traced (long-running builtins) is left to the watchdog of
+ * {@link AsyncEvaluationClient}.
+ */
+public class ProbeModule {
+
+    private static final Logger LOGGER = Logger.getInstance(ProbeModule.class);
+
+    /** Name under which the module is registered in {@code sys.modules} and {@code builtins}. */
+    public static final String MODULE_NAME = "__edupy_probe";
+
+    /** Protocol version; must match {@code VERSION} in the Python module. */
+    public static final int VERSION = 4;
+
+    /** System property to disable the helper module ({@code true} by default). */
+    public static final String ENABLED_PROPERTY = "edupy.probe.enabled";
+
+    /** System property overriding the time budget (ms) of a single value computed by user code. */
+    public static final String ITEM_BUDGET_PROPERTY = "edupy.probe.itemBudgetMs";
+
+    /** Default time budget (ms) of a single value. */
+    public static final int DEFAULT_ITEM_BUDGET_MS = 250;
+
+    /** System property overriding the time budget (ms) of one module call. */
+    public static final String CALL_BUDGET_PROPERTY = "edupy.probe.callBudgetMs";
+
+    /** Default time budget (ms) of one module call. */
+    public static final int DEFAULT_CALL_BUDGET_MS = 2000;
+
+    /** Placeholder the module answers for values that exceeded their budget; must match {@code TIMED_OUT}. */
+    public static final String TIMED_OUT = "<timed out>";
+
+    static final String RESOURCE = "/python/edupy_probe.py";
+
+    private enum State { INSTALLED, UNAVAILABLE }
+
+    private static volatile String installExpression;
+
+    private final EvaluationGateway gateway;
+    private final boolean enabled;
+    // Keyed by the debug process; entries disappear together with the process
+    private final Map<PyFrameAccessor, State> states = Collections.synchronizedMap(new WeakHashMap<>());
+
+    /**
+     * Creates the module handle of the given gateway.
+     *
+     * @param gateway the gateway all calls and seeded results go through
+     */
+    public ProbeModule(EvaluationGateway gateway) {
+        this(gateway, Boolean.parseBoolean(System.getProperty(ENABLED_PROPERTY, "true")));
+    }
+
+    ProbeModule(EvaluationGateway gateway, boolean enabled) {
+        this.gateway = gateway;
+        this.enabled = enabled;
+    }
+
+    /**
+     * Installs the module into the debuggee unless that was already done (or failed) for this process.
+     * Transient failures such as a resumed process are retried on the next call.
+     *
+     * @param accessor the frame accessor of the debug process
+     * @return whether the module can be used
+     */
+    public boolean ensureInstalled(PyFrameAccessor accessor) {
+        if (!enabled || accessor == null) return false;
+        State state = states.get(accessor);
+        if (state != null) return state == State.INSTALLED;
+
+        String expression = installExpression();
+        if (expression == null) {
+            states.put(accessor, State.UNAVAILABLE);
+            return false;
+        }
+        try {
+            PyDebugValue result = gateway.evaluate(accessor, expression);
+            boolean installed = result != null && !result.isErrorOnEval()
+                    && String.valueOf(VERSION).equals(result.getValue());
+            if (!installed) {
+                LOGGER.info("Probe module not available, using inline expressions: "
+                        + (result == null ? "no result" : result.getValue()));
+            }
+            states.put(accessor, installed ? State.INSTALLED : State.UNAVAILABLE);
+            return installed;
+        } catch (PyDebuggerException e) {
+            LOGGER.debug("Probe module installation postponed: " + e.getMessage());
+            return false;
+        }
+    }
+
+    /**
+     * Returns the parameters of a call stack frame as {@code [name, value]} pairs, values formatted like the
+     * inline lookups of {@link DebuggerUtils} ({@code refid:ID} for objects, {@code repr} otherwise).
+     *
+     * @param accessor     the frame accessor of the debug process
+     * @param functionName the function name of the frame
+     * @param fileName     the file name of the frame (may be empty)
+     * @param occurrence   0-based occurrence of that function on the stack, innermost first
+     * @return the parameters, or {@code null} if the module is unavailable or the frame was not found
+     */
+    public @Nullable List<String[]> frameArguments(PyFrameAccessor accessor, String functionName, String fileName, int occurrence) {
+        JsonElement json = call(accessor, null, MODULE_NAME + ".frame(" + pyString(functionName) + ", "
+                + pyString(fileName == null ? "" : fileName) + ", " + occurrence + ")", false);
+        if (json == null || !json.isJsonArray()) return null;
+        List<String[]> out = new ArrayList<>();
+        for (JsonElement pair : json.getAsJsonArray()) {
+            JsonArray a = pair.getAsJsonArray();
+            out.add(new String[]{a.get(0).getAsString(), a.get(1).getAsString()});
+        }
+        return out;
+    }
+
+    /**
+     * Answers the per-variable probes of {@link VariableAnalyzer} and the instance checks of {@link ObjectAnalyzer}
+     * for the current frame with one call and stores the results in the gateway.
+     *
+     * @param accessor the frame accessor of the debug process
+     * @return whether the results were prefetched
+     */
+    public boolean prefetchVariables(PyFrameAccessor accessor) {
+        return prefetchVariables(accessor, null);
+    }
+
+    /**
+     * Answers the probes of {@link #prefetchVariables(PyFrameAccessor)} for the given stack frame and stores the
+     * results in the gateway under that frame.
+     *
+     * @param accessor the frame accessor of the debug process
+     * @param frameId  the pydevd id of the frame, or {@code null} for the current frame
+     * @return whether the results were prefetched
+     */
+    public boolean prefetchVariables(PyFrameAccessor accessor, @Nullable String frameId) {
+        JsonElement json = call(accessor, frameId, MODULE_NAME + ".variables(locals(), globals(), "
+                + VariableAnalyzer.PREVIEW_ITEMS + ")", true);
+        if (json == null || !json.isJsonObject()) return false;
+        JsonObject root = json.getAsJsonObject();
+
+        for (Map.Entry<String, JsonElement> e : root.getAsJsonObject("locals").entrySet()) {
+            String name = e.getKey();
+            JsonObject info = e.getValue().getAsJsonObject();
+            seed(accessor, frameId, String.format(VariableAnalyzer.ID_EXPRESSION_FORMAT, name), "int", info.get("id").getAsString());
+            seed(accessor, frameId, VariableAnalyzer.scopeExpression("locals", name), "bool", pyBool(info.get("local")));
+            seed(accessor, frameId, VariableAnalyzer.scopeExpression("globals", name), "bool", pyBool(info.get("global")));
+            seed(accessor, frameId, ObjectAnalyzer.userInstanceExpression(name), "bool", pyBool(info.get("user")));
+            seedContainer(accessor, frameId, name, info);
+        }
+
+        List<String> names = new ArrayList<>();
+        for (JsonElement n : root.getAsJsonArray("globals")) names.add(n.getAsString());
+        seed(accessor, frameId, VariableAnalyzer.GLOBAL_NAMES_EXPRESSION, "str", String.join(",", names));
+        for (Map.Entry<String, JsonElement> e : root.getAsJsonObject("globalValues").entrySet()) {
+            String name = e.getKey();
+            JsonObject info = e.getValue().getAsJsonObject();
+            seed(accessor, frameId, VariableAnalyzer.globalValueExpression(name), info.get("type").getAsString(),
+                    info.has("value") ? info.get("value").getAsString() : "");
+            if (info.has("id")) {
+                String ref = VariableAnalyzer.globalReference(name);
+                seed(accessor, frameId, String.format(VariableAnalyzer.ID_EXPRESSION_FORMAT, ref), "int", info.get("id").getAsString());
+                seedContainer(accessor, frameId, ref, info);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Answers the {@code dir()}, attribute, static and id probes of {@link ObjectAnalyzer} for one object with
+     * one call and stores the results in the gateway.
+     *
+     * @param accessor   the frame accessor of the debug process
+     * @param expression the expression naming the object (e.g. {@code self.head})
+     * @return whether the results were prefetched
+     */
+    public boolean prefetchObject(PyFrameAccessor accessor, String expression) {
+        return prefetchObject(accessor, null, expression);
+    }
+
+    /**
+     * Answers the probes of {@link #prefetchObject(PyFrameAccessor, String)} for an object named in the given stack
+     * frame and stores the results in the gateway under that frame.
+     *
+     * @param accessor   the frame accessor of the debug process
+     * @param frameId    the pydevd id of the frame, or {@code null} for the current frame
+     * @param expression the expression naming the object (e.g. {@code self.head})
+     * @return whether the results were prefetched
+     */
+    public boolean prefetchObject(PyFrameAccessor accessor, @Nullable String frameId, String expression) {
+        JsonElement json = call(accessor, frameId, MODULE_NAME + ".obj(" + expression + ")", true);
+        if (json == null || !json.isJsonObject()) return false;
+        JsonObject root = json.getAsJsonObject();
+
+        List<String> quoted = new ArrayList<>();
+        for (JsonElement n : root.getAsJsonArray("dir")) quoted.add("'" + n.getAsString() + "'");
+        seed(accessor, frameId, String.format(ObjectAnalyzer.DIR_EXPRESSION_FORMAT, expression), "list",
+                "[" + String.join(", ", quoted) + "]");
+
+        for (Map.Entry<String, JsonElement> e : root.getAsJsonObject("attrs").entrySet()) {
+            String attr = e.getKey();
+            String path = expression + "." + attr;
+            JsonObject info = e.getValue().getAsJsonObject();
+            seed(accessor, frameId, path, info.get("type").getAsString(), info.has("value") ? info.get("value").getAsString() : "");
+            if (info.has("static")) {
+                seed(accessor, frameId, ObjectAnalyzer.staticAttributeExpression(expression, attr), "bool", pyBool(info.get("static")));
+            }
+            if (info.has("id")) {
+                seed(accessor, frameId, String.format(ObjectAnalyzer.ID_EXPRESSION_FORMAT, path), "int", info.get("id").getAsString());
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Evaluates a module call and parses its JSON answer.
+     *
+     * @return the parsed answer, or {@code null} if the module is unavailable or the call failed
+     */
+    private @Nullable JsonElement call(PyFrameAccessor accessor, @Nullable String frameId, String expression,
+                                       boolean versioned) {
+        if (!ensureInstalled(accessor)) return null;
+        try {
+            PyDebugValue result = gateway.evaluate(accessor, frameId, expression, false);
+            if (result == null || result.getValue() == null) return null;
+            if (result.isErrorOnEval()) {
+                // e.g. the module was removed from builtins by the program; install again on the next pause
+                if (result.getValue().contains(MODULE_NAME)) states.remove(accessor);
+                LOGGER.debug("Probe call failed: " + expression + ": " + result.getValue());
+                return null;
+            }
+            JsonElement json = JsonParser.parseString(result.getValue());
+            if (versioned && (!json.isJsonObject() || !json.getAsJsonObject().has("v")
+                    || json.getAsJsonObject().get("v").getAsInt() != VERSION)) {
+                LOGGER.debug("Probe call answered with an unexpected version: " + expression);
+                return null;
+            }
+            return json;
+        } catch (PyDebuggerException e) {
+            LOGGER.debug("Probe call skipped: " + expression + ": " + e.getMessage());
+            return null;
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+            LOGGER.debug("Probe call returned malformed JSON: " + expression, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the length and first page of a builtin container, if the module sent them.
+     */
+    private void seedContainer(PyFrameAccessor accessor, @Nullable String frameId, String reference, JsonObject info) {
+        if (info.has("len")) {
+            seed(accessor, frameId, VariableAnalyzer.lengthExpression(reference), "int", info.get("len").getAsString());
+        }
+        if (info.has("page")) {
+            // Pages are evaluated untrimmed (JSON answer)
+            String expression = VariableAnalyzer.pageExpression(reference, 0, VariableAnalyzer.PREVIEW_ITEMS);
+            gateway.remember(accessor, frameId, expression, value(accessor, expression, "str", info.get("page").toString()),
+                    false);
+        }
+    }
+
+    private void seed(PyFrameAccessor accessor, @Nullable String frameId, String expression, String type, String value) {
+        gateway.remember(accessor, frameId, expression, value(accessor, expression, type, value), true);
+    }
+
+    private static PyDebugValue value(PyFrameAccessor accessor, String expression, String type, String value) {
+        return new PyDebugValue(expression, type, null, value, false, null, false, false, false, null, accessor);
+    }
+
+    /**
+     * Builds the expression installing the module: the source is shipped base64 encoded (one line, no quoting
+     * issues), executed into a fresh module object, configured with the time budgets and registered in
+     * {@code sys.modules} and {@code builtins}. The expression evaluates to the installed version.
+     *
+     * @return the install expression, or {@code null} if the resource is missing
+     */
+    static @Nullable String installExpression() {
+        String expression = installExpression;
+        if (expression != null) return expression;
+        try (InputStream in = ProbeModule.class.getResourceAsStream(RESOURCE)) {
+            if (in == null) {
+                LOGGER.warn("Probe module resource not found: " + RESOURCE);
+                return null;
+            }
+            String encoded = Base64.getEncoder().encodeToString(in.readAllBytes());
+            expression = "(lambda __m: (exec(__import__('base64').b64decode('" + encoded + "').decode('utf-8'), __m.__dict__), "
+                    + "__import__('sys').modules.__setitem__('" + MODULE_NAME + "', __m), "
+                    + "setattr(__import__('builtins'), '" + MODULE_NAME + "', __m), "
+                    + "__m.configure(" + Integer.getInteger(ITEM_BUDGET_PROPERTY, DEFAULT_ITEM_BUDGET_MS) + ", "
+                    + Integer.getInteger(CALL_BUDGET_PROPERTY, DEFAULT_CALL_BUDGET_MS) + "), __m.VERSION)[-1])"
+                    + "(__import__('types').ModuleType('" + MODULE_NAME + "'))";
+            installExpression = expression;
+            return expression;
+        } catch (IOException e) {
+            LOGGER.warn("Probe module resource could not be read: " + RESOURCE, e);
+            return null;
+        }
+    }
+
+    /**
+     * Quotes a string as a Python literal.
+     *
+     * @param s the raw string
+     * @return the single-quoted literal
+     */
+    static String pyString(String s) {
+        return "'" + s.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    private static String pyBool(JsonElement b) {
+        return b != null && b.getAsBoolean() ? "True" : "False";
+    }
+}
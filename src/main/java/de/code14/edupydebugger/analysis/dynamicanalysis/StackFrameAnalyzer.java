@@ -4,6 +4,7 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.jetbrains.python.debugger.PyStackFrame;
 
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 /**
  * The StackFrameAnalyzer class coordinates the analysis of stack frames during a debugging session.
@@ -25,21 +26,53 @@ public class StackFrameAnalyzer {
      * @param pyStackFrames a list of Python stack frames to analyze
      */
     public StackFrameAnalyzer(List<PyStackFrame> pyStackFrames) {
-        this.variableAnalyzer = new VariableAnalyzer(pyStackFrames);
-        this.objectAnalyzer = new ObjectAnalyzer(pyStackFrames);
+        this(pyStackFrames, new EvaluationGateway());
+    }
+
+    /**
+     * Constructor for StackFrameAnalyzer. Both analyzers share the given gateway, so expressions and frame
+     * children requested by both are fetched from the debugger only once per pause.
+     *
+     * @param pyStackFrames a list of Python stack frames to analyze
+     * @param gateway the evaluation gateway of the current pause
+     */
+    public StackFrameAnalyzer(List<PyStackFrame> pyStackFrames, EvaluationGateway gateway) {
+        this(pyStackFrames, AsyncEvaluationClient.create(gateway));
+    }
+
+    /**
+     * Constructor for StackFrameAnalyzer. Both analyzers issue their independent probes concurrently
+     * through the given client (and thus share its gateway).
+     *
+     * @param pyStackFrames a list of Python stack frames to analyze
+     * @param client the evaluation client of the current pause
+     */
+    public StackFrameAnalyzer(List<PyStackFrame> pyStackFrames, AsyncEvaluationClient client) {
+        this.variableAnalyzer = new VariableAnalyzer(pyStackFrames, client);
+        this.objectAnalyzer = new ObjectAnalyzer(pyStackFrames, client);
     }
 
     /**
      * Analyzes the stack frames to collect information about variables and objects.
-     * This method uses CountDownLatch to ensure that all frames are processed before proceeding.
+     * This method waits until all frames are processed (bounded by the stage timeouts of the analyzers).
      */
     public void analyzeFrames() {
-        LOGGER.debug("Starting analysis of stack frames.");
+        analyzeFramesAsync().join();
+    }
 
-        variableAnalyzer.analyzeVariables();
-        objectAnalyzer.analyzeObjects();
+    /**
+     * Analyzes the stack frames without blocking the calling thread. Objects are analyzed after the
+     * variables, whose probes they largely reuse from the shared gateway.
+     *
+     * @return a future completing once {@link #getVariables()} and {@link #getObjects()} hold the results;
+     *         it never completes exceptionally
+     */
+    public CompletableFuture<Void> analyzeFramesAsync() {
+        LOGGER.debug("Starting analysis of stack frames.");
 
-        LOGGER.debug("Analysis of stack frames completed.");
+        return variableAnalyzer.analyzeVariablesAsync()
+                .thenCompose(variables -> objectAnalyzer.analyzeObjectsAsync(objectAnalyzer.getEagerFrameIndices()))
+                .thenRun(() -> LOGGER.debug("Analysis of stack frames completed."));
     }
 
 
@@ -52,6 +85,29 @@ public class StackFrameAnalyzer {
         return variableAnalyzer.getVariables();
     }
 
+    /**
+     * Fetches a page of the items of a builtin container found by the last analysis
+     * (see {@link VariableAnalyzer#fetchContainerPage(String, int, int)}).
+     *
+     * @param id the variable ID of the container
+     * @param offset index of the first item
+     * @param limit maximum number of items
+     * @return the future item reprs; empty if the ID is unknown
+     */
+    public CompletableFuture<List<String>> fetchContainerPage(String id, int offset, int limit) {
+        return variableAnalyzer.fetchContainerPage(id, offset, limit);
+    }
+
+    /**
+     * Returns the indices of the frames whose objects were not analyzed by {@link #analyzeFrames()}
+     * (see {@link ObjectAnalyzer#getDeferredFrameIndices()}).
+     *
+     * @return ascending frame indices, top-most first
+     */
+    public List<Integer> getDeferredFrameIndices() {
+        return objectAnalyzer.getDeferredFrameIndices();
+    }
+
     /**
      * Returns the collected objects map.
      *
@@ -1,28 +1,40 @@
 package de.code14.edupydebugger.analysis.dynamicanalysis;
 
+import com.google.gson.JsonElement;
+import com.google.gson.JsonParseException;
+import com.google.gson.JsonParser;
 import com.intellij.openapi.diagnostic.Logger;
-import com.intellij.ui.SimpleTextAttributes;
-import com.intellij.xdebugger.frame.XCompositeNode;
-import com.intellij.xdebugger.frame.XDebuggerTreeNodeHyperlink;
 import com.intellij.xdebugger.frame.XValueChildrenList;
 import com.jetbrains.python.debugger.PyDebugValue;
 import com.jetbrains.python.debugger.PyDebuggerException;
+import com.jetbrains.python.debugger.PyFrameAccessor;
 import com.jetbrains.python.debugger.PyStackFrame;
-import org.jetbrains.annotations.NotNull;
-import org.jetbrains.annotations.Nullable;
 
-import javax.swing.*;
 import java.util.*;
-import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * The VariableAnalyzer class is responsible for analyzing variables within Python stack frames.
+ * <p>
+ * Builtin containers ({@code list}, {@code dict}, {@code tuple}, {@code set}) are shipped with their length and
+ * a bounded preview only. Their contents are fetched page by page on demand via
+ * {@link #fetchContainerPage(String, int, int)}, so a container with a million items does not travel through the
+ * debugger and the WebSocket on every step.
  */
 public class VariableAnalyzer {
 
     private static final Logger LOGGER = Logger.getInstance(VariableAnalyzer.class);
 
-    private static final String ID_EXPRESSION_FORMAT = "__builtins__.id(%s)";
+    static final String ID_EXPRESSION_FORMAT = "__builtins__.id(%s)";
+
+    static final String GLOBAL_NAMES_EXPRESSION = "','.join([k for k in globals().keys()])";
+
+    /** Number of container items used as preview when the debugger sent no value. */
+    public static final int PREVIEW_ITEMS = 20;
+
+    /** Maximum length of a single container item in a page; longer item reprs are cut. */
+    static final int MAX_ITEM_LENGTH = 1000;
 
     // Map to store variables, where the key is the variable ID and the value is a list containing the name, type, current value, and scope.
     private final Map<String, List<String>> variables = new HashMap<>();
@@ -30,240 +42,481 @@ public class VariableAnalyzer {
     // List of Python stack frames to be analyzed.
     private final List<PyStackFrame> pyStackFrames;
 
+    // Client through which all debugger round trips of the current pause are sent (memoized, pipelined).
+    private final AsyncEvaluationClient client;
+
+    // Expression referring to each builtin container by variable ID (e.g. "xs" or "globals()['xs']"), for paging.
+    private final Map<String, String> containerReferences = new ConcurrentHashMap<>();
+
+    // Frame accessor the container references are evaluated with.
+    private volatile PyFrameAccessor containerAccessor;
+
+    // Id of the analyzed frame; all probes are evaluated in it, even if it is not the session's current frame.
+    private volatile String frameId;
+
     /**
      * Constructor for VariableAnalyzer.
      *
      * @param pyStackFrames a list of Python stack frames to analyze
      */
     public VariableAnalyzer(List<PyStackFrame> pyStackFrames) {
+        this(pyStackFrames, new EvaluationGateway());
+    }
+
+    /**
+     * Constructor for VariableAnalyzer sharing an evaluation gateway with other analyzers of the same pause.
+     *
+     * @param pyStackFrames a list of Python stack frames to analyze
+     * @param gateway the evaluation gateway of the current pause
+     */
+    public VariableAnalyzer(List<PyStackFrame> pyStackFrames, EvaluationGateway gateway) {
+        this(pyStackFrames, AsyncEvaluationClient.create(gateway));
+    }
+
+    /**
+     * Constructor for VariableAnalyzer issuing independent probes concurrently through the given client.
+     *
+     * @param pyStackFrames a list of Python stack frames to analyze
+     * @param client the evaluation client of the current pause
+     */
+    public VariableAnalyzer(List<PyStackFrame> pyStackFrames, AsyncEvaluationClient client) {
         this.pyStackFrames = pyStackFrames;
+        this.client = client;
     }
 
     /**
-     * Analyzes the variables in the stack frames.
+     * Analyzes the variables in the stack frames and waits for the result (bounded by the stage timeout of
+     * {@link AsyncEvaluationClient}).
      */
     public void analyzeVariables() {
-        variables.clear();
+        analyzeVariablesAsync().join();
+    }
+
+    /**
+     * Analyzes the variables in the stack frames without blocking the calling thread. The returned future
+     * completes once {@link #getVariables()} holds the result; it never completes exceptionally.
+     *
+     * @return the future collected variables
+     */
+    public CompletableFuture<Map<String, List<String>>> analyzeVariablesAsync() {
         // Collect ONLY from the top (current) frame to reflect the latest state in the variables table.
         // Global enrichment below will still add global names from the same context.
-        List<PyStackFrame> framesToAnalyze = this.pyStackFrames.isEmpty()
-                ? Collections.emptyList()
-                : Collections.singletonList(this.pyStackFrames.get(0));
-        CountDownLatch latch = new CountDownLatch(framesToAnalyze.size());
-
-        for (PyStackFrame frame : framesToAnalyze) {
-            collectVariables(frame, latch);
-        }
-
-        try {
-            latch.await();
-        } catch (InterruptedException e) {
-            Thread.currentThread().interrupt();
-        }
+        Map<String, List<String>> collected = new ConcurrentHashMap<>();
+        containerReferences.clear();
+        CompletableFuture<Map<String, List<String>>> stage = this.pyStackFrames.isEmpty()
+                ? CompletableFuture.completedFuture(collected)
+                : collectVariables(this.pyStackFrames.get(0), collected).thenApply(ignored -> collected);
+        return AsyncEvaluationClient.withTimeout(stage, "variables", () -> new HashMap<>(collected))
+                .thenApply(result -> {
+                    variables.clear();
+                    variables.putAll(result);
+                    return variables;
+                });
     }
 
     /**
-     * Collects variables from a specific stack frame and stores them in the variables map.
+     * Collects variables from a specific stack frame into the given map.
      *
      * @param pyStackFrame the Python stack frame to analyze
-     * @param latch a CountDownLatch to synchronize the completion of variable collection
+     * @param collected the map receiving the variables
+     * @return a future completing once all chunks of the frame and the globals are processed
      */
-    private void collectVariables(PyStackFrame pyStackFrame, CountDownLatch latch) {
-        pyStackFrame.computeChildren(new XCompositeNode() {
-            @Override
-            public void addChildren(@NotNull XValueChildrenList children, boolean last) {
-                LOGGER.debug("Analyzing PyStackFrame: " + pyStackFrame.getFrameId());
-
-                // Iterate visible values in the current frame
-                PyDebugValue evalCtx = null;
+    private CompletableFuture<Void> collectVariables(PyStackFrame pyStackFrame, Map<String, List<String>> collected) {
+        return client.getGateway().computeChildrenAsync(pyStackFrame).thenCompose(chunks -> {
+            LOGGER.debug("Analyzing PyStackFrame: " + pyStackFrame.getFrameId());
+
+            // Values of all chunks in frame order; skip debugger/system injected locals early
+            List<PyDebugValue> values = new ArrayList<>();
+            for (XValueChildrenList children : chunks) {
                 for (int i = 0; i < children.size(); i++) {
                     PyDebugValue value = (PyDebugValue) children.getValue(i);
-                    // Skip debugger/system injected locals early
-                    if (shouldSkipGlobalName(value.getName())) {
-                        continue;
-                    }
-                    if (evalCtx == null) evalCtx = value; // use first available value as evaluation context
-                    String id = determinePythonId(value, value.getName());
-                    // If the file changes, variables from another file would not be defined -> exclude
-                    if (!id.contains("is not defined")) {
-                        if (variables.containsKey(id)) { // If there are more names for an id
-                            List<String> meta = variables.get(id);
-                            String existing = meta.get(0);
-                            // Avoid duplicate names like "self, self, self" across frames
-                            List<String> parts = Arrays.asList(existing.split("###"));
-                            if (!parts.contains(value.getName())) {
-                                meta.set(0, existing + "###" + value.getName());
-                            }
-                        } else { // Default: new variable found -> put key-value-pair into the map
-                            String raw = value.getValue();
-                            if ((raw == null || raw.isBlank()) && isBuiltinContainerType(value.getType())) {
-                                try {
-                                    raw = evaluateExpression(value, "repr(" + value.getName() + ")");
-                                } catch (Exception ignore) {}
-                            }
-                            if (raw == null) raw = "";
-                            List<String> meta = new ArrayList<>(Arrays.asList(
-                                    value.getName(),
-                                    value.getType(),
-                                    raw.replace(", ", "~"),
-                                    determineScope(value)
-                            ));
-                            // For builtin containers, attach a full, untruncated repr as 5th element
-                            if (isBuiltinContainerType(value.getType())) {
-                                try {
-                                    String full = evaluateExpression(value, "repr(" + value.getName() + ")");
-                                    meta.add(full != null ? full : "");
-                                } catch (Exception ex) {
-                                    meta.add("");
-                                }
-                            }
-                            variables.put(id, meta);
-                        }
+                    if (!shouldSkipGlobalName(value.getName())) {
+                        values.add(value);
                     }
                 }
+            }
+            if (values.isEmpty()) {
+                return CompletableFuture.completedFuture(null);
+            }
+            // Use first available value as evaluation context
+            PyDebugValue evalCtx = values.get(0);
+            containerAccessor = evalCtx.getFrameAccessor();
+            frameId = pyStackFrame.getFrameId();
+            // One helper call answers the id/scope/repr probes below from the gateway memo
+            return client.submit(evalCtx.getFrameAccessor(),
+                            () -> client.getGateway().getProbeModule().prefetchVariables(evalCtx.getFrameAccessor(), frameId))
+                    .exceptionally(error -> false)
+                    .thenCompose(ignored -> collectLocals(values, collected))
+                    // Additionally enrich with globals (even when stopped in a local scope)
+                    .thenCompose(ignored -> enrichWithGlobals(evalCtx, collected))
+                    .exceptionally(error -> {
+                        LOGGER.debug("Global enrichment failed (non-fatal)", error);
+                        return null;
+                    });
+        }).exceptionally(error -> {
+            LOGGER.debug("Children of PyStackFrame " + pyStackFrame.getFrameId() + " unavailable", error);
+            return null;
+        });
+    }
 
-                // Additionally enrich with globals (even when stopped in a local scope)
-                // Best-effort: only when we have an evaluation context
-                if (evalCtx != null) {
-                    try {
-                        // Prefer a CSV join to avoid bracket parsing issues; fall back to list() repr when empty
-                        String joined = evaluateExpression(evalCtx, "','.join([k for k in globals().keys()])");
-                        List<String> globalNames = joined != null && !joined.isEmpty()
-                                ? parseCsvNames(joined)
-                                : parsePythonList(evaluateExpression(evalCtx, "list(globals().keys())"));
-                        for (String rawName : globalNames) {
-                            String name = rawName.replace("'", "").trim();
-                            if (name.isEmpty()) continue;
-                            if (shouldSkipGlobalName(name)) continue;
-
-                            // Evaluate the global value itself for type and repr
-                            PyDebugValue gv = evaluateExpressionValue(evalCtx, "globals().get('" + name + "', None)");
-                            if (gv == null) continue;
-
-                            // Skip noisy entries that are not user variables
-                            String t = gv.getType();
-                            if (t == null) continue;
-                            if (t.equals("module") || t.equals("function") || t.equals("builtin_function_or_method") || t.equals("type")) {
-                                continue;
-                            }
-
-                            String id = determinePythonId(evalCtx, "globals()['" + name + "']");
-                            if (id.contains("is not defined")) continue;
-
-                            // If this object id is already known, just merge the name; else add as global variable
-                            if (variables.containsKey(id)) {
-                                List<String> meta = variables.get(id);
-                                if (meta != null) {
-                                    String existing = meta.get(0);
-                                    // Avoid duplicate name merges
-                                    if (!Arrays.asList(existing.split("###")).contains(name)) {
-                                        meta.set(0, existing + "###" + name);
-                                    }
-                                }
-                            } else {
-                                String repr = gv.getValue();
-                                if ((repr == null || repr.isBlank()) && isBuiltinContainerType(t)) {
-                                    // Ensure we display a value for list/set/dict/tuple when added via globals()
-                                    repr = evaluateExpression(evalCtx, "repr(globals()['" + name + "'])");
-                                }
-                                if (repr == null) repr = "";
-                                variables.put(id, new ArrayList<>(Arrays.asList(
-                                        name,
-                                        t,
-                                        repr.replace(", ", "~"),
-                                        "global"
-                                )));
-                            }
-                        }
-                    } catch (Exception ex) {
-                        LOGGER.debug("Global enrichment failed (non-fatal)", ex);
-                    }
+    /**
+     * Adds the given frame values. Their ids are requested concurrently, followed by one concurrent batch for
+     * the scope and repr probes of new variables.
+     */
+    private CompletableFuture<Void> collectLocals(List<PyDebugValue> values, Map<String, List<String>> collected) {
+        List<CompletableFuture<String>> ids = new ArrayList<>();
+        for (PyDebugValue value : values) {
+            ids.add(determinePythonIdAsync(value, value.getName()));
+        }
+        return AsyncEvaluationClient.allSettled(ids).thenCompose(ignored -> {
+            // Merge names per id in frame order; scope and repr of new variables are requested concurrently
+            Map<String, PendingVariable> created = new LinkedHashMap<>();
+            for (int i = 0; i < values.size(); i++) {
+                PyDebugValue value = values.get(i);
+                String id = ids.get(i).join();
+                // If the file changes, variables from another file would not be defined -> exclude
+                if (id.contains("is not defined")) continue;
+                if (collected.containsKey(id)) { // If there are more names for an id
+                    mergeName(collected.get(id), value.getName());
+                } else if (created.containsKey(id)) {
+                    created.get(id).addName(value.getName());
+                } else { // Default: new variable found
+                    created.put(id, newLocalVariable(value));
                 }
+            }
+            return storeCreated(created, collected);
+        });
+    }
 
-                if (last) {
-                    latch.countDown();
-                    LOGGER.debug("Latch decremented, remaining count: " + latch.getCount());
+    /**
+     * Adds global names visible from the evaluation context. Global values, their ids and missing container
+     * reprs are each requested as one concurrent batch.
+     *
+     * @param evalCtx a value of the analyzed frame providing the frame accessor
+     * @param collected the map receiving the variables
+     */
+    private CompletableFuture<Void> enrichWithGlobals(PyDebugValue evalCtx, Map<String, List<String>> collected) {
+        // Prefer a CSV join to avoid bracket parsing issues; fall back to list() repr when empty
+        return evaluateExpressionAsync(evalCtx, GLOBAL_NAMES_EXPRESSION).thenCompose(joined -> joined != null && !joined.isEmpty()
+                ? CompletableFuture.completedFuture(parseCsvNames(joined))
+                : evaluateExpressionAsync(evalCtx, "list(globals().keys())").thenApply(this::parsePythonList)
+        ).thenCompose(globalNames -> {
+            // Evaluate the global values themselves for type and repr
+            Map<String, CompletableFuture<PyDebugValue>> globalValues = new LinkedHashMap<>();
+            for (String rawName : globalNames) {
+                String name = rawName.replace("'", "").trim();
+                if (name.isEmpty()) continue;
+                if (shouldSkipGlobalName(name)) continue;
+                globalValues.putIfAbsent(name, evaluateExpressionValueAsync(evalCtx, globalValueExpression(name)));
+            }
+            return AsyncEvaluationClient.allSettled(globalValues.values()).thenApply(ignored -> globalValues);
+        }).thenCompose(globalValues -> {
+            Map<String, PyDebugValue> userGlobals = new LinkedHashMap<>();
+            Map<String, CompletableFuture<String>> globalIds = new LinkedHashMap<>();
+            for (Map.Entry<String, CompletableFuture<PyDebugValue>> e : globalValues.entrySet()) {
+                PyDebugValue gv = e.getValue().join();
+                if (gv == null) continue;
+
+                // Skip noisy entries that are not user variables
+                String t = gv.getType();
+                if (t == null) continue;
+                if (t.equals("module") || t.equals("function") || t.equals("builtin_function_or_method") || t.equals("type")) {
+                    continue;
                 }
+                userGlobals.put(e.getKey(), gv);
+                globalIds.put(e.getKey(), determinePythonIdAsync(evalCtx, globalReference(e.getKey())));
             }
+            return AsyncEvaluationClient.allSettled(globalIds.values()).thenCompose(ignored -> {
+                // If this object id is already known, just merge the name; else add as global variable
+                Map<String, PendingVariable> created = new LinkedHashMap<>();
+                for (Map.Entry<String, PyDebugValue> e : userGlobals.entrySet()) {
+                    String name = e.getKey();
+                    String id = globalIds.get(name).join();
+                    if (id.isEmpty() || id.contains("is not defined")) continue;
+
+                    if (collected.containsKey(id)) {
+                        mergeName(collected.get(id), name);
+                    } else if (created.containsKey(id)) {
+                        created.get(id).addName(name);
+                    } else {
+                        created.put(id, newGlobalVariable(evalCtx, name, e.getValue()));
+                    }
+                }
+                return storeCreated(created, collected);
+            });
+        });
+    }
 
-            @Override
-            public void tooManyChildren(int remaining) {}
+    /**
+     * Waits (without blocking) for the probes of newly found variables and stores them.
+     */
+    private CompletableFuture<Void> storeCreated(Map<String, PendingVariable> created,
+                                                        Map<String, List<String>> collected) {
+        List<CompletableFuture<?>> probes = new ArrayList<>();
+        created.values().forEach(p -> p.collectProbes(probes));
+        return AsyncEvaluationClient.allSettled(probes)
+                .thenRun(() -> created.forEach((id, p) -> {
+                    collected.put(id, p.toMeta());
+                    if (p.reference != null) containerReferences.put(id, p.reference);
+                }));
+    }
 
-            @Override
-            public void tooManyChildren(int remaining, @NotNull Runnable addNextChildren) {
-                XCompositeNode.super.tooManyChildren(remaining, addNextChildren);
-            }
+    /**
+     * Starts the probes for a variable of the analyzed frame that was not seen before.
+     */
+    private PendingVariable newLocalVariable(PyDebugValue value) {
+        PendingVariable p = new PendingVariable(value.getName(), value.getType(), value.getValue());
+        if (isBuiltinContainerType(value.getType())) {
+            startContainerProbes(p, value, value.getName());
+        }
+        p.scope = determineScopeAsync(value);
+        return p;
+    }
 
-            @Override
-            public void setAlreadySorted(boolean alreadySorted) {}
+    /**
+     * Starts the probes for a global variable that was not seen in the analyzed frame.
+     */
+    private PendingVariable newGlobalVariable(PyDebugValue evalCtx, String name, PyDebugValue gv) {
+        PendingVariable p = new PendingVariable(name, gv.getType(), gv.getValue());
+        if (isBuiltinContainerType(gv.getType())) {
+            startContainerProbes(p, evalCtx, globalReference(name));
+        }
+        p.scope = CompletableFuture.completedFuture("global");
+        return p;
+    }
 
-            @Override
-            public void setErrorMessage(@NotNull String errorMessage) {}
+    /**
+     * Requests the length of a builtin container and, if the debugger sent no value to display, its first
+     * {@value #PREVIEW_ITEMS} items as preview.
+     *
+     * @param p the pending variable
+     * @param ctx a value providing the frame accessor
+     * @param reference the expression referring to the container
+     */
+    private void startContainerProbes(PendingVariable p, PyDebugValue ctx, String reference) {
+        p.reference = reference;
+        p.length = evaluateExpressionAsync(ctx, lengthExpression(reference));
+        if (p.rawValue == null || p.rawValue.isBlank()) {
+            p.preview = evaluatePageAsync(ctx.getFrameAccessor(), reference, 0, PREVIEW_ITEMS);
+        }
+    }
 
-            @Override
-            public void setErrorMessage(@NotNull String errorMessage, @Nullable XDebuggerTreeNodeHyperlink link) {}
+    /**
+     * Adds a further name to an existing variable entry unless it is already listed.
+     */
+    private static void mergeName(List<String> meta, String name) {
+        if (meta == null) return;
+        String existing = meta.get(0);
+        // Avoid duplicate names like "self, self, self" across frames
+        if (!Arrays.asList(existing.split("###")).contains(name)) {
+            meta.set(0, existing + "###" + name);
+        }
+    }
 
-            @Override
-            public void setMessage(@NotNull String message, @Nullable Icon icon, @NotNull SimpleTextAttributes attributes, @Nullable XDebuggerTreeNodeHyperlink link) {}
-        });
+    /**
+     * A variable whose scope and container probes are still in flight.
+     */
+    private static final class PendingVariable {
+        private final List<String> names = new ArrayList<>();
+        private final String type;
+        private final String rawValue;
+        private CompletableFuture<String> scope;
+        // Builtin containers only: reference expression, length and (without debugger value) preview items
+        private String reference;
+        private CompletableFuture<String> length;
+        private CompletableFuture<List<String>> preview;
+
+        private PendingVariable(String name, String type, String rawValue) {
+            this.names.add(name);
+            this.type = type;
+            this.rawValue = rawValue;
+        }
+
+        private void addName(String name) {
+            if (!names.contains(name)) names.add(name);
+        }
+
+        private void collectProbes(List<CompletableFuture<?>> probes) {
+            if (scope != null) probes.add(scope);
+            if (length != null) probes.add(length);
+            if (preview != null) probes.add(preview);
+        }
+
+        /** @return name(s), type, value (", " replaced by "~"), scope and, for builtin containers, the length */
+        private List<String> toMeta() {
+            String raw = rawValue;
+            String count = length != null ? length.join().trim() : "";
+            if ((raw == null || raw.isBlank()) && preview != null) {
+                raw = formatPreview(type, preview.join(), count);
+            }
+            if (raw == null) raw = "";
+            List<String> meta = new ArrayList<>(Arrays.asList(
+                    String.join("###", names),
+                    type,
+                    raw.replace(", ", "~"),
+                    scope.join()
+            ));
+            // For builtin containers, attach the number of items as 5th element (contents are paged on demand)
+            if (reference != null && count.matches("\\d+")) {
+                meta.add(count);
+            }
+            return meta;
+        }
     }
 
     /**
      * Determines the scope (local, global, or unknown) of a variable within the stack frame.
      *
      * @param value the Python debug value representing the variable
-     * @return the scope of the variable as a string
+     * @return the future scope of the variable as a string
      */
-    private String determineScope(PyDebugValue value) {
-        String isLocal = evaluateExpression(value, "locals().get('" + value.getName() + "', None) is not None");
-        if (Boolean.parseBoolean(isLocal)) {
-            return "local";
-        }
+    private CompletableFuture<String> determineScopeAsync(PyDebugValue value) {
+        return evaluateExpressionAsync(value, scopeExpression("locals", value.getName()))
+                .thenCompose(isLocal -> {
+                    if (Boolean.parseBoolean(isLocal)) {
+                        return CompletableFuture.completedFuture("local");
+                    }
+                    return evaluateExpressionAsync(value, scopeExpression("globals", value.getName()))
+                            .thenApply(isGlobal -> Boolean.parseBoolean(isGlobal) ? "global" : "unknown");
+                });
+    }
+
+    /** @return the probe checking whether {@code name} is bound in {@code scope} ("locals" or "globals") */
+    static String scopeExpression(String scope, String name) {
+        return scope + "().get('" + name + "', None) is not None";
+    }
+
+    /** @return the expression fetching the global {@code name} (None if unbound) */
+    static String globalValueExpression(String name) {
+        return "globals().get('" + name + "', None)";
+    }
 
-        String isGlobal = evaluateExpression(value, "globals().get('" + value.getName() + "', None) is not None");
-        if (Boolean.parseBoolean(isGlobal)) {
-            return "global";
+    /** @return the expression referring to the global {@code name} regardless of shadowing locals */
+    static String globalReference(String name) {
+        return "globals()['" + name + "']";
+    }
+
+    /** @return the expression fetching the number of items of the container {@code expression} */
+    static String lengthExpression(String expression) {
+        return "len(" + expression + ")";
+    }
+
+    /**
+     * Builds the expression answering one page of the container {@code expression} as a JSON list of item
+     * reprs ({@code key: value} for dicts), each cut to {@value #MAX_ITEM_LENGTH} characters. The container is
+     * passed as lambda argument so that the comprehension sees it even when evaluated with a frame's locals.
+     * Keep in sync with {@code page} in {@code edupy_probe.py}.
+     *
+     * @param expression the expression referring to the container
+     * @param offset index of the first item
+     * @param limit maximum number of items
+     * @return the page expression
+     */
+    static String pageExpression(String expression, int offset, int limit) {
+        return "(lambda __c, __t: __import__('json').dumps([__t('%r: %r' % __i) if isinstance(__c, dict) else __t(repr(__i))"
+                + " for __i in __import__('itertools').islice(__c.items() if isinstance(__c, dict) else __c, "
+                + offset + ", " + (offset + limit) + ")]))(" + expression + ", lambda __s: __s if len(__s) <= "
+                + MAX_ITEM_LENGTH + " else __s[:" + MAX_ITEM_LENGTH + "] + '...')";
+    }
+
+    /**
+     * Builds a display value from the first items of a container, e.g. {@code [1, 2, ...]}.
+     *
+     * @param type the container type
+     * @param items the first items
+     * @param count the number of items of the container (may be empty if unknown)
+     * @return the preview
+     */
+    static String formatPreview(String type, List<String> items, String count) {
+        String open = "list".equals(type) ? "[" : "tuple".equals(type) ? "(" : "{";
+        String close = "list".equals(type) ? "]" : "tuple".equals(type) ? ")" : "}";
+        StringBuilder sb = new StringBuilder(open).append(String.join(", ", items));
+        boolean more = count.matches("\\d+") && Long.parseLong(count) > items.size();
+        if (more) sb.append(items.isEmpty() ? "..." : ", ...");
+        return sb.append(close).toString();
+    }
+
+    /**
+     * Fetches a page of the items of a builtin container found by the last analysis. Nothing is fetched while
+     * analyzing; the page is evaluated on request only.
+     *
+     * @param id the variable ID of the container
+     * @param offset index of the first item
+     * @param limit maximum number of items
+     * @return the future item reprs ({@code key: value} for dicts); empty if the ID is unknown or the debugger failed
+     */
+    public CompletableFuture<List<String>> fetchContainerPage(String id, int offset, int limit) {
+        String reference = containerReferences.get(id);
+        PyFrameAccessor accessor = containerAccessor;
+        if (reference == null || accessor == null || offset < 0 || limit <= 0) {
+            return CompletableFuture.completedFuture(List.of());
         }
+        return evaluatePageAsync(accessor, reference, offset, limit);
+    }
 
-        return "unknown";
+    /**
+     * Schedules the evaluation of a page (untrimmed, it is a JSON answer) and parses it.
+     * The future yields an empty list on failure.
+     */
+    private CompletableFuture<List<String>> evaluatePageAsync(PyFrameAccessor accessor, String reference, int offset, int limit) {
+        String expression = pageExpression(reference, offset, limit);
+        return client.evaluate(accessor, frameId, expression, false).handle((result, error) -> {
+            if (error != null) {
+                LOGGER.debug("Container page unavailable: " + reference, AsyncEvaluationClient.unwrap(error));
+                return List.of();
+            }
+            return parsePage(result);
+        });
     }
 
     /**
-     * Evaluates a Python expression in the context of the stack frame.
+     * Parses the JSON list answered by a page expression.
      *
-     * @param value the Python debug value
-     * @param expression the Python expression to evaluate
-     * @return the result of the expression as a string
+     * @param result the debugger value
+     * @return the items; empty if the result is missing, an error or malformed
      */
-    private String evaluateExpression(PyDebugValue value, String expression) {
+    static List<String> parsePage(PyDebugValue result) {
+        if (result == null || result.getValue() == null || result.isErrorOnEval()) return List.of();
         try {
-            return value.getFrameAccessor().evaluate(expression, false, true).getValue();
-        } catch (PyDebuggerException e) {
-            if (e.getMessage() != null && e.getMessage().contains("Process is running")) {
-                // Benign race: target resumed between computeChildren() and evaluate(); skip noise
-                LOGGER.debug("eval(str): running; skip: " + expression);
-                return "";
-            }
-            LOGGER.warn("Error evaluating expression: " + expression, e);
-            return "";
+            JsonElement json = JsonParser.parseString(result.getValue());
+            if (!json.isJsonArray()) return List.of();
+            List<String> items = new ArrayList<>();
+            for (JsonElement item : json.getAsJsonArray()) items.add(item.getAsString());
+            return items;
+        } catch (JsonParseException | IllegalStateException | UnsupportedOperationException e) {
+            LOGGER.debug("Malformed container page: " + result.getValue(), e);
+            return List.of();
         }
     }
 
     /**
-     * Evaluates a Python expression in the current frame and returns the raw {@link PyDebugValue}.
-     * Returns {@code null} on failure.
+     * Schedules the evaluation of a Python expression in the context of the stack frame.
+     *
+     * @param value the Python debug value
+     * @param expression the Python expression to evaluate
+     * @return the future result of the expression as a string; empty if an error occurs
      */
-    private @Nullable PyDebugValue evaluateExpressionValue(PyDebugValue value, String expression) {
-        try {
-            return value.getFrameAccessor().evaluate(expression, false, true);
-        } catch (PyDebuggerException e) {
-            if (e.getMessage() != null && e.getMessage().contains("Process is running")) {
-                LOGGER.debug("eval(value): running; skip: " + expression);
-                return null;
+    private CompletableFuture<String> evaluateExpressionAsync(PyDebugValue value, String expression) {
+        return evaluateExpressionValueAsync(value, expression)
+                .thenApply(result -> result == null || result.getValue() == null ? "" : result.getValue());
+    }
+
+    /**
+     * Schedules the evaluation of a Python expression in the analyzed frame and returns the raw {@link PyDebugValue}.
+     * The future yields {@code null} on failure.
+     */
+    private CompletableFuture<PyDebugValue> evaluateExpressionValueAsync(PyDebugValue value, String expression) {
+        return client.evaluate(value.getFrameAccessor(), frameId, expression, true).handle((result, error) -> {
+            if (error == null) return result;
+            Throwable cause = AsyncEvaluationClient.unwrap(error);
+            if (cause instanceof PyDebuggerException e && EvaluationGateway.isBenign(e)) {
+                // Benign race: target resumed between computeChildren() and evaluate(), or budget exhausted; skip noise
+                LOGGER.debug("eval: skipped: " + expression);
+            } else {
+                LOGGER.warn("Error evaluating expression: " + expression, cause);
             }
-            LOGGER.warn("Error evaluating expression: " + expression, e);
             return null;
-        }
+        });
     }
 
     /**
@@ -337,17 +590,16 @@ public class VariableAnalyzer {
      *
      * @param value the Python debug value representing the object
      * @param valueName the name of the Python object as a string
-     * @return the ID of the Python object as a string, or an empty string if an error occurs
+     * @return the future ID of the Python object as a string, or an empty string if an error occurs
      */
-    private String determinePythonId(PyDebugValue value, String valueName) {
-        String id = evaluateExpression(value, String.format(ID_EXPRESSION_FORMAT, valueName));
-
-        // In case some objects/variables are overwriting inbuilt attributes/methods
-        if (id.contains("object has no attribute 'id'")) {
-            id = evaluateExpression(value, String.format("id(%s)", valueName));
-        }
-
-        return id;
+    private CompletableFuture<String> determinePythonIdAsync(PyDebugValue value, String valueName) {
+        return evaluateExpressionAsync(value, String.format(ID_EXPRESSION_FORMAT, valueName)).thenCompose(id -> {
+            // In case some objects/variables are overwriting inbuilt attributes/methods
+            if (id.contains("object has no attribute 'id'")) {
+                return evaluateExpressionAsync(value, String.format("id(%s)", valueName));
+            }
+            return CompletableFuture.completedFuture(id);
+        });
     }
 
     /**
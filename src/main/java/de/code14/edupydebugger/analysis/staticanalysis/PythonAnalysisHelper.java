@@ -49,17 +49,26 @@ public class PythonAnalysisHelper {
      * @return the type of the element as a string, or "?" if the type could not be determined
      */
     public static String getTypeString(PyElement element, TypeEvalContext context) {
+        PyType type = inferType(element, context);
+        return type != null ? type.getName() : "?";
+    }
+
+    /**
+     * Infers the type of an attribute or parameter, or the return type of a function.
+     *
+     * @param element the Python element to analyze
+     * @param context the type evaluation context
+     * @return the type, or {@code null} if it could not be determined or the element has no type
+     */
+    static PyType inferType(PyElement element, TypeEvalContext context) {
         if (element instanceof PyTargetExpression) {
-            PyType type = context.getType((PyTargetExpression) element);
-            return type != null ? type.getName() : "?";
+            return context.getType((PyTargetExpression) element);
         } else if (element instanceof PyNamedParameter) {
-            PyType type = context.getType((PyNamedParameter) element);
-            return type != null ? type.getName() : "?";
+            return context.getType((PyNamedParameter) element);
         } else if (element instanceof PyFunction) {
-            PyType type = context.getReturnType((PyFunction) element);
-            return type != null ? type.getName() : "?";
+            return context.getReturnType((PyFunction) element);
         } else {
-            return "?";
+            return null;
         }
     }
 
@@ -87,6 +96,19 @@ public class PythonAnalysisHelper {
      * @return a string representing the method signature
      */
     public static String getMethodSignature(PyFunction method, TypeEvalContext context) {
+        return getMethodSignature(method, context, new TypeStringCache());
+    }
+
+    /**
+     * Constructs the method signature for a given Python method, naming the types through a cache shared by
+     * the whole analysis run.
+     *
+     * @param method the Python method to analyze
+     * @param context the type evaluation context
+     * @param types the type names of the current analysis run
+     * @return a string representing the method signature
+     */
+    public static String getMethodSignature(PyFunction method, TypeEvalContext context, TypeStringCache types) {
         StringBuilder signature = new StringBuilder();
         // Check if the method is static
         if (method.getDecoratorList() != null && method.getDecoratorList().findDecorator("staticmethod") != null) {
@@ -105,7 +127,7 @@ public class PythonAnalysisHelper {
         for (int i = 0; i < parameters.length; i++) {
             PyParameter parameter = parameters[i];
             String paramName = parameter.getName();
-            String paramType = getTypeString(parameter, context);
+            String paramType = types.typeString(parameter, context);
             if (paramType.startsWith("{")) {
                 paramType = "?";
             }
@@ -122,7 +144,7 @@ public class PythonAnalysisHelper {
         signature.append(")");
 
         // Add return type to the method signature
-        String returnType = getTypeString(method, context);
+        String returnType = types.typeString(method, context);
         if (!returnType.equals("?")) {
             signature.append(" : ").append(returnType);
         }
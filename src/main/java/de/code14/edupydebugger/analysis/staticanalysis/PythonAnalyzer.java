@@ -10,6 +10,9 @@ import com.jetbrains.python.PythonFileType;
 import com.jetbrains.python.psi.*;
 import com.jetbrains.python.psi.types.TypeEvalContext;
 
+import java.io.IOException;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
 import java.util.*;
 
 /**
@@ -18,6 +21,8 @@ import java.util.*;
  * from Python files and stores them for further processing.
  * <p>
  * The analysis includes both static code analysis and gathering type information using the PyCharm API.
+ * Each class is extracted in a single pass by {@link PythonClassExtractor}; the names of inferred types are shared
+ * by all classes of one run through a {@link TypeStringCache}.
  */
 public class PythonAnalyzer {
 
@@ -26,6 +31,9 @@ public class PythonAnalyzer {
     // Holds details about classes, with the class name as the key and an array of class information as the value.
     private final Map<String, ClassInfo> classDetails = new HashMap<>();
 
+    // The module (dotted path relative to the project directory) that defines each class, by class name.
+    private final Map<String, String> classModules = new HashMap<>();
+
     /**
      * Analyzes all Python files in the given project by traversing the project directory recursively.
      * Extracts information about Python classes found within the files.
@@ -33,12 +41,43 @@ public class PythonAnalyzer {
      * @param project the project to be analyzed
      */
     public void analyzePythonFiles(Project project) {
+        PythonClassExtractor extractor = new PythonClassExtractor(new TypeStringCache());
+        for (VirtualFile file : collectPythonFiles(project)) {
+            analyzePythonClassFile(project, file, extractor);
+        }
+    }
+
+    /**
+     * Hashes the contents of every Python file that {@link #analyzePythonFiles(Project)} would analyze.
+     * Equal fingerprints mean that an analysis would see the same sources, so its results can be reused.
+     *
+     * @param project the project to fingerprint
+     * @return the SHA-256 hash (hex) of every file by project-relative path, sorted by path
+     * @throws IOException if a file cannot be read
+     */
+    public Map<String, String> fingerprintPythonFiles(Project project) throws IOException {
+        Map<String, String> hashes = new TreeMap<>();
+        String projectBasePath = project.getBasePath();
+        for (VirtualFile file : collectPythonFiles(project)) {
+            hashes.put(file.getPath().substring(projectBasePath.length()), sha256(file.contentsToByteArray()));
+        }
+        return hashes;
+    }
+
+    /**
+     * Collects the user-defined Python files of the project by traversing the project directory iteratively.
+     * Excludes library directories.
+     *
+     * @param project the project context
+     * @return the Python files, or an empty list if the project directory cannot be found
+     */
+    private static List<VirtualFile> collectPythonFiles(Project project) {
         // Get the base path of the project
         String projectBasePath = project.getBasePath();
 
         if (projectBasePath == null) {
             LOGGER.warn("The project has no base path.");
-            return;
+            return List.of();
         }
 
         // Load the project directory
@@ -46,24 +85,12 @@ public class PythonAnalyzer {
 
         if (projectDir == null) {
             LOGGER.warn("The project directory could not be found.");
-            return;
+            return List.of();
         }
 
-        // Iteratively traverse the project directory and analyze files
-        analyzeDirectory(project, projectDir, projectBasePath);
-    }
-
-    /**
-     * Iteratively analyzes directories and their contained files.
-     * Excludes library directories and only analyzes user-defined Python files.
-     *
-     * @param project the project context
-     * @param rootDir the root directory to start analyzing
-     * @param projectBasePath the base path of the project
-     */
-    private void analyzeDirectory(Project project, VirtualFile rootDir, String projectBasePath) {
+        List<VirtualFile> pythonFiles = new ArrayList<>();
         Stack<VirtualFile> dirsToAnalyze = new Stack<>();
-        dirsToAnalyze.push(rootDir);
+        dirsToAnalyze.push(projectDir);
 
         while (!dirsToAnalyze.isEmpty()) {
             VirtualFile directory = dirsToAnalyze.pop();
@@ -75,13 +102,28 @@ public class PythonAnalyzer {
                         dirsToAnalyze.push(file);
                     }
                 } else {
-                    // Analyze only Python files that are within the project directory
+                    // Only Python files that are within the project directory
                     if (file.getFileType() == PythonFileType.INSTANCE && isPythonFileInProject(file, projectBasePath)) {
-                        analyzePythonClassFile(project, file);
+                        pythonFiles.add(file);
                     }
                 }
             }
         }
+        return pythonFiles;
+    }
+
+    private static String sha256(byte[] content) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(content);
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            // Every JRE ships SHA-256
+            throw new IllegalStateException(e);
+        }
     }
 
     /**
@@ -118,8 +160,9 @@ public class PythonAnalyzer {
      *
      * @param project the project context
      * @param virtualFile the Python file to analyze
+     * @param extractor the class extractor of the current analysis run
      */
-    private void analyzePythonClassFile(Project project, VirtualFile virtualFile) {
+    private void analyzePythonClassFile(Project project, VirtualFile virtualFile, PythonClassExtractor extractor) {
         PsiFile psiFile = PsiManager.getInstance(project).findFile(virtualFile);
 
         if (psiFile == null || psiFile.getFileType() != PythonFileType.INSTANCE) {
@@ -128,8 +171,9 @@ public class PythonAnalyzer {
         }
 
         if (psiFile instanceof PyFile pyFile) {
+            // Types are inferred from the AST of the origin file only, so every file needs its own context
             TypeEvalContext context = TypeEvalContext.codeAnalysis(project, psiFile);
-            processPyFile(pyFile, context);
+            processPyFile(pyFile, context, moduleName(virtualFile.getPath(), project.getBasePath()), extractor);
         } else {
             LOGGER.warn("The psi file could not be found: " + virtualFile.getPath());
         }
@@ -140,99 +184,55 @@ public class PythonAnalyzer {
      *
      * @param pyFile the Python file to process
      * @param context the type evaluation context
+     * @param module the module name of the file
+     * @param extractor the class extractor of the current analysis run
      */
-    private void processPyFile(PyFile pyFile, TypeEvalContext context) {
+    private void processPyFile(PyFile pyFile, TypeEvalContext context, String module, PythonClassExtractor extractor) {
         for (PyClass pyClass : pyFile.getTopLevelClasses()) {
             String className = pyClass.getName();
-            ClassInfo classInfo = new ClassInfo(
-                    collectAttributes(pyClass, context),
-                    collectMethods(pyClass, context),
-                    collectReferences(pyClass, context),
-                    collectSuperClasses(pyClass)
-            );
-            classDetails.put(className, classInfo);
+            classDetails.put(className, extractor.extract(pyClass, context));
+            classModules.put(className, module);
         }
     }
 
     /**
-     * Collects all attributes of a Python class.
+     * Derives the dotted module name of a Python file from its path, e.g. {@code shapes.point} for
+     * {@code <project>/shapes/point.py} and {@code shapes} for {@code <project>/shapes/__init__.py}.
      *
-     * @param pyClass the Python class to analyze
-     * @param context the type evaluation context
-     * @return a list of attribute descriptions
+     * @param path the path of the file
+     * @param projectBasePath the base path of the project
+     * @return the module name
      */
-    private List<String> collectAttributes(PyClass pyClass, TypeEvalContext context) {
-        List<String> attributesList = new ArrayList<>();
-        List<PyTargetExpression> instanceAttributes = pyClass.getInstanceAttributes();
-        List<PyTargetExpression> classAttributes = pyClass.getClassAttributes();
-        List<PyTargetExpression> attributes = new ArrayList<>(instanceAttributes);
-        attributes.addAll(classAttributes);
-
-        for (PyTargetExpression attribute : attributes) {
-            String staticModifier = pyClass.findClassAttribute(Objects.requireNonNull(attribute.getName()), false, null) != null ? "{static} " : "";
-            String visibility = PythonAnalysisHelper.determineVisibility(attribute.getName());
-            String type = PythonAnalysisHelper.getTypeString(attribute, context);
-            attributesList.add(staticModifier + visibility + attribute.getName() + " : " + type);
+    static String moduleName(String path, String projectBasePath) {
+        String relative = path.startsWith(projectBasePath) ? path.substring(projectBasePath.length()) : path;
+        if (relative.endsWith(".py")) {
+            relative = relative.substring(0, relative.length() - 3);
         }
-
-        return attributesList;
-    }
-
-    /**
-     * Collects all methods of a Python class.
-     *
-     * @param pyClass the Python class to analyze
-     * @param context the type evaluation context
-     * @return a list of method signatures
-     */
-    private List<String> collectMethods(PyClass pyClass, TypeEvalContext context) {
-        List<String> methodsList = new ArrayList<>();
-        for (PyFunction method : pyClass.getMethods()) {
-            methodsList.add(PythonAnalysisHelper.getMethodSignature(method, context));
+        if (relative.endsWith("/__init__")) {
+            relative = relative.substring(0, relative.length() - "/__init__".length());
         }
-        return methodsList;
-    }
-
-    /**
-     * Collects all references (types that are not primitive types) of a Python class.
-     *
-     * @param pyClass the Python class to analyze
-     * @param context the type evaluation context
-     * @return a list of reference types
-     */
-    private List<String> collectReferences(PyClass pyClass, TypeEvalContext context) {
-        Set<String> referencesSet = new HashSet<>();
-        for (String attribute : collectAttributes(pyClass, context)) {
-            String type = attribute.split(" : ")[1];
-            if (!PythonAnalysisHelper.defaultTypes.contains(type)) {
-                referencesSet.add(type);
-            }
+        while (relative.startsWith("/")) {
+            relative = relative.substring(1);
         }
-        return new ArrayList<>(referencesSet);
+        return relative.replace('/', '.');
     }
 
     /**
-     * Collects all superclasses of a Python class.
+     * Returns the collected details about the analyzed classes.
      *
-     * @param pyClass the Python class to analyze
-     * @return a list of superclasses
+     * @return a map where the key is the class name and the value is an array of details (attributes, methods, references, superclasses)
      */
-    private List<String> collectSuperClasses(PyClass pyClass) {
-        List<String> superClassesList = new ArrayList<>();
-        for (PyExpression superClass : pyClass.getSuperClassExpressions()) {
-            superClassesList.add(superClass.getText());
-        }
-        return superClassesList;
+    public Map<String, ClassInfo> getClassDetails() {
+        return classDetails;
     }
 
-
     /**
-     * Returns the collected details about the analyzed classes.
+     * Returns the module of every analyzed class.
      *
-     * @return a map where the key is the class name and the value is an array of details (attributes, methods, references, superclasses)
+     * @return a map where the key is the class name and the value is the dotted name of its module
      */
-    public Map<String, ClassInfo> getClassDetails() {
-        return classDetails;
+    public Map<String, String> getClassModules() {
+        return classModules;
     }
 
 }
@@ -0,0 +1,105 @@
+package de.code14.edupydebugger.analysis.staticanalysis;
+
+import com.jetbrains.python.psi.PyClass;
+import com.jetbrains.python.psi.PyExpression;
+import com.jetbrains.python.psi.PyFunction;
+import com.jetbrains.python.psi.PyTargetExpression;
+import com.jetbrains.python.psi.types.TypeEvalContext;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Extracts the attributes, methods, references and superclasses of Python classes in a single pass.
+ * <p>
+ * Every attribute is visited once: its type is inferred once and used both for the attribute description and, if it
+ * is not one of {@link PythonAnalysisHelper#defaultTypes}, as a reference. Whether an attribute is static is looked
+ * up in the set of class attribute names of the class instead of searching the class per attribute. Type names come
+ * from a {@link TypeStringCache} shared by all classes of one analysis run.
+ * </p>
+ */
+final class PythonClassExtractor {
+
+    /**
+     * An attribute of a Python class as extracted from the PSI.
+     *
+     * @param name     the attribute name
+     * @param type     the inferred type, "?" if unknown
+     * @param isStatic whether it is a class attribute
+     */
+    record Attribute(String name, String type, boolean isStatic) {
+
+        /**
+         * @return the attribute in PlantUML notation, e.g. {@code {static} +count : int}
+         */
+        String describe() {
+            return (isStatic ? "{static} " : "") + PythonAnalysisHelper.determineVisibility(name) + name + " : " + type;
+        }
+    }
+
+    private final TypeStringCache types;
+
+    /**
+     * @param types the type names of the current analysis run
+     */
+    PythonClassExtractor(TypeStringCache types) {
+        this.types = types;
+    }
+
+    /**
+     * Extracts the details of a Python class.
+     *
+     * @param pyClass the Python class to analyze
+     * @param context the type evaluation context
+     * @return the class details
+     */
+    ClassInfo extract(PyClass pyClass, TypeEvalContext context) {
+        List<String> attributes = new ArrayList<>();
+        Set<String> references = new LinkedHashSet<>();
+        for (Attribute attribute : extractAttributes(pyClass, context)) {
+            attributes.add(attribute.describe());
+            if (!PythonAnalysisHelper.defaultTypes.contains(attribute.type())) {
+                references.add(attribute.type());
+            }
+        }
+
+        List<String> methods = new ArrayList<>();
+        for (PyFunction method : pyClass.getMethods()) {
+            methods.add(PythonAnalysisHelper.getMethodSignature(method, context, types));
+        }
+
+        List<String> superClasses = new ArrayList<>();
+        for (PyExpression superClass : pyClass.getSuperClassExpressions()) {
+            superClasses.add(superClass.getText());
+        }
+        return new ClassInfo(attributes, methods, new ArrayList<>(references), superClasses);
+    }
+
+    /**
+     * Extracts the instance attributes followed by the class attributes of a Python class.
+     *
+     * @param pyClass the Python class to analyze
+     * @param context the type evaluation context
+     * @return the attributes
+     */
+    List<Attribute> extractAttributes(PyClass pyClass, TypeEvalContext context) {
+        List<PyTargetExpression> classAttributes = pyClass.getClassAttributes();
+        Set<String> classAttributeNames = new HashSet<>();
+        for (PyTargetExpression attribute : classAttributes) {
+            classAttributeNames.add(attribute.getName());
+        }
+
+        List<PyTargetExpression> targets = new ArrayList<>(pyClass.getInstanceAttributes());
+        targets.addAll(classAttributes);
+        List<Attribute> attributes = new ArrayList<>(targets.size());
+        for (PyTargetExpression target : targets) {
+            String name = Objects.requireNonNull(target.getName());
+            attributes.add(new Attribute(name, types.typeString(target, context), classAttributeNames.contains(name)));
+        }
+        return attributes;
+    }
+}
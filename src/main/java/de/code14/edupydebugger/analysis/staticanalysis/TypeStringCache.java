@@ -0,0 +1,50 @@
+package de.code14.edupydebugger.analysis.staticanalysis;
+
+import com.jetbrains.python.psi.PyElement;
+import com.jetbrains.python.psi.types.PyType;
+import com.jetbrains.python.psi.types.TypeEvalContext;
+
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Memoizes the names of inferred Python types for one analysis run.
+ * <p>
+ * The attributes, parameters and return values of a project share few distinct types, but naming a union or
+ * generic type formats it anew on every call. One cache is shared by all classes of a run and keyed by type, so
+ * every distinct type is named once. A cache must not outlive its run, since types are only valid as long as the
+ * PSI they were inferred from.
+ * </p>
+ */
+public final class TypeStringCache {
+
+    private final Map<PyType, String> names = new HashMap<>();
+
+    /**
+     * Infers the type of a Python element and returns its name.
+     *
+     * @param element the Python element to analyze
+     * @param context the type evaluation context
+     * @return the type of the element as a string, or "?" if the type could not be determined
+     * @see PythonAnalysisHelper#getTypeString(PyElement, TypeEvalContext)
+     */
+    public String typeString(PyElement element, TypeEvalContext context) {
+        PyType type = PythonAnalysisHelper.inferType(element, context);
+        if (type == null) {
+            return "?";
+        }
+        String name = names.get(type);
+        if (name == null && !names.containsKey(type)) {
+            name = type.getName();
+            names.put(type, name);
+        }
+        return name;
+    }
+
+    /**
+     * @return the number of distinct types named so far
+     */
+    public int size() {
+        return names.size();
+    }
+}
@@ -12,8 +12,10 @@ import com.intellij.xdebugger.XDebuggerManagerListener;
 import com.jetbrains.python.debugger.PyDebugProcess;
 import de.code14.edupydebugger.server.DebugServerEndpoint;
 import de.code14.edupydebugger.core.console.ConsoleOutputListener;
-import de.code14.edupydebugger.server.DebugWebServer;
+import de.code14.edupydebugger.core.publish.PayloadPublisher;
+import de.code14.edupydebugger.diagram.DiagramWarmUp;
 import de.code14.edupydebugger.server.DebugWebSocketServer;
+import de.code14.edupydebugger.ui.JcefTransport;
 import de.code14.edupydebugger.ui.DebuggerToolWindowFactory;
 import com.intellij.util.concurrency.AppExecutorUtil;
 import org.jetbrains.annotations.NotNull;
@@ -27,9 +29,10 @@ import javax.swing.*;
  * <p>When a debugging session starts, this class performs the following actions:</p>
  * <ul>
  *   <li>Starts (or reuses) a {@link de.code14.edupydebugger.server.DebugWebSocketServer} so the
- *       running <em>PyDevd</em> process can be streamed to the browser‑based front‑end.</li>
- *   <li>Starts (or reuses) a lightweight {@link de.code14.edupydebugger.server.DebugWebServer}
- *       that serves static assets for the EduPy debug UI.</li>
+ *       running <em>PyDevd</em> process can be streamed to the browser‑based front‑end; the same
+ *       server serves the static assets for the EduPy debug UI. Only with
+ *       {@code -Dedupy.ui.transport=socket}: by default the tool window talks to the endpoint in-process
+ *       through {@link de.code14.edupydebugger.ui.JcefTransport}.</li>
  *   <li>Binds the active {@link com.jetbrains.python.debugger.PyDebugProcess} and its
  *       {@link com.intellij.execution.process.ProcessHandler} to the reusable
  *       {@link de.code14.edupydebugger.server.DebugServerEndpoint}, allowing WebSocket
@@ -43,6 +46,9 @@ import javax.swing.*;
  *
  * <p>When the session ends, the listener refreshes the EduPy debugger UI to clear stale state.</p>
  *
+ * <p>Debug sessions of other languages are ignored, so they neither start the servers nor load the bundled
+ * libraries (Tyrus, Grizzly, Gson, PlantUML).</p>
+ *
  * <p>The listener must be registered as an application‑level {@code XDebuggerManagerListener}
  * (see {@code plugin.xml}) so that IntelliJ invokes {@link #processStarted} and
  * {@link #processStopped} automatically for every debug session.</p>
@@ -66,36 +72,36 @@ public class DebugProcessListener implements XDebuggerManagerListener {
 
     /**
      * This method is called when the debugging process starts.
-     * It initializes the WebSocket and HTTP servers, sets up the debug process endpoint,
+     * It starts the server of the debugger UI, sets up the debug process endpoint,
      * and opens the custom debugger tool window while hiding the default one.
      *
      * @param debugProcess the XDebugProcess representing the debugging process
      */
     @Override
     public void processStarted(@NotNull XDebugProcess debugProcess) {
+        if (!(debugProcess instanceof PyDebugProcess)) {
+            return;
+        }
         final XDebugSession debugSession = debugProcess.getSession();
 
         LOGGER.info("Debug Process started");
 
-        // Resolve instances on the calling thread (helps tests with static mocks), then start in background
-        final DebugWebSocketServer wsServer = DebugWebSocketServer.getInstance();
-        final DebugWebServer httpServer = DebugWebServer.getInstance();
-        AppExecutorUtil.getAppExecutorService().execute(() -> {
-            if (!wsServer.isRunning()) {
-                try {
-                    wsServer.startWebSocketServer();
-                } catch (final Exception e) {
-                    LOGGER.error("Failed to start the websocket server", e);
-                }
-            }
-            if (!httpServer.isRunning()) {
-                try {
-                    httpServer.startWebServer();
-                } catch (final Exception e) {
-                    LOGGER.error("Failed to start the http server", e);
+        if (!JcefTransport.isEnabled()) {
+            // Resolve the instance on the calling thread (helps tests with static mocks), then start in background
+            final DebugWebSocketServer wsServer = DebugWebSocketServer.getInstance();
+            AppExecutorUtil.getAppExecutorService().execute(() -> {
+                if (!wsServer.isRunning()) {
+                    try {
+                        wsServer.startWebSocketServer();
+                    } catch (final Exception e) {
+                        LOGGER.error("Failed to start the websocket server", e);
+                    }
                 }
-            }
-        });
+            });
+        }
+
+        // Render the first diagrams of the session without PlantUML start-up cost
+        DiagramWarmUp.start();
 
         // Set the debug process in the WebSocket endpoint
         DebugServerEndpoint.setDebugProcess((PyDebugProcess) debugProcess);
@@ -131,7 +137,11 @@ public class DebugProcessListener implements XDebuggerManagerListener {
      */
     @Override
     public void processStopped(@NotNull XDebugProcess debugProcess) {
+        if (!(debugProcess instanceof PyDebugProcess)) {
+            return;
+        }
         DebuggerToolWindowFactory.reloadEduPyDebugger();
+        PayloadPublisher.resetObjectDiagram();
         // Clear integration so REPL mode can take over cleanly
         try {
             DebugServerEndpoint.setDebugProcess(null);
@@ -1,11 +1,14 @@
 package de.code14.edupydebugger.core;
 
 import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.util.concurrency.AppExecutorUtil;
 import com.jetbrains.python.debugger.PyDebugProcess;
 import com.jetbrains.python.debugger.PyStackFrame;
 import com.jetbrains.python.debugger.PyThreadInfo;
-import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.AsyncEvaluationClient;
 import de.code14.edupydebugger.analysis.dynamicanalysis.DebuggerUtils;
+import de.code14.edupydebugger.analysis.dynamicanalysis.EvaluationGateway;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectAnalyzer;
 import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
 import de.code14.edupydebugger.analysis.dynamicanalysis.StackFrameAnalyzer;
 import de.code14.edupydebugger.server.DebugServerEndpoint;
@@ -18,6 +21,10 @@ import org.jetbrains.annotations.Nullable;
 
 import java.io.IOException;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
 
 /**
  * Coordinates the dynamic analysis of a suspended Python debugging session and
@@ -34,13 +41,74 @@ import java.util.*;
  *   <li>Analyzing stack frames per suspended thread</li>
  *   <li>Publishing call stack, variable table, and object representations as JSON</li>
  *   <li>Generating class/object diagrams via PlantUML and encoding them as Base64 SVG</li>
+ *   <li>Analyzing the objects of caller frames on demand ({@link #selectFrame(int)}) and, while paused,
+ *       in the background</li>
+ *   <li>Caching the snapshot of every analyzed thread while the debuggee stays paused, so that selecting a
+ *       thread again republishes it instead of analyzing again</li>
  * </ul>
+ * <p>
+ * pydevd evaluates plain expressions in the session's current frame only. The analyzers therefore tag every
+ * evaluation with the frame it belongs to, and the {@link EvaluationGateway} evaluates those of other frames,
+ * including the frames of other threads, in their own frame. Answers stay valid for the whole pause: selecting
+ * another thread or frame keeps the memo and the snapshots, only the next pause starts a new generation.
+ * </p>
  */
 public class DebugSessionController {
     private static final Logger LOGGER = Logger.getInstance(DebugSessionController.class);
 
     private PyDebugProcess debugProcess;
 
+    /** Memoizes debugger evaluations of the current pause; shared by all analyzers and the call stack formatter. */
+    private final EvaluationGateway evaluationGateway = new EvaluationGateway();
+
+    /** Issues the analyzers' independent probes concurrently through {@link #evaluationGateway}. */
+    private final AsyncEvaluationClient evaluationClient = AsyncEvaluationClient.create(evaluationGateway);
+
+    private static final Object NO_PAUSE = new Object();
+
+    /** Suspend context of the pause the memoized evaluations belong to; another pause starts a new generation. */
+    private Object evaluatedPause = NO_PAUSE;
+
+    /** System property disabling the background analysis of caller frames while paused ({@code true} by default). */
+    public static final String FRAME_PREFETCH_PROPERTY = "edupy.objects.prefetch";
+
+    /** Test seam: executor running the background prefetch of caller frames; {@code null} selects the application pool. */
+    private static volatile Executor prefetchExecutor;
+
+    /**
+     * Results of the last analysis plus the lazily analyzed objects of its deferred (caller) frames.
+     *
+     * @param generation   evaluation generation the results belong to
+     * @param analyzer     the analyzer that produced the results (serves container pages)
+     * @param frames       the analyzed stack frames, top frame first
+     * @param variables    the published variables
+     * @param objects      the objects of the eagerly analyzed frames
+     * @param deferred     indices of the frames whose objects are analyzed on demand
+     * @param frameObjects objects per deferred frame, analyzed once per generation
+     */
+    private record FrameSnapshot(long generation, StackFrameAnalyzer analyzer, List<PyStackFrame> frames,
+                                 List<VariableDTO> variables,
+                                 Map<String, ObjectInfo> objects, List<Integer> deferred,
+                                 Map<Integer, CompletableFuture<Map<String, ObjectInfo>>> frameObjects) {
+    }
+
+    private volatile FrameSnapshot frameSnapshot;
+
+    /** Maximum number of container items answered per {@code container_page} request. */
+    public static final int MAX_PAGE_ITEMS = 200;
+
+    /**
+     * Identifies the cached analysis of one thread during one pause.
+     *
+     * @param thread     name of the thread as shown in the thread list
+     * @param generation evaluation generation the analysis belongs to
+     */
+    private record ThreadKey(String thread, long generation) {
+    }
+
+    /** Analysis results of the current generation; dropped on resume and when a new generation starts. */
+    private final Map<ThreadKey, CompletableFuture<FrameSnapshot>> threadSnapshots = new ConcurrentHashMap<>();
+
     /**
      * A set of built-in Python types that are treated as primitive values when rendering variable data.
      */
@@ -54,6 +122,8 @@ public class DebugSessionController {
      * Performs dynamic analysis for the selected (or first suspended) thread and publishes
      * results to the frontend. If the debug process is not yet available (e.g. very early
      * lifecycle events), the call returns immediately without side effects.
+     * <p>
+     * Results are cached per thread until the debuggee resumes, so selecting a thread again only republishes them.
      */
     public void performDynamicAnalysis(@Nullable String selectedThread) throws IOException {
         if (this.debugProcess == null) {
@@ -71,120 +141,263 @@ public class DebugSessionController {
                 DebuggerUtils.getStackFramesPerThread(this.debugProcess.getSession());
 
         List<PyStackFrame> stackFrames = null;
+        String threadName = null;
 
         for (Map.Entry<PyThreadInfo, List<PyStackFrame>> entry : perThreadFrames.entrySet()) {
             PyThreadInfo threadInfo = entry.getKey();
-            if (selectedThread != null) {
-                if (threadInfo.getName().equals(selectedThread) && threadInfo.getState() == PyThreadInfo.State.SUSPENDED) {
-                    stackFrames = entry.getValue();
-                    publishCallstack(entry.getValue());
-                }
-            } else if (stackFrames == null && threadInfo.getState() == PyThreadInfo.State.SUSPENDED) {
+            if (threadInfo.getState() != PyThreadInfo.State.SUSPENDED) {
+                continue;
+            }
+            if (selectedThread != null ? threadInfo.getName().equals(selectedThread) : stackFrames == null) {
                 stackFrames = entry.getValue();
+                threadName = threadInfo.getName();
             }
         }
 
-        if (stackFrames != null) {
-            StackFrameAnalyzer analyzer = new StackFrameAnalyzer(stackFrames);
-            analyzer.analyzeFrames();
+        beginEvaluationGeneration();
+        long generation = evaluationGateway.getGeneration();
+        threadSnapshots.keySet().removeIf(key -> key.generation() != generation);
 
-            NormalizedSnapshot snapshot = DebugSnapshotAdapter.from(analyzer);
+        if (stackFrames != null) {
+            if (selectedThread != null) {
+                publishCallstack(stackFrames);
+            }
+            FrameSnapshot frames = await(threadSnapshot(new ThreadKey(threadName, generation), stackFrames));
             try {
-                PayloadPublisher.publishObjects(snapshot.objects());
+                PayloadPublisher.publishObjects(frames.objects());
             } catch (IOException e) {
                 throw new RuntimeException(e);
             }
-            PayloadPublisher.publishVariablesWithSnippet(new ArrayList<>(snapshot.variables()), snapshot.objects());
+            PayloadPublisher.publishVariablesWithSnippet(new ArrayList<>(frames.variables()), frames.objects());
+
+            this.frameSnapshot = frames;
+            scheduleFramePrefetch(frames);
         }
+        LOGGER.debug("Evaluations (requests/round trips) generation " + evaluationGateway.getGeneration()
+                + ": " + evaluationGateway.formatStats());
     }
 
     /**
-     * Publishes the call stack for the currently analyzed thread.
-     *
-     * @param frames a list of stack frames belonging to the selected or first suspended thread
+     * Starts a new evaluation generation on the first analysis of a pause, in case the resume was not reported,
+     * and tells the gateway which frame is current. Selecting another frame in the IDE or another thread in the
+     * UI keeps the generation, since every evaluation is made in its own frame. Counters are reset per analysis
+     * run so that the logged numbers describe a single step.
      */
-    private void publishCallstack(List<PyStackFrame> frames) {
-        CallstackPayload payload = new CallstackPayload();
-        // Enrich frames to include actual parameters where available
-        payload.frames = DebuggerUtils.formatCallstackFrames(frames);
-        DebugServerEndpoint.publishCallstack(payload);
+    private void beginEvaluationGeneration() {
+        Object pause = null;
+        Object current = null;
+        try {
+            pause = this.debugProcess.getSession().getSuspendContext();
+            current = this.debugProcess.getSession().getCurrentStackFrame();
+        } catch (Throwable ignore) {}
+        if (evaluatedPause != pause) {
+            evaluationGateway.invalidate();
+            evaluatedPause = pause;
+        }
+        // Plain expressions run in the current frame; all others are evaluated in their frame by id
+        evaluationGateway.setCurrentFrameId(current instanceof PyStackFrame frame ? frame.getFrameId() : null);
+        evaluationGateway.resetStats();
     }
 
     /**
-     * Builds and publishes the list of variables visible in the current stack frame scope.
-     * <p>
-     * Primitive variables are rendered as plain strings, while complex objects
-     * are summarized using their attributes for a compact table representation.
-     *
-     * @param analyzer the active {@link StackFrameAnalyzer} used to extract variable data
-     * @param objects  a mapping of object IDs to {@link ObjectInfo} instances used for lookups
+     * Discards all memoized evaluations. Must be called whenever the debuggee resumes, since results are
+     * only valid while it is suspended.
      */
-    private void handleVariables(StackFrameAnalyzer analyzer, Map<String, ObjectInfo> objects) {
-        Map<String, List<String>> varsRaw = analyzer.getVariables();
-        List<VariableDTO> variables = new ArrayList<>();
-
-        for (Map.Entry<String, List<String>> e : varsRaw.entrySet()) {
-            List<String> v = e.getValue();
-            if (v.size() < 4) continue;
-
-            String id     = e.getKey();
-            String names  = v.get(0);
-            String type   = v.get(1);
-            String value  = v.get(2);
-            String scope  = v.get(3);
-
-            VariableDTO dto = new VariableDTO();
-            dto.id = id;
-            dto.names = Arrays.asList(names.split("###"));
-            dto.pyType = type;
-            dto.scope = scope;
-
-            ValueDTO val = new ValueDTO();
-            if (defaultTypes.contains(type)) {
-                val.kind = "primitive";
-                val.repr = value.replace("~", ", ");
-                // Optional: if analyzer provided a full representation as 5th element, attach it
-                if (v.size() >= 5) {
-                    val.full = v.get(4);
+    public void invalidateEvaluations() {
+        evaluationGateway.invalidate();
+        evaluatedPause = NO_PAUSE;
+        frameSnapshot = null;
+        threadSnapshots.clear();
+    }
+
+    /**
+     * Returns the analysis of a thread for the current generation, analyzing it on first request. A failed
+     * analysis is discarded so that the next request tries again.
+     */
+    private CompletableFuture<FrameSnapshot> threadSnapshot(ThreadKey key, List<PyStackFrame> stackFrames) {
+        CompletableFuture<FrameSnapshot> own = new CompletableFuture<>();
+        CompletableFuture<FrameSnapshot> pending = threadSnapshots.putIfAbsent(key, own);
+        if (pending != null) {
+            return pending;
+        }
+        try {
+            StackFrameAnalyzer analyzer = new StackFrameAnalyzer(stackFrames, evaluationClient);
+            analyzer.analyzeFramesAsync().thenApply(ignored -> {
+                NormalizedSnapshot snapshot = DebugSnapshotAdapter.from(analyzer);
+                return new FrameSnapshot(key.generation(), analyzer, stackFrames,
+                        new ArrayList<>(snapshot.variables()), snapshot.objects(), analyzer.getDeferredFrameIndices(),
+                        new ConcurrentHashMap<>());
+            }).whenComplete((frames, error) -> {
+                if (error != null) {
+                    threadSnapshots.remove(key, own);
+                    own.completeExceptionally(error);
+                } else {
+                    own.complete(frames);
                 }
-            } else {
-                val.kind = "composite";
-                // Kompakte Attribut-Repräsentation für die Tabelle (Detailanzeige via Objektkarten)
-                ObjectInfo info = objects.get(id);
-                StringBuilder repr = new StringBuilder();
-                if (info != null) {
-                    for (AttributeInfo a : info.attributes()) {
-                        String shown = a.value();
-                        if (shown.length() > 20) shown = shown.substring(0, 20) + " [...]";
-                        repr.append(a.name()).append(": ").append(shown).append("\n");
-                    }
+            });
+        } catch (RuntimeException e) {
+            threadSnapshots.remove(key, own);
+            own.completeExceptionally(e);
+        }
+        return own;
+    }
+
+    /**
+     * Publishes the objects of a call stack frame selected in the UI together with those of the eagerly
+     * analyzed frames. Caller frames are analyzed on first selection unless the background prefetch already
+     * did so; selecting an eager frame re-publishes the last results.
+     *
+     * @param index index of the frame in the published call stack, top frame = 0
+     * @throws IOException if the object diagrams cannot be generated
+     */
+    public void selectFrame(int index) throws IOException {
+        FrameSnapshot frames = this.frameSnapshot;
+        if (frames == null || index < 0 || index >= frames.frames().size()) {
+            LOGGER.debug("selectFrame(" + index + ") ignored: no matching analysis");
+            return;
+        }
+        Map<String, ObjectInfo> objects = new HashMap<>(frames.objects());
+        if (frames.deferred().contains(index)) {
+            frameObjects(frames, index).join().forEach(objects::putIfAbsent);
+        }
+        PayloadPublisher.publishObjects(objects);
+        PayloadPublisher.publishVariablesWithSnippet(new ArrayList<>(frames.variables()), objects);
+    }
+
+    /**
+     * Returns the objects of a deferred frame, analyzing them on first request. Concurrent requests for the
+     * same frame (selection and prefetch) share one analysis.
+     */
+    private CompletableFuture<Map<String, ObjectInfo>> frameObjects(FrameSnapshot frames, int index) {
+        CompletableFuture<Map<String, ObjectInfo>> own = new CompletableFuture<>();
+        CompletableFuture<Map<String, ObjectInfo>> pending = frames.frameObjects().putIfAbsent(index, own);
+        if (pending != null) {
+            return pending;
+        }
+        if (!isCurrent(frames)) {
+            own.complete(Collections.emptyMap());
+            return own;
+        }
+        try {
+            ObjectAnalyzer analyzer = new ObjectAnalyzer(frames.frames(), evaluationClient);
+            analyzer.analyzeObjectsAsync(List.of(index)).whenComplete((objects, error) -> {
+                if (error != null) {
+                    frameAnalysisFailed(frames, index, own, error);
+                } else {
+                    own.complete(objects);
                 }
-                val.repr = repr.toString().trim();
-            }
-            dto.value = val;
+            });
+        } catch (RuntimeException e) {
+            frameAnalysisFailed(frames, index, own, e);
+        }
+        return own;
+    }
 
-            variables.add(dto);
+    private void frameAnalysisFailed(FrameSnapshot frames, int index,
+                                     CompletableFuture<Map<String, ObjectInfo>> own, Throwable error) {
+        // Let the next selection try again
+        frames.frameObjects().remove(index, own);
+        LOGGER.debug("Analysis of frame " + index + " failed", error);
+        own.complete(Collections.emptyMap());
+    }
+
+    /**
+     * Analyzes the deferred frames one after the other in the background while the debuggee stays paused,
+     * so that selecting a caller frame is answered from the cache. Stops as soon as the debuggee resumes or
+     * another analysis starts.
+     */
+    private void scheduleFramePrefetch(FrameSnapshot frames) {
+        if (frames.deferred().isEmpty() || !Boolean.parseBoolean(System.getProperty(FRAME_PREFETCH_PROPERTY, "true"))) {
+            return;
+        }
+        Executor executor = prefetchExecutor != null ? prefetchExecutor : AppExecutorUtil.getAppExecutorService();
+        CompletableFuture<Void> chain = CompletableFuture.runAsync(() -> {}, executor);
+        for (int index : frames.deferred()) {
+            chain = chain.thenComposeAsync(ignored -> !isCurrent(frames) || !isPaused()
+                    ? CompletableFuture.completedFuture(null)
+                    : frameObjects(frames, index).thenAccept(objects -> {}), executor);
         }
+    }
 
-        PayloadPublisher.publishVariablesWithSnippet(variables, objects);
+    // Visible for tests
+    public static void setPrefetchExecutor(Executor executor) {
+        prefetchExecutor = executor;
     }
 
     /**
-     * Analyzes the current stack frame’s object references and generates visual representations.
-     * <p>
-     * Each object is converted into an individual “object card” diagram (Base64-encoded SVG),
-     * and a complete object diagram is generated to show inter-object relationships.
+     * Publishes a page of the items of a builtin container shown in the variables table. Containers are
+     * published with their length and a preview only; the UI requests their contents page by page while
+     * the debuggee stays paused. Requests for unknown containers or after a resume are ignored.
      *
-     * @param analyzer the {@link StackFrameAnalyzer} that extracted object metadata
-     * @return a mapping from object ID to its corresponding {@link ObjectInfo}
-     * @throws IOException if PlantUML diagram generation fails
+     * @param id     variable ID of the container
+     * @param offset index of the first item
+     * @param limit  requested number of items, capped at {@value #MAX_PAGE_ITEMS}
      */
-    private Map<String, ObjectInfo> handleObjects(StackFrameAnalyzer analyzer) throws IOException {
-        Map<String, ObjectInfo> objects = analyzer.getObjects();
+    public void fetchContainerPage(String id, int offset, int limit) {
+        FrameSnapshot frames = this.frameSnapshot;
+        if (frames == null || !isCurrent(frames) || !isPaused()) {
+            LOGGER.debug("fetchContainerPage(" + id + ") ignored: no current analysis");
+            return;
+        }
+        VariableDTO variable = frames.variables().stream()
+                .filter(v -> Objects.equals(v.id, id) && v.value != null && v.value.length != null)
+                .findFirst().orElse(null);
+        if (variable == null) {
+            LOGGER.debug("fetchContainerPage(" + id + ") ignored: not a paged container");
+            return;
+        }
+        ContainerPagePayload payload = new ContainerPagePayload();
+        payload.id = id;
+        payload.offset = offset;
+        payload.length = variable.value.length;
+        payload.items = frames.analyzer().fetchContainerPage(id, offset, Math.min(limit, MAX_PAGE_ITEMS)).join();
+        DebugServerEndpoint.publishContainerPage(payload);
+    }
 
-        PayloadPublisher.publishObjects(objects);
+    /**
+     * Waits for an analysis stage, rethrowing its runtime failure unwrapped.
+     */
+    private static <T> T await(CompletableFuture<T> stage) {
+        try {
+            return stage.join();
+        } catch (CompletionException e) {
+            if (e.getCause() instanceof RuntimeException cause) throw cause;
+            throw e;
+        }
+    }
+
+    private boolean isCurrent(FrameSnapshot frames) {
+        return frames == this.frameSnapshot && frames.generation() == evaluationGateway.getGeneration();
+    }
+
+    private boolean isPaused() {
+        try {
+            return this.debugProcess != null && this.debugProcess.getSession() != null
+                    && this.debugProcess.getSession().isPaused();
+        } catch (Throwable t) {
+            return false;
+        }
+    }
+
+    /**
+     * Returns the evaluation gateway of this controller, e.g. to inspect its counters.
+     *
+     * @return the shared {@link EvaluationGateway}
+     */
+    public EvaluationGateway getEvaluationGateway() {
+        return evaluationGateway;
+    }
 
-        return objects;
+    /**
+     * Publishes the call stack for the currently analyzed thread.
+     *
+     * @param frames a list of stack frames belonging to the selected or first suspended thread
+     */
+    private void publishCallstack(List<PyStackFrame> frames) {
+        CallstackPayload payload = new CallstackPayload();
+        // Enrich frames to include actual parameters where available
+        payload.frames = DebuggerUtils.formatCallstackFrames(frames, evaluationClient);
+        DebugServerEndpoint.publishCallstack(payload);
     }
 
     /**
@@ -195,5 +408,6 @@ public class DebugSessionController {
      */
     public void setDebugProcess(PyDebugProcess debugProcess) {
         this.debugProcess = debugProcess;
+        invalidateEvaluations();
     }
 }
@@ -2,13 +2,17 @@ package de.code14.edupydebugger.core;
 
 import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.application.ApplicationManager;
+import com.intellij.openapi.project.Project;
 import com.intellij.util.concurrency.AppExecutorUtil;
 import com.intellij.xdebugger.XDebugProcess;
 import com.intellij.xdebugger.XDebugSessionListener;
 import com.jetbrains.python.debugger.*;
 import de.code14.edupydebugger.analysis.dynamicanalysis.DebuggerUtils;
+import de.code14.edupydebugger.analysis.staticanalysis.ClassInfo;
 import de.code14.edupydebugger.analysis.staticanalysis.PythonAnalyzer;
+import de.code14.edupydebugger.diagram.ClassDiagramCache;
 import de.code14.edupydebugger.diagram.ClassDiagramParser;
+import de.code14.edupydebugger.diagram.ClassDiagramShards;
 import de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator;
 import de.code14.edupydebugger.server.DebugServerEndpoint;
 import de.code14.edupydebugger.server.dto.ThreadDTO;
@@ -17,6 +21,8 @@ import de.code14.edupydebugger.server.dto.ThreadsPayload;
 import java.io.IOException;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Supplier;
 
 /**
  * Listens to PyCharm/XDebugger session events and keeps the frontend in sync with the current
@@ -25,10 +31,16 @@ import java.util.List;
  * Responsibilities:
  * <ul>
  *   <li><b>Static analysis on session start:</b> Generates a class diagram (PlantUML → Base64 SVG)
- *       using {@link ClassDiagramParser} and {@link PythonAnalyzer} and publishes it to the client.</li>
+ *       using {@link ClassDiagramParser} and {@link PythonAnalyzer} and publishes it to the client. If the
+ *       Python sources are unchanged since an earlier session, even one before an IDE restart, the diagram
+ *       kept in {@link ClassDiagramCache} is published right away instead. Large projects get an overview
+ *       of their modules, whose class diagrams are rendered when the user opens them
+ *       ({@link ClassDiagramShards}).</li>
  *   <li><b>Dynamic updates on frame changes:</b> On each {@link #stackFrameChanged()} event, publishes
  *       the current set of threads and triggers a dynamic analysis run in
  *       {@link de.code14.edupydebugger.core.DebugSessionController} for the selected thread.</li>
+ *   <li><b>Cache invalidation on resume:</b> On {@link #sessionResumed()}, discards the evaluations the
+ *       controller memoized during the previous pause.</li>
  * </ul>
  * <p>
  * This listener is Python-focused and expects the {@link XDebugProcess} to be a {@link PyDebugProcess}.
@@ -40,6 +52,9 @@ public class DebugSessionListener implements XDebugSessionListener {
     /** The active XDebugger process (expected to be a {@link PyDebugProcess}). */
     private final XDebugProcess debugProcess;
 
+    /** Fingerprints the project sources, which decides whether the cached class diagram is still valid. */
+    private final PythonAnalyzer pythonAnalyzer;
+
     /** Parses project sources to produce a PlantUML class diagram for the frontend. */
     private final ClassDiagramParser classDiagramParser;
 
@@ -55,7 +70,8 @@ public class DebugSessionListener implements XDebugSessionListener {
      */
     public DebugSessionListener(XDebugProcess debugProcess) {
         this.debugProcess = debugProcess;
-        this.classDiagramParser = new ClassDiagramParser(new PythonAnalyzer());
+        this.pythonAnalyzer = new PythonAnalyzer();
+        this.classDiagramParser = new ClassDiagramParser(pythonAnalyzer);
 
         // Static analysis (PlantUML generation) can be expensive; perform off the EDT
         if (debugProcess instanceof PyDebugProcess py) {
@@ -114,6 +130,15 @@ public class DebugSessionListener implements XDebugSessionListener {
         }
     }
 
+    /**
+     * Invoked when the debuggee resumes (continue or step). Memoized evaluations of the previous pause
+     * are no longer valid and are discarded.
+     */
+    @Override
+    public void sessionResumed() {
+        DebugServerEndpoint.getDebugSessionController().invalidateEvaluations();
+    }
+
     /**
      * Collects all debugger threads from the current session and publishes them as a JSON payload.
      * <p>
@@ -138,23 +163,88 @@ public class DebugSessionListener implements XDebugSessionListener {
     /**
      * Performs a one-time static project analysis to generate the class diagram and publishes it
      * as a Base64-encoded SVG via the {@link DebugServerEndpoint}.
+     * <p>
+     * The content hashes of the project's Python files and the render settings are compared with the entry of
+     * {@link ClassDiagramCache}; if they match, the cached diagram is published without analyzing or
+     * rendering anything. If only the render settings differ, the cached class model is rendered again without
+     * analyzing the sources. Otherwise the new class model and diagram replace the cached entry.
      *
      * @param py the active Python debug process (used to access the IntelliJ project)
      * @throws IOException if PlantUML diagram generation or encoding fails
      */
     protected void performStaticAnalysis(PyDebugProcess py) throws IOException {
-        String plantUml;
+        Project project = py.getProject();
+        ClassDiagramCache cache = ClassDiagramCache.getInstance();
+        String projectKey = project.getBasePath();
+        String renderSettings = null;
+        Map<String, String> fileHashes = null;
+        ClassDiagramCache.Entry cached = null;
+        if (cache != null && projectKey != null) {
+            try {
+                renderSettings = ClassDiagramCache.renderSettings();
+                fileHashes = readAction(() -> {
+                    try {
+                        return pythonAnalyzer.fingerprintPythonFiles(project);
+                    } catch (IOException e) {
+                        throw new java.io.UncheckedIOException(e);
+                    }
+                });
+                cached = cache.load(projectKey);
+                if (cached != null && cached.matches(renderSettings, fileHashes)) {
+                    // Unchanged sources and settings: publish the diagram of an earlier session right away
+                    publishClassDiagram(cached.svgBase64(), shard(cached.classes(), cached.classModules()));
+                    return;
+                }
+            } catch (RuntimeException e) {
+                LOGGER.warn("Could not fingerprint project sources, analyzing without cache", e);
+                fileHashes = null;
+            }
+        }
+
+        Map<String, ClassInfo> classes;
+        Map<String, String> classModules;
+        if (fileHashes != null && cached != null && cached.hasSources(fileHashes)) {
+            // Only the render settings changed: the class model is still valid, just render it again
+            classes = cached.classes();
+            classModules = cached.classModules();
+        } else {
+            classes = readAction(() -> classDiagramParser.analyzeClasses(project));
+            classModules = pythonAnalyzer.getClassModules();
+        }
+        // Large projects: only the module overview now, the modules when they are opened
+        ClassDiagramShards shards = shard(classes, classModules);
+        String plantUml = shards != null ? shards.overviewPlantUml() : ClassDiagramParser.toPlantUml(classes);
+        String base64 = PlantUMLDiagramGenerator.generateDiagramAsBase64(plantUml);
+        publishClassDiagram(base64, shards);
+        if (fileHashes != null) {
+            cache.store(projectKey, new ClassDiagramCache.Entry(renderSettings, fileHashes, classes, classModules, base64));
+        }
+    }
+
+    private static ClassDiagramShards shard(Map<String, ClassInfo> classes, Map<String, String> classModules) {
+        return ClassDiagramShards.shouldShard(classes) ? new ClassDiagramShards(classes, classModules) : null;
+    }
+
+    private static void publishClassDiagram(String base64, ClassDiagramShards shards) {
+        if (shards != null) {
+            DebugServerEndpoint.publishClassDiagramShards(base64, shards);
+        } else {
+            DebugServerEndpoint.publishClassDiagram(base64);
+        }
+    }
+
+    /**
+     * Runs PSI/VFS access in a read action when an application is available, directly otherwise (tests).
+     */
+    private static <T> T readAction(Supplier<T> computation) {
         var app = ApplicationManager.getApplication();
         if (app != null) {
             try {
-                plantUml = com.intellij.openapi.application.ReadAction.compute(() -> classDiagramParser.generateClassDiagram(py.getProject()));
+                return com.intellij.openapi.application.ReadAction.compute(computation::get);
             } catch (Throwable t) {
-                plantUml = classDiagramParser.generateClassDiagram(py.getProject());
+                return computation.get();
             }
-        } else {
-            plantUml = classDiagramParser.generateClassDiagram(py.getProject());
         }
-        String base64 = PlantUMLDiagramGenerator.generateDiagramAsBase64(plantUml);
-        DebugServerEndpoint.publishClassDiagram(base64);
+        return computation.get();
     }
 }
@@ -4,7 +4,6 @@ import com.intellij.openapi.diagnostic.Logger;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectManagerListener;
 import com.intellij.util.concurrency.AppExecutorUtil;
-import de.code14.edupydebugger.server.DebugWebServer;
 import de.code14.edupydebugger.server.DebugWebSocketServer;
 import de.code14.edupydebugger.ui.DebuggerToolWindowFactory;
 import org.jetbrains.annotations.NotNull;
@@ -13,28 +12,29 @@ import javax.swing.*;
 
 /**
  * Listener class that responds to events related to the lifecycle of a project.
- * This class handles the initialization and cleanup of the debug web server and the debug tool window.
- * Specifically, it ensures that the web server and web socket server are stopped when the project is closed.
+ * This class handles the cleanup of the debug server and the debug tool window.
+ * Specifically, it ensures that the server of the web UI and the WebSocket endpoint is stopped when the project is
+ * closed.
+ * Opening a project deliberately does nothing: the servers, PlantUML and the other bundled libraries are only loaded
+ * once a Python debug session starts or the tool window is shown.
  */
 public class EduPyProjectManagerListener implements ProjectManagerListener {
 
     private static final Logger LOGGER = Logger.getInstance(EduPyProjectManagerListener.class);
 
-
     /**
-     * Called when a project is closing. This method ensures that the debug web server and web socket server are stopped,
+     * Called when a project is closing. This method ensures that the debug server is stopped,
      * and the JBCef browser used in the debug tool window is closed.
      *
      * @param project the project that is closing
      */
     @Override
     public void projectClosing(@NotNull Project project) {
-        // Stop servers in background to avoid blocking EDT during project shutdown
+        // Stop the server in background to avoid blocking EDT during project shutdown
         final DebugWebSocketServer ws = DebugWebSocketServer.getInstance();
-        final DebugWebServer http = DebugWebServer.getInstance();
         AppExecutorUtil.getAppExecutorService().execute(() -> {
-            // Stop the Websocket Server
-            if (ws.isRunning()) {
+            // Stop the Websocket Server; a pending start would otherwise bind the port after the project closed
+            if (ws.isRunning() || ws.isStarting()) {
                 try {
                     ws.stopWebSocketServer();
                     LOGGER.info("Stopped debug web socket server");
@@ -42,16 +42,6 @@ public class EduPyProjectManagerListener implements ProjectManagerListener {
                     LOGGER.error("Failed to stop the websocket server", e);
                 }
             }
-
-            // Stop the HTTP Webserver
-            if (http.isRunning()) {
-                try {
-                    http.stopWebServer();
-                    LOGGER.info("Stopped debug web server");
-                } catch (final Exception e) {
-                    LOGGER.error("Failed to start the http server", e);
-                }
-            }
         });
 
         // Close the JBCefBrowser on EDT
@@ -2,16 +2,31 @@ package de.code14.edupydebugger.core.publish;
 
 import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
 import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import de.code14.edupydebugger.diagram.ObjectCardRenderer;
 import de.code14.edupydebugger.diagram.ObjectDiagramParser;
+import de.code14.edupydebugger.diagram.ObjectDiagramRenderer;
+import de.code14.edupydebugger.diagram.ObjectGraph;
 import de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator;
 import de.code14.edupydebugger.server.DebugServerEndpoint;
 import de.code14.edupydebugger.server.dto.*;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
 
 /** Central publishing for variables/object cards/diagram (used by REPL and Debug). */
 public final class PayloadPublisher {
+
+    /**
+     * System property switching object cards and the object diagram to client-side rendering: the IDE only publishes
+     * the {@link ObjectGraphPayload} and the web UI lays out and draws both itself.
+     */
+    public static final String CLIENT_RENDERING_PROPERTY = "edupy.diagram.client";
+
+    private static final ObjectDiagramRenderer OBJECT_DIAGRAM = new ObjectDiagramRenderer();
+    // Objects of the last snapshot in client-side rendering mode, re-sent with an expanded diagram
+    private static volatile ObjectGraph lastGraph;
+
     private PayloadPublisher() {}
 
     public static void publishVariablesWithSnippet(List<VariableDTO> variables, Map<String, ObjectInfo> objects) {
@@ -39,7 +54,11 @@ public final class PayloadPublisher {
                 // Primitive & builtin containers
                 dto.value.kind = "primitive";
                 String base = dto.value.repr != null ? dto.value.repr.replace("~", ", ") : "";
-                if (containers.contains(t)) {
+                if (containers.contains(t) && dto.value.length != null) {
+                    // Paged container (debug mode): preview only, the UI fetches pages on demand
+                    dto.value.full = null;
+                    dto.value.repr = (base.length() > 60) ? (base.substring(0, 60) + " [...]") : base;
+                } else if (containers.contains(t)) {
                     // Supply full and a shortened preview
                     dto.value.full = (dto.value.full != null && !dto.value.full.isEmpty()) ? dto.value.full : base;
                     String full = dto.value.full; // set above to non-null
@@ -55,20 +74,93 @@ public final class PayloadPublisher {
 
     public static void publishObjects(Map<String, ObjectInfo> objects) throws IOException {
         if (objects == null) objects = java.util.Collections.emptyMap();
-        Map<String, String> cardsPuml = ObjectDiagramParser.generateObjectCards(objects);
+        // Parsed once; cards and diagram (native or PlantUML) all read from the same graph
+        ObjectGraph graph = ObjectGraph.of(objects);
+        if (isClientRendering()) {
+            // No SVG in the IDE: the web UI lays out and draws cards and diagram from the graph
+            lastGraph = graph;
+            DebugServerEndpoint.publishObjectGraph(ObjectGraphPayload.of(graph, OBJECT_DIAGRAM.collapse(graph)));
+            return;
+        }
         ObjectCardPayload ocPayload = new ObjectCardPayload();
         ocPayload.cards = new ArrayList<>();
-        for (Map.Entry<String, String> entry : cardsPuml.entrySet()) {
-            String base64 = PlantUMLDiagramGenerator.generateDiagramAsBase64(entry.getValue());
-            CardDTO c = new CardDTO();
-            c.id = entry.getKey();
-            c.svgBase64 = base64;
-            ocPayload.cards.add(c);
+        if (ObjectCardRenderer.isEnabled()) {
+            // Simple boxes: native SVG, no PlantUML parse and layout per card
+            ObjectCardRenderer.renderCardsAsBase64(graph).forEach((id, base64) -> ocPayload.cards.add(card(id, base64)));
+        } else {
+            Map<String, String> cardsPuml = ObjectDiagramParser.generateObjectCards(graph);
+            for (Map.Entry<String, String> entry : cardsPuml.entrySet()) {
+                ocPayload.cards.add(card(entry.getKey(), PlantUMLDiagramGenerator.generateDiagramAsBase64(entry.getValue())));
+            }
         }
         DebugServerEndpoint.publishObjectCards(ocPayload);
 
-        String odPuml = ObjectDiagramParser.generateObjectDiagram(objects);
-        String odBase64 = PlantUMLDiagramGenerator.generateDiagramAsBase64(odPuml);
-        DebugServerEndpoint.publishObjectDiagram(odBase64);
+        if (ObjectDiagramRenderer.isEnabled()) {
+            // Layered layout that keeps objects in place between steps; unchanged structure -> text patch only
+            publishObjectDiagram(OBJECT_DIAGRAM.update(graph));
+        } else {
+            String odPuml = ObjectDiagramParser.generateObjectDiagram(graph);
+            DebugServerEndpoint.publishObjectDiagram(PlantUMLDiagramGenerator.generateDiagramAsBase64(odPuml));
+        }
+    }
+
+    /**
+     * Shows the members of a collapsed summary node of the object diagram and publishes the updated diagram.
+     * Does nothing if the diagram has no such node, e.g. because it is rendered by PlantUML.
+     *
+     * @param clusterKey the key of the summary node, as sent by the web UI
+     */
+    public static void expandObjectCluster(String clusterKey) {
+        if (isClientRendering()) {
+            ObjectGraph graph = lastGraph;
+            ObjectGraph reduced = OBJECT_DIAGRAM.expandCollapsed(clusterKey);
+            if (graph != null && reduced != null) {
+                DebugServerEndpoint.publishObjectGraph(ObjectGraphPayload.of(graph, reduced));
+            }
+            return;
+        }
+        ObjectDiagramRenderer.Update update = OBJECT_DIAGRAM.expand(clusterKey);
+        if (update != null) {
+            publishObjectDiagram(update);
+        }
+    }
+
+    /**
+     * Forgets the layout of the object diagram, so the next diagram is laid out from scratch and sent in full.
+     * Called when a debug process or REPL ends, since object ids of the old process mean nothing afterwards.
+     */
+    public static void resetObjectDiagram() {
+        OBJECT_DIAGRAM.reset();
+        lastGraph = null;
+    }
+
+    /**
+     * Tells whether objects are published as graph for the web UI to render; {@code true} once
+     * {@value #CLIENT_RENDERING_PROPERTY} is set.
+     *
+     * @return {@code true} if no SVG is rendered in the IDE
+     */
+    public static boolean isClientRendering() {
+        return Boolean.getBoolean(CLIENT_RENDERING_PROPERTY);
+    }
+
+    private static void publishObjectDiagram(ObjectDiagramRenderer.Update update) {
+        if (update.isPatch()) {
+            DiagramPatchPayload patch = new DiagramPatchPayload();
+            patch.base = update.revision();
+            patch.texts = update.texts();
+            patch.fullSvgBase64 = OBJECT_DIAGRAM::currentAsBase64;
+            DebugServerEndpoint.publishObjectDiagramPatch(patch);
+        } else {
+            DebugServerEndpoint.publishObjectDiagram(
+                    Base64.getEncoder().encodeToString(update.svg().getBytes(StandardCharsets.UTF_8)));
+        }
+    }
+
+    private static CardDTO card(String id, String svgBase64) {
+        CardDTO c = new CardDTO();
+        c.id = id;
+        c.svgBase64 = svgBase64;
+        return c;
     }
 }
@@ -38,6 +38,12 @@ public final class DebugSnapshotAdapter {
             if (PRIMS.contains(type)) {
                 val.kind = "primitive";
                 val.repr = value.replace("~", ", ");
+                // Builtin containers: number of items as 5th element, contents are paged on demand
+                if (v.size() >= 5) {
+                    try {
+                        val.length = Integer.valueOf(v.get(4));
+                    } catch (NumberFormatException ignore) {}
+                }
             } else {
                 val.kind = "composite";
                 val.repr = value; // snippet will be rebuilt centrally in PayloadPublisher
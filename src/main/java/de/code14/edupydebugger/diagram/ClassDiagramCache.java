@@ -0,0 +1,292 @@
+package de.code14.edupydebugger.diagram;
+
+import com.intellij.openapi.application.PathManager;
+import com.intellij.openapi.diagnostic.Logger;
+import de.code14.edupydebugger.analysis.staticanalysis.ClassInfo;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.stream.Stream;
+import java.util.zip.GZIPInputStream;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Persistent cache of the class model and the rendered class diagram of a project, kept across IDE restarts.
+ * <p>
+ * Every project has one file in {@code <IDE system directory>/edupy-debugger/class-diagrams}, named after its base
+ * path. It holds the content hash of every analyzed Python file (see
+ * {@link de.code14.edupydebugger.analysis.staticanalysis.PythonAnalyzer#fingerprintPythonFiles}), the
+ * {@link ClassInfo} model with the module of every class and the Base64-encoded SVG of the diagram (the module
+ * overview if the diagram is sharded, see {@link ClassDiagramShards}). An entry is only used while the fingerprint of
+ * the sources equals the stored one: attribute types are inferred across files, so one changed file invalidates
+ * the whole project. The SVG additionally depends on the {@linkplain #renderSettings() render settings}, since the same
+ * sources give another diagram with another layout engine or sharding threshold; if only those changed, the class model
+ * is still valid and just the diagram has to be rendered again.
+ * </p>
+ * <p>
+ * Files are GZIP-compressed data streams of a magic number, a format version, the render settings, the file hashes,
+ * the classes with
+ * their module and four string lists and the SVG. Unreadable files or files of another version count as misses and are
+ * overwritten by the next store. Loading an entry refreshes its modification time; every store deletes the least
+ * recently used files beyond {@value #MAX_ENTRIES} projects or {@value #MAX_BYTES} bytes.
+ * </p>
+ */
+public final class ClassDiagramCache {
+
+    private static final Logger LOGGER = Logger.getInstance(ClassDiagramCache.class);
+
+    static final int MAX_ENTRIES = 32;
+    static final long MAX_BYTES = 16L * 1024 * 1024;
+
+    private static final int MAGIC = 0x45445043; // "EDPC"
+    private static final int VERSION = 3;
+    private static final String SUFFIX = ".bin";
+    static final long GRAPHVIZ_WAIT_MILLIS = 2_000;
+
+    private static volatile ClassDiagramCache shared;
+
+    private final Path directory;
+    private final int maxEntries;
+    private final long maxBytes;
+
+    /**
+     * A cached analysis of a project.
+     *
+     * @param renderSettings the {@linkplain #renderSettings() render settings} the diagram was rendered with
+     * @param fileHashes     the content hash of every analyzed file by project-relative path
+     * @param classes        the class model by class name
+     * @param classModules   the module of every class by class name
+     * @param svgBase64      the rendered class diagram, Base64-encoded
+     */
+    public record Entry(String renderSettings, Map<String, String> fileHashes, Map<String, ClassInfo> classes,
+                        Map<String, String> classModules, String svgBase64) {
+
+        /**
+         * Tells whether the entry still holds the diagram of a project.
+         *
+         * @param renderSettings the current render settings
+         * @param fileHashes     the current content hashes of the project files
+         * @return {@code true} if neither the sources nor the render settings changed
+         */
+        public boolean matches(String renderSettings, Map<String, String> fileHashes) {
+            return this.renderSettings.equals(renderSettings) && hasSources(fileHashes);
+        }
+
+        /**
+         * Tells whether the class model of the entry is still valid, whatever settings the diagram was rendered with.
+         *
+         * @param fileHashes the current content hashes of the project files
+         * @return {@code true} if the sources did not change
+         */
+        public boolean hasSources(Map<String, String> fileHashes) {
+            return this.fileHashes.equals(fileHashes);
+        }
+    }
+
+    /**
+     * Creates a cache in the given directory.
+     *
+     * @param directory  the directory holding one file per project; created on the first store
+     * @param maxEntries the number of projects to keep at most
+     * @param maxBytes   the total file size to keep at most
+     */
+    public ClassDiagramCache(Path directory, int maxEntries, long maxBytes) {
+        this.directory = directory;
+        this.maxEntries = maxEntries;
+        this.maxBytes = maxBytes;
+    }
+
+    /**
+     * Describes the settings that shape the rendered class diagram besides the sources: the layout engine
+     * ({@code dot} or Smetana, see {@link GraphvizLayout}), the number of nodes from which {@code dot} is used and the
+     * sharding threshold of {@link ClassDiagramShards}. Waits up to {@value #GRAPHVIZ_WAIT_MILLIS} ms for the lookup
+     * of {@code dot}, which has usually not finished when the first session after an IDE start asks.
+     *
+     * @return the current render settings
+     */
+    public static String renderSettings() {
+        return "layout=" + (GraphvizLayout.dotExecutable(GRAPHVIZ_WAIT_MILLIS) != null ? "dot" : "smetana")
+                + ";dotMinNodes=" + Integer.getInteger(GraphvizLayout.MIN_NODES_PROPERTY, GraphvizLayout.DEFAULT_MIN_NODES)
+                + ";shardThreshold=" + Integer.getInteger(ClassDiagramShards.THRESHOLD_PROPERTY,
+                ClassDiagramShards.DEFAULT_THRESHOLD);
+    }
+
+    /**
+     * Returns the cache in the IDE system directory.
+     *
+     * @return the shared cache, or {@code null} if there is no IDE system directory (e.g. in unit tests)
+     */
+    public static ClassDiagramCache getInstance() {
+        if (shared == null) {
+            synchronized (ClassDiagramCache.class) {
+                String systemPath = null;
+                try {
+                    systemPath = PathManager.getSystemPath();
+                } catch (Throwable t) {
+                    // No IDE environment
+                }
+                if (shared == null && systemPath != null) {
+                    shared = new ClassDiagramCache(Paths.get(systemPath, "edupy-debugger", "class-diagrams"),
+                            MAX_ENTRIES, MAX_BYTES);
+                }
+            }
+        }
+        return shared;
+    }
+
+    /**
+     * Loads the entry of a project.
+     *
+     * @param projectKey the project base path
+     * @return the entry, or {@code null} if there is none or it cannot be read
+     */
+    public synchronized Entry load(String projectKey) {
+        Path file = file(projectKey);
+        try (DataInputStream in = new DataInputStream(new GZIPInputStream(
+                new BufferedInputStream(Files.newInputStream(file))))) {
+            if (in.readInt() != MAGIC || in.readInt() != VERSION) {
+                return null;
+            }
+            String renderSettings = in.readUTF();
+            Map<String, String> fileHashes = new TreeMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                fileHashes.put(in.readUTF(), in.readUTF());
+            }
+            Map<String, ClassInfo> classes = new LinkedHashMap<>();
+            Map<String, String> classModules = new LinkedHashMap<>();
+            for (int i = in.readInt(); i > 0; i--) {
+                String name = in.readUTF();
+                classModules.put(name, in.readUTF());
+                classes.put(name, new ClassInfo(readList(in), readList(in), readList(in), readList(in)));
+            }
+            int length = in.readInt();
+            if (length < 0 || length > maxBytes) {
+                return null;
+            }
+            byte[] svg = new byte[length];
+            in.readFully(svg);
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            return new Entry(renderSettings, fileHashes, classes, classModules, new String(svg, StandardCharsets.US_ASCII));
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Ignoring unreadable class diagram cache " + file, e);
+            return null;
+        }
+    }
+
+    /**
+     * Stores the entry of a project, replacing the previous one, and evicts the least recently used entries.
+     * Failures are logged and otherwise ignored; the cache is an optimization only.
+     *
+     * @param projectKey the project base path
+     * @param entry      the analysis to keep
+     */
+    public synchronized void store(String projectKey, Entry entry) {
+        Path file = file(projectKey);
+        Path temp = null;
+        try {
+            Files.createDirectories(directory);
+            temp = Files.createTempFile(directory, "entry", ".tmp");
+            try (DataOutputStream out = new DataOutputStream(new GZIPOutputStream(
+                    new BufferedOutputStream(Files.newOutputStream(temp))))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeUTF(entry.renderSettings());
+                out.writeInt(entry.fileHashes().size());
+                for (Map.Entry<String, String> hash : entry.fileHashes().entrySet()) {
+                    out.writeUTF(hash.getKey());
+                    out.writeUTF(hash.getValue());
+                }
+                out.writeInt(entry.classes().size());
+                for (Map.Entry<String, ClassInfo> info : entry.classes().entrySet()) {
+                    out.writeUTF(info.getKey());
+                    out.writeUTF(entry.classModules().getOrDefault(info.getKey(), ""));
+                    writeList(out, info.getValue().attributes());
+                    writeList(out, info.getValue().methods());
+                    writeList(out, info.getValue().references());
+                    writeList(out, info.getValue().superClasses());
+                }
+                byte[] svg = entry.svgBase64().getBytes(StandardCharsets.US_ASCII);
+                out.writeInt(svg.length);
+                out.write(svg);
+            }
+            // Readers never see a half-written entry
+            Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            evict();
+        } catch (IOException | RuntimeException e) {
+            LOGGER.warn("Could not store class diagram cache " + file, e);
+        } finally {
+            deleteTemp(temp);
+        }
+    }
+
+    private static void deleteTemp(Path temp) {
+        if (temp == null) {
+            return;
+        }
+        try {
+            // Only left behind if writing or moving failed; evict() never sees it
+            Files.deleteIfExists(temp);
+        } catch (IOException e) {
+            LOGGER.warn("Could not delete " + temp, e);
+        }
+    }
+
+    private Path file(String projectKey) {
+        return directory.resolve(UUID.nameUUIDFromBytes(projectKey.getBytes(StandardCharsets.UTF_8)) + SUFFIX);
+    }
+
+    private void evict() throws IOException {
+        List<Path> files;
+        try (Stream<Path> listing = Files.list(directory)) {
+            files = new ArrayList<>(listing.filter(p -> p.getFileName().toString().endsWith(SUFFIX)).toList());
+        }
+        Map<Path, FileTime> lastUsed = new LinkedHashMap<>();
+        for (Path file : files) {
+            lastUsed.put(file, Files.getLastModifiedTime(file));
+        }
+        // Most recently used first; everything beyond the limits goes
+        files.sort(Comparator.comparing(lastUsed::get, Comparator.reverseOrder()));
+        long bytes = 0;
+        for (int i = 0; i < files.size(); i++) {
+            bytes += Files.size(files.get(i));
+            if (i >= maxEntries || (i > 0 && bytes > maxBytes)) {
+                Files.deleteIfExists(files.get(i));
+            }
+        }
+    }
+
+    private static List<String> readList(DataInputStream in) throws IOException {
+        int size = in.readInt();
+        List<String> list = new ArrayList<>();
+        for (int i = 0; i < size; i++) {
+            list.add(in.readUTF());
+        }
+        return list;
+    }
+
+    private static void writeList(DataOutputStream out, List<String> list) throws IOException {
+        out.writeInt(list.size());
+        for (String s : list) {
+            out.writeUTF(s);
+        }
+    }
+}
@@ -37,13 +37,31 @@ public class ClassDiagramParser {
      * @return a String containing the PlantUML representation of the class diagram
      */
     public String generateClassDiagram(Project project) {
-        // Analyze Python files in the project to extract class details
+        return toPlantUml(analyzeClasses(project));
+    }
+
+    /**
+     * Analyzes the Python files of the given project and returns the extracted class details.
+     *
+     * @param project the project containing the Python files to be analyzed
+     * @return the class details by class name
+     */
+    public Map<String, ClassInfo> analyzeClasses(Project project) {
         pythonAnalyzer.analyzePythonFiles(project);
-        Map<String, ClassInfo> classDetails = pythonAnalyzer.getClassDetails();
+        return pythonAnalyzer.getClassDetails();
+    }
 
+    /**
+     * Generates a class diagram in PlantUML format from previously extracted class details,
+     * e.g. a class model restored from {@link ClassDiagramCache}.
+     *
+     * @param classDetails the class details by class name
+     * @return a String containing the PlantUML representation of the class diagram
+     */
+    public static String toPlantUml(Map<String, ClassInfo> classDetails) {
         StringBuilder plantUML = new StringBuilder();
         plantUML.append("@startuml\n");
-        plantUML.append("!pragma layout smetana\n");
+        plantUML.append(GraphvizLayout.pragma(classDetails.size()));
 
         // Iterate through each class and its details to build the PlantUML diagram
         for (Map.Entry<String, ClassInfo> entry : classDetails.entrySet()) {
@@ -0,0 +1,150 @@
+package de.code14.edupydebugger.diagram;
+
+import de.code14.edupydebugger.analysis.staticanalysis.ClassInfo;
+
+import java.io.IOException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.TreeSet;
+
+/**
+ * The class diagram of a large project, split into one shard per module plus an overview of the modules.
+ * <p>
+ * A single diagram of every class of a larger project is slow to lay out and too big to read. Above
+ * {@value #DEFAULT_THRESHOLD} classes (system property {@value #THRESHOLD_PROPERTY}) the class model is therefore
+ * grouped by the module that defines each class. The overview shows one box per module listing its classes, and a
+ * dependency arrow wherever a class of one module references or extends a class of another. A shard is the class
+ * diagram of the classes of one module, generated by {@link ClassDiagramParser#toPlantUml(Map)}; referenced classes
+ * of other modules appear as empty boxes.
+ * </p>
+ * <p>
+ * Only the overview is rendered up front. Shards are rendered by {@link #renderShardAsBase64(String)} when the
+ * user opens them and kept afterwards, so the rendering cost follows what is viewed, not the size of the project.
+ * </p>
+ */
+public final class ClassDiagramShards {
+
+    /** System property setting the number of classes above which the class diagram is sharded by module. */
+    public static final String THRESHOLD_PROPERTY = "edupy.classDiagram.shardThreshold";
+    static final int DEFAULT_THRESHOLD = 30;
+
+    // Classes by module, both sorted by name
+    private final Map<String, Map<String, ClassInfo>> modules = new TreeMap<>();
+    private final Map<String, String> moduleOfClass = new HashMap<>();
+    private final Map<String, String> rendered = new HashMap<>();
+
+    /**
+     * Groups a class model by module.
+     *
+     * @param classes      the classes by name
+     * @param classModules the module of every class by class name; classes without module form the module {@code ""}
+     */
+    public ClassDiagramShards(Map<String, ClassInfo> classes, Map<String, String> classModules) {
+        classes.forEach((name, info) -> {
+            String module = classModules.getOrDefault(name, "");
+            moduleOfClass.put(name, module);
+            modules.computeIfAbsent(module, ignored -> new TreeMap<>()).put(name, info);
+        });
+    }
+
+    /**
+     * Tells whether a class model is large enough to be sharded.
+     *
+     * @param classes the classes by name
+     * @return {@code true} if it has more classes than the threshold
+     */
+    public static boolean shouldShard(Map<String, ClassInfo> classes) {
+        return classes.size() > Integer.getInteger(THRESHOLD_PROPERTY, DEFAULT_THRESHOLD);
+    }
+
+    /** @return the names of all modules, sorted */
+    public List<String> modules() {
+        return new ArrayList<>(modules.keySet());
+    }
+
+    /**
+     * Generates the overview of the modules and their dependencies in PlantUML format.
+     *
+     * @return the PlantUML source
+     */
+    public String overviewPlantUml() {
+        Map<String, String> aliases = new LinkedHashMap<>();
+        for (String module : modules.keySet()) {
+            aliases.put(module, "m" + aliases.size());
+        }
+
+        StringBuilder plantUML = new StringBuilder();
+        plantUML.append("@startuml\n");
+        plantUML.append(GraphvizLayout.pragma(modules.size()));
+        plantUML.append("hide empty methods\n");
+        for (Map.Entry<String, Map<String, ClassInfo>> module : modules.entrySet()) {
+            plantUML.append("class \"").append(module.getKey().isEmpty() ? "(Projekt)" : module.getKey())
+                    .append("\" as ").append(aliases.get(module.getKey())).append(" << (M,#ADD1B2) >> {\n");
+            for (String className : module.getValue().keySet()) {
+                plantUML.append("  ").append(className).append("\n");
+            }
+            plantUML.append("}\n");
+        }
+        for (Map.Entry<String, Set<String>> dependency : dependencies().entrySet()) {
+            for (String target : dependency.getValue()) {
+                plantUML.append(aliases.get(dependency.getKey())).append(" ..> ").append(aliases.get(target)).append("\n");
+            }
+        }
+        plantUML.append("@enduml");
+        return plantUML.toString();
+    }
+
+    /**
+     * Generates the class diagram of one module in PlantUML format.
+     *
+     * @param module the module name
+     * @return the PlantUML source, or {@code null} if there is no such module
+     */
+    public String shardPlantUml(String module) {
+        Map<String, ClassInfo> classes = modules.get(module);
+        return classes == null ? null : ClassDiagramParser.toPlantUml(classes);
+    }
+
+    /**
+     * Renders the class diagram of one module, once; later calls return the same diagram.
+     *
+     * @param module the module name
+     * @return the Base64-encoded SVG diagram, or {@code null} if there is no such module
+     * @throws IOException if PlantUML diagram generation fails
+     */
+    public synchronized String renderShardAsBase64(String module) throws IOException {
+        String svgBase64 = rendered.get(module);
+        if (svgBase64 == null) {
+            String plantUml = shardPlantUml(module);
+            if (plantUml == null) {
+                return null;
+            }
+            svgBase64 = PlantUMLDiagramGenerator.generateDiagramAsBase64(plantUml);
+            rendered.put(module, svgBase64);
+        }
+        return svgBase64;
+    }
+
+    /**
+     * The modules each module depends on through references or superclasses of its classes.
+     */
+    Map<String, Set<String>> dependencies() {
+        Map<String, Set<String>> dependencies = new TreeMap<>();
+        modules.forEach((module, classes) -> classes.values().forEach(info -> {
+            List<String> used = new ArrayList<>(info.references());
+            used.addAll(info.superClasses());
+            for (String type : used) {
+                String target = moduleOfClass.get(type);
+                if (target != null && !target.equals(module)) {
+                    dependencies.computeIfAbsent(module, ignored -> new TreeSet<>()).add(target);
+                }
+            }
+        }));
+        return dependencies;
+    }
+}
@@ -0,0 +1,163 @@
+package de.code14.edupydebugger.diagram;
+
+import com.intellij.openapi.diagnostic.Logger;
+import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import de.code14.edupydebugger.analysis.staticanalysis.ClassInfo;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Renders a small class diagram, object diagram and set of object cards once per IDE session, before the user needs
+ * them.
+ * <p>
+ * The first PlantUML rendering of a session pays for loading and initializing PlantUML and Smetana and runs in the
+ * interpreter, so the first class diagram of a debug session takes seconds rather than milliseconds. {@link #start()}
+ * moves that cost to a low-priority daemon thread, started when the tool window is created or a Python debug session
+ * starts. Opening a project does not start it, so that project opening does not load PlantUML.
+ * Object diagram and cards go through the same renderers as a debug session (native or PlantUML, see
+ * {@link ObjectDiagramRenderer#isEnabled()} and {@link ObjectCardRenderer#isEnabled()}).
+ * </p>
+ * <p>
+ * The time per diagram kind is written to the IDE log and kept in {@link #lastReport()}. Setting the system
+ * property {@value #PROPERTY} to {@code false} disables the warm-up.
+ * </p>
+ */
+public final class DiagramWarmUp {
+
+    private static final Logger LOGGER = Logger.getInstance(DiagramWarmUp.class);
+
+    /** System property; {@code false} disables the warm-up. */
+    public static final String PROPERTY = "edupy.diagram.warmUp";
+
+    private static final AtomicBoolean started = new AtomicBoolean();
+    private static volatile Report lastReport;
+
+    /**
+     * The duration of a warm-up per diagram kind.
+     *
+     * @param classDiagramMillis  the class diagram, always rendered by PlantUML
+     * @param objectDiagramMillis the object diagram
+     * @param objectCardsMillis   the object cards
+     */
+    public record Report(long classDiagramMillis, long objectDiagramMillis, long objectCardsMillis) {
+
+        /**
+         * @return the duration of the whole warm-up
+         */
+        public long totalMillis() {
+            return classDiagramMillis + objectDiagramMillis + objectCardsMillis;
+        }
+    }
+
+    private DiagramWarmUp() {
+    }
+
+    /**
+     * @return {@code true} unless {@value #PROPERTY} is {@code false}
+     */
+    public static boolean isEnabled() {
+        return Boolean.parseBoolean(System.getProperty(PROPERTY, "true"));
+    }
+
+    /**
+     * Starts the warm-up in the background; does nothing if it is disabled or was started before in this session.
+     */
+    public static void start() {
+        if (!isEnabled() || !started.compareAndSet(false, true)) {
+            return;
+        }
+        Thread thread = new Thread(DiagramWarmUp::runAndReport, "EduPy-Debugger diagram warm-up");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /**
+     * @return the report of the warm-up of this session, or {@code null} while it has not finished
+     */
+    public static Report lastReport() {
+        return lastReport;
+    }
+
+    private static void runAndReport() {
+        try {
+            Report report = run();
+            lastReport = report;
+            LOGGER.info("Diagram warm-up finished in " + report.totalMillis() + " ms (class diagram "
+                    + report.classDiagramMillis() + " ms, object diagram " + report.objectDiagramMillis()
+                    + " ms, object cards " + report.objectCardsMillis() + " ms)");
+        } catch (IOException | RuntimeException | LinkageError e) {
+            // Only the first real diagram gets slower
+            LOGGER.warn("Diagram warm-up failed", e);
+        }
+    }
+
+    /**
+     * Renders the sample diagrams once.
+     *
+     * @return the time per diagram kind
+     * @throws IOException if PlantUML diagram generation fails
+     */
+    static Report run() throws IOException {
+        // Starts looking up Graphviz dot, which may take a few seconds, before the first large diagram needs it
+        GraphvizLayout.probe();
+        long start = System.nanoTime();
+        PlantUMLDiagramGenerator.generateDiagramAsBase64(ClassDiagramParser.toPlantUml(sampleClasses()));
+        long classDiagramEnd = System.nanoTime();
+
+        ObjectGraph graph = ObjectGraph.of(sampleObjects());
+        if (ObjectDiagramRenderer.isEnabled()) {
+            new ObjectDiagramRenderer().renderAsBase64(graph);
+        } else {
+            PlantUMLDiagramGenerator.generateDiagramAsBase64(ObjectDiagramParser.generateObjectDiagram(graph));
+        }
+        long objectDiagramEnd = System.nanoTime();
+
+        if (ObjectCardRenderer.isEnabled()) {
+            ObjectCardRenderer.renderCardsAsBase64(graph);
+        } else {
+            for (String card : ObjectDiagramParser.generateObjectCards(graph).values()) {
+                PlantUMLDiagramGenerator.generateDiagramAsBase64(card);
+            }
+        }
+        long end = System.nanoTime();
+
+        return new Report(TimeUnit.NANOSECONDS.toMillis(classDiagramEnd - start),
+                TimeUnit.NANOSECONDS.toMillis(objectDiagramEnd - classDiagramEnd),
+                TimeUnit.NANOSECONDS.toMillis(end - objectDiagramEnd));
+    }
+
+    // Abstract class, inheritance, association, static and private members: every element of a real class diagram
+    private static Map<String, ClassInfo> sampleClasses() {
+        Map<String, ClassInfo> classes = new LinkedHashMap<>();
+        classes.put("Shape", new ClassInfo(List.of("{static} +count : int"),
+                List.of("{abstract} +area(self) : float", "+__init__(self)"), List.of(), List.of("ABC")));
+        classes.put("Point", new ClassInfo(List.of("+x : int", "+y : int"),
+                List.of("+move(self, dx : int, dy : int)"), List.of(), List.of()));
+        classes.put("Circle", new ClassInfo(List.of("+center : Point", "-__radius : float"),
+                List.of("+area(self) : float"), List.of("Point"), List.of("Shape")));
+        return classes;
+    }
+
+    // A short linked list with a shared static attribute and a long value
+    private static Map<String, ObjectInfo> sampleObjects() {
+        Map<String, ObjectInfo> objects = new LinkedHashMap<>();
+        objects.put("1", new ObjectInfo(List.of("head:Node"), List.of(
+                new AttributeInfo("value", "str", "'Lorem ipsum dolor sit amet'", "public"),
+                new AttributeInfo("count", "int", "3", "static"),
+                new AttributeInfo("next", "Node", "refid:2", "public"))));
+        objects.put("2", new ObjectInfo(List.of("Node"), List.of(
+                new AttributeInfo("value", "int", "2", "public"),
+                new AttributeInfo("next", "Node", "refid:3", "public"))));
+        objects.put("3", new ObjectInfo(List.of("tail:Node"), List.of(
+                new AttributeInfo("value", "float", "3.0", "public"),
+                new AttributeInfo("next", "NoneType", "None", "public"))));
+        return objects;
+    }
+}
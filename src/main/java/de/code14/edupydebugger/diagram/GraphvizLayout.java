@@ -0,0 +1,305 @@
+package de.code14.edupydebugger.diagram;
+
+import com.intellij.openapi.diagnostic.Logger;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.InvalidPathException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Chooses between native Graphviz {@code dot} and Smetana, PlantUML's Java port of it, as layout engine of a diagram.
+ * <p>
+ * Smetana needs no installation but is much slower than {@code dot} on large graphs, while starting the {@code dot}
+ * process costs more than Smetana needs for a handful of boxes. Diagram generators therefore ask
+ * {@link #pragma(int)} for the layout line of their PlantUML source: diagrams with at least {@value #MIN_NODES_PROPERTY}
+ * nodes (default {@value #DEFAULT_MIN_NODES}) get {@code dot} if it is installed, all others Smetana.
+ * The {@code dot} line is PlantUML's {@code skinparam dotExecutable}, so PlantUML runs that executable for this
+ * diagram only, whatever {@code GRAPHVIZ_DOT} says; it also marks the source for {@link #usesDot(String)}.
+ * {@link PlantUMLDiagramGenerator} renders {@code dot} diagrams with a time limit of {@value #TIMEOUT_PROPERTY} ms
+ * (default {@value #DEFAULT_TIMEOUT_MILLIS}) and falls back to Smetana ({@link #toSmetana(String)}) when it is
+ * exceeded or {@code dot} fails. PlantUML reports a failing {@code dot} in the image instead of throwing, so such
+ * images are recognized by {@link #isDotFailure(byte[])}.
+ * </p>
+ * <p>
+ * {@code dot} is looked up once, on a background thread started by the first call of {@link #probe()}: the path in
+ * {@value #DOT_PROPERTY} ({@code none} disables Graphviz), the environment variable {@code GRAPHVIZ_DOT}, the
+ * {@code PATH} and the usual installation directories. It counts as installed if {@code dot -V} succeeds. Until the
+ * lookup has finished, {@link #isAvailable()} answers {@code false} and diagrams are laid out with Smetana.
+ * </p>
+ */
+public final class GraphvizLayout {
+
+    private static final Logger LOGGER = Logger.getInstance(GraphvizLayout.class);
+
+    /** System property with the path of the {@code dot} executable; {@code none} disables Graphviz. */
+    public static final String DOT_PROPERTY = "edupy.diagram.dot";
+    /** System property setting the number of nodes from which {@code dot} is used. */
+    public static final String MIN_NODES_PROPERTY = "edupy.diagram.dotMinNodes";
+    /** System property setting the time limit of a {@code dot} rendering in milliseconds. */
+    public static final String TIMEOUT_PROPERTY = "edupy.diagram.dotTimeoutMs";
+
+    /** The environment variable PlantUML reads the {@code dot} path from. */
+    private static final String PLANTUML_DOT_VARIABLE = "GRAPHVIZ_DOT";
+    static final String SMETANA_PRAGMA = "!pragma layout smetana\n";
+    // Followed by the quoted path of the executable
+    static final String DOT_SKINPARAM = "skinparam dotExecutable ";
+    // Lines of PlantUML's error image when dot is missing or crashed, compared in lower case
+    private static final String[] DOT_FAILURE_MARKERS = {"dot executable", "cannot find graphviz"};
+
+    static final int DEFAULT_MIN_NODES = 15;
+    static final int DEFAULT_TIMEOUT_MILLIS = 10_000;
+    private static final long PROBE_TIMEOUT_MILLIS = 3_000;
+
+    private static final String[] INSTALL_DIRECTORIES = {
+            "/usr/bin", "/usr/local/bin", "/opt/homebrew/bin", "/opt/local/bin",
+            "C:\\Program Files\\Graphviz\\bin", "C:\\Program Files (x86)\\Graphviz\\bin"
+    };
+
+    private static volatile CompletableFuture<String> probe;
+
+    private GraphvizLayout() {
+    }
+
+    /**
+     * Returns the layout line for a diagram of the given size.
+     *
+     * @param nodes the number of boxes of the diagram
+     * @return the Smetana pragma, or the {@code dot} line naming the executable
+     */
+    public static String pragma(int nodes) {
+        String dot = nodes >= Integer.getInteger(MIN_NODES_PROPERTY, DEFAULT_MIN_NODES) ? dotExecutable() : null;
+        return dot != null ? dotSkinparam(dot) : SMETANA_PRAGMA;
+    }
+
+    /**
+     * Returns the layout line that selects a {@code dot} executable for one diagram.
+     *
+     * @param dot the path of the executable
+     * @return the {@code skinparam dotExecutable} line
+     */
+    static String dotSkinparam(String dot) {
+        // Forward slashes work on Windows too and need no escaping
+        return DOT_SKINPARAM + "\"" + dot.replace('\\', '/') + "\"\n";
+    }
+
+    /**
+     * Tells whether a PlantUML source is laid out with {@code dot}, i.e. carries the {@code dot} line of
+     * {@link #pragma(int)}.
+     *
+     * @param plantUmlSource the PlantUML source
+     * @return {@code true} if PlantUML would run {@code dot}
+     */
+    public static boolean usesDot(String plantUmlSource) {
+        return plantUmlSource.contains(DOT_SKINPARAM);
+    }
+
+    /**
+     * Tells whether PlantUML drew its Graphviz error image instead of the diagram, e.g. because {@code dot} is
+     * missing, crashed or answered nothing.
+     *
+     * @param svg the rendered SVG
+     * @return {@code true} if the image reports a {@code dot} failure
+     */
+    public static boolean isDotFailure(byte[] svg) {
+        String text = new String(svg, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT);
+        for (String marker : DOT_FAILURE_MARKERS) {
+            if (text.contains(marker)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Switches a PlantUML source to Smetana.
+     *
+     * @param plantUmlSource the PlantUML source
+     * @return the source with the Smetana pragma in place of the {@code dot} line, or after {@code @startuml}
+     */
+    public static String toSmetana(String plantUmlSource) {
+        int dotLine = plantUmlSource.indexOf(DOT_SKINPARAM);
+        if (dotLine >= 0) {
+            int dotLineEnd = plantUmlSource.indexOf('\n', dotLine);
+            return plantUmlSource.substring(0, dotLine) + SMETANA_PRAGMA
+                    + (dotLineEnd < 0 ? "" : plantUmlSource.substring(dotLineEnd + 1));
+        }
+        if (plantUmlSource.contains(SMETANA_PRAGMA)) {
+            return plantUmlSource;
+        }
+        int lineEnd = plantUmlSource.indexOf('\n', plantUmlSource.indexOf("@startuml"));
+        if (lineEnd < 0) {
+            return plantUmlSource;
+        }
+        return plantUmlSource.substring(0, lineEnd + 1) + SMETANA_PRAGMA + plantUmlSource.substring(lineEnd + 1);
+    }
+
+    /**
+     * @return the time limit of a {@code dot} rendering in milliseconds
+     */
+    public static long timeoutMillis() {
+        return Integer.getInteger(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS);
+    }
+
+    /**
+     * Tells whether {@code dot} is installed; does not wait for the lookup.
+     *
+     * @return {@code true} if {@code dot} was found, {@code false} if not or while the lookup runs
+     */
+    public static boolean isAvailable() {
+        return dotExecutable() != null;
+    }
+
+    /**
+     * Returns the {@code dot} executable; does not wait for the lookup.
+     *
+     * @return the path, or {@code null} if Graphviz is not installed, disabled or still being looked up
+     */
+    public static String dotExecutable() {
+        return probe().getNow(null);
+    }
+
+    /**
+     * Returns the {@code dot} executable, waiting a bounded time for the lookup.
+     *
+     * @param timeoutMillis the time to wait for the lookup at most
+     * @return the path, or {@code null} if Graphviz is not installed, disabled or the lookup did not finish in time
+     */
+    public static String dotExecutable(long timeoutMillis) {
+        try {
+            return probe().get(timeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        } catch (ExecutionException | TimeoutException e) {
+            return null;
+        }
+    }
+
+    /**
+     * Returns the lookup of {@code dot}; starts it on a daemon thread on the first call.
+     *
+     * @return a future completed with the path of the executable, or with {@code null} if there is none
+     */
+    public static CompletableFuture<String> probe() {
+        CompletableFuture<String> result = probe;
+        if (result == null) {
+            synchronized (GraphvizLayout.class) {
+                if (probe == null) {
+                    probe = CompletableFuture.supplyAsync(GraphvizLayout::findDot, runnable -> {
+                        Thread thread = new Thread(runnable, "EduPy-Debugger Graphviz lookup");
+                        thread.setDaemon(true);
+                        thread.start();
+                    }).handle((dot, failure) -> {
+                        if (failure != null) {
+                            LOGGER.warn("Graphviz lookup failed, laying out with Smetana", failure);
+                            return null;
+                        }
+                        if (dot != null) {
+                            LOGGER.info("Using Graphviz dot for large diagrams: " + dot);
+                        }
+                        return dot;
+                    });
+                }
+                result = probe;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Ends the {@code dot} processes started by this IDE, including its PlantUML worker JVMs, since the given
+     * instant, e.g. the one of a rendering that exceeded its time limit: PlantUML does not stop {@code dot} when its
+     * thread is interrupted.
+     *
+     * @param since the start of the rendering
+     */
+    static void destroyDotProcesses(Instant since) {
+        String dot = dotExecutable();
+        if (dot == null) {
+            return;
+        }
+        // Start times are only as precise as the operating system reports them
+        Instant earliest = since.minusSeconds(1);
+        ProcessHandle.current().descendants()
+                .filter(process -> process.info().command().map(command -> isSameFile(command, dot)).orElse(false))
+                .filter(process -> process.info().startInstant().map(start -> !start.isBefore(earliest)).orElse(true))
+                .forEach(process -> {
+                    LOGGER.info("Ending Graphviz dot process " + process.pid());
+                    process.destroyForcibly();
+                });
+    }
+
+    private static boolean isSameFile(String command, String dot) {
+        try {
+            return Files.isSameFile(Paths.get(command), Paths.get(dot));
+        } catch (IOException | InvalidPathException e) {
+            return false;
+        }
+    }
+
+    private static String findDot() {
+        String configured = System.getProperty(DOT_PROPERTY);
+        if ("none".equalsIgnoreCase(configured)) {
+            return null;
+        }
+        List<String> candidates = new ArrayList<>();
+        if (configured != null && !configured.isBlank()) {
+            candidates.add(configured);
+        }
+        String environment = System.getenv(PLANTUML_DOT_VARIABLE);
+        if (environment != null && !environment.isBlank()) {
+            candidates.add(environment);
+        }
+        String executableName = File.separatorChar == '\\' ? "dot.exe" : "dot";
+        String path = System.getenv("PATH");
+        if (path != null) {
+            for (String directory : path.split(File.pathSeparator)) {
+                if (!directory.isBlank()) {
+                    candidates.add(Paths.get(directory, executableName).toString());
+                }
+            }
+        }
+        for (String directory : INSTALL_DIRECTORIES) {
+            candidates.add(Paths.get(directory, executableName).toString());
+        }
+
+        for (String candidate : candidates) {
+            Path file = Paths.get(candidate);
+            if (Files.isRegularFile(file) && Files.isExecutable(file) && runsVersion(candidate)) {
+                return candidate;
+            }
+        }
+        return null;
+    }
+
+    private static boolean runsVersion(String dot) {
+        try {
+            Process process = new ProcessBuilder(dot, "-V")
+                    .redirectErrorStream(true)
+                    .redirectOutput(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            if (!process.waitFor(PROBE_TIMEOUT_MILLIS, TimeUnit.MILLISECONDS)) {
+                process.destroyForcibly();
+                return false;
+            }
+            return process.exitValue() == 0;
+        } catch (IOException e) {
+            return false;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return false;
+        }
+    }
+}
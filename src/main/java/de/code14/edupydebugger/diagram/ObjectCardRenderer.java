@@ -0,0 +1,303 @@
+package de.code14.edupydebugger.diagram;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Renders object cards directly as SVG, without going through PlantUML.
+ * <p>
+ * An object card is a titled box with one {@code name = value} row per attribute. Laying out such a box needs
+ * neither the PlantUML parser nor the Smetana layout engine, so this renderer measures the text itself (with the
+ * advance widths of Helvetica, which PlantUML's default {@code SansSerif} font resolves to in the browser) and writes
+ * the SVG in one pass. The output matches {@link ObjectDiagramParser#generateObjectCards(ObjectGraph)}: values
+ * longer than {@value #MAX_VALUE_LENGTH} characters are cut, static attributes are underlined and references become
+ * links to {@code localhost:8026/<id>}, which the web UI rewrites into jumps to the referenced card.
+ * </p>
+ * <p>
+ * PlantUML remains available as a fallback: setting the system property {@value #PLANTUML_PROPERTY} to {@code true}
+ * makes {@link #isEnabled()} return {@code false}, and callers then render the PlantUML source instead.
+ * </p>
+ */
+public final class ObjectCardRenderer {
+
+    /** System property switching object cards back to PlantUML rendering. */
+    public static final String PLANTUML_PROPERTY = "edupy.cards.plantuml";
+
+    /** Attribute values longer than this are cut and marked with {@value #TRUNCATION_MARK}. */
+    public static final int MAX_VALUE_LENGTH = 20;
+    static final String TRUNCATION_MARK = " [...]";
+    static final String LINK_PREFIX = "localhost:8026/";
+
+    static final int FONT_SIZE = 14;
+    private static final int PADDING = 8;
+    private static final int ROW_HEIGHT = 20;
+    private static final int MIN_WIDTH = 60;
+    private static final String FONT_FAMILY = "sans-serif";
+    private static final String FILL = "#F1F1F1";
+    private static final String STROKE = "#181818";
+    private static final String LINK_COLOR = "#0000FF";
+
+    // Helvetica advance widths (1/1000 em) for the printable ASCII range 32..126
+    private static final short[] ASCII_WIDTHS = {
+            278, 278, 355, 556, 556, 889, 667, 191, 333, 333, 389, 584, 278, 333, 278, 278,
+            556, 556, 556, 556, 556, 556, 556, 556, 556, 556, 278, 278, 584, 584, 584, 556,
+            1015, 667, 667, 722, 722, 667, 611, 778, 722, 278, 500, 667, 556, 833, 722, 778,
+            667, 778, 722, 667, 611, 722, 667, 944, 667, 667, 611, 278, 278, 278, 469, 556,
+            333, 556, 556, 500, 556, 556, 278, 556, 556, 222, 222, 500, 222, 833, 556, 556,
+            556, 556, 333, 500, 278, 556, 500, 722, 500, 500, 500, 334, 260, 334, 584
+    };
+    private static final int DEFAULT_WIDTH = 556;
+    private static final int WIDE_WIDTH = 1000;
+
+    private ObjectCardRenderer() {
+    }
+
+    /**
+     * Tells whether object cards are rendered natively; {@code false} once {@value #PLANTUML_PROPERTY} is set.
+     *
+     * @return {@code true} if callers should use this renderer instead of PlantUML
+     */
+    public static boolean isEnabled() {
+        return !Boolean.getBoolean(PLANTUML_PROPERTY);
+    }
+
+    /**
+     * Renders a card for every object of the graph and returns them Base64-encoded, keyed by object ID.
+     *
+     * @param graph the objects of the snapshot
+     * @return a map of object IDs to Base64-encoded SVG cards, in node order
+     */
+    public static Map<String, String> renderCardsAsBase64(ObjectGraph graph) {
+        Map<String, String> cards = new LinkedHashMap<>(graph.size() * 2);
+        for (ObjectGraph.Node node : graph.nodes()) {
+            cards.put(node.id(), Base64.getEncoder().encodeToString(renderCard(node).getBytes(StandardCharsets.UTF_8)));
+        }
+        return cards;
+    }
+
+    /**
+     * Renders a single object card as an SVG document.
+     *
+     * @param node the object to render; its id becomes the id of the card group
+     * @return the SVG markup
+     */
+    public static String renderCard(ObjectGraph.Node node) {
+        String key = node.id();
+        Card card = measure(node, true);
+        int svgWidth = card.width() + 2;
+        int svgHeight = card.height() + 2;
+
+        StringBuilder svg = new StringBuilder(256 + card.rows().size() * 160);
+        openSvg(svg, svgWidth, svgHeight);
+        appendCard(svg, key, card, 1, 1);
+        svg.append("</svg>");
+        return svg.toString();
+    }
+
+    /**
+     * Lays out the rows of an object card and computes its size.
+     *
+     * @param node    the object to measure
+     * @param compact {@code true} for slider cards (cut values, linked references); {@code false} shows values
+     *                verbatim, as in the object diagram
+     * @return the measured card
+     */
+    static Card measure(ObjectGraph.Node node, boolean compact) {
+        String title = node.title();
+
+        List<Row> rows = new ArrayList<>(node.attributes().size());
+        double width = textWidth(title);
+        for (ObjectGraph.Attribute attribute : node.attributes()) {
+            Row row = Row.of(attribute, compact);
+            rows.add(row);
+            width = Math.max(width, textWidth(row.label()) + textWidth(row.value()));
+        }
+
+        int boxWidth = Math.max(MIN_WIDTH, (int) Math.ceil(width) + 2 * PADDING);
+        int boxHeight = ROW_HEIGHT + PADDING + rows.size() * ROW_HEIGHT + PADDING;
+        return new Card(title, rows, boxWidth, boxHeight);
+    }
+
+    /**
+     * Writes the opening {@code <svg>} tag of a document with the given size.
+     */
+    static void openSvg(StringBuilder svg, double width, double height) {
+        openSvg(svg, width, height, "");
+    }
+
+    /**
+     * Writes the opening {@code <svg>} tag of a document with the given size and additional (escaped) attributes.
+     */
+    static void openSvg(StringBuilder svg, double width, double height, String attributes) {
+        String w = format(width);
+        String h = format(height);
+        svg.append("<svg xmlns=\"http://www.w3.org/2000/svg\" xmlns:xlink=\"http://www.w3.org/1999/xlink\"")
+                .append(" width=\"").append(w).append("px\" height=\"").append(h).append("px\"")
+                .append(" viewBox=\"0 0 ").append(w).append(' ').append(h).append("\"")
+                .append(" style=\"width:").append(w).append("px;height:").append(h).append("px;\"")
+                .append(attributes).append('>');
+    }
+
+    /**
+     * Writes a measured card as an SVG group whose top left corner is at ({@code x}, {@code y}).
+     */
+    static void appendCard(StringBuilder svg, String key, Card card, double x, double y) {
+        int headerHeight = ROW_HEIGHT + PADDING;
+        svg.append("<g id=\"o").append(escape(key)).append("\">");
+        svg.append("<rect x=\"").append(format(x)).append("\" y=\"").append(format(y))
+                .append("\" width=\"").append(card.width()).append("\" height=\"").append(card.height())
+                .append("\" rx=\"2.5\" ry=\"2.5\" fill=\"").append(FILL).append("\" stroke=\"").append(STROKE)
+                .append("\" stroke-width=\"0.5\"/>");
+
+        // Title, centered
+        text(svg, titleId(key), x + card.width() / 2.0, y + PADDING + FONT_SIZE, "middle", false);
+        svg.append(escape(card.title())).append("</text>");
+        svg.append("<line x1=\"").append(format(x)).append("\" y1=\"").append(format(y + headerHeight))
+                .append("\" x2=\"").append(format(x + card.width())).append("\" y2=\"").append(format(y + headerHeight))
+                .append("\" stroke=\"").append(STROKE).append("\" stroke-width=\"0.5\"/>");
+
+        // One row per attribute
+        double baseline = y + headerHeight + FONT_SIZE + 2;
+        for (int i = 0; i < card.rows().size(); i++) {
+            Row row = card.rows().get(i);
+            text(svg, rowId(key, i), x + PADDING, baseline, "start", row.isStatic());
+            svg.append(escape(row.label()));
+            if (row.link() != null) {
+                svg.append("</text>");
+                svg.append("<a href=\"").append(LINK_PREFIX).append(escape(row.link()))
+                        .append("\" xlink:href=\"").append(LINK_PREFIX).append(escape(row.link())).append("\">");
+                text(svg, null, x + PADDING + textWidth(row.label()), baseline, "start", row.isStatic());
+                svg.append("<tspan fill=\"").append(LINK_COLOR).append("\">").append(escape(row.value()))
+                        .append("</tspan></text></a>");
+            } else {
+                svg.append(escape(row.value())).append("</text>");
+            }
+            baseline += ROW_HEIGHT;
+        }
+        svg.append("</g>");
+    }
+
+    /**
+     * Estimates the rendered width of a text in pixels at {@link #FONT_SIZE}.
+     *
+     * @param text the text to measure
+     * @return the width in pixels
+     */
+    static double textWidth(String text) {
+        long units = 0;
+        for (int i = 0; i < text.length(); ) {
+            int cp = text.codePointAt(i);
+            if (cp >= 32 && cp <= 126) {
+                units += ASCII_WIDTHS[cp - 32];
+            } else if (Character.isIdeographic(cp) || Character.getType(cp) == Character.OTHER_SYMBOL) {
+                units += WIDE_WIDTH;
+            } else {
+                units += DEFAULT_WIDTH;
+            }
+            i += Character.charCount(cp);
+        }
+        return units * FONT_SIZE / 1000.0;
+    }
+
+    /**
+     * Element id of the title text of card {@code key}; see {@link #rowId(String, int)}.
+     */
+    static String titleId(String key) {
+        return "o" + key + "-t";
+    }
+
+    /**
+     * Element id of the (first) text element of attribute row {@code index} of card {@code key}, which lets clients
+     * replace single texts without re-rendering the card.
+     */
+    static String rowId(String key, int index) {
+        return "o" + key + "-r" + index;
+    }
+
+    private static void text(StringBuilder svg, String id, double x, double y, String anchor, boolean underline) {
+        svg.append("<text");
+        if (id != null) {
+            svg.append(" id=\"").append(escape(id)).append('"');
+        }
+        svg.append(" x=\"").append(format(x)).append("\" y=\"").append(format(y))
+                .append("\" font-family=\"").append(FONT_FAMILY).append("\" font-size=\"").append(FONT_SIZE)
+                .append("\" fill=\"#000000\" text-anchor=\"").append(anchor).append('"');
+        if (underline) {
+            svg.append(" text-decoration=\"underline\"");
+        }
+        svg.append('>');
+    }
+
+    // One decimal is plenty for screen coordinates; avoids String.format on the hot path
+    static String format(double v) {
+        long tenths = Math.round(v * 10);
+        if (tenths % 10 == 0) {
+            return Long.toString(tenths / 10);
+        }
+        String sign = tenths < 0 ? "-" : "";
+        long abs = Math.abs(tenths);
+        return sign + (abs / 10) + "." + (abs % 10);
+    }
+
+    static String escape(String s) {
+        StringBuilder out = null;
+        for (int i = 0; i < s.length(); i++) {
+            char c = s.charAt(i);
+            String replacement = switch (c) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                default -> (c < 0x20 && c != '\t') ? " " : null;
+            };
+            if (replacement != null && out == null) {
+                out = new StringBuilder(s.length() + 16).append(s, 0, i);
+            }
+            if (out != null) {
+                if (replacement != null) {
+                    out.append(replacement);
+                } else {
+                    out.append(c);
+                }
+            }
+        }
+        return out == null ? s : out.toString();
+    }
+
+    /**
+     * A measured card: title, rows and outer size in pixels.
+     */
+    record Card(String title, List<Row> rows, int width, int height) {
+    }
+
+    /**
+     * One attribute row: the {@code name = } label and the (possibly cut) value, plus the referenced id for links.
+     */
+    record Row(String label, String value, String link, boolean isStatic) {
+
+        /** @return the text shown in the row, as one string */
+        String text() {
+            return label + value;
+        }
+
+        static Row of(ObjectGraph.Attribute attribute, boolean compact) {
+            String label = attribute.name() + " = ";
+            String value = attribute.value();
+            boolean isStatic = attribute.isStatic();
+            if (!compact) {
+                return new Row(label, value, null, isStatic);
+            }
+            if (attribute.isReference()) {
+                return new Row(label, attribute.target(), attribute.target(), isStatic);
+            }
+            if (value.length() > MAX_VALUE_LENGTH) {
+                value = value.substring(0, MAX_VALUE_LENGTH) + TRUNCATION_MARK;
+            }
+            return new Row(label, value, null, isStatic);
+        }
+    }
+}
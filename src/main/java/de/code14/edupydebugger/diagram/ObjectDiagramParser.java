@@ -1,14 +1,14 @@
 package de.code14.edupydebugger.diagram;
 
 import com.intellij.openapi.diagnostic.Logger;
-import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
 import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
 
-import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.Map;
 
 /**
  * The ObjectDiagramParser class is responsible for generating PlantUML diagrams representing objects and their associations.
+ * Both diagrams are generated from an {@link ObjectGraph}; the overloads taking the analyzers' map parse it first.
  */
 public class ObjectDiagramParser {
 
@@ -21,32 +21,36 @@ public class ObjectDiagramParser {
      * @return a map of strings containing the keys and the PlantUML syntax for the object cards
      */
     public static Map<String, String> generateObjectCards(Map<String, ObjectInfo> objects) {
-        Map<String, String> plantUmlStrings = new HashMap<>();
+        return generateObjectCards(ObjectGraph.of(objects));
+    }
+
+    /**
+     * Generates a PlantUML diagram per object of the graph, showing its attributes.
+     *
+     * @param graph the objects of the snapshot
+     * @return a map of object IDs to the PlantUML syntax of their cards, in node order
+     */
+    public static Map<String, String> generateObjectCards(ObjectGraph graph) {
+        Map<String, String> plantUmlStrings = new LinkedHashMap<>();
 
-        objects.forEach((key, objectInfo) -> {
+        for (ObjectGraph.Node node : graph.nodes()) {
             StringBuilder plantUML = new StringBuilder();
             plantUML.append("@startuml\n");
-            plantUML.append("!pragma layout smetana\n");
+            // A single box, never worth starting dot
+            plantUML.append(GraphvizLayout.SMETANA_PRAGMA);
+            plantUML.append("object \"").append(node.title()).append("\" as o").append(node.id()).append(" {\n");
 
-            if (objectInfo == null) {
-                return;
-            }
-
-            // Assume the first reference in the list represents the object
-            String reference = objectInfo.references().get(0);
-            plantUML.append("object \"").append(reference).append("\" as o").append(key).append(" {\n");
-
-            for (AttributeInfo attribute : objectInfo.attributes()) {
-                if ("static".equals(attribute.visibility())) {
+            for (ObjectGraph.Attribute attribute : node.attributes()) {
+                if (attribute.isStatic()) {
                     plantUML.append("{static} ");
                 }
                 plantUML.append(attribute.name())
                         .append(" = ");
-                if (attribute.value().startsWith("refid:")) {
-                    plantUML.append(attribute.value().replace("refid:", ""))
+                if (attribute.isReference()) {
+                    plantUML.append(attribute.target())
                             .append(" ")
                             .append("[[[localhost:8026/")
-                            .append(attribute.value().replace("refid:", ""))
+                            .append(attribute.target())
                             .append("]]]");
                 } else {
                     // Check if the attribute value is too long to show it
@@ -64,10 +68,10 @@ public class ObjectDiagramParser {
 
             plantUML.append("@enduml");
 
-            LOGGER.info(plantUML.toString());
+            LOGGER.debug(plantUML.toString());
 
-            plantUmlStrings.put(key, plantUML.toString());
-        });
+            plantUmlStrings.put(node.id(), plantUML.toString());
+        }
 
         return plantUmlStrings;
     }
@@ -79,39 +83,40 @@ public class ObjectDiagramParser {
      * @return a string containing the PlantUML syntax for the object diagram
      */
     public static String generateObjectDiagram(Map<String, ObjectInfo> objects) {
+        return generateObjectDiagram(ObjectGraph.of(objects));
+    }
+
+    /**
+     * Generates a PlantUML diagram of all objects of the graph with one arrow per reference.
+     *
+     * @param graph the objects of the snapshot
+     * @return a string containing the PlantUML syntax for the object diagram
+     */
+    public static String generateObjectDiagram(ObjectGraph graph) {
         StringBuilder plantUML = new StringBuilder();
         plantUML.append("@startuml\n");
-        plantUML.append("!pragma layout smetana\n");
+        plantUML.append(GraphvizLayout.pragma(graph.size()));
 
-        Map<String, String> associations = new HashMap<>();
+        for (ObjectGraph.Node node : graph.nodes()) {
+            plantUML.append("object \"").append(node.title()).append("\" as o").append(node.id()).append(" {\n");
 
-        objects.forEach((key, objectInfo) -> {
-            if (objectInfo == null) {
-                return;
-            }
-
-            // Assume the first reference in the list represents the object
-            String reference = objectInfo.references().get(0);
-            plantUML.append("object \"").append(reference).append("\" as o").append(key).append(" {\n");
-            LOGGER.debug("object \"" + reference + "\" as o" + key + " {\n");
-
-            for (AttributeInfo attribute : objectInfo.attributes()) {
-                if ("static".equals(attribute.visibility())) {
+            for (ObjectGraph.Attribute attribute : node.attributes()) {
+                if (attribute.isStatic()) {
                     plantUML.append("{static} ");
                 }
-                if (attribute.value().startsWith("refid:")) {
-                    associations.put("o" + key, attribute.value().replace("refid:", ""));
-                }
                 plantUML.append(attribute.name()).append(" = ").append(attribute.value()).append("\n");
             }
             plantUML.append("}\n");
-        });
+        }
 
-        associations.forEach((referencing, referenced) -> plantUML.append(referencing).append(" --> o").append(referenced).append("\n"));
+        // Every reference, also several from the same object
+        for (ObjectGraph.Edge edge : graph.edges()) {
+            plantUML.append("o").append(edge.from()).append(" --> o").append(edge.to()).append("\n");
+        }
 
         plantUML.append("@enduml");
 
-        LOGGER.info(plantUML.toString());
+        LOGGER.debug(plantUML.toString());
 
         return plantUML.toString();
     }
@@ -0,0 +1,326 @@
+package de.code14.edupydebugger.diagram;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.code14.edupydebugger.diagram.ObjectCardRenderer.format;
+
+/**
+ * Renders the object diagram directly as SVG, laid out by {@link ObjectGraphLayout}.
+ * <p>
+ * Objects are drawn as the cards of {@link ObjectCardRenderer} (with values shown verbatim, as in
+ * {@link ObjectDiagramParser#generateObjectDiagram(ObjectGraph)}) and every edge of the {@link ObjectGraph} becomes
+ * an arrow to the referenced object. References pointing down the layers are drawn from the bottom of the
+ * referencing card to the top of the referenced one; references within a layer or back up (cycles) are routed
+ * around the right side.
+ * </p>
+ * <p>
+ * Each renderer owns one layout, so consecutive diagrams of a debug session keep objects in place. Between two
+ * steps the structure of the object graph is usually unchanged and only some attribute values differ.
+ * {@link #update(ObjectGraph)} detects this case (same objects, same attribute names, same references, every new
+ * text fits into its card) and answers with a patch of element id to new text instead of a new document; the layout
+ * only runs when objects or references are added or removed or a card has to grow. Every full diagram carries a
+ * {@code data-revision} attribute, and patches name the revision they apply to.
+ * </p>
+ * <p>
+ * Above {@value #DEFAULT_BUDGET} objects (system property {@value #BUDGET_PROPERTY}), {@link #update(ObjectGraph)}
+ * collapses chains, subtrees and runs of objects of the same type into summary nodes with counts, see
+ * {@link ObjectGraphClustering}; {@link #expand(String)} shows the members of a summary node on demand.
+ * {@link #collapse(ObjectGraph)} and {@link #expandCollapsed(String)} do the same without rendering, for clients
+ * that draw the diagram themselves. {@link #render(ObjectGraph)} always draws every object.
+ * </p>
+ * <p>
+ * Setting the system property {@value #PLANTUML_PROPERTY} to {@code true} makes {@link #isEnabled()} return
+ * {@code false}, and callers then render the PlantUML source with Smetana instead.
+ * </p>
+ */
+public final class ObjectDiagramRenderer {
+
+    /** System property switching the object diagram back to PlantUML rendering. */
+    public static final String PLANTUML_PROPERTY = "edupy.diagram.plantuml";
+
+    /** System property setting the number of nodes above which objects are collapsed; 0 or less disables it. */
+    public static final String BUDGET_PROPERTY = "edupy.diagram.nodeBudget";
+    static final int DEFAULT_BUDGET = 150;
+
+    private static final String EDGE_COLOR = "#181818";
+    private static final int LOOP_OFFSET = 20;
+
+    private final ObjectGraphLayout layout = new ObjectGraphLayout();
+    private final ObjectGraphClustering clustering = new ObjectGraphClustering();
+
+    // Objects of the last update, for expanding summary nodes without a new analysis
+    private ObjectGraph lastGraph;
+
+    // Geometry and texts of the last diagram; null until the first one was rendered
+    private Frame last;
+    private int revision;
+
+    /**
+     * The result of {@link #update(ObjectGraph)}: either a complete diagram or a patch against the previous one.
+     *
+     * @param revision the revision of the full diagram this update produces or applies to
+     * @param svg      the complete SVG document, or {@code null} for a patch
+     * @param texts    for a patch, the new text of every changed element by element id (may be empty); otherwise empty
+     */
+    public record Update(int revision, String svg, Map<String, String> texts) {
+
+        /** @return {@code true} if this update only replaces texts of the previous diagram */
+        public boolean isPatch() {
+            return svg == null;
+        }
+    }
+
+    /**
+     * The measured cards, laid out graph and revision of a rendered diagram.
+     */
+    private record Frame(List<String> keys, List<ObjectGraphLayout.Edge> edges, Map<String, ObjectCardRenderer.Card> cards,
+                         ObjectGraphLayout.Result result, int revision) {
+    }
+
+    /**
+     * The input of a diagram: object keys in a stable order, measured cards, node sizes and references.
+     */
+    private record Graph(List<String> keys, Map<String, ObjectCardRenderer.Card> cards,
+                         Map<String, ObjectGraphLayout.Size> sizes, List<ObjectGraphLayout.Edge> edges) {
+    }
+
+    /**
+     * Tells whether the object diagram is rendered natively; {@code false} once {@value #PLANTUML_PROPERTY} is set.
+     *
+     * @return {@code true} if callers should use this renderer instead of PlantUML
+     */
+    public static boolean isEnabled() {
+        return !Boolean.getBoolean(PLANTUML_PROPERTY);
+    }
+
+    /**
+     * Renders the object diagram and returns it Base64-encoded, like
+     * {@link PlantUMLDiagramGenerator#generateDiagramAsBase64(String)}.
+     *
+     * @param graph the objects of the snapshot
+     * @return the Base64-encoded SVG diagram
+     */
+    public String renderAsBase64(ObjectGraph graph) {
+        return encode(render(graph));
+    }
+
+    /**
+     * Renders the complete object diagram as an SVG document, running the layout.
+     *
+     * @param graph the objects of the snapshot
+     * @return the SVG markup
+     */
+    public synchronized String render(ObjectGraph graph) {
+        return renderFull(prepare(graph));
+    }
+
+    /**
+     * Brings the diagram up to date with {@code graph}: a patch if only texts changed and still fit,
+     * otherwise a complete, newly laid out diagram. Objects beyond the node budget are collapsed.
+     *
+     * @param graph the objects of the snapshot
+     * @return the update to send to clients
+     */
+    public synchronized Update update(ObjectGraph graph) {
+        return show(collapse(graph));
+    }
+
+    /**
+     * Shows the members of a summary node of the current diagram, up to one node budget at a time.
+     *
+     * @param clusterKey the key of the summary node, i.e. its element id without the leading {@code o}
+     * @return the update to send to clients, or {@code null} if the diagram has no such summary node
+     */
+    public synchronized Update expand(String clusterKey) {
+        ObjectGraph reduced = expandCollapsed(clusterKey);
+        return reduced == null ? null : show(reduced);
+    }
+
+    /**
+     * Collapses objects beyond the node budget without rendering, for clients that draw the diagram themselves.
+     * The graph is remembered for {@link #expandCollapsed(String)}.
+     *
+     * @param graph the objects of the snapshot
+     * @return {@code graph} itself if it fits into the budget, otherwise the reduced graph with summary nodes
+     */
+    public synchronized ObjectGraph collapse(ObjectGraph graph) {
+        lastGraph = graph;
+        return clustering.reduce(graph, budget());
+    }
+
+    /**
+     * Shows the members of a summary node of the last collapsed graph, like {@link #expand(String)}, without
+     * rendering.
+     *
+     * @param clusterKey the key of the summary node
+     * @return the new reduced graph, or {@code null} if the last graph has no such summary node
+     */
+    public synchronized ObjectGraph expandCollapsed(String clusterKey) {
+        if (lastGraph == null || !clustering.expand(clusterKey, budget())) {
+            return null;
+        }
+        return collapse(lastGraph);
+    }
+
+    /**
+     * Returns the current diagram, with all patches applied, as a complete Base64-encoded SVG document.
+     * Used for clients that connect after the last full diagram was sent.
+     *
+     * @return the Base64-encoded SVG diagram, or {@code null} if nothing was rendered yet
+     */
+    public synchronized String currentAsBase64() {
+        return last == null ? null : encode(write(last));
+    }
+
+    /**
+     * Forgets the placement of all objects and the expanded summary nodes, e.g. when a new debug session starts.
+     */
+    public synchronized void reset() {
+        layout.reset();
+        clustering.reset();
+        last = null;
+        lastGraph = null;
+    }
+
+    private static int budget() {
+        int budget = Integer.getInteger(BUDGET_PROPERTY, DEFAULT_BUDGET);
+        return budget > 0 ? budget : Integer.MAX_VALUE;
+    }
+
+    private Update show(ObjectGraph reduced) {
+        Graph prepared = prepare(reduced);
+        Map<String, String> texts = last != null ? patch(last, prepared) : null;
+        if (texts == null) {
+            String svg = renderFull(prepared);
+            return new Update(revision, svg, Map.of());
+        }
+        return new Update(revision, null, texts);
+    }
+
+    private Graph prepare(ObjectGraph graph) {
+        // The graph's node order is stable; the layout breaks ties by iteration order
+        List<String> keys = new ArrayList<>(graph.size());
+        Map<String, ObjectCardRenderer.Card> cards = new HashMap<>(graph.size() * 2);
+        Map<String, ObjectGraphLayout.Size> sizes = new LinkedHashMap<>(graph.size() * 2);
+        for (ObjectGraph.Node node : graph.nodes()) {
+            ObjectCardRenderer.Card card = ObjectCardRenderer.measure(node, false);
+            keys.add(node.id());
+            cards.put(node.id(), card);
+            sizes.put(node.id(), new ObjectGraphLayout.Size(card.width(), card.height()));
+        }
+        List<ObjectGraphLayout.Edge> edges = new ArrayList<>(graph.edges().size());
+        for (ObjectGraph.Edge edge : graph.edges()) {
+            edges.add(new ObjectGraphLayout.Edge(edge.from(), edge.to()));
+        }
+        return new Graph(keys, cards, sizes, edges);
+    }
+
+    private String renderFull(Graph graph) {
+        ObjectGraphLayout.Result result = layout.layout(graph.sizes(), graph.edges());
+        last = new Frame(graph.keys(), graph.edges(), graph.cards(), result, ++revision);
+        return write(last);
+    }
+
+    /**
+     * Compares the new graph with the last frame. Returns the changed texts and moves the frame to the new texts
+     * if the structure is preserved; returns {@code null} (and leaves the frame alone) if a layout is needed.
+     */
+    private Map<String, String> patch(Frame frame, Graph graph) {
+        if (!frame.keys().equals(graph.keys()) || !frame.edges().equals(graph.edges())) {
+            return null;
+        }
+        for (String key : graph.keys()) {
+            ObjectCardRenderer.Card before = frame.cards().get(key);
+            ObjectCardRenderer.Card after = graph.cards().get(key);
+            if (after.width() > before.width() || after.rows().size() != before.rows().size()) {
+                return null;
+            }
+            for (int i = 0; i < after.rows().size(); i++) {
+                ObjectCardRenderer.Row a = after.rows().get(i);
+                ObjectCardRenderer.Row b = before.rows().get(i);
+                if (!a.label().equals(b.label()) || a.isStatic() != b.isStatic()) {
+                    return null;
+                }
+            }
+        }
+
+        Map<String, String> texts = new LinkedHashMap<>();
+        Map<String, ObjectCardRenderer.Card> cards = new HashMap<>(frame.cards().size() * 2);
+        for (String key : graph.keys()) {
+            ObjectCardRenderer.Card before = frame.cards().get(key);
+            ObjectCardRenderer.Card after = graph.cards().get(key);
+            if (!after.title().equals(before.title())) {
+                texts.put(ObjectCardRenderer.titleId(key), after.title());
+            }
+            for (int i = 0; i < after.rows().size(); i++) {
+                String text = after.rows().get(i).text();
+                if (!text.equals(before.rows().get(i).text())) {
+                    texts.put(ObjectCardRenderer.rowId(key, i), text);
+                }
+            }
+            // Keep the box: the geometry of the laid out diagram stays valid
+            cards.put(key, new ObjectCardRenderer.Card(after.title(), after.rows(), before.width(), before.height()));
+        }
+        last = new Frame(frame.keys(), frame.edges(), cards, frame.result(), frame.revision());
+        return texts;
+    }
+
+    private static String write(Frame frame) {
+        ObjectGraphLayout.Result result = frame.result();
+        StringBuilder svg = new StringBuilder(512 + frame.keys().size() * 400);
+        // Tag the document with its revision, so clients can tell which patches apply to it
+        ObjectCardRenderer.openSvg(svg, Math.ceil(result.width() + LOOP_OFFSET), Math.ceil(result.height()),
+                " data-revision=\"" + frame.revision() + "\"");
+        svg.append("<defs><marker id=\"arrow\" viewBox=\"0 0 10 10\" refX=\"10\" refY=\"5\" markerWidth=\"8\"")
+                .append(" markerHeight=\"8\" orient=\"auto-start-reverse\"><path d=\"M0,0 L10,5 L0,10 z\" fill=\"")
+                .append(EDGE_COLOR).append("\"/></marker></defs>");
+        for (ObjectGraphLayout.Node node : result.nodes().values()) {
+            ObjectCardRenderer.appendCard(svg, node.id(), frame.cards().get(node.id()), node.x(), node.y());
+        }
+        for (ObjectGraphLayout.Edge edge : result.edges()) {
+            appendEdge(svg, result.nodes().get(edge.from()), result.nodes().get(edge.to()));
+        }
+        svg.append("</svg>");
+        return svg.toString();
+    }
+
+    private static String encode(String svg) {
+        return Base64.getEncoder().encodeToString(svg.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void appendEdge(StringBuilder svg, ObjectGraphLayout.Node from, ObjectGraphLayout.Node to) {
+        String path;
+        if (to.layer() > from.layer()) {
+            double x1 = from.centerX();
+            double y1 = from.y() + from.height();
+            double x2 = to.centerX();
+            double y2 = to.y();
+            double bend = (y2 - y1) / 2;
+            path = "M" + format(x1) + "," + format(y1)
+                    + " C" + format(x1) + "," + format(y1 + bend) + " " + format(x2) + "," + format(y2 - bend)
+                    + " " + format(x2) + "," + format(y2);
+        } else {
+            // Same layer, back up the layers or self reference: around the right side of both cards
+            double x1 = from.x() + from.width();
+            double y1 = from.y() + from.height() / 2.0;
+            double x2 = to.x() + to.width();
+            double y2 = to.y() + to.height() / 2.0;
+            double out = Math.max(x1, x2) + LOOP_OFFSET;
+            if (from == to) {
+                y1 -= from.height() / 4.0;
+                y2 += to.height() / 4.0;
+            }
+            path = "M" + format(x1) + "," + format(y1)
+                    + " C" + format(out) + "," + format(y1) + " " + format(out) + "," + format(y2)
+                    + " " + format(x2) + "," + format(y2);
+        }
+        svg.append("<path d=\"").append(path).append("\" fill=\"none\" stroke=\"").append(EDGE_COLOR)
+                .append("\" stroke-width=\"1\" marker-end=\"url(#arrow)\"/>");
+    }
+}
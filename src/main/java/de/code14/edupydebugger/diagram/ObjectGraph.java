@@ -0,0 +1,159 @@
+package de.code14.edupydebugger.diagram;
+
+import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Typed graph of the objects of one snapshot, shared by all object renderers.
+ * <p>
+ * The analyzers deliver objects as a map of {@link ObjectInfo}, where references are attribute values of the form
+ * {@code refid:<id>}. {@link #of(Map)} parses that map once per snapshot into nodes with typed attributes and a list
+ * of edges, one per referencing attribute, so an object referencing several others (or the same one twice) keeps
+ * all of its edges. The PlantUML sources of {@link ObjectDiagramParser}, the SVG of {@link ObjectCardRenderer} and
+ * {@link ObjectDiagramRenderer} and the summary nodes of {@link ObjectGraphClustering} are all built from this model.
+ * </p>
+ * <p>
+ * Nodes are ordered by id length, then id, which orders the numeric ids of Python objects numerically; renderers
+ * rely on this order for stable layouts. Instances are immutable.
+ * </p>
+ */
+public final class ObjectGraph {
+
+    private static final String REFERENCE_PREFIX = "refid:";
+
+    private static final Comparator<String> ID_ORDER =
+            Comparator.comparingInt(String::length).thenComparing(Comparator.naturalOrder());
+
+    private final List<Node> nodes;
+    private final Map<String, Node> nodesById;
+    private final List<Edge> edges;
+
+    /**
+     * An attribute of an object.
+     *
+     * @param name     the attribute name
+     * @param type     the Python type of the value
+     * @param value    the value as shown in the debugger; {@code refid:<id>} for references
+     * @param target   the id of the referenced object, or {@code null} if the value is no reference
+     * @param isStatic {@code true} for class attributes
+     */
+    public record Attribute(String name, String type, String value, String target, boolean isStatic) {
+
+        /** @return {@code true} if this attribute references another object */
+        public boolean isReference() {
+            return target != null;
+        }
+    }
+
+    /**
+     * An object.
+     *
+     * @param id         the Python object id (or the key of a summary node)
+     * @param title      the title of its card, {@code name:Type} of the first variable referencing it
+     * @param type       the Python type
+     * @param attributes the attributes in analysis order
+     */
+    public record Node(String id, String title, String type, List<Attribute> attributes) {
+    }
+
+    /**
+     * A reference from one object to another through an attribute.
+     *
+     * @param from      the id of the referencing object
+     * @param to        the id of the referenced object; it may be missing from the graph
+     * @param attribute the name of the referencing attribute
+     */
+    public record Edge(String from, String to, String attribute) {
+    }
+
+    /**
+     * Creates a graph from nodes; the edges are taken from their reference attributes.
+     *
+     * @param nodes the nodes, in any order
+     */
+    public ObjectGraph(List<Node> nodes) {
+        List<Node> sorted = new ArrayList<>(nodes);
+        sorted.sort(Comparator.comparing(Node::id, ID_ORDER));
+        Map<String, Node> byId = new HashMap<>(sorted.size() * 2);
+        List<Edge> references = new ArrayList<>();
+        for (Node node : sorted) {
+            byId.put(node.id(), node);
+            for (Attribute attribute : node.attributes()) {
+                if (attribute.isReference()) {
+                    references.add(new Edge(node.id(), attribute.target(), attribute.name()));
+                }
+            }
+        }
+        this.nodes = Collections.unmodifiableList(sorted);
+        this.nodesById = byId;
+        this.edges = Collections.unmodifiableList(references);
+    }
+
+    /**
+     * Parses the objects of a snapshot; entries without information are skipped.
+     *
+     * @param objects the map of object IDs to their information
+     * @return the graph
+     */
+    public static ObjectGraph of(Map<String, ObjectInfo> objects) {
+        List<Node> nodes = new ArrayList<>(objects.size());
+        objects.forEach((id, info) -> {
+            if (info == null) {
+                return;
+            }
+            String title = info.references().isEmpty() ? "" : info.references().get(0);
+            List<Attribute> attributes = new ArrayList<>(info.attributes().size());
+            for (AttributeInfo attribute : info.attributes()) {
+                String value = attribute.value() != null ? attribute.value() : "";
+                String target = value.startsWith(REFERENCE_PREFIX) ? value.substring(REFERENCE_PREFIX.length()) : null;
+                attributes.add(new Attribute(attribute.name(), attribute.type(), value, target,
+                        "static".equals(attribute.visibility())));
+            }
+            nodes.add(new Node(id, title, title.substring(title.lastIndexOf(':') + 1), attributes));
+        });
+        return new ObjectGraph(nodes);
+    }
+
+    /**
+     * Creates a reference attribute pointing at {@code target}.
+     *
+     * @param name     the attribute name
+     * @param type     the Python type of the value
+     * @param target   the id of the referenced node
+     * @param isStatic {@code true} for class attributes
+     * @return the attribute
+     */
+    public static Attribute reference(String name, String type, String target, boolean isStatic) {
+        return new Attribute(name, type, REFERENCE_PREFIX + target, target, isStatic);
+    }
+
+    /** @return all nodes, ordered by id */
+    public List<Node> nodes() {
+        return nodes;
+    }
+
+    /**
+     * @param id the node id
+     * @return the node, or {@code null} if the graph has no such node
+     */
+    public Node node(String id) {
+        return nodesById.get(id);
+    }
+
+    /** @return every reference, in node order and attribute order within a node */
+    public List<Edge> edges() {
+        return edges;
+    }
+
+    /** @return the number of nodes */
+    public int size() {
+        return nodes.size();
+    }
+}
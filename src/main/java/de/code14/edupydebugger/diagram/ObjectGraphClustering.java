@@ -0,0 +1,270 @@
+package de.code14.edupydebugger.diagram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Level of detail for large object graphs: keeps at most a budget of nodes and collapses the rest into summary
+ * nodes with counts.
+ * <p>
+ * The objects are ordered by a breadth-first search from the objects nobody references (variables, in practice),
+ * following the edges of the {@link ObjectGraph}; objects only reachable through cycles start their own search afterwards.
+ * The search also yields a spanning forest, in which every object has the object it was reached from as parent.
+ * The first objects of that order stay visible. Every hidden object is assigned to its nearest visible ancestor,
+ * and all hidden objects with the same ancestor and the same type form one summary node, such as
+ * {@code 901 × Node} below the last shown element of a linked list, one node per cut subtree of a tree, or one
+ * node for the remaining elements of a list of points. The number of visible objects is chosen so that visible
+ * and summary nodes together stay within the budget, so the cost of laying out and rendering the diagram is
+ * bounded by the budget and not by the size of the heap.
+ * </p>
+ * <p>
+ * References are redirected to the summary node of their target; summary nodes keep the references of their
+ * members to other nodes. {@link #expand(String, int)} pins the first {@code budget} members of a summary node, which
+ * are then shown in addition to the budget, together with the objects on their path from a root (these count
+ * against the budget).
+ * </p>
+ */
+final class ObjectGraphClustering {
+
+    /** Prefix of the keys of summary nodes; the rest of the key is the id of the first member. */
+    static final String CLUSTER_PREFIX = "~";
+
+    // Objects shown regardless of the budget, because the user expanded their summary node
+    private final Set<String> pinned = new LinkedHashSet<>();
+    // Members of every summary node of the last reduction, in search order
+    private Map<String, List<String>> lastMembers = Map.of();
+
+    /**
+     * Reduces the object graph to about {@code budget} nodes plus the pinned objects.
+     *
+     * @param graph  the objects of the snapshot
+     * @param budget the number of nodes to show
+     * @return {@code graph} itself if it fits into the budget; otherwise the visible objects, with references to
+     * hidden objects redirected, and the summary nodes
+     */
+    synchronized ObjectGraph reduce(ObjectGraph graph, int budget) {
+        if (graph.size() <= budget) {
+            lastMembers = Map.of();
+            return graph;
+        }
+
+        Map<String, String> parents = new HashMap<>(graph.size() * 2);
+        List<ObjectGraph.Node> order = searchOrder(graph, parents);
+
+        // Pinned objects and their ancestors, which hidden objects must not cut off; pins raise the budget
+        Set<String> forced = new LinkedHashSet<>();
+        int limit = budget;
+        for (String key : pinned) {
+            if (graph.node(key) != null) {
+                limit++;
+            }
+            for (String node = key; node != null && graph.node(node) != null && forced.add(node); ) {
+                node = parents.get(node);
+            }
+        }
+
+        // The search forest by position in the search order, for counting summary nodes without hashing strings
+        Map<String, Integer> positions = new HashMap<>(order.size() * 2);
+        for (int i = 0; i < order.size(); i++) {
+            positions.put(order.get(i).id(), i);
+        }
+        Map<String, Integer> typeIds = new HashMap<>();
+        int[] parentPositions = new int[order.size()];
+        int[] types = new int[order.size()];
+        for (int i = 0; i < order.size(); i++) {
+            String parent = parents.get(order.get(i).id());
+            parentPositions[i] = parent == null ? -1 : positions.get(parent);
+            types[i] = typeIds.computeIfAbsent(order.get(i).type(), ignored -> typeIds.size());
+        }
+        boolean[] forcedPositions = new boolean[order.size()];
+        for (String key : forced) {
+            forcedPositions[positions.get(key)] = true;
+        }
+        int[] candidatePositions = new int[order.size() - forced.size()];
+        for (int i = 0, c = 0; i < order.size(); i++) {
+            if (!forcedPositions[i]) {
+                candidatePositions[c++] = i;
+            }
+        }
+
+        // Largest prefix of the search order that fits into the budget together with the summary nodes it needs.
+        // Showing more objects rarely needs fewer summary nodes, so a binary search finds it in O(n log n).
+        int low = 0;
+        int high = Math.min(candidatePositions.length, Math.max(0, limit - forced.size()));
+        while (low < high) {
+            int shown = (low + high + 1) / 2;
+            int[] heads = groups(parentPositions, types, typeIds.size(),
+                    visible(forcedPositions, candidatePositions, shown));
+            if (forced.size() + shown + countGroups(heads) <= limit) {
+                low = shown;
+            } else {
+                high = shown - 1;
+            }
+        }
+
+        boolean[] visible = visible(forcedPositions, candidatePositions, low);
+        return collapse(order, positions, visible, groups(parentPositions, types, typeIds.size(), visible));
+    }
+
+    /**
+     * Pins the first members of a summary node of the last reduction.
+     *
+     * @param clusterKey the key of the summary node
+     * @param budget     the number of members to pin at most
+     * @return {@code true} if the summary node was known
+     */
+    synchronized boolean expand(String clusterKey, int budget) {
+        List<String> members = lastMembers.get(clusterKey);
+        if (members == null) {
+            return false;
+        }
+        pinned.addAll(members.subList(0, Math.min(members.size(), budget)));
+        return true;
+    }
+
+    /**
+     * Forgets all expanded summary nodes.
+     */
+    synchronized void reset() {
+        pinned.clear();
+        lastMembers = Map.of();
+    }
+
+    private static List<ObjectGraph.Node> searchOrder(ObjectGraph graph, Map<String, String> parents) {
+        Set<String> referenced = new HashSet<>();
+        for (ObjectGraph.Edge edge : graph.edges()) {
+            if (!edge.to().equals(edge.from())) {
+                referenced.add(edge.to());
+            }
+        }
+
+        List<ObjectGraph.Node> order = new ArrayList<>(graph.size());
+        Set<String> seen = new HashSet<>(graph.size() * 2);
+        Deque<ObjectGraph.Node> queue = new ArrayDeque<>();
+        // Roots first; whatever is left afterwards is only reachable through cycles
+        for (boolean roots : new boolean[]{true, false}) {
+            for (ObjectGraph.Node start : graph.nodes()) {
+                if ((roots && referenced.contains(start.id())) || !seen.add(start.id())) {
+                    continue;
+                }
+                queue.add(start);
+                while (!queue.isEmpty()) {
+                    ObjectGraph.Node node = queue.poll();
+                    order.add(node);
+                    for (ObjectGraph.Attribute attribute : node.attributes()) {
+                        ObjectGraph.Node target = attribute.isReference() ? graph.node(attribute.target()) : null;
+                        if (target != null && seen.add(target.id())) {
+                            parents.put(target.id(), node.id());
+                            queue.add(target);
+                        }
+                    }
+                }
+            }
+        }
+        return order;
+    }
+
+    private static boolean[] visible(boolean[] forced, int[] candidates, int shown) {
+        boolean[] visible = forced.clone();
+        for (int i = 0; i < shown; i++) {
+            visible[candidates[i]] = true;
+        }
+        return visible;
+    }
+
+    /**
+     * Assigns every hidden object the position of the first member of its summary node, or -1 if it is visible.
+     * Positions are indices into the search order, which makes sure parents come first.
+     */
+    private static int[] groups(int[] parents, int[] types, int typeCount, boolean[] visible) {
+        int[] anchors = new int[parents.length];
+        int[] heads = new int[parents.length];
+        Map<Long, Integer> headsByGroup = new HashMap<>();
+        for (int i = 0; i < parents.length; i++) {
+            if (visible[i]) {
+                heads[i] = -1;
+                continue;
+            }
+            int parent = parents[i];
+            anchors[i] = parent < 0 ? -1 : visible[parent] ? parent : anchors[parent];
+            Integer head = headsByGroup.putIfAbsent((anchors[i] + 1L) * typeCount + types[i], i);
+            heads[i] = head == null ? i : head;
+        }
+        return heads;
+    }
+
+    private static int countGroups(int[] heads) {
+        int count = 0;
+        for (int i = 0; i < heads.length; i++) {
+            if (heads[i] == i) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private ObjectGraph collapse(List<ObjectGraph.Node> order, Map<String, Integer> positions, boolean[] visible,
+                                 int[] heads) {
+        Map<String, List<ObjectGraph.Node>> members = new LinkedHashMap<>();
+        List<ObjectGraph.Node> nodes = new ArrayList<>();
+        for (int i = 0; i < order.size(); i++) {
+            ObjectGraph.Node node = order.get(i);
+            if (heads[i] >= 0) {
+                members.computeIfAbsent(CLUSTER_PREFIX + order.get(heads[i]).id(), ignored -> new ArrayList<>())
+                        .add(node);
+                continue;
+            }
+            List<ObjectGraph.Attribute> attributes = new ArrayList<>(node.attributes().size());
+            for (ObjectGraph.Attribute attribute : node.attributes()) {
+                String target = target(attribute, order, positions, heads);
+                attributes.add(target == null || target.equals(attribute.target()) ? attribute
+                        : ObjectGraph.reference(attribute.name(), attribute.type(), target, attribute.isStatic()));
+            }
+            nodes.add(new ObjectGraph.Node(node.id(), node.title(), node.type(), attributes));
+        }
+
+        Map<String, List<String>> memberIds = new LinkedHashMap<>();
+        members.forEach((group, groupMembers) -> {
+            // One row per distinct reference leaving the summary node
+            Set<String> rows = new HashSet<>();
+            List<ObjectGraph.Attribute> attributes = new ArrayList<>();
+            List<String> ids = new ArrayList<>(groupMembers.size());
+            for (ObjectGraph.Node member : groupMembers) {
+                ids.add(member.id());
+                for (ObjectGraph.Attribute attribute : member.attributes()) {
+                    String target = target(attribute, order, positions, heads);
+                    if (target != null && !target.equals(group) && rows.add(attribute.name() + '\u0000' + target)) {
+                        attributes.add(ObjectGraph.reference(attribute.name(), attribute.type(), target,
+                                attribute.isStatic()));
+                    }
+                }
+            }
+            String type = groupMembers.get(0).type();
+            nodes.add(new ObjectGraph.Node(group, groupMembers.size() + " × " + type, type, attributes));
+            memberIds.put(group, ids);
+        });
+        lastMembers = memberIds;
+        return new ObjectGraph(nodes);
+    }
+
+    /**
+     * The node a reference points to in the reduced graph: the object itself or its summary node;
+     * {@code null} for attributes that are no references to objects of the graph.
+     */
+    private static String target(ObjectGraph.Attribute attribute, List<ObjectGraph.Node> order,
+                                 Map<String, Integer> positions, int[] heads) {
+        Integer position = attribute.isReference() ? positions.get(attribute.target()) : null;
+        if (position == null) {
+            return null;
+        }
+        return heads[position] < 0 ? attribute.target() : CLUSTER_PREFIX + order.get(heads[position]).id();
+    }
+}
@@ -0,0 +1,460 @@
+package de.code14.edupydebugger.diagram;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Layered (Sugiyama-style) layout for object graphs.
+ * <p>
+ * The engine works in the classic phases, each linear or {@code n log n} in the size of the graph:
+ * <ol>
+ *     <li>cycle removal: edges closing a cycle in a depth-first search are reversed for layering only;</li>
+ *     <li>layer assignment by longest path, so every reference points at least one layer down;</li>
+ *     <li>crossing reduction by barycenter sweeps over the layers;</li>
+ *     <li>coordinate assignment: every node is placed below the mean of its predecessors, then overlaps in a layer
+ *     are removed by a left and a right pass whose results are averaged, which centers sibling groups.</li>
+ * </ol>
+ * Long edges are not split into dummy nodes; they are drawn as curves and only take part in the barycenters.
+ * </p>
+ * <p>
+ * A layout instance remembers the layer and position of every node it placed. The next call places known nodes
+ * at their previous layer (moving them down only if a new reference forces it) and previous position, and inserts
+ * new nodes below their predecessors. While stepping through a program, objects therefore stay where the student
+ * last saw them and only the changed part of the graph moves.
+ * </p>
+ */
+public final class ObjectGraphLayout {
+
+    static final int LAYER_GAP = 50;
+    static final int NODE_GAP = 30;
+    static final int MARGIN = 10;
+    private static final int SWEEPS = 4;
+
+    // Placement of the previous call, by node id
+    private Map<String, Integer> previousLayers = new HashMap<>();
+    private Map<String, Double> previousCenters = new HashMap<>();
+
+    /**
+     * Size of a node to place.
+     *
+     * @param width  the width in pixels
+     * @param height the height in pixels
+     */
+    public record Size(int width, int height) {
+    }
+
+    /**
+     * A directed edge between two node ids.
+     *
+     * @param from the id of the referencing node
+     * @param to   the id of the referenced node
+     */
+    public record Edge(String from, String to) {
+    }
+
+    /**
+     * A placed node; ({@code x}, {@code y}) is its top left corner.
+     *
+     * @param id     the node id
+     * @param layer  the layer, 0 at the top
+     * @param x      the left edge in pixels
+     * @param y      the top edge in pixels
+     * @param width  the width in pixels
+     * @param height the height in pixels
+     */
+    public record Node(String id, int layer, double x, double y, int width, int height) {
+
+        /** @return the horizontal center of the node */
+        public double centerX() {
+            return x + width / 2.0;
+        }
+    }
+
+    /**
+     * The result of a layout run.
+     *
+     * @param nodes  the placed nodes in input order
+     * @param edges  the edges between placed nodes, in input order; edges to unknown ids are dropped
+     * @param width  the width of the drawing including margins
+     * @param height the height of the drawing including margins
+     */
+    public record Result(Map<String, Node> nodes, List<Edge> edges, double width, double height) {
+    }
+
+    /**
+     * Lays out a graph, reusing the placement of nodes already known from the previous call.
+     *
+     * @param sizes the nodes to place, by id; the iteration order is the tie breaker for new nodes
+     * @param edges the references between nodes; self references and edges to unknown ids do not affect the layout
+     * @return the placed graph
+     */
+    public synchronized Result layout(Map<String, Size> sizes, List<Edge> edges) {
+        int n = sizes.size();
+        String[] ids = sizes.keySet().toArray(new String[0]);
+        Map<String, Integer> index = new HashMap<>(n * 2);
+        for (int i = 0; i < n; i++) {
+            index.put(ids[i], i);
+        }
+
+        List<Edge> kept = new ArrayList<>(edges.size());
+        int[][] out = adjacency(n, edges, index, kept, false);
+        int[][] in = adjacency(n, edges, index, null, true);
+
+        boolean[] known = new boolean[n];
+        for (int i = 0; i < n; i++) {
+            known[i] = previousLayers.containsKey(ids[i]);
+        }
+
+        int[] layer = assignLayers(ids, out, known);
+        List<List<Integer>> layers = groupByLayer(layer);
+        order(layers, ids, in, out, known);
+        double[] center = new double[n];
+        double[] ys = new double[layers.size()];
+        double width = place(layers, ids, sizes, in, known, center, ys);
+
+        Map<String, Node> nodes = new LinkedHashMap<>(n * 2);
+        Map<String, Integer> layersById = new HashMap<>(n * 2);
+        Map<String, Double> centersById = new HashMap<>(n * 2);
+        double height = MARGIN;
+        for (int i = 0; i < n; i++) {
+            Size size = sizes.get(ids[i]);
+            nodes.put(ids[i], new Node(ids[i], layer[i], center[i] - size.width() / 2.0, ys[layer[i]], size.width(), size.height()));
+            layersById.put(ids[i], layer[i]);
+            centersById.put(ids[i], center[i]);
+            height = Math.max(height, ys[layer[i]] + size.height() + MARGIN);
+        }
+        previousLayers = layersById;
+        previousCenters = centersById;
+        return new Result(nodes, kept, width, height);
+    }
+
+    /**
+     * Forgets all placements, so the next call lays the graph out from scratch.
+     */
+    public synchronized void reset() {
+        previousLayers = new HashMap<>();
+        previousCenters = new HashMap<>();
+    }
+
+    private static int[][] adjacency(int n, List<Edge> edges, Map<String, Integer> index, List<Edge> kept, boolean reverse) {
+        int[] degree = new int[n];
+        int[][] pairs = new int[edges.size()][];
+        int count = 0;
+        for (Edge e : edges) {
+            Integer from = index.get(e.from());
+            Integer to = index.get(e.to());
+            if (from == null || to == null) {
+                continue;
+            }
+            if (kept != null) {
+                kept.add(e);
+            }
+            if (from.equals(to)) {
+                continue;
+            }
+            int a = reverse ? to : from;
+            int b = reverse ? from : to;
+            pairs[count++] = new int[]{a, b};
+            degree[a]++;
+        }
+        int[][] adj = new int[n][];
+        for (int i = 0; i < n; i++) {
+            adj[i] = new int[degree[i]];
+        }
+        int[] fill = new int[n];
+        for (int k = 0; k < count; k++) {
+            adj[pairs[k][0]][fill[pairs[k][0]]++] = pairs[k][1];
+        }
+        return adj;
+    }
+
+    /**
+     * Longest-path layering on the graph with back edges (found by an iterative DFS) ignored.
+     * Known nodes start at their previous layer and only move down.
+     */
+    private int[] assignLayers(String[] ids, int[][] out, boolean[] known) {
+        int n = ids.length;
+        // Iterative DFS: marks back edges and yields a reverse post order, i.e. a topological order of the DAG
+        byte[] state = new byte[n]; // 0 = new, 1 = on stack, 2 = done
+        boolean[][] back = new boolean[n][];
+        int[] topo = new int[n];
+        int topoPos = n;
+        int[] next = new int[n];
+        Deque<Integer> stack = new ArrayDeque<>();
+        for (int root : roots(out, n)) {
+            if (state[root] != 0) {
+                continue;
+            }
+            stack.push(root);
+            state[root] = 1;
+            while (!stack.isEmpty()) {
+                int v = stack.peek();
+                if (back[v] == null) {
+                    back[v] = new boolean[out[v].length];
+                }
+                if (next[v] < out[v].length) {
+                    int k = next[v]++;
+                    int w = out[v][k];
+                    if (state[w] == 1) {
+                        back[v][k] = true;
+                    } else if (state[w] == 0) {
+                        state[w] = 1;
+                        stack.push(w);
+                    }
+                } else {
+                    stack.pop();
+                    state[v] = 2;
+                    topo[--topoPos] = v;
+                }
+            }
+        }
+
+        int[] layer = new int[n];
+        for (int i = 0; i < n; i++) {
+            layer[i] = known[i] ? previousLayers.get(ids[i]) : 0;
+        }
+        for (int v : topo) {
+            for (int k = 0; k < out[v].length; k++) {
+                if (!back[v][k]) {
+                    int w = out[v][k];
+                    layer[w] = Math.max(layer[w], layer[v] + 1);
+                }
+            }
+        }
+        return compact(layer);
+    }
+
+    // Sources first (in input order), then everything else, so chains start at their head
+    private static int[] roots(int[][] out, int n) {
+        boolean[] hasIncoming = new boolean[n];
+        for (int[] targets : out) {
+            for (int w : targets) {
+                hasIncoming[w] = true;
+            }
+        }
+        int[] roots = new int[n];
+        int pos = 0;
+        for (int i = 0; i < n; i++) {
+            if (!hasIncoming[i]) {
+                roots[pos++] = i;
+            }
+        }
+        for (int i = 0; i < n; i++) {
+            if (hasIncoming[i]) {
+                roots[pos++] = i;
+            }
+        }
+        return roots;
+    }
+
+    // Removes empty layers left behind by nodes that disappeared
+    private static int[] compact(int[] layer) {
+        int max = 0;
+        for (int l : layer) {
+            max = Math.max(max, l);
+        }
+        boolean[] used = new boolean[max + 1];
+        for (int l : layer) {
+            used[l] = true;
+        }
+        int[] shift = new int[max + 1];
+        int gaps = 0;
+        for (int l = 0; l <= max; l++) {
+            if (!used[l]) {
+                gaps++;
+            }
+            shift[l] = gaps;
+        }
+        if (gaps > 0) {
+            for (int i = 0; i < layer.length; i++) {
+                layer[i] -= shift[layer[i]];
+            }
+        }
+        return layer;
+    }
+
+    private static List<List<Integer>> groupByLayer(int[] layer) {
+        List<List<Integer>> layers = new ArrayList<>();
+        for (int i = 0; i < layer.length; i++) {
+            while (layers.size() <= layer[i]) {
+                layers.add(new ArrayList<>());
+            }
+            layers.get(layer[i]).add(i);
+        }
+        return layers;
+    }
+
+    /**
+     * Orders the nodes within each layer. Without history this runs barycenter sweeps; known nodes keep their
+     * previous left-to-right order and new nodes are inserted at the barycenter of their predecessors.
+     */
+    private void order(List<List<Integer>> layers, String[] ids, int[][] in, int[][] out, boolean[] known) {
+        int n = ids.length;
+        double[] pos = new double[n];
+        boolean anyKnown = false;
+        for (boolean k : known) {
+            anyKnown |= k;
+        }
+
+        if (!anyKnown) {
+            for (List<Integer> l : layers) {
+                for (int i = 0; i < l.size(); i++) {
+                    pos[l.get(i)] = i;
+                }
+            }
+            double[] key = new double[n];
+            for (int sweep = 0; sweep < SWEEPS; sweep++) {
+                boolean down = sweep % 2 == 0;
+                int[][] neighbours = down ? in : out;
+                for (int li = 0; li < layers.size(); li++) {
+                    List<Integer> l = layers.get(down ? li : layers.size() - 1 - li);
+                    for (int v : l) {
+                        key[v] = barycenter(neighbours[v], pos, pos[v]);
+                    }
+                    l.sort(Comparator.comparingDouble(v -> key[v]));
+                    for (int i = 0; i < l.size(); i++) {
+                        pos[l.get(i)] = i;
+                    }
+                }
+            }
+            return;
+        }
+
+        // Incremental: work in x coordinates, which known nodes carry over from the previous layout;
+        // only nodes of the layers above count for the barycenters of new nodes
+        Arrays.fill(pos, Double.NaN);
+        double[] key = new double[n];
+        for (List<Integer> l : layers) {
+            double right = Double.NEGATIVE_INFINITY;
+            for (int v : l) {
+                if (known[v]) {
+                    key[v] = previousCenters.get(ids[v]);
+                    right = Math.max(right, key[v]);
+                }
+            }
+            double append = right == Double.NEGATIVE_INFINITY ? 0 : right;
+            for (int v : l) {
+                if (!known[v]) {
+                    double b = barycenter(in[v], pos, Double.NaN);
+                    key[v] = Double.isNaN(b) ? (append += 1) : b;
+                }
+            }
+            l.sort(Comparator.comparingDouble(v -> key[v]));
+            for (int v : l) {
+                pos[v] = key[v];
+            }
+        }
+    }
+
+    private static double barycenter(int[] neighbours, double[] pos, double fallback) {
+        if (neighbours.length == 0) {
+            return fallback;
+        }
+        double sum = 0;
+        int count = 0;
+        for (int w : neighbours) {
+            if (!Double.isNaN(pos[w])) {
+                sum += pos[w];
+                count++;
+            }
+        }
+        return count == 0 ? fallback : sum / count;
+    }
+
+    /**
+     * Assigns x centers (top-down, under the predecessors) and layer tops; returns the drawing width.
+     */
+    private double place(List<List<Integer>> layers, String[] ids, Map<String, Size> sizes, int[][] in,
+                         boolean[] known, double[] center, double[] ys) {
+        int n = ids.length;
+        int[] width = new int[n];
+        for (int i = 0; i < n; i++) {
+            width[i] = sizes.get(ids[i]).width();
+        }
+        boolean[] placed = new boolean[n];
+        double y = MARGIN;
+        for (int li = 0; li < layers.size(); li++) {
+            List<Integer> l = layers.get(li);
+            int m = l.size();
+            double[] desired = new double[m];
+            double cursor = 0;
+            int layerHeight = 0;
+            for (int i = 0; i < m; i++) {
+                int v = l.get(i);
+                double sum = 0;
+                int count = 0;
+                for (int w : in[v]) {
+                    if (placed[w]) {
+                        sum += center[w];
+                        count++;
+                    }
+                }
+                if (known[v]) {
+                    desired[i] = previousCenters.get(ids[v]);
+                } else if (count > 0) {
+                    desired[i] = sum / count;
+                } else {
+                    desired[i] = cursor + width[v] / 2.0;
+                }
+                cursor = desired[i] + width[v] / 2.0 + NODE_GAP;
+                layerHeight = Math.max(layerHeight, sizes.get(ids[v]).height());
+            }
+            double[] x = separate(l, width, desired);
+            for (int i = 0; i < m; i++) {
+                center[l.get(i)] = x[i];
+                placed[l.get(i)] = true;
+            }
+            ys[li] = y;
+            y += layerHeight + LAYER_GAP;
+        }
+
+        // Shift everything so the leftmost node starts at the margin
+        double left = Double.POSITIVE_INFINITY;
+        double right = Double.NEGATIVE_INFINITY;
+        for (int i = 0; i < n; i++) {
+            left = Math.min(left, center[i] - width[i] / 2.0);
+            right = Math.max(right, center[i] + width[i] / 2.0);
+        }
+        if (n == 0) {
+            return 2 * MARGIN;
+        }
+        double shift = MARGIN - left;
+        for (int i = 0; i < n; i++) {
+            center[i] += shift;
+        }
+        return right - left + 2 * MARGIN;
+    }
+
+    /**
+     * Moves the desired centers of one ordered layer apart until no two nodes overlap: a left-to-right pass that
+     * only pushes right, a right-to-left pass that only pushes left, their average, and a final left-to-right pass.
+     */
+    private static double[] separate(List<Integer> l, int[] width, double[] desired) {
+        int m = l.size();
+        double[] pushRight = new double[m];
+        double[] pushLeft = new double[m];
+        for (int i = 0; i < m; i++) {
+            pushRight[i] = i == 0 ? desired[i] : Math.max(desired[i], pushRight[i - 1] + gap(l, width, i - 1, i));
+        }
+        for (int i = m - 1; i >= 0; i--) {
+            pushLeft[i] = i == m - 1 ? desired[i] : Math.min(desired[i], pushLeft[i + 1] - gap(l, width, i, i + 1));
+        }
+        double[] x = new double[m];
+        for (int i = 0; i < m; i++) {
+            double mid = (pushRight[i] + pushLeft[i]) / 2;
+            x[i] = i == 0 ? mid : Math.max(mid, x[i - 1] + gap(l, width, i - 1, i));
+        }
+        return x;
+    }
+
+    private static double gap(List<Integer> l, int[] width, int a, int b) {
+        return (width[l.get(a)] + width[l.get(b)]) / 2.0 + NODE_GAP;
+    }
+}
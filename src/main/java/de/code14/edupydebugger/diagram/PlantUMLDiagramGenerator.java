@@ -1,14 +1,16 @@
 package de.code14.edupydebugger.diagram;
 
 import com.intellij.openapi.diagnostic.Logger;
-import net.sourceforge.plantuml.FileFormat;
-import net.sourceforge.plantuml.FileFormatOption;
-import net.sourceforge.plantuml.SourceStringReader;
 
-import java.io.ByteArrayOutputStream;
 import java.io.IOException;
-import java.nio.charset.StandardCharsets;
+import java.io.InterruptedIOException;
+import java.time.Instant;
 import java.util.Base64;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 /**
  * Utility class for generating PlantUML diagrams.
@@ -21,11 +23,22 @@ import java.util.Base64;
  * <p>
  * The diagrams are encoded in UTF-8 format before being converted into Base64 strings.
  * </p>
+ *
+ * <p>
+ * Rendering happens in worker JVMs if {@link PlantUMLRenderService} is configured, in the IDE otherwise.
+ * Diagrams laid out with Graphviz {@code dot} (see {@link GraphvizLayout}) are rendered one at a time with a time
+ * limit and rendered again with Smetana if {@code dot} is too slow or fails, including failures PlantUML only reports
+ * in the image (see {@link GraphvizLayout#isDotFailure(byte[])}). A {@code dot} process still running at
+ * the time limit is ended, so a stuck layout holds neither a thread nor a process for long.
+ * </p>
  */
 public class PlantUMLDiagramGenerator {
 
     private final static Logger LOGGER = Logger.getInstance(PlantUMLDiagramGenerator.class);
 
+    // One dot layout at a time, released when its thread ends
+    private static final Semaphore DOT_SLOT = new Semaphore(1);
+
     /**
      * Generates a PlantUML diagram and returns it as a Base64-encoded string in SVG format.
      * <p>
@@ -36,7 +49,8 @@ public class PlantUMLDiagramGenerator {
      *
      * <p>
      * The generated SVG diagram is first encoded in UTF-8 before being converted to a Base64 string.
-     * The diagram is generated using the {@code outputImage} method of the {@code SourceStringReader} class.
+     * The diagram is generated by a {@link PlantUMLRenderService} worker if the service is enabled, otherwise by
+     * {@link PlantUMLRenderWorker#renderSvg(String)} in the IDE.
      * </p>
      *
      * @param plantUmlSource the PlantUML source code as a string
@@ -45,18 +59,17 @@ public class PlantUMLDiagramGenerator {
      * @since 0.1.0
      */
     public static String generateDiagramAsBase64(String plantUmlSource) throws IOException {
-        String base64EncodedSvg;
-        SourceStringReader reader = new SourceStringReader(plantUmlSource);
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            // Neue Methode zum Erzeugen des Diagramms
-            reader.outputImage(baos, new FileFormatOption(FileFormat.SVG));
-
-            // Umwandlung der Ausgabe in ein Base64-kodiertes SVG
-            byte[] svgBytes = baos.toString(StandardCharsets.UTF_8).getBytes(StandardCharsets.UTF_8);
-            base64EncodedSvg = Base64.getEncoder().encodeToString(svgBytes);
-            LOGGER.debug("Encoded diagram (SVG, base64): " + base64EncodedSvg);
+        byte[] svgBytes;
+        if (GraphvizLayout.usesDot(plantUmlSource)) {
+            svgBytes = renderWithDot(plantUmlSource);
+        } else {
+            svgBytes = render(GraphvizLayout.toSmetana(plantUmlSource));
         }
 
+        // Umwandlung der Ausgabe in ein Base64-kodiertes SVG
+        String base64EncodedSvg = Base64.getEncoder().encodeToString(svgBytes);
+        LOGGER.debug("Encoded diagram (SVG, base64): " + base64EncodedSvg);
+
         // Validierung des Base64-Strings
         try {
             byte[] decodedBytes = Base64.getDecoder().decode(base64EncodedSvg);
@@ -68,5 +81,63 @@ public class PlantUMLDiagramGenerator {
         }
     }
 
+    private static byte[] render(String plantUmlSource) throws IOException {
+        PlantUMLRenderService renderService = PlantUMLRenderService.getInstance();
+        return renderService != null
+                ? renderService.render(plantUmlSource)
+                : PlantUMLRenderWorker.renderSvg(plantUmlSource);
+    }
+
+    private static byte[] renderWithDot(String plantUmlSource) throws IOException {
+        long timeoutNanos = TimeUnit.MILLISECONDS.toNanos(GraphvizLayout.timeoutMillis());
+        long deadline = System.nanoTime() + timeoutNanos;
+        try {
+            // The time limit includes waiting for an earlier dot layout
+            if (!DOT_SLOT.tryAcquire(timeoutNanos, TimeUnit.NANOSECONDS)) {
+                LOGGER.warn("Graphviz dot busy for " + GraphvizLayout.timeoutMillis() + " ms, falling back to Smetana");
+                return render(GraphvizLayout.toSmetana(plantUmlSource));
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for Graphviz dot");
+        }
+
+        Instant start = Instant.now();
+        FutureTask<byte[]> job = new FutureTask<>(() -> {
+            byte[] svg = render(plantUmlSource);
+            if (GraphvizLayout.isDotFailure(svg)) {
+                // PlantUML draws dot failures into the image instead of throwing
+                throw new IOException("PlantUML reported a Graphviz dot failure");
+            }
+            return svg;
+        });
+        Thread thread = new Thread(() -> {
+            try {
+                job.run();
+            } finally {
+                DOT_SLOT.release();
+            }
+        }, "EduPy-Debugger dot layout");
+        thread.setDaemon(true);
+        thread.start();
+        try {
+            return job.get(deadline - System.nanoTime(), TimeUnit.NANOSECONDS);
+        } catch (TimeoutException e) {
+            // PlantUML may not react to the interrupt, so its dot process is ended as well
+            job.cancel(true);
+            GraphvizLayout.destroyDotProcesses(start);
+            LOGGER.warn("Graphviz dot exceeded " + GraphvizLayout.timeoutMillis() + " ms, falling back to Smetana");
+        } catch (ExecutionException e) {
+            LOGGER.warn("Graphviz dot failed, falling back to Smetana", e.getCause());
+        } catch (InterruptedException e) {
+            job.cancel(true);
+            GraphvizLayout.destroyDotProcesses(start);
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while rendering with Graphviz dot");
+        }
+        return render(GraphvizLayout.toSmetana(plantUmlSource));
+    }
+
+
 
 }
@@ -0,0 +1,281 @@
+package de.code14.edupydebugger.diagram;
+
+import com.intellij.openapi.diagnostic.Logger;
+import net.sourceforge.plantuml.SourceStringReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Paths;
+import java.security.CodeSource;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * A pool of worker JVMs that render PlantUML diagrams outside the IDE heap.
+ * <p>
+ * Large diagrams make PlantUML and Smetana allocate heavily; inside the IDE that means GC pauses in the editor and,
+ * for pathological graphs, an {@link OutOfMemoryError} of the whole IDE. With the system property
+ * {@value #WORKERS_PROPERTY} set to a positive number, {@link PlantUMLDiagramGenerator} hands every diagram to one
+ * of that many workers instead (see {@link PlantUMLRenderWorker} for the protocol over the worker's standard streams).
+ * </p>
+ * <ul>
+ *   <li>Every worker runs with a heap of {@value #HEAP_PROPERTY} MiB (default {@value #DEFAULT_HEAP_MB}) and exits on
+ *       {@link OutOfMemoryError}; the job fails with an {@link IOException}, the IDE is unaffected.</li>
+ *   <li>A job taking longer than {@value #TIMEOUT_PROPERTY} ms (default {@value #DEFAULT_TIMEOUT_MILLIS}) kills its
+ *       worker and fails.</li>
+ *   <li>A worker is replaced after {@value #MAX_JOBS_PROPERTY} jobs (default {@value #DEFAULT_MAX_JOBS}), so a
+ *       fragmented or leaking heap does not live on; crashed workers are restarted on their next job.</li>
+ * </ul>
+ * <p>
+ * Workers are started on their first job. If a worker JVM cannot be started at all, the service switches itself off
+ * and diagrams are rendered in the IDE again, as without workers. Jobs that fail in a worker are not retried in the
+ * IDE, since that is exactly what the workers protect against.
+ * </p>
+ */
+public final class PlantUMLRenderService {
+
+    private static final Logger LOGGER = Logger.getInstance(PlantUMLRenderService.class);
+
+    /** System property setting the number of worker JVMs; 0 (the default) renders in the IDE. */
+    public static final String WORKERS_PROPERTY = "edupy.render.workers";
+    /** System property setting the maximum heap of every worker in MiB. */
+    public static final String HEAP_PROPERTY = "edupy.render.workerHeapMb";
+    /** System property setting the time limit of a single job in milliseconds. */
+    public static final String TIMEOUT_PROPERTY = "edupy.render.timeoutMs";
+    /** System property setting the number of jobs after which a worker is replaced. */
+    public static final String MAX_JOBS_PROPERTY = "edupy.render.workerMaxJobs";
+
+    static final int DEFAULT_HEAP_MB = 512;
+    static final int DEFAULT_TIMEOUT_MILLIS = 30_000;
+    static final int DEFAULT_MAX_JOBS = 200;
+
+    // Lazy holder: created with the first job
+    private static final class Watchdog {
+        static final ScheduledExecutorService INSTANCE = Executors.newSingleThreadScheduledExecutor(r -> {
+            Thread thread = new Thread(r, "EduPy-Debugger render watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+    }
+
+    private static volatile PlantUMLRenderService shared;
+    private static volatile boolean unavailable;
+
+    private final BlockingQueue<Worker> idle;
+    private final List<Worker> workers = new ArrayList<>();
+    private final String classPath;
+    private final int heapMb;
+    private final long timeoutMillis;
+    private final int maxJobs;
+    private final AtomicInteger startedWorkers = new AtomicInteger();
+    private final AtomicBoolean available = new AtomicBoolean(true);
+
+    /**
+     * Creates a pool; workers are started on demand.
+     *
+     * @param workerCount   the number of worker JVMs
+     * @param classPath     the classpath of the workers, holding {@link PlantUMLRenderWorker} and PlantUML
+     * @param heapMb        the maximum heap of every worker in MiB
+     * @param timeoutMillis the time limit of a single job
+     * @param maxJobs       the number of jobs after which a worker is replaced
+     */
+    PlantUMLRenderService(int workerCount, String classPath, int heapMb, long timeoutMillis, int maxJobs) {
+        this.idle = new ArrayBlockingQueue<>(workerCount);
+        this.classPath = classPath;
+        this.heapMb = heapMb;
+        this.timeoutMillis = timeoutMillis;
+        this.maxJobs = maxJobs;
+        for (int i = 0; i < workerCount; i++) {
+            Worker worker = new Worker();
+            workers.add(worker);
+            idle.add(worker);
+        }
+    }
+
+    /**
+     * Returns the shared pool configured by the system properties.
+     *
+     * @return the pool, or {@code null} if rendering happens in the IDE (no workers configured or workers unavailable)
+     */
+    public static PlantUMLRenderService getInstance() {
+        PlantUMLRenderService service = shared;
+        if (service == null) {
+            int workerCount = Integer.getInteger(WORKERS_PROPERTY, 0);
+            if (workerCount <= 0 || unavailable) {
+                return null;
+            }
+            synchronized (PlantUMLRenderService.class) {
+                if (shared == null) {
+                    String classPath = workerClassPath();
+                    if (classPath == null) {
+                        LOGGER.warn("PlantUML workers disabled: classpath of the plugin not found");
+                        unavailable = true;
+                        return null;
+                    }
+                    shared = new PlantUMLRenderService(workerCount, classPath,
+                            Integer.getInteger(HEAP_PROPERTY, DEFAULT_HEAP_MB),
+                            Integer.getInteger(TIMEOUT_PROPERTY, DEFAULT_TIMEOUT_MILLIS),
+                            Integer.getInteger(MAX_JOBS_PROPERTY, DEFAULT_MAX_JOBS));
+                }
+                service = shared;
+            }
+        }
+        return service.available.get() ? service : null;
+    }
+
+    /**
+     * Renders a PlantUML diagram in the next idle worker, waiting for one if all are busy.
+     *
+     * @param plantUmlSource the PlantUML source code
+     * @return the SVG document, UTF-8 encoded
+     * @throws IOException if PlantUML fails, the job times out or the worker dies
+     */
+    public byte[] render(String plantUmlSource) throws IOException {
+        Worker worker;
+        try {
+            worker = idle.take();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Interrupted while waiting for a PlantUML worker");
+        }
+        try {
+            return worker.render(plantUmlSource);
+        } finally {
+            idle.add(worker);
+        }
+    }
+
+    /**
+     * Stops all workers; the next job starts them again.
+     */
+    public void shutdown() {
+        for (Worker worker : workers) {
+            worker.stop();
+        }
+    }
+
+    /**
+     * @return the number of worker JVMs started so far, including replacements
+     */
+    int startedWorkers() {
+        return startedWorkers.get();
+    }
+
+    private static String workerClassPath() {
+        Set<String> entries = new LinkedHashSet<>();
+        for (Class<?> type : List.of(PlantUMLRenderWorker.class, SourceStringReader.class)) {
+            CodeSource source = type.getProtectionDomain().getCodeSource();
+            if (source == null) {
+                return null;
+            }
+            try {
+                entries.add(Paths.get(source.getLocation().toURI()).toString());
+            } catch (Exception e) {
+                return null;
+            }
+        }
+        return String.join(File.pathSeparator, entries);
+    }
+
+    private List<String> command() {
+        List<String> command = new ArrayList<>(List.of(
+                Paths.get(System.getProperty("java.home"), "bin", "java").toString(),
+                "-Xmx" + heapMb + "m",
+                "-XX:+ExitOnOutOfMemoryError",
+                "-XX:+UseSerialGC",
+                "-Djava.awt.headless=true"));
+        command.addAll(List.of("-cp", classPath, PlantUMLRenderWorker.class.getName()));
+        return command;
+    }
+
+    /**
+     * One worker JVM; used by one job at a time.
+     */
+    private final class Worker {
+
+        private Process process;
+        private DataInputStream in;
+        private DataOutputStream out;
+        private int jobs;
+
+        synchronized byte[] render(String plantUmlSource) throws IOException {
+            if (process == null || !process.isAlive() || jobs >= maxJobs) {
+                stop();
+                try {
+                    start();
+                } catch (IOException e) {
+                    LOGGER.warn("Could not start a PlantUML worker; rendering in the IDE", e);
+                    available.set(false);
+                    return PlantUMLRenderWorker.renderSvg(plantUmlSource);
+                }
+            }
+            jobs++;
+
+            Process current = process;
+            AtomicBoolean timedOut = new AtomicBoolean();
+            ScheduledFuture<?> watchdog = Watchdog.INSTANCE.schedule(() -> {
+                timedOut.set(true);
+                current.destroyForcibly();
+            }, timeoutMillis, TimeUnit.MILLISECONDS);
+            byte status;
+            byte[] body;
+            try {
+                PlantUMLRenderWorker.writeFrame(out, plantUmlSource.getBytes(StandardCharsets.UTF_8));
+                out.flush();
+                status = in.readByte();
+                body = PlantUMLRenderWorker.readFrame(in);
+            } catch (IOException e) {
+                stop();
+                if (timedOut.get()) {
+                    throw new IOException("PlantUML rendering timed out after " + timeoutMillis + " ms", e);
+                }
+                throw new IOException("PlantUML worker exited during rendering (heap limit " + heapMb + " MiB)", e);
+            } finally {
+                watchdog.cancel(false);
+            }
+            if (status != PlantUMLRenderWorker.OK) {
+                throw new IOException("PlantUML rendering failed: " + new String(body, StandardCharsets.UTF_8));
+            }
+            return body;
+        }
+
+        private void start() throws IOException {
+            process = new ProcessBuilder(command())
+                    .redirectError(ProcessBuilder.Redirect.DISCARD)
+                    .start();
+            in = new DataInputStream(new BufferedInputStream(process.getInputStream()));
+            out = new DataOutputStream(new BufferedOutputStream(process.getOutputStream()));
+            jobs = 0;
+            startedWorkers.incrementAndGet();
+        }
+
+        synchronized void stop() {
+            if (process != null) {
+                // Closing stdin ends a healthy worker; a stuck one is killed
+                try {
+                    out.close();
+                } catch (IOException ignored) {
+                    // Already gone
+                }
+                process.destroyForcibly();
+                process = null;
+            }
+        }
+    }
+}
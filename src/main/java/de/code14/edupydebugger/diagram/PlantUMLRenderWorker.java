@@ -0,0 +1,112 @@
+package de.code14.edupydebugger.diagram;
+
+import net.sourceforge.plantuml.FileFormat;
+import net.sourceforge.plantuml.FileFormatOption;
+import net.sourceforge.plantuml.SourceStringReader;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.FileDescriptor;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Renders PlantUML diagrams to SVG, in the IDE or as the main class of a worker JVM of {@link PlantUMLRenderService}.
+ * <p>
+ * A worker reads jobs from standard input and writes the results to standard output until its input is closed.
+ * Every message is a frame: a 4-byte big-endian length followed by that many bytes. A job is one frame with the
+ * PlantUML source (UTF-8); the answer is a status byte ({@link #OK} or {@link #FAILED}) followed by one frame with
+ * the SVG or the error message. The worker must not depend on IDE classes, since its classpath only holds the
+ * plugin and PlantUML.
+ * </p>
+ */
+public final class PlantUMLRenderWorker {
+
+    static final byte OK = 0;
+    static final byte FAILED = 1;
+
+    /** Largest frame accepted; anything bigger is a corrupt stream. */
+    static final int MAX_FRAME = 64 * 1024 * 1024;
+
+    private PlantUMLRenderWorker() {
+    }
+
+    /**
+     * Serves render jobs from standard input until it is closed.
+     *
+     * @param args ignored
+     * @throws IOException if standard output cannot be written
+     */
+    public static void main(String[] args) throws IOException {
+        DataInputStream in = new DataInputStream(new BufferedInputStream(System.in));
+        DataOutputStream out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(FileDescriptor.out)));
+        // PlantUML messages must not end up in the protocol
+        System.setOut(System.err);
+
+        while (true) {
+            byte[] request;
+            try {
+                request = readFrame(in);
+            } catch (EOFException e) {
+                // The IDE closed the pipe or exited
+                return;
+            }
+            byte status;
+            byte[] body;
+            try {
+                body = renderSvg(new String(request, StandardCharsets.UTF_8));
+                status = OK;
+            } catch (IOException | RuntimeException e) {
+                body = String.valueOf(e).getBytes(StandardCharsets.UTF_8);
+                status = FAILED;
+            }
+            out.writeByte(status);
+            writeFrame(out, body);
+            out.flush();
+        }
+    }
+
+    /**
+     * Renders a PlantUML diagram in the current JVM.
+     *
+     * @param plantUmlSource the PlantUML source code
+     * @return the SVG document, UTF-8 encoded
+     * @throws IOException if PlantUML fails
+     */
+    static byte[] renderSvg(String plantUmlSource) throws IOException {
+        SourceStringReader reader = new SourceStringReader(plantUmlSource);
+        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
+            reader.outputImage(baos, new FileFormatOption(FileFormat.SVG));
+            return baos.toByteArray();
+        }
+    }
+
+    /**
+     * Writes one frame; does not flush.
+     */
+    static void writeFrame(DataOutputStream out, byte[] body) throws IOException {
+        out.writeInt(body.length);
+        out.write(body);
+    }
+
+    /**
+     * Reads one frame.
+     *
+     * @throws EOFException if the stream ends before or within the frame
+     * @throws IOException  if the length is out of range
+     */
+    static byte[] readFrame(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0 || length > MAX_FRAME) {
+            throw new IOException("Invalid frame length " + length);
+        }
+        byte[] body = new byte[length];
+        in.readFully(body);
+        return body;
+    }
+}
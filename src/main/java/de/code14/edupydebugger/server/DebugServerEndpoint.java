@@ -10,6 +10,7 @@ import de.code14.edupydebugger.core.console.ConsoleOutputListener;
 import de.code14.edupydebugger.core.repl.ReplManager;
 import de.code14.edupydebugger.core.DebugProcessController;
 import de.code14.edupydebugger.core.DebugSessionController;
+import de.code14.edupydebugger.core.publish.PayloadPublisher;
 import de.code14.edupydebugger.server.dto.*;
 import jakarta.servlet.annotation.WebListener;
 import jakarta.websocket.*;
@@ -20,13 +21,16 @@ import de.code14.edupydebugger.server.validation.DebugMessageValidator;
 import java.io.IOException;
 import java.util.*;
 import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CopyOnWriteArraySet;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.function.Consumer;
 
 // Added imports for REPL class diagram generation
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.project.ProjectManager;
 import de.code14.edupydebugger.analysis.staticanalysis.PythonAnalyzer;
 import de.code14.edupydebugger.diagram.ClassDiagramParser;
+import de.code14.edupydebugger.diagram.ClassDiagramShards;
 import de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator;
 
 /**
@@ -46,25 +50,46 @@ import de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator;
  *   <li><b>{@code thread_selected}</b> — Payload {@code {"name":"Thread-1"}} (empty or missing → no selection):
  *       stores the selected thread and triggers dynamic analysis in
  *       {@link DebugSessionController}.</li>
- *   <li><b>{@code get}</b> — Payload {@code {"resource":"variables|object_cards|class_diagram|object_diagram|callstack|threads"}}:
- *       immediately re-sends the last cached payload for the requested resource (if any).</li>
+ *   <li><b>{@code frame_selected}</b> — Payload {@code {"index":2}} (position in the published call stack, top = 0):
+ *       publishes the objects of that frame, analyzing caller frames on demand in
+ *       {@link DebugSessionController#selectFrame(int)}.</li>
+ *   <li><b>{@code container_page}</b> — Payload {@code {"id":"140234","offset":0,"limit":50}}: answers with a
+ *       {@code container_page} message holding that page of a list/dict/tuple/set, see
+ *       {@link DebugSessionController#fetchContainerPage(String, int, int)}.</li>
+ *   <li><b>{@code expand_cluster}</b> — Payload {@code {"id":"~140234"}}: shows the members of a collapsed
+ *       summary node of the object diagram and re-publishes the diagram, see
+ *       {@link PayloadPublisher#expandObjectCluster(String)}.</li>
+ *   <li><b>{@code get}</b> — Payload {@code {"resource":"variables|object_cards|class_diagram|object_diagram|object_graph|callstack|threads"}}:
+ *       immediately re-sends the last cached payload for the requested resource (if any).
+ *       {@code {"resource":"class_diagram_shard","module":"shapes.point"}} renders the diagram of one module of a
+ *       sharded class diagram on first request and answers with a {@code class_diagram_shard} message.</li>
  * </ul>
  *
  * <h2>Published outbound message types</h2>
  * <ul>
- *   <li>{@code class_diagram} → {@link DiagramPayload}</li>
+ *   <li>{@code class_diagram} → {@link DiagramPayload} (module overview with {@code shards} for large projects)</li>
+ *   <li>{@code class_diagram_shard} → {@link ClassDiagramShardPayload} (answer only, not cached)</li>
  *   <li>{@code object_cards} → {@link ObjectCardPayload}</li>
  *   <li>{@code object_diagram} → {@link DiagramPayload}</li>
+ *   <li>{@code object_diagram_patch} → {@link DiagramPatchPayload}</li>
+ *   <li>{@code object_graph} → {@link ObjectGraphPayload} (client-side rendering, instead of object cards and
+ *       object diagram)</li>
  *   <li>{@code variables} → {@link VariablesPayload}</li>
  *   <li>{@code callstack} → {@link CallstackPayload}</li>
  *   <li>{@code threads} → {@link ThreadsPayload}</li>
  *   <li>{@code console} → {@link ConsolePayload}</li>
+ *   <li>{@code container_page} → {@link ContainerPagePayload} (answer only, not cached)</li>
  * </ul>
  *
  * <p>
  * The endpoint path is {@code /debug}. Session management is thread-safe; outbound messages are
  * broadcast to all connected sessions. If no session is connected, messages are queued (FIFO) and
  * flushed on the next connection.
+ * <p>
+ * Besides websocket sessions, in-process clients receive the same messages: the embedded browser of the tool window
+ * connects through {@link #connectLocalClient(Consumer)} and hands its inbound messages to
+ * {@link #receiveLocalMessage(String)}, so it needs no socket (see
+ * {@link de.code14.edupydebugger.ui.JcefTransport}).
  */
 @WebListener
 @ServerEndpoint(value = "/debug")
@@ -76,6 +101,9 @@ public class DebugServerEndpoint {
     /** Active websocket sessions (thread-safe). */
     private static final Set<Session> sessions = Collections.synchronizedSet(new HashSet<>());
 
+    /** Connected in-process clients, each accepting serialized messages (thread-safe). */
+    private static final Set<Consumer<String>> localClients = new CopyOnWriteArraySet<>();
+
     /** FIFO queue for outbound JSON when no client is connected. */
     private static final BlockingQueue<String> messageQueue = new LinkedBlockingQueue<>();
 
@@ -84,7 +112,7 @@ public class DebugServerEndpoint {
     private static final ConsoleController consoleController = new ConsoleController();
     private static final DebugSessionController debugSessionController = new DebugSessionController();
 
-    /** True while at least one session is connected. */
+    /** True while at least one session or in-process client is connected. */
     private static volatile boolean isConnected = false;
 
     /** Tracks which process handlers already have a console listener wired to avoid duplicates. */
@@ -92,8 +120,13 @@ public class DebugServerEndpoint {
 
     // --- Last-known payloads for quick GET responses ---
     private static DiagramPayload    lastClassDiagram;
+    /** Renders the modules of {@link #lastClassDiagram} on demand if it is a sharded overview, otherwise null. */
+    private static volatile ClassDiagramShards classDiagramShards;
     private static ObjectCardPayload lastObjectCards;
     private static DiagramPayload    lastObjectDiagram;
+    /** Produces the object diagram on demand after patches made {@link #lastObjectDiagram} stale. */
+    private static java.util.function.Supplier<String> objectDiagramSource;
+    private static ObjectGraphPayload lastObjectGraph;
     private static VariablesPayload  lastVariables;
     private static CallstackPayload  lastCallstack;
     private static ThreadsPayload    lastThreads;
@@ -131,17 +164,7 @@ public class DebugServerEndpoint {
         sessions.add(session);
         LOGGER.info("Opened websocket session " + session.getId());
         isConnected = true;
-
-        // Flush queued messages in FIFO order
-        while (!messageQueue.isEmpty()) {
-            try {
-                String json = messageQueue.take();
-                sendRaw(json);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                LOGGER.error("Interrupted while sending queued messages", e);
-            }
-        }
+        flushQueue();
 
         // Optional: send a connection banner when -Dedupy.ws.banner=true
         if (Boolean.getBoolean("edupy.ws.banner")) {
@@ -163,11 +186,57 @@ public class DebugServerEndpoint {
     public void onClose(Session session) {
         sessions.remove(session);
         LOGGER.info("Closed websocket session " + session.getId());
-        if (sessions.isEmpty()) {
+        if (sessions.isEmpty() && localClients.isEmpty()) {
             isConnected = false;
         }
     }
 
+    /**
+     * Connects an in-process client. It receives every outbound message as serialized JSON, starting with the queued
+     * ones, until {@link #disconnectLocalClient(Consumer)}.
+     *
+     * @param client accepts one serialized {@code DebugMessage} per call; must not block
+     */
+    public static void connectLocalClient(Consumer<String> client) {
+        localClients.add(client);
+        LOGGER.info("Connected in-process client");
+        isConnected = true;
+        flushQueue();
+    }
+
+    /**
+     * Disconnects an in-process client; no-op if it is not connected.
+     *
+     * @param client the client passed to {@link #connectLocalClient(Consumer)}
+     */
+    public static void disconnectLocalClient(Consumer<String> client) {
+        if (localClients.remove(client) && sessions.isEmpty() && localClients.isEmpty()) {
+            isConnected = false;
+        }
+    }
+
+    /**
+     * Handles a message of an in-process client exactly like a websocket message.
+     *
+     * @param message the serialized {@code DebugMessage}
+     */
+    public static void receiveLocalMessage(String message) {
+        new DebugServerEndpoint().onMessage(message, null);
+    }
+
+    private static void flushQueue() {
+        // Flush queued messages in FIFO order
+        while (!messageQueue.isEmpty()) {
+            try {
+                String json = messageQueue.take();
+                sendRaw(json);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                LOGGER.error("Interrupted while sending queued messages", e);
+            }
+        }
+    }
+
     // ======================================================================
     // Inbound handling
     // ======================================================================
@@ -233,11 +302,47 @@ public class DebugServerEndpoint {
                 }
                 break;
             }
+            case "frame_selected": {
+                // payload: { "index": 2 }
+                Integer index = DebugMessageValidator
+                        .extractSelectedFrame(msg.payload, GSON)
+                        .orElse(null);
+                if (index != null) {
+                    try {
+                        debugSessionController.selectFrame(index);
+                    } catch (IOException e) {
+                        LOGGER.error("Error publishing objects of frame " + index, e);
+                    }
+                }
+                break;
+            }
+            case "container_page": {
+                // payload: { "id": "140234", "offset": 0, "limit": 50 }
+                DebugMessageValidator
+                        .extractContainerPage(msg.payload, GSON)
+                        .ifPresent(p -> debugSessionController.fetchContainerPage(p.id, p.offset, p.limit));
+                break;
+            }
+            case "expand_cluster": {
+                // payload: { "id": "~140234" }
+                DebugMessageValidator
+                        .extractClusterId(msg.payload, GSON)
+                        .ifPresent(PayloadPublisher::expandObjectCluster);
+                break;
+            }
             case "get": {
-                // payload: { "resource": "variables|object_cards|class_diagram|object_diagram|callstack|threads" }
+                // payload: { "resource": "variables|object_cards|class_diagram|object_diagram|object_graph|callstack|threads" }
+                Object payload = msg.payload;
                 DebugMessageValidator
-                        .extractGetResource(msg.payload, GSON)
-                        .ifPresent(this::sendLatest);
+                        .extractGetResource(payload, GSON)
+                        .ifPresent(resource -> {
+                            if ("class_diagram_shard".equals(resource)) {
+                                DebugMessageValidator.extractShardModule(payload, GSON)
+                                        .ifPresent(DebugServerEndpoint::sendClassDiagramShard);
+                            } else {
+                                sendLatest(resource);
+                            }
+                        });
                 break;
             }
             case "repl_reset": {
@@ -248,8 +353,12 @@ public class DebugServerEndpoint {
                 consoleController.setProcessHandler(null);
                 // clear cached payloads
                 lastClassDiagram = null;
+                classDiagramShards = null;
                 lastObjectCards  = null;
                 lastObjectDiagram= null;
+                objectDiagramSource = null;
+                lastObjectGraph  = null;
+                PayloadPublisher.resetObjectDiagram();
                 lastVariables    = null;
                 lastCallstack    = null;
                 lastThreads      = null;
@@ -309,7 +418,7 @@ public class DebugServerEndpoint {
     /**
      * Sends the last cached payload for the requested resource, if available.
      *
-     * @param resource one of {@code class_diagram|object_cards|object_diagram|variables|callstack|threads}
+     * @param resource one of {@code class_diagram|object_cards|object_diagram|object_graph|variables|callstack|threads}
      */
     private void sendLatest(String resource) {
         switch (resource) {
@@ -331,8 +440,19 @@ public class DebugServerEndpoint {
                 if (lastObjectCards != null) sendDebugMessage("object_cards", lastObjectCards);
             }
             case "object_diagram" -> {
+                if (lastObjectDiagram == null && objectDiagramSource != null) {
+                    // Patches were sent since the last full diagram: materialize the current state once
+                    String svgBase64 = objectDiagramSource.get();
+                    if (svgBase64 != null) {
+                        lastObjectDiagram = new DiagramPayload();
+                        lastObjectDiagram.svgBase64 = svgBase64;
+                    }
+                }
                 if (lastObjectDiagram != null) sendDebugMessage("object_diagram", lastObjectDiagram);
             }
+            case "object_graph" -> {
+                if (lastObjectGraph != null) sendDebugMessage("object_graph", lastObjectGraph);
+            }
             case "variables" -> {
                 if (lastVariables != null) {
                     sendDebugMessage("variables", lastVariables);
@@ -383,7 +503,7 @@ public class DebugServerEndpoint {
     }
 
     /**
-     * Low-level sender that writes a pre-serialized JSON string to all sessions.
+     * Low-level sender that writes a pre-serialized JSON string to all sessions and in-process clients.
      *
      * @param json serialized JSON to send
      */
@@ -397,6 +517,13 @@ public class DebugServerEndpoint {
                 }
             }
         }
+        for (Consumer<String> client : localClients) {
+            try {
+                client.accept(json);
+            } catch (RuntimeException e) {
+                LOGGER.error("Send to in-process client failed", e);
+            }
+        }
     }
 
     // ======================================================================
@@ -411,6 +538,23 @@ public class DebugServerEndpoint {
     public static void publishClassDiagram(String svgBase64) {
         lastClassDiagram = new DiagramPayload();
         lastClassDiagram.svgBase64 = svgBase64;
+        classDiagramShards = null;
+        sendDebugMessage("class_diagram", lastClassDiagram);
+    }
+
+    /**
+     * Stores and publishes the module overview of a sharded class diagram. The diagrams of the modules
+     * are rendered when a client requests them as {@code class_diagram_shard}.
+     *
+     * @param overviewSvgBase64 Base64-encoded SVG of the module overview
+     * @param shards            the class model grouped by module
+     */
+    public static void publishClassDiagramShards(String overviewSvgBase64, ClassDiagramShards shards) {
+        DiagramPayload payload = new DiagramPayload();
+        payload.svgBase64 = overviewSvgBase64;
+        payload.shards = shards.modules();
+        classDiagramShards = shards;
+        lastClassDiagram = payload;
         sendDebugMessage("class_diagram", lastClassDiagram);
     }
 
@@ -432,9 +576,32 @@ public class DebugServerEndpoint {
     public static void publishObjectDiagram(String svgBase64) {
         lastObjectDiagram = new DiagramPayload();
         lastObjectDiagram.svgBase64 = svgBase64;
+        objectDiagramSource = null;
         sendDebugMessage("object_diagram", lastObjectDiagram);
     }
 
+    /**
+     * Publishes a text patch for the last object diagram. The cached full diagram is dropped and rebuilt from
+     * {@link DiagramPatchPayload#fullSvgBase64} when a client requests it.
+     *
+     * @param payload {@link DiagramPatchPayload}
+     */
+    public static void publishObjectDiagramPatch(DiagramPatchPayload payload) {
+        lastObjectDiagram = null;
+        objectDiagramSource = payload.fullSvgBase64;
+        sendDebugMessage("object_diagram_patch", payload);
+    }
+
+    /**
+     * Stores and publishes the object graph of the latest snapshot, for clients that render objects themselves.
+     *
+     * @param payload {@link ObjectGraphPayload}
+     */
+    public static void publishObjectGraph(ObjectGraphPayload payload) {
+        lastObjectGraph = payload;
+        sendDebugMessage("object_graph", lastObjectGraph);
+    }
+
     /**
      * Stores and publishes the latest variables payload.
      *
@@ -465,6 +632,36 @@ public class DebugServerEndpoint {
         sendDebugMessage("threads", lastThreads);
     }
 
+    /**
+     * Publishes one page of a container's items. Pages answer a single request and are not cached.
+     *
+     * @param payload {@link ContainerPagePayload}
+     */
+    public static void publishContainerPage(ContainerPagePayload payload) {
+        sendDebugMessage("container_page", payload);
+    }
+
+    /**
+     * Renders (or reuses) the diagram of one module of the current sharded class diagram and sends it.
+     * Unknown modules and unsharded class diagrams are ignored.
+     *
+     * @param module the dotted module name
+     */
+    private static void sendClassDiagramShard(String module) {
+        ClassDiagramShards shards = classDiagramShards;
+        if (shards == null) return;
+        try {
+            String svgBase64 = shards.renderShardAsBase64(module);
+            if (svgBase64 == null) return;
+            ClassDiagramShardPayload payload = new ClassDiagramShardPayload();
+            payload.module = module;
+            payload.svgBase64 = svgBase64;
+            sendDebugMessage("class_diagram_shard", payload);
+        } catch (IOException e) {
+            LOGGER.warn("Failed to render class diagram of module " + module, e);
+        }
+    }
+
     // ======================================================================
     // Integration setters
     // ======================================================================
@@ -493,7 +690,7 @@ public class DebugServerEndpoint {
     // ======================================================================
 
     /**
-     * @return {@code true} if at least one websocket session is currently connected.
+     * @return {@code true} if at least one websocket session or in-process client is currently connected.
      */
     public static synchronized boolean isConnected() {
         return isConnected;
@@ -2,23 +2,54 @@ package de.code14.edupydebugger.server;
 
 
 import com.intellij.openapi.diagnostic.Logger;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.tyrus.container.grizzly.server.GrizzlyServerContainer;
 import org.glassfish.tyrus.server.Server;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
 /**
- * Singleton class that manages the WebSocket server used for debugging communication.
- * This server facilitates real-time communication between the debugger and the client,
+ * Singleton class that manages the server of the debugger UI.
+ * The server facilitates real-time communication between the debugger and the client,
  * allowing for the exchange of debug information, control commands, and other data.
  * <p>
- * The server is built using the Tyrus framework and listens on a specific port (default: 8025).
- * It hosts WebSocket endpoints defined within the application, specifically the {@link DebugServerEndpoint}.
+ * The server is built using the Tyrus framework on a single Grizzly transport listening on 127.0.0.1 at port
+ * {@value #PORT}. On that port it hosts both the WebSocket endpoint {@link DebugServerEndpoint} under
+ * {@code /websockets/debug} and the static files of the web UI (HTML, CSS and JavaScript, unpacked by
+ * {@link StaticContent}), so the page and its socket share one origin.
+ * </p>
+ * <p>
+ * The workload is one tool window and a few diagram pages on the loopback interface. Instead of Grizzly's defaults,
+ * which scale with the number of CPU cores, the transport runs {@value #SELECTOR_THREADS} selector thread and
+ * {@value #WORKER_THREADS} to {@value #MAX_WORKER_THREADS} worker threads.
+ * </p>
+ * <p>
+ * {@link #startWebSocketServer()} binds on a background thread and returns right away with a future that completes
+ * once the listener is bound, or exceptionally if it cannot be (e.g. the port is taken), so callers react to the
+ * start instead of polling {@link #isRunning()}.
  * </p>
  */
 public class DebugWebSocketServer {
 
     private static final Logger LOGGER = Logger.getInstance(DebugWebSocketServer.class);
 
+    /** Port of the web UI and the WebSocket endpoint. */
+    public static final int PORT = 8026;
+
+    static final int SELECTOR_THREADS = 1;
+    static final int WORKER_THREADS = 2;
+    static final int MAX_WORKER_THREADS = 4;
+    static final String TEMP_PREFIX = "edupy-web";
+
     private Server server;
-    private boolean running = false;
+    private Path staticRoot;
+    // Start of the starting or running server; null while stopped. Written under the lock, read without it
+    private volatile CompletableFuture<Void> started;
 
     // Singleton instance
     private static DebugWebSocketServer INSTANCE;
@@ -37,7 +68,7 @@ public class DebugWebSocketServer {
      *
      * @return The singleton instance.
      */
-    public static DebugWebSocketServer getInstance() {
+    public static synchronized DebugWebSocketServer getInstance() {
         if (INSTANCE == null) {
             INSTANCE = new DebugWebSocketServer();
         }
@@ -45,19 +76,39 @@ public class DebugWebSocketServer {
     }
 
     /**
-     * Starts the WebSocket server on localhost (127.0.0.1) at port 8025.
+     * Starts the server on localhost (127.0.0.1) at port {@value #PORT} on a background thread.
      * <p>
-     * The server is initialized with the {@link DebugServerEndpoint} class, which handles incoming WebSocket connections.
+     * The server is initialized with the {@link DebugServerEndpoint} class, which handles incoming WebSocket
+     * connections, and the unpacked web UI.
      * The context classloader is temporarily switched to ensure that the server starts correctly within the IntelliJ platform.
      * </p>
+     * <p>
+     * While the server starts or runs, every call returns the same future. After a failed start the next call
+     * tries again.
+     * </p>
+     *
+     * @return a future completed once the server accepts connections, or exceptionally with the cause of the failure
      */
-    public synchronized void startWebSocketServer() {
-        if (server == null) {
-            this.server = new Server("127.0.0.1", 8025, "/websockets", null, DebugServerEndpoint.class);
+    public CompletableFuture<Void> startWebSocketServer() {
+        CompletableFuture<Void> current = started;
+        if (current != null) {
+            return current;
         }
+        synchronized (this) {
+            if (started == null) {
+                CompletableFuture<Void> start = new CompletableFuture<>();
+                started = start;
+                Thread thread = new Thread(() -> bind(start), "EduPy-Debugger server start");
+                thread.setDaemon(true);
+                thread.start();
+            }
+            return started;
+        }
+    }
 
-        if (running) {
-            LOGGER.warn("WebSocket server is already running.");
+    private synchronized void bind(CompletableFuture<Void> start) {
+        if (started != start) {
+            // Stopped before the thread got the lock
             return;
         }
 
@@ -67,25 +118,62 @@ public class DebugWebSocketServer {
         ClassLoader pluginClassLoader = DebugWebSocketServer.class.getClassLoader();
 
         try {
+            if (server == null) {
+                staticRoot = unpackWebUi(DebugWebSocketServer.class.getClassLoader());
+                this.server = new Server("127.0.0.1", PORT, "/websockets", serverProperties(staticRoot),
+                        DebugServerEndpoint.class);
+            }
             currentThread.setContextClassLoader(pluginClassLoader);
             server.start();
             LOGGER.info("WebSocket server started on port " + server.getPort());
-            running = true;
+            start.complete(null);
         } catch (Exception e) {
-            LOGGER.error("Failed to start WebSocket server", e);
+            // Reported by the caller, e.g. in the tool window
+            LOGGER.warn("Failed to start WebSocket server", e);
+            started = null;
+            start.completeExceptionally(e);
         } finally {
             currentThread.setContextClassLoader(originalClassLoader);
         }
     }
 
     /**
-     * Stops the WebSocket server if it is currently running.
-     * The server is gracefully shut down, and the running status is updated.
+     * Unpacks the web UI into a new temporary directory, which is deleted again if unpacking fails.
+     *
+     * @param classLoader the class loader holding the web UI
+     * @return the directory
+     * @throws IOException if the web UI cannot be unpacked
+     */
+    static Path unpackWebUi(ClassLoader classLoader) throws IOException {
+        Path directory = Files.createTempDirectory(TEMP_PREFIX);
+        try {
+            return StaticContent.copyTo(directory, classLoader);
+        } catch (IOException | RuntimeException e) {
+            // Nothing refers to a half-unpacked directory
+            StaticContent.delete(directory);
+            throw e;
+        }
+    }
+
+    /**
+     * Stops the server if it is currently running.
+     * The server is gracefully shut down, the unpacked web UI is deleted, and the running status is updated.
      */
     public synchronized void stopWebSocketServer() {
-        if (running) {
+        if (started != null && !started.isDone()) {
+            // Not bound yet: the start thread gives up when it gets the lock
+            started.cancel(false);
+            started = null;
+            LOGGER.info("WebSocket server start cancelled.");
+        } else if (started != null) {
             server.stop();
-            running = false;
+            started = null;
+            if (staticRoot != null) {
+                // Unpack again on the next start
+                StaticContent.delete(staticRoot);
+                staticRoot = null;
+                server = null;
+            }
             LOGGER.info("WebSocket server stopped.");
         } else {
             LOGGER.warn("WebSocket server is not running.");
@@ -93,16 +181,51 @@ public class DebugWebSocketServer {
     }
 
     /**
-     * Checks whether the WebSocket server is currently running.
+     * Checks whether the server is currently running.
      *
-     * @return {@code true} if the server is running, {@code false} otherwise.
+     * @return {@code true} if the server is bound, {@code false} while it is stopped or still starting.
      */
     public boolean isRunning() {
-        return running;
+        CompletableFuture<Void> current = started;
+        return current != null && current.isDone();
+    }
+
+    /**
+     * Checks whether a start was requested and has not finished yet.
+     *
+     * @return {@code true} while the server is being bound, {@code false} once it runs or is stopped.
+     */
+    public boolean isStarting() {
+        CompletableFuture<Void> current = started;
+        return current != null && !current.isDone();
     }
 
     public void setServer(Server server) {
         this.server = server;
     }
 
+    /**
+     * The Tyrus properties of the server: the directory of the web UI and the sizes of the Grizzly thread pools.
+     *
+     * @param staticRoot the directory holding the unpacked web UI
+     * @return the properties
+     */
+    static Map<String, Object> serverProperties(Path staticRoot) {
+        Map<String, Object> properties = new HashMap<>();
+        properties.put(Server.STATIC_CONTENT_ROOT, staticRoot.toString());
+        properties.put(GrizzlyServerContainer.SELECTOR_THREAD_POOL_CONFIG,
+                threadPool("EduPy-Selector", SELECTOR_THREADS, SELECTOR_THREADS));
+        properties.put(GrizzlyServerContainer.WORKER_THREAD_POOL_CONFIG,
+                threadPool("EduPy-Worker", WORKER_THREADS, MAX_WORKER_THREADS));
+        return properties;
+    }
+
+    private static ThreadPoolConfig threadPool(String name, int coreSize, int maxSize) {
+        return ThreadPoolConfig.defaultConfig().copy()
+                .setPoolName(name)
+                .setCorePoolSize(coreSize)
+                .setMaxPoolSize(maxSize)
+                .setDaemon(true);
+    }
+
 }
@@ -0,0 +1,116 @@
+package de.code14.edupydebugger.server;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.net.URI;
+import java.net.URISyntaxException;
+import java.net.URL;
+import java.nio.file.FileSystem;
+import java.nio.file.FileSystemAlreadyExistsException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Stream;
+
+/**
+ * Unpacks the web UI ({@code static/} on the plugin class path) into a directory.
+ * <p>
+ * Tyrus serves static content next to its WebSocket endpoints only from a directory, so
+ * {@link DebugWebSocketServer} copies the files out of the plugin JAR (or the resource directory when running from
+ * the build output) before it starts. The UI is a few dozen small files; copying them takes milliseconds.
+ * </p>
+ */
+final class StaticContent {
+
+    static final String RESOURCE_ROOT = "static";
+    private static final String MARKER = RESOURCE_ROOT + "/index.html";
+
+    private StaticContent() {}
+
+    /**
+     * Copies the web UI into a directory, keeping the relative paths.
+     *
+     * @param target      the directory to copy into; created if missing
+     * @param classLoader the class loader holding the web UI
+     * @return {@code target}
+     * @throws IOException if the web UI is not on the class path or cannot be copied
+     */
+    static Path copyTo(Path target, ClassLoader classLoader) throws IOException {
+        URL marker = classLoader.getResource(MARKER);
+        if (marker == null) {
+            throw new IOException("Web UI not found on the class path: " + MARKER);
+        }
+        URI uri;
+        try {
+            uri = marker.toURI();
+        } catch (URISyntaxException e) {
+            throw new IOException("Invalid web UI location " + marker, e);
+        }
+
+        if ("jar".equals(uri.getScheme())) {
+            FileSystem jar;
+            boolean opened = true;
+            try {
+                jar = FileSystems.newFileSystem(uri, Map.of());
+            } catch (FileSystemAlreadyExistsException e) {
+                // Opened elsewhere in the IDE; must stay open
+                jar = FileSystems.getFileSystem(uri);
+                opened = false;
+            }
+            try {
+                copyTree(jar.getPath("/" + RESOURCE_ROOT), target);
+            } finally {
+                if (opened) {
+                    jar.close();
+                }
+            }
+        } else {
+            copyTree(Paths.get(uri).getParent(), target);
+        }
+        return target;
+    }
+
+    /**
+     * Deletes a directory created by {@link #copyTo}. Failures are ignored; the directory is temporary.
+     *
+     * @param directory the directory to delete, may be {@code null}
+     */
+    static void delete(Path directory) {
+        if (directory == null) {
+            return;
+        }
+        try (Stream<Path> files = Files.walk(directory)) {
+            // Children before their parents
+            for (Path file : files.sorted(Comparator.reverseOrder()).toList()) {
+                Files.deleteIfExists(file);
+            }
+        } catch (IOException | UncheckedIOException e) {
+            // Left for the temp directory cleanup of the OS
+        }
+    }
+
+    private static void copyTree(Path source, Path target) throws IOException {
+        List<Path> files;
+        try (Stream<Path> walk = Files.walk(source)) {
+            files = walk.toList();
+        }
+        for (Path file : files) {
+            // Resolve by name: source and target may belong to different file systems
+            Path copy = target;
+            for (Path name : source.relativize(file)) {
+                copy = copy.resolve(name.toString());
+            }
+            if (Files.isDirectory(file)) {
+                Files.createDirectories(copy);
+            } else {
+                Files.createDirectories(copy.getParent());
+                Files.copy(file, copy, StandardCopyOption.REPLACE_EXISTING);
+            }
+        }
+    }
+}
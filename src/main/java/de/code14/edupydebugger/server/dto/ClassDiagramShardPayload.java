@@ -0,0 +1,33 @@
+package de.code14.edupydebugger.server.dto;
+
+
+/**
+ * JSON payload carrying the class diagram of one module of a sharded class diagram
+ * (see {@link DiagramPayload#shards}).
+ *
+ * <h3>Schema (JSON)</h3>
+ * <pre>{@code
+ * // Client → Server
+ * {
+ *   "type": "get",
+ *   "payload": { "resource": "class_diagram_shard", "module": "shapes.point" }
+ * }
+ * // Server → Client
+ * {
+ *   "type": "class_diagram_shard",
+ *   "payload": { "module": "shapes.point", "svgBase64": "PHN2ZyB4bWxucz0..." }
+ * }
+ * }</pre>
+ *
+ * <h3>Direction</h3>
+ * Server → Client (answer only)
+ */
+public class ClassDiagramShardPayload {
+
+    /** Dotted module name, as listed in {@link DiagramPayload#shards}. */
+    public String module;
+
+    /** The Base64-encoded SVG of the module's class diagram. */
+    public String svgBase64;
+
+}
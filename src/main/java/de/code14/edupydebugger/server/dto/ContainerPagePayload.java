@@ -0,0 +1,51 @@
+package de.code14.edupydebugger.server.dto;
+
+
+import java.util.List;
+
+/**
+ * JSON payload for one page of the items of a builtin container (list, dict, tuple, set) in debug mode.
+ *
+ * <h3>Schema (JSON)</h3>
+ * <pre>{@code
+ * // Client → Server
+ * {
+ *   "type": "container_page",
+ *   "payload": { "id": "140234", "offset": 0, "limit": 50 }
+ * }
+ * // Server → Client
+ * {
+ *   "type": "container_page",
+ *   "payload": {
+ *     "id": "140234",
+ *     "offset": 0,
+ *     "length": 1000000,
+ *     "items": ["0", "1", "2"]
+ *   }
+ * }
+ * }</pre>
+ *
+ * <h3>Direction</h3>
+ * <ul>
+ *   <li>Client → Server: requests {@code limit} items starting at {@code offset}</li>
+ *   <li>Server → Client: answers with the item reprs ({@code key: value} for dicts)</li>
+ * </ul>
+ */
+public class ContainerPagePayload {
+
+    /** Variable ID of the container. */
+    public String id;
+
+    /** Index of the first item of this page. */
+    public int offset;
+
+    /** Requested number of items (request only). */
+    public Integer limit;
+
+    /** Number of items of the whole container, if known (answer only). */
+    public Integer length;
+
+    /** Item reprs of this page (answer only). */
+    public List<String> items;
+
+}
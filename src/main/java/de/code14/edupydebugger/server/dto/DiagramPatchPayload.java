@@ -0,0 +1,37 @@
+package de.code14.edupydebugger.server.dto;
+
+
+import java.util.Map;
+import java.util.function.Supplier;
+
+/**
+ * JSON payload replacing single texts of the last object diagram, sent instead of a new
+ * {@link DiagramPayload} when only attribute values changed and the layout stays valid.
+ *
+ * <h3>Schema (JSON)</h3>
+ * <pre>{@code
+ * {
+ *   "type": "object_diagram_patch",
+ *   "payload": {
+ *     "base": 3,
+ *     "texts": { "o140234-r0": "value = 42", "o140234-t": "node: Node" }
+ *   }
+ * }
+ * }</pre>
+ *
+ * <h3>Direction</h3>
+ * Server → Client. Clients apply the patch if their diagram carries {@code data-revision="base"} and request the
+ * full {@code object_diagram} otherwise.
+ */
+public class DiagramPatchPayload {
+
+    /** Revision of the full diagram the patch applies to. */
+    public int base;
+
+    /** New text content by SVG element id; may be empty if nothing changed. */
+    public Map<String, String> texts;
+
+    /** Produces the complete diagram (Base64-encoded SVG) with this patch applied, for late clients; not sent. */
+    public transient Supplier<String> fullSvgBase64;
+
+}
@@ -1,6 +1,8 @@
 package de.code14.edupydebugger.server.dto;
 
 
+import java.util.List;
+
 /**
  * Generic JSON payload for any PlantUML-based diagram represented as a Base64-encoded SVG.
  *
@@ -9,10 +11,14 @@ package de.code14.edupydebugger.server.dto;
  * {
  *   "type": "class_diagram" | "object_diagram",
  *   "payload": {
- *     "svgBase64": "PHN2ZyB4bWxucz0..."
+ *     "svgBase64": "PHN2ZyB4bWxucz0...",
+ *     "shards": ["main", "shapes.point"]
  *   }
  * }
  * }</pre>
+ * {@code shards} is only present for a class diagram of a large project: {@code svgBase64} is then the overview
+ * of its modules, and the diagram of each module is requested as {@code class_diagram_shard}
+ * (see {@link ClassDiagramShardPayload}).
  *
  * <h3>Direction</h3>
  * Server → Client
@@ -22,4 +28,7 @@ public class DiagramPayload {
     /** The Base64-encoded SVG content of the diagram. */
     public String svgBase64;
 
+    /** Optional: the modules of a sharded class diagram, sorted by name. */
+    public List<String> shards;
+
 }
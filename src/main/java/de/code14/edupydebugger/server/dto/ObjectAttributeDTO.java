@@ -0,0 +1,19 @@
+package de.code14.edupydebugger.server.dto;
+
+
+/** Describes one attribute of an {@link ObjectNodeDTO}. */
+public class ObjectAttributeDTO {
+
+    public String name;
+    public String type;
+
+    /** Value as shown in the debugger; absent for references. */
+    public String value;
+
+    /** Optional: id of the referenced object; set instead of {@link #value}. */
+    public String target;
+
+    /** Optional: {@code true} for class attributes, absent otherwise. */
+    public Boolean isStatic;
+
+}
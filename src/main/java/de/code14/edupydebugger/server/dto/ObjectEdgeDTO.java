@@ -0,0 +1,12 @@
+package de.code14.edupydebugger.server.dto;
+
+
+/** Describes a reference between two objects of an {@link ObjectGraphPayload}. */
+public class ObjectEdgeDTO {
+
+    public String from;
+    public String to;
+    /** Name of the referencing attribute. */
+    public String attribute;
+
+}
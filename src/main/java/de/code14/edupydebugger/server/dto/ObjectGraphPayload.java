@@ -0,0 +1,98 @@
+package de.code14.edupydebugger.server.dto;
+
+
+import de.code14.edupydebugger.diagram.ObjectGraph;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * JSON payload carrying the object graph of a snapshot, for clients that lay out and draw object cards and the
+ * object diagram themselves (client-side rendering, see {@code PayloadPublisher#CLIENT_RENDERING_PROPERTY}).
+ * It replaces {@code object_cards} and {@code object_diagram} in that mode.
+ *
+ * <h3>Schema (JSON)</h3>
+ * <pre>{@code
+ * {
+ *   "type": "object_graph",
+ *   "payload": {
+ *     "nodes": [
+ *       { "id": "1", "title": "head:Node", "type": "Node", "attributes": [
+ *           { "name": "value", "type": "int", "value": "1" },
+ *           { "name": "next", "type": "Node", "target": "2" },
+ *           { "name": "count", "type": "int", "value": "2", "isStatic": true } ] },
+ *       { "id": "2", "title": "tail:Node", "type": "Node", "attributes": [] }
+ *     ],
+ *     "edges": [ { "from": "1", "to": "2", "attribute": "next" } ],
+ *     "diagram": { "nodes": [ ... ], "edges": [ ... ] }
+ *   }
+ * }
+ * }</pre>
+ * {@code diagram} is only present if the object diagram collapses objects into summary nodes (ids starting with
+ * {@code ~}); otherwise the diagram shows {@code nodes} and {@code edges} as they are.
+ *
+ * <h3>Direction</h3>
+ * Server → Client
+ */
+public class ObjectGraphPayload {
+
+    /** All objects of the snapshot, one card each, ordered by id. */
+    public List<ObjectNodeDTO> nodes;
+
+    /** One edge per referencing attribute. */
+    public List<ObjectEdgeDTO> edges;
+
+    /** Optional: the reduced graph shown in the object diagram, if it differs from {@link #nodes}/{@link #edges}. */
+    public ObjectGraphPayload diagram;
+
+    /**
+     * Converts an object graph and the graph shown in the object diagram.
+     *
+     * @param graph   the objects of the snapshot
+     * @param diagram the graph of the object diagram, usually {@code graph} itself or its collapsed form
+     * @return the payload; {@link #diagram} is only set if {@code diagram} is not {@code graph}
+     */
+    public static ObjectGraphPayload of(ObjectGraph graph, ObjectGraph diagram) {
+        ObjectGraphPayload payload = of(graph);
+        if (diagram != graph) {
+            payload.diagram = of(diagram);
+        }
+        return payload;
+    }
+
+    private static ObjectGraphPayload of(ObjectGraph graph) {
+        ObjectGraphPayload payload = new ObjectGraphPayload();
+        payload.nodes = new ArrayList<>(graph.size());
+        for (ObjectGraph.Node node : graph.nodes()) {
+            ObjectNodeDTO dto = new ObjectNodeDTO();
+            dto.id = node.id();
+            dto.title = node.title();
+            dto.type = node.type();
+            dto.attributes = new ArrayList<>(node.attributes().size());
+            for (ObjectGraph.Attribute attribute : node.attributes()) {
+                ObjectAttributeDTO a = new ObjectAttributeDTO();
+                a.name = attribute.name();
+                a.type = attribute.type();
+                // References carry their target only; Gson omits null fields
+                if (attribute.isReference()) {
+                    a.target = attribute.target();
+                } else {
+                    a.value = attribute.value();
+                }
+                a.isStatic = attribute.isStatic() ? Boolean.TRUE : null;
+                dto.attributes.add(a);
+            }
+            payload.nodes.add(dto);
+        }
+        payload.edges = new ArrayList<>(graph.edges().size());
+        for (ObjectGraph.Edge edge : graph.edges()) {
+            ObjectEdgeDTO dto = new ObjectEdgeDTO();
+            dto.from = edge.from();
+            dto.to = edge.to();
+            dto.attribute = edge.attribute();
+            payload.edges.add(dto);
+        }
+        return payload;
+    }
+
+}
@@ -0,0 +1,16 @@
+package de.code14.edupydebugger.server.dto;
+
+
+import java.util.List;
+
+/** Describes a single object of an {@link ObjectGraphPayload}. */
+public class ObjectNodeDTO {
+
+    /** Python object id, or the key of a summary node ({@code ~<id>}). */
+    public String id;
+    /** Card title, {@code name:Type} of the first variable referencing the object. */
+    public String title;
+    public String type;
+    public List<ObjectAttributeDTO> attributes;
+
+}
@@ -14,4 +14,7 @@ public class ValueDTO {
     /** Optional: full, untruncated representation for expandable values. */
     public String full;
 
+    /** Optional: number of items of a builtin container whose contents are fetched page-wise ({@code container_page}). */
+    public Integer length;
+
 }
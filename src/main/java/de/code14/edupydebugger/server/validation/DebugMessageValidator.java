@@ -4,6 +4,7 @@ import com.google.gson.Gson;
 import com.google.gson.JsonElement;
 import com.google.gson.JsonObject;
 import de.code14.edupydebugger.server.dto.ConsolePayload;
+import de.code14.edupydebugger.server.dto.ContainerPagePayload;
 
 import java.util.Map;
 import java.util.Objects;
@@ -90,6 +91,97 @@ public final class DebugMessageValidator {
         return name;
     }
 
+    /**
+     * Extracts the frame index from a {@code frame_selected} payload.
+     * <ul>
+     *   <li>Accepts numbers and numeric strings; fractional parts are rejected.</li>
+     *   <li>Returns {@link Optional#empty()} for missing or negative indices.</li>
+     *   <li>No range check against the actual call stack is performed here.</li>
+     * </ul>
+     */
+    public static Optional<Integer> extractSelectedFrame(Object payload, Gson gson) {
+        if (payload == null) return Optional.empty();
+        Object raw = null;
+        if (payload instanceof Map) {
+            raw = ((Map<?, ?>) payload).get("index");
+        } else {
+            JsonObject obj = safeObject(payload, gson);
+            if (obj != null && obj.has("index") && !obj.get("index").isJsonNull()) {
+                raw = obj.get("index").getAsString();
+            }
+        }
+        if (raw == null) return Optional.empty();
+        try {
+            double d = raw instanceof Number n ? n.doubleValue() : Double.parseDouble(String.valueOf(raw).trim());
+            if (d < 0 || d != Math.rint(d) || d > Integer.MAX_VALUE) return Optional.empty();
+            return Optional.of((int) d);
+        } catch (NumberFormatException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Builds the request of a {@code container_page} message payload.
+     * <ul>
+     *   <li>Requires a non-blank {@code id}; {@code offset} defaults to 0.</li>
+     *   <li>Returns {@link Optional#empty()} for negative offsets or a missing/non-positive {@code limit}.</li>
+     *   <li>The limit is not capped here; the controller bounds the page size.</li>
+     * </ul>
+     */
+    public static Optional<ContainerPagePayload> extractContainerPage(Object payload, Gson gson) {
+        if (payload == null) return Optional.empty();
+        JsonObject obj = safeObject(payload, gson);
+        if (obj == null || !obj.has("id") || obj.get("id").isJsonNull()) return Optional.empty();
+        try {
+            ContainerPagePayload request = new ContainerPagePayload();
+            request.id = obj.get("id").getAsString();
+            request.offset = obj.has("offset") && !obj.get("offset").isJsonNull() ? obj.get("offset").getAsInt() : 0;
+            request.limit = obj.has("limit") && !obj.get("limit").isJsonNull() ? obj.get("limit").getAsInt() : null;
+            if (request.id.isBlank() || request.offset < 0 || request.limit == null || request.limit <= 0) {
+                return Optional.empty();
+            }
+            return Optional.of(request);
+        } catch (NumberFormatException | UnsupportedOperationException | IllegalStateException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Extracts the {@code id} field from an {@code expand_cluster} message payload.
+     * <p>
+     * Returns {@link Optional#empty()} for missing/blank values. Whether the id names a summary
+     * node of the current object diagram is checked by the renderer, not here.
+     */
+    public static Optional<String> extractClusterId(Object payload, Gson gson) {
+        if (payload == null) return Optional.empty();
+        JsonObject obj = safeObject(payload, gson);
+        if (obj == null || !obj.has("id") || obj.get("id").isJsonNull()) return Optional.empty();
+        try {
+            String id = obj.get("id").getAsString();
+            return id.isBlank() ? Optional.empty() : Optional.of(id);
+        } catch (UnsupportedOperationException | IllegalStateException e) {
+            return Optional.empty();
+        }
+    }
+
+    /**
+     * Extracts the {@code module} field of a {@code get} message for a {@code class_diagram_shard}.
+     * <p>
+     * Returns {@link Optional#empty()} for missing/blank values. Whether the module exists is
+     * checked when the shard is rendered, not here.
+     */
+    public static Optional<String> extractShardModule(Object payload, Gson gson) {
+        if (payload == null) return Optional.empty();
+        JsonObject obj = safeObject(payload, gson);
+        if (obj == null || !obj.has("module") || obj.get("module").isJsonNull()) return Optional.empty();
+        try {
+            String module = obj.get("module").getAsString();
+            return module.isBlank() ? Optional.empty() : Optional.of(module);
+        } catch (UnsupportedOperationException | IllegalStateException e) {
+            return Optional.empty();
+        }
+    }
+
     /**
      * Extracts the {@code resource} field from a {@code get} message payload.
      * <p>
@@ -8,8 +8,7 @@ import com.intellij.ui.content.ContentFactory;
 import com.intellij.ui.jcef.JBCefApp;
 import com.intellij.ui.jcef.JBCefBrowser;
 import com.intellij.ui.AnimatedIcon;
-import com.intellij.util.concurrency.AppExecutorUtil;
-import de.code14.edupydebugger.server.DebugWebServer;
+import de.code14.edupydebugger.diagram.DiagramWarmUp;
 import de.code14.edupydebugger.server.DebugWebSocketServer;
 import org.jetbrains.annotations.NotNull;
 import com.intellij.openapi.roots.ProjectRootManager;
@@ -22,6 +21,7 @@ import com.intellij.openapi.module.Module;
 
 import javax.swing.*;
 import java.awt.*;
+import java.util.concurrent.CompletionException;
 
 /**
  * A factory class for creating and managing the Debugger Tool Window.
@@ -30,12 +30,19 @@ import java.awt.*;
  * <p>
  * The tool window is used to display a browser window within the IDE that loads the debugging interface.
  * It leverages the JBCefBrowser to render web content, such as the debug UI hosted locally or on the web.
+ * By default the UI talks to the plugin through the in-process {@link JcefTransport}; with
+ * {@code -Dedupy.ui.transport=socket} it is loaded from the loopback server instead. Without that property the
+ * loopback server is not started, so pages opened in an external browser on port
+ * {@value de.code14.edupydebugger.server.DebugWebSocketServer#PORT} receive no data.
  */
 public class DebuggerToolWindowFactory implements ToolWindowFactory {
 
     private final static Logger LOGGER = Logger.getInstance(DebuggerToolWindowFactory.class);
 
     private static JBCefBrowser jbCefBrowser;
+    private static JcefTransport transport;
+
+    private static final String SERVER_INDEX_URL = "http://127.0.0.1:" + DebugWebSocketServer.PORT + "/index.html";
 
     // Simple card-based UI to show a loading screen on first start (local to factory instance)
     private static final String CARD_LOADING = "loading";
@@ -101,9 +108,14 @@ public class DebuggerToolWindowFactory implements ToolWindowFactory {
         Content content = contentFactory.createContent(root, "", false);
         toolWindow.getContentManager().addContent(content);
 
-        // Start servers asynchronously and then show the browser when ready
-        initializeBrowser();
-        waitForServersThenShowBrowser(browserContainer, cards, root);
+        if (JcefTransport.isEnabled()) {
+            // In-process transport: there is no server to wait for
+            SwingUtilities.invokeLater(() -> showBrowser(browserContainer, cards, root));
+        } else {
+            // Start the server asynchronously and show the browser once it is bound
+            startServerThenShowBrowser(browserContainer, cards, root, subtitle, spinner);
+        }
+        DiagramWarmUp.start();
     }
 
     /**
@@ -128,62 +140,55 @@ public class DebuggerToolWindowFactory implements ToolWindowFactory {
     }
 
     /**
-     * Initializes the JBCefBrowser if not already initialized.
-     * Loads the debugger UI from a specified local URL.
+     * Starts the loopback server in the background and shows the browser as soon as it accepts connections.
+     * If it cannot start (e.g. the port is taken), the loading screen shows the cause instead.
      */
-    private void initializeBrowser() {
-        // Start servers asynchronously to avoid UI stalls; browser loads regardless
-        final DebugWebSocketServer ws = DebugWebSocketServer.getInstance();
-        final DebugWebServer http = DebugWebServer.getInstance();
-        AppExecutorUtil.getAppExecutorService().execute(() -> {
-            try {
-                if (!ws.isRunning()) {
-                    ws.startWebSocketServer();
-                }
-                if (!http.isRunning()) {
-                    http.startWebServer();
-                }
-            } catch (Throwable t) {
-                LOGGER.warn("Could not start web/socket servers from ToolWindow init", t);
-            }
-        });
-
-        // Defer actual JBCef creation to when servers are (likely) up; see waitForServersThenShowBrowser
+    private void startServerThenShowBrowser(JPanel browserContainer, CardLayout cards, JPanel root,
+                                            JLabel subtitle, JLabel spinner) {
+        DebugWebSocketServer.getInstance().startWebSocketServer()
+                .whenComplete((ignored, error) -> SwingUtilities.invokeLater(() -> {
+                    if (error == null) {
+                        showBrowser(browserContainer, cards, root);
+                        return;
+                    }
+                    Throwable cause = error instanceof CompletionException && error.getCause() != null
+                            ? error.getCause() : error;
+                    LOGGER.warn("Could not start the server from ToolWindow init", cause);
+                    subtitle.setText("Could not start the local server on port " + DebugWebSocketServer.PORT
+                            + ": " + cause.getMessage());
+                    spinner.setVisible(false);
+                }));
     }
 
-    private void waitForServersThenShowBrowser(JPanel browserContainer, CardLayout cards, JPanel root) {
-        final DebugWebSocketServer ws = DebugWebSocketServer.getInstance();
-        final DebugWebServer http = DebugWebServer.getInstance();
-        // Use a scheduled check instead of busy-wait sleep
-        java.util.concurrent.ScheduledExecutorService ses = AppExecutorUtil.getAppScheduledExecutorService();
-        final long deadline = System.currentTimeMillis() + 5000; // up to 5s
-        final Runnable tryShow = new Runnable() {
-            @Override public void run() {
-                boolean ready = ws.isRunning() && http.isRunning();
-                boolean timeout = System.currentTimeMillis() >= deadline;
-                if (!ready && !timeout) {
-                    ses.schedule(this, 100, java.util.concurrent.TimeUnit.MILLISECONDS);
-                    return;
-                }
-                SwingUtilities.invokeLater(() -> {
-                    if (jbCefBrowser == null && JBCefApp.isSupported()) {
-                        jbCefBrowser = new JBCefBrowser("http://127.0.0.1:8026/index.html");
-                        LOGGER.info("Loading JBCef browser…");
-                    } else if (jbCefBrowser != null) {
-                        jbCefBrowser.loadURL("http://127.0.0.1:8026/index.html");
-                        LOGGER.info("Reloaded JBCef browser");
-                    } else {
-                        LOGGER.error("JBCefApp is not supported");
-                    }
-                    if (jbCefBrowser != null) {
-                        browserContainer.removeAll();
-                        browserContainer.add(jbCefBrowser.getComponent(), BorderLayout.CENTER);
-                    }
-                    cards.show(root, CARD_BROWSER);
-                });
+    /**
+     * Creates (or reloads) the browser and shows it instead of the loading screen. Runs on the EDT.
+     */
+    private void showBrowser(JPanel browserContainer, CardLayout cards, JPanel root) {
+        if (jbCefBrowser == null && JBCefApp.isSupported()) {
+            if (JcefTransport.isEnabled()) {
+                // The transport must be installed before the first page loads
+                jbCefBrowser = new JBCefBrowser();
+                transport = new JcefTransport(jbCefBrowser);
+                jbCefBrowser.loadURL(indexUrl());
+            } else {
+                jbCefBrowser = new JBCefBrowser(indexUrl());
             }
-        };
-        ses.schedule(tryShow, 0, java.util.concurrent.TimeUnit.MILLISECONDS);
+            LOGGER.info("Loading JBCef browser…");
+        } else if (jbCefBrowser != null) {
+            jbCefBrowser.loadURL(indexUrl());
+            LOGGER.info("Reloaded JBCef browser");
+        } else {
+            LOGGER.error("JBCefApp is not supported");
+        }
+        if (jbCefBrowser != null) {
+            browserContainer.removeAll();
+            browserContainer.add(jbCefBrowser.getComponent(), BorderLayout.CENTER);
+        }
+        cards.show(root, CARD_BROWSER);
+    }
+
+    private static String indexUrl() {
+        return transport != null ? JcefTransport.INDEX_URL : SERVER_INDEX_URL;
     }
 
     
@@ -219,6 +224,10 @@ public class DebuggerToolWindowFactory implements ToolWindowFactory {
      * No‑op when the browser was never initialized.
      */
     public static void closeJBCefBrowser() {
+        if (transport != null) {
+            transport.dispose();
+            transport = null;
+        }
         if (jbCefBrowser != null) {
             try {
                 jbCefBrowser.dispose();
@@ -244,7 +253,7 @@ public class DebuggerToolWindowFactory implements ToolWindowFactory {
      */
     public static void reloadEduPyDebugger() {
         if (jbCefBrowser != null) {
-            jbCefBrowser.loadURL("http://127.0.0.1:8026/index.html");
+            jbCefBrowser.loadURL(indexUrl());
         }
     }
 }
@@ -0,0 +1,264 @@
+package de.code14.edupydebugger.ui;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.ui.jcef.JBCefBrowser;
+import com.intellij.ui.jcef.JBCefClient;
+import com.intellij.ui.jcef.JBCefJSQuery;
+import com.intellij.util.concurrency.SequentialTaskExecutor;
+import de.code14.edupydebugger.server.DebugServerEndpoint;
+import org.cef.browser.CefBrowser;
+import org.cef.browser.CefFrame;
+import org.cef.callback.CefCallback;
+import org.cef.handler.CefLoadHandlerAdapter;
+import org.cef.handler.CefRequestHandlerAdapter;
+import org.cef.handler.CefResourceHandler;
+import org.cef.handler.CefResourceHandlerAdapter;
+import org.cef.handler.CefResourceRequestHandler;
+import org.cef.handler.CefResourceRequestHandlerAdapter;
+import org.cef.misc.BoolRef;
+import org.cef.misc.IntRef;
+import org.cef.misc.StringRef;
+import org.cef.network.CefRequest;
+import org.cef.network.CefResponse;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.function.Consumer;
+
+/**
+ * In-process transport between the embedded browser of the tool window and the plugin.
+ * <p>
+ * Browser and plugin share the IDE process, so the tool window does not go through the loopback server
+ * ({@link de.code14.edupydebugger.server.DebugWebSocketServer}). The web UI is loaded from the virtual origin
+ * {@value #ORIGIN}: a JCEF resource handler answers those requests from {@code static/} on the plugin class path.
+ * Messages keep the {@code DebugMessage} format of the WebSocket endpoint:
+ * </p>
+ * <ul>
+ *   <li>outbound, the page calls a {@link JBCefJSQuery}, defined in front of {@code bridge.js}; the messages are
+ *       handled one after another by {@link DebugServerEndpoint#receiveLocalMessage(String)}</li>
+ *   <li>inbound, the transport is an in-process client of {@link DebugServerEndpoint} and passes every message to
+ *       {@code edupyTransport.receive(...)} with {@code executeJavaScript}, as an object literal the page does not
+ *       parse again</li>
+ * </ul>
+ * <p>
+ * The client connects when a page of the UI has loaded and disconnects when the next one starts loading, so messages
+ * published in between are queued by the endpoint. The transport is the default; {@code -D}{@value #PROPERTY}
+ * {@code =socket} loads the UI from the loopback server instead, which external browsers use as well.
+ * </p>
+ */
+public final class JcefTransport {
+
+    private static final Logger LOGGER = Logger.getInstance(JcefTransport.class);
+
+    /** System property selecting the transport of the tool window: {@code jcef} (default) or {@code socket}. */
+    public static final String PROPERTY = "edupy.ui.transport";
+
+    static final String ORIGIN = "http://edupy-debugger/";
+    static final String INDEX_URL = ORIGIN + "index.html";
+    static final String BRIDGE_SCRIPT = "bridge.js";
+
+    private static final String RESOURCE_ROOT = "static/";
+    private static final Map<String, String> MIME_TYPES = Map.of(
+            "html", "text/html",
+            "js", "text/javascript",
+            "css", "text/css",
+            "svg", "image/svg+xml",
+            "png", "image/png",
+            "json", "application/json");
+
+    private final JBCefBrowser browser;
+    private final JBCefJSQuery query;
+    private final ExecutorService inbound =
+            SequentialTaskExecutor.createSequentialApplicationPoolExecutor("EduPy UI Bridge");
+    private final Consumer<String> client = this::deliver;
+
+    /**
+     * Installs the transport on a browser. Must be called before the browser loads {@link #INDEX_URL}.
+     *
+     * @param browser the browser of the tool window
+     */
+    JcefTransport(JBCefBrowser browser) {
+        this.browser = browser;
+        this.query = JBCefJSQuery.create(browser);
+        query.addHandler(message -> {
+            // Off the CEF thread, in order: handlers analyze frames and render diagrams
+            inbound.execute(() -> DebugServerEndpoint.receiveLocalMessage(message));
+            return null;
+        });
+
+        JBCefClient jbCefClient = browser.getJBCefClient();
+        jbCefClient.addRequestHandler(new StaticRequestHandler(), browser.getCefBrowser());
+        jbCefClient.addLoadHandler(new CefLoadHandlerAdapter() {
+            @Override
+            public void onLoadStart(CefBrowser cefBrowser, CefFrame frame, CefRequest.TransitionType transitionType) {
+                if (frame.isMain()) {
+                    DebugServerEndpoint.disconnectLocalClient(client);
+                }
+            }
+
+            @Override
+            public void onLoadEnd(CefBrowser cefBrowser, CefFrame frame, int httpStatusCode) {
+                if (frame.isMain() && resourcePath(frame.getURL()) != null) {
+                    DebugServerEndpoint.connectLocalClient(client);
+                }
+            }
+        }, browser.getCefBrowser());
+    }
+
+    /**
+     * Tells whether the tool window uses this transport.
+     *
+     * @return {@code false} if {@value #PROPERTY} is {@code socket}
+     */
+    public static boolean isEnabled() {
+        return !"socket".equalsIgnoreCase(System.getProperty(PROPERTY, "jcef"));
+    }
+
+    /**
+     * Disconnects from the endpoint and releases the query. The browser is disposed by its owner.
+     */
+    void dispose() {
+        DebugServerEndpoint.disconnectLocalClient(client);
+        inbound.shutdown();
+        query.dispose();
+    }
+
+    private void deliver(String json) {
+        browser.getCefBrowser().executeJavaScript(deliveryScript(json), ORIGIN, 0);
+    }
+
+    /**
+     * The script handing a serialized message to the page; JSON is a valid JavaScript expression.
+     */
+    static String deliveryScript(String json) {
+        return "edupyTransport.receive(" + json + ");";
+    }
+
+    /**
+     * Maps a URL of the virtual origin to the path of the resource below {@code static/}.
+     *
+     * @param url the requested URL
+     * @return the relative path, e.g. {@code pages/class-diagram.html}, or {@code null} for other URLs
+     */
+    static String resourcePath(String url) {
+        if (url == null || !url.startsWith(ORIGIN)) {
+            return null;
+        }
+        // Without query and fragment
+        String path = url.substring(ORIGIN.length()).split("[?#]", 2)[0];
+        if (path.isEmpty()) {
+            return "index.html";
+        }
+        return path.contains("..") ? null : path;
+    }
+
+    /**
+     * @param path a resource path
+     * @return the MIME type by file extension
+     */
+    static String mimeType(String path) {
+        int dot = path.lastIndexOf('.');
+        String type = dot < 0 ? null : MIME_TYPES.get(path.substring(dot + 1));
+        return type != null ? type : "application/octet-stream";
+    }
+
+    /**
+     * The bridge script served to the page: the definition of {@code window.edupyQuery} in front of
+     * {@code bridge.js}.
+     *
+     * @param queryCall the JavaScript calling the query with the variable {@code json}
+     * @param bridge    the content of {@code bridge.js}
+     * @return the script
+     */
+    static byte[] bridgeScript(String queryCall, byte[] bridge) {
+        byte[] head = ("window.edupyQuery = function (json) { " + queryCall + " };\n").getBytes(StandardCharsets.UTF_8);
+        byte[] script = new byte[head.length + bridge.length];
+        System.arraycopy(head, 0, script, 0, head.length);
+        System.arraycopy(bridge, 0, script, head.length, bridge.length);
+        return script;
+    }
+
+    private byte[] load(String path) {
+        try (InputStream in = JcefTransport.class.getClassLoader().getResourceAsStream(RESOURCE_ROOT + path)) {
+            if (in == null) {
+                return null;
+            }
+            byte[] data = in.readAllBytes();
+            return BRIDGE_SCRIPT.equals(path) ? bridgeScript(query.inject("json"), data) : data;
+        } catch (IOException e) {
+            LOGGER.warn("Could not load UI resource " + path, e);
+            return null;
+        }
+    }
+
+    /**
+     * Answers requests of the virtual origin; all other requests (e.g. Python Tutor) take the normal route.
+     */
+    private final class StaticRequestHandler extends CefRequestHandlerAdapter {
+        @Override
+        public CefResourceRequestHandler getResourceRequestHandler(CefBrowser cefBrowser, CefFrame frame,
+                                                                   CefRequest request, boolean isNavigation,
+                                                                   boolean isDownload, String requestInitiator,
+                                                                   BoolRef disableDefaultHandling) {
+            String path = resourcePath(request.getURL());
+            if (path == null) {
+                return null;
+            }
+            return new CefResourceRequestHandlerAdapter() {
+                @Override
+                public CefResourceHandler getResourceHandler(CefBrowser b, CefFrame f, CefRequest r) {
+                    return new ResourceHandler(load(path), mimeType(path));
+                }
+            };
+        }
+    }
+
+    /**
+     * Streams one resource, or answers 404 if it does not exist.
+     */
+    private static final class ResourceHandler extends CefResourceHandlerAdapter {
+        private final byte[] data;
+        private final String mimeType;
+        private int offset;
+
+        ResourceHandler(byte[] data, String mimeType) {
+            this.data = data;
+            this.mimeType = mimeType;
+        }
+
+        @Override
+        public boolean processRequest(CefRequest request, CefCallback callback) {
+            callback.Continue();
+            return true;
+        }
+
+        @Override
+        public void getResponseHeaders(CefResponse response, IntRef responseLength, StringRef redirectUrl) {
+            if (data == null) {
+                response.setStatus(404);
+                response.setStatusText("Not Found");
+                responseLength.set(0);
+                return;
+            }
+            response.setStatus(200);
+            response.setMimeType(mimeType);
+            responseLength.set(data.length);
+        }
+
+        @Override
+        public boolean readResponse(byte[] dataOut, int bytesToRead, IntRef bytesRead, CefCallback callback) {
+            if (data == null || offset >= data.length) {
+                bytesRead.set(0);
+                return false;
+            }
+            int length = Math.min(bytesToRead, data.length - offset);
+            System.arraycopy(data, offset, dataOut, 0, length);
+            offset += length;
+            bytesRead.set(length);
+            return true;
+        }
+    }
+}
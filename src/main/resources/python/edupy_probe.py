@@ -0,0 +1,247 @@
+"""Probe helpers of the EduPy debugger, installed into the debuggee as ``__edupy_probe``.
+
+The plugin installs this module once per debug process (see ``ProbeModule``) and afterwards sends
+short calls such as ``__edupy_probe.frame('fact', 'main.py', 2)`` instead of long inline lambda
+expressions. Every function answers with one JSON string so that a single evaluate round trip
+carries everything the analyzers would otherwise request one expression at a time.
+
+The answers mirror the inline expressions of ``VariableAnalyzer``, ``ObjectAnalyzer`` and
+``DebuggerUtils`` exactly; keep both sides in sync and bump ``VERSION`` on every change.
+
+User code reached by a probe (``__repr__``, ``__dir__``, properties, ``__getattr__``) runs under a
+trace-function deadline: a single value may take ``_item_budget`` seconds, a whole call ``_call_budget``
+seconds (see ``configure``). Values that exceed it are answered as ``TIMED_OUT`` and the call returns
+what it collected so far, so a slow or endless ``__repr__`` cannot hang the debugger.
+"""
+import functools as _functools
+import itertools as _itertools
+import json as _json
+import sys as _sys
+import time as _time
+
+VERSION = 4
+
+# Placeholder for values whose computation exceeded the time budget
+TIMED_OUT = '<timed out>'
+
+_item_budget = 0.25
+_call_budget = 2.0
+# Monotonic deadlines of the running call and of the value being computed (None = no budget active)
+_call_deadline = None
+_deadline = None
+
+# Same limit pydevd applies to trimmed values
+_MAX_TEXT = 1000
+
+_BUILTIN_TYPES = (int, float, str, bool, list, dict, tuple, set)
+_CONTAINER_TYPES = ('list', 'set', 'dict', 'tuple')
+_METHOD_TYPES = ('method', 'function', 'builtin_function_or_method')
+_NOISY_GLOBAL_TYPES = ('module', 'function', 'builtin_function_or_method', 'type')
+
+# Identifies the frames of this module; its code is exec'd, so co_filename is no reliable marker
+_MODULE_GLOBALS = globals()
+
+
+class _Timeout(BaseException):
+    """Raised inside user code once the budget is spent; not an Exception, so user code cannot swallow it."""
+
+
+def configure(item_ms, call_ms):
+    """Sets the time budgets (ms) of a single value and of a whole call."""
+    global _item_budget, _call_budget
+    _item_budget = max(item_ms, 1) / 1000.0
+    _call_budget = max(call_ms, 1) / 1000.0
+
+
+def _budgeted(fn):
+    # Public entry points: everything one call computes shares the call budget
+    @_functools.wraps(fn)
+    def run(*args):
+        global _call_deadline
+        _call_deadline = _time.monotonic() + _call_budget
+        try:
+            return fn(*args)
+        finally:
+            _call_deadline = None
+    return run
+
+
+def _trace(frame, event, arg):
+    if event == 'call':
+        # Per-opcode events: a one-line loop such as 'while True: pass' never fires a line event
+        frame.f_trace_opcodes = True
+    if _deadline is not None and _time.monotonic() > _deadline:
+        raise _Timeout()
+    return _trace
+
+
+def _guarded(fn, *args):
+    """Runs ``fn(*args)`` under the item deadline; raises ``_Timeout`` once it has passed."""
+    global _deadline
+    if _deadline is not None:
+        return fn(*args)  # already guarded by an enclosing value
+    deadline = _time.monotonic() + _item_budget
+    if _call_deadline is not None:
+        deadline = min(deadline, _call_deadline)
+    if _time.monotonic() > deadline:
+        raise _Timeout()
+    previous = _sys.gettrace()
+    _deadline = deadline
+    _sys.settrace(_trace)
+    try:
+        return fn(*args)
+    finally:
+        # Give the debugger its own trace function back
+        _sys.settrace(previous)
+        _deadline = None
+
+
+def _repr(v):
+    try:
+        return _guarded(repr, v)
+    except _Timeout:
+        return TIMED_OUT
+    except Exception as e:
+        return '<repr failed: %s>' % type(e).__name__
+
+
+def _text(v):
+    # Value string as PyCharm shows it: raw text for str, repr otherwise
+    return _clip(v if isinstance(v, str) else _repr(v))
+
+
+def page(c, offset, limit):
+    """Item reprs ``offset`` to ``offset + limit`` of a builtin container (``key: value`` for dicts).
+
+    Mirrors ``VariableAnalyzer.pageExpression``; every item is cut like ``_text``.
+    """
+    if isinstance(c, dict):
+        return [_clip('%s: %s' % (_repr(k), _repr(v))) for k, v in _itertools.islice(c.items(), offset, offset + limit)]
+    return [_clip(_repr(v)) for v in _itertools.islice(c, offset, offset + limit)]
+
+
+def _container(info, v, limit):
+    # Length and first page only; further pages are requested on demand
+    try:
+        info['len'] = len(v)
+        info['page'] = page(v, 0, limit)
+    except Exception:
+        pass
+
+
+def _clip(text):
+    return text if len(text) <= _MAX_TEXT else text[:_MAX_TEXT] + '...'
+
+
+def _hidden(name):
+    return name.startswith('__') or name.startswith('_pydev_')
+
+
+def _find_frame(name, file_suffix, occurrence):
+    # Innermost first, like inspect.stack(); frames of this module (e.g. the 'run' wrapper of _budgeted) never count
+    f = _sys._getframe(1)
+    seen = 0
+    while f is not None:
+        code = f.f_code
+        if (f.f_globals is not _MODULE_GLOBALS and code.co_name == name
+                and (not file_suffix or code.co_filename.endswith(file_suffix))):
+            if seen == occurrence:
+                return f
+            seen += 1
+        f = f.f_back
+    return None
+
+
+@_budgeted
+def frame(name, file_suffix, occurrence):
+    """Parameters of the ``occurrence``-th frame of function ``name`` as ``[[name, value], ...]``.
+
+    Values of builtin types are given as ``repr``, all others as ``refid:<id>``. Answers ``null``
+    when no such frame is on the stack.
+    """
+    f = _find_frame(name, file_suffix, occurrence)
+    if f is None and file_suffix:
+        f = _find_frame(name, '', occurrence)
+    if f is None:
+        return 'null'
+    code = f.f_code
+    count = code.co_argcount + code.co_kwonlyargcount
+    names = list(code.co_varnames[:count])
+    if code.co_flags & 4:
+        names.append(code.co_varnames[count])
+        count += 1
+    if code.co_flags & 8:
+        names.append(code.co_varnames[count])
+    local_values = f.f_locals
+    out = []
+    for n in names:
+        if not n or _hidden(n):
+            continue
+        v = local_values.get(n, None)
+        out.append([n, _repr(v) if isinstance(v, _BUILTIN_TYPES) else 'refid:' + str(id(v))])
+    return _json.dumps(out)
+
+
+@_budgeted
+def variables(loc, glb, limit=20):
+    """Ids, scope checks, instance checks, container lengths and first pages of all locals, plus the globals."""
+    local_info = {}
+    for n, v in list(loc.items()):
+        info = {
+            'id': str(id(v)),
+            'local': loc.get(n, None) is not None,
+            'global': glb.get(n, None) is not None,
+            'user': isinstance(v, object) and not isinstance(v, _BUILTIN_TYPES),
+        }
+        if type(v).__name__ in _CONTAINER_TYPES:
+            _container(info, v, limit)
+        local_info[str(n)] = info
+    names = [str(k) for k in glb.keys()]
+    global_info = {}
+    for n in names:
+        if _hidden(n):
+            continue
+        v = glb.get(n, None)
+        t = type(v).__name__
+        info = {'type': t}
+        if t not in _NOISY_GLOBAL_TYPES:
+            info['value'] = _text(v)
+            info['id'] = str(id(v))
+            if t in _CONTAINER_TYPES:
+                _container(info, v, limit)
+        global_info[n] = info
+    return _json.dumps({'v': VERSION, 'locals': local_info, 'globals': names, 'globalValues': global_info})
+
+
+@_budgeted
+def obj(o):
+    """``dir()`` of an object plus type, value, static flag and (for references) id of every attribute.
+
+    Attributes whose lookup exceeds the budget are answered with type ``TimeoutError`` and value ``TIMED_OUT``.
+    """
+    try:
+        names = _guarded(dir, o)
+    except _Timeout:
+        names = list(getattr(o, '__dict__', {}).keys())
+    class_dict = getattr(o.__class__, '__dict__', {})
+    attrs = {}
+    for a in names:
+        if a.endswith('__'):
+            continue
+        try:
+            v = _guarded(getattr, o, a)
+        except _Timeout:
+            attrs[a] = {'type': 'TimeoutError', 'value': TIMED_OUT, 'static': class_dict.get(a, None) is not None}
+            continue
+        except Exception:
+            continue
+        t = type(v).__name__
+        info = {'type': t}
+        if t not in _METHOD_TYPES:
+            text = _text(v)
+            info['value'] = text
+            info['static'] = class_dict.get(a, None) is not None
+            if 'object' in text:
+                info['id'] = str(id(v))
+        attrs[a] = info
+    return _json.dumps({'v': VERSION, 'dir': names, 'attrs': attrs})
@@ -10,10 +10,13 @@
  * Conventions
  * - All outbound messages use { type, payload } JSON; inbound messages follow the same schema.
  * - For variables, ValueDTO.repr is a preview; ValueDTO.full (when present) contains the full string.
+ * - Builtin containers in debug mode carry ValueDTO.length instead of full; their items are loaded
+ *   page by page ('container_page') when the user expands the value.
  */
 // WebSocket (JSON only)
 const wsScheme = location.protocol === 'https:' ? 'wss' : 'ws';
-const websocketUrl = `${wsScheme}://127.0.0.1:8025/websockets/debug`;
+// Same origin: the page and the socket are served by one server
+const websocketUrl = `${wsScheme}://${location.host}/websockets/debug`;
 let socket;
 const reconnectInterval = 5000;
 
@@ -29,17 +32,18 @@ function sendJson(type, payload = {}) {
 }
 
 /**
- * Establishes the WebSocket connection and dispatches inbound messages
- * to their respective renderers.
+ * Establishes the WebSocket connection (or the in-process bridge of the IDE, see bridge.js) and dispatches
+ * inbound messages to their respective renderers.
  */
 function connectWebSocket() {
-    socket = new WebSocket(websocketUrl);
+    socket = openTransport(websocketUrl);
 
     socket.onopen = function () {
         console.log('WebSocket connected');
         // Initial Pulls
         sendJson('get', { resource: 'variables' });
         sendJson('get', { resource: 'object_cards' });
+        sendJson('get', { resource: 'object_graph' });
         sendJson('get', { resource: 'callstack' });
         sendJson('get', { resource: 'threads' });
     };
@@ -47,7 +51,7 @@ function connectWebSocket() {
     socket.onmessage = function (event) {
         let msg;
         try {
-            msg = JSON.parse(event.data);
+            msg = parseMessage(event.data);
         } catch {
             console.warn('Non-JSON ignored', event.data);
             return;
@@ -67,6 +71,12 @@ function connectWebSocket() {
             case 'object_cards':
                 renderObjectCards(msg.payload);
                 break;
+            case 'object_graph':
+                renderObjectGraphCards(msg.payload);
+                break;
+            case 'container_page':
+                renderContainerPage(msg.payload);
+                break;
             case 'console':
                 if (msg.payload && msg.payload.text) logToConsole(msg.payload.text);
                 break;
@@ -112,14 +122,24 @@ function renderThreads(payload) {
 
 /* ---------- Callstack ---------- */
 /**
- * Renders the callstack table.
+ * Renders the callstack table. Each new call stack starts with the top frame selected; clicking a row
+ * selects that frame and asks the backend for the objects of that frame ('frame_selected').
  * @param {{frames: string[]}} payload
  */
 function renderCallstack(payload) {
     const tableBody = document.querySelector('.threads-container tbody');
     tableBody.innerHTML = '';
-    (payload?.frames || []).forEach(f => {
+    (payload?.frames || []).forEach((f, index) => {
         const tr = document.createElement('tr');
+        tr.classList.add('frame-row');
+        if (index === 0) tr.classList.add('active-row');
+        tr.title = 'Objekte dieses Aufrufs anzeigen';
+        // Also on refid links: the referenced object may only be analyzed once its frame is selected
+        tr.addEventListener('click', function () {
+            tableBody.querySelectorAll('.active-row').forEach(r => r.classList.remove('active-row'));
+            tr.classList.add('active-row');
+            sendJson('frame_selected', { index });
+        });
         const td = document.createElement('td');
         // Escape HTML so strings like "<module>()" render literally,
         // then replace refid:123 with a clickable link to the object card.
@@ -143,6 +163,7 @@ let activeRow = null;
 function renderVariables(payload) {
     const tableBody = document.querySelector('.variables-container tbody');
     tableBody.innerHTML = '';
+    containerViews.clear();
 
     (payload?.variables || []).forEach(v => {
         const tr = document.createElement('tr');
@@ -218,6 +239,11 @@ function createValueCell(v) {
     previewDiv.innerHTML = processValue(v.value);
     td.appendChild(previewDiv);
 
+    if (typeof v?.value?.length === 'number') {
+        appendPagedContainer(td, previewDiv, v);
+        return td;
+    }
+
     let fullText = v?.value?.full;
     // Optional formatting for nicer full view: lists/sets side-by-side, dicts key:value per line
     if (fullText && typeof fullText === 'string') {
@@ -257,6 +283,98 @@ function createValueCell(v) {
     return td;
 }
 
+/* ---------- Paged containers ---------- */
+const CONTAINER_PAGE_SIZE = 50;
+/** Expanded container views by variable id: { list, moreBtn, pyType, length, loaded, pending }. */
+const containerViews = new Map();
+
+/**
+ * Adds the expand toggle of a builtin container whose items are fetched page-wise from the backend.
+ * The first page is requested when the value is expanded for the first time.
+ * @param {HTMLTableCellElement} td
+ * @param {HTMLDivElement} previewDiv
+ * @param {{id:string, pyType:string, value:{length:number}}} v
+ */
+function appendPagedContainer(td, previewDiv, v) {
+    const length = v.value.length;
+    if (length === 0) return;
+
+    const fullDiv = document.createElement('div');
+    fullDiv.className = 'value-full';
+    fullDiv.style.display = 'none';
+    const list = document.createElement('div');
+    list.className = 'container-items';
+    fullDiv.appendChild(list);
+    const moreBtn = document.createElement('button');
+    moreBtn.className = 'expand-btn';
+    moreBtn.type = 'button';
+    moreBtn.style.display = 'none';
+    fullDiv.appendChild(moreBtn);
+    td.appendChild(fullDiv);
+
+    const view = { list, moreBtn, pyType: (v.pyType || '').toLowerCase(), length, loaded: 0, pending: false };
+    containerViews.set(v.id, view);
+    moreBtn.addEventListener('click', (e) => {
+        e.stopPropagation();
+        requestContainerPage(v.id);
+    });
+
+    const btn = document.createElement('button');
+    btn.className = 'expand-btn';
+    btn.type = 'button';
+    btn.textContent = `Mehr (${length} Elemente)`;
+    btn.addEventListener('click', (e) => {
+        e.stopPropagation();
+        const open = fullDiv.style.display !== 'none';
+        fullDiv.style.display = open ? 'none' : 'block';
+        previewDiv.style.display = open ? 'block' : 'none';
+        btn.textContent = open ? `Mehr (${length} Elemente)` : 'Weniger';
+        if (!open && view.loaded === 0) requestContainerPage(v.id);
+    });
+    td.appendChild(btn);
+}
+
+/** Requests the next page of an expanded container unless a request is already pending. */
+function requestContainerPage(id) {
+    const view = containerViews.get(id);
+    if (!view || view.pending || view.loaded >= view.length) return;
+    view.pending = true;
+    view.moreBtn.style.display = 'block';
+    view.moreBtn.disabled = true;
+    view.moreBtn.textContent = 'Lädt...';
+    sendJson('container_page', { id, offset: view.loaded, limit: CONTAINER_PAGE_SIZE });
+}
+
+/**
+ * Appends a page of container items ('container_page') to its expanded value cell.
+ * Pages for rows that are no longer shown are ignored.
+ * @param {{id:string, offset:number, length?:number, items:string[]}} payload
+ */
+function renderContainerPage(payload) {
+    const view = containerViews.get(payload?.id);
+    if (!view || payload.offset !== view.loaded) return;
+    view.pending = false;
+    const items = payload.items || [];
+    if (typeof payload.length === 'number') view.length = payload.length;
+    items.forEach((item, i) => {
+        const row = document.createElement('div');
+        row.className = 'container-item';
+        // Dicts answer "key: value"; sequences and sets are shown with their index
+        row.textContent = view.pyType === 'dict' ? item : `${payload.offset + i}: ${item}`;
+        view.list.appendChild(row);
+    });
+    view.loaded += items.length;
+    if (items.length === 0 || view.loaded >= view.length) {
+        // Everything shown (or the debugger answered nothing, e.g. after resuming)
+        view.moreBtn.style.display = items.length === 0 && view.loaded < view.length ? 'block' : 'none';
+        view.moreBtn.disabled = false;
+        view.moreBtn.textContent = 'Erneut versuchen';
+        return;
+    }
+    view.moreBtn.disabled = false;
+    view.moreBtn.textContent = `Weitere laden (${view.loaded} von ${view.length})`;
+}
+
 // ---------- Pretty formatting for "full" ----------
 /** Removes a matching outer pair of brackets if present. */
 function stripOuter(s, open, close) {
@@ -400,27 +518,38 @@ let currentIndex = 0;
 function renderObjectCards(payload) {
     const slidesContainer = document.getElementById('object-slides');
     slidesContainer.innerHTML = '';
-    (payload?.cards || []).forEach(card => {
-        const slide = document.createElement('div');
-        slide.classList.add('slide');
-        slide.id = `slide-${card.id}`;
-
-        const decodedSVG = atob(card.svgBase64);
-        const wrapper = document.createElement('div');
-        wrapper.innerHTML = decodedSVG;
-
-        // Links in SVG „umschreiben“ -> jumpToSlide
-        const svgLinks = wrapper.querySelectorAll('a');
-        svgLinks.forEach(link => {
-            const href = link.getAttribute('href') || '';
-            const refid = href.split('/').at(1);
-            link.setAttribute('href', 'javascript:void(0);');
-            if (refid) link.setAttribute('onclick', `jumpToSlide(${refid})`);
-        });
+    (payload?.cards || []).forEach(card => appendSlide(slidesContainer, card.id, atob(card.svgBase64)));
+}
 
-        slide.appendChild(wrapper);
-        slidesContainer.appendChild(slide);
+/**
+ * Client-side rendering mode: draws the cards from the object graph (see object-graph.js).
+ * @param {{nodes: Array<object>}} payload
+ */
+function renderObjectGraphCards(payload) {
+    const slidesContainer = document.getElementById('object-slides');
+    slidesContainer.innerHTML = '';
+    (payload?.nodes || []).forEach(node => appendSlide(slidesContainer, node.id, renderObjectCardSvg(node)));
+}
+
+function appendSlide(slidesContainer, id, svgMarkup) {
+    const slide = document.createElement('div');
+    slide.classList.add('slide');
+    slide.id = `slide-${id}`;
+
+    const wrapper = document.createElement('div');
+    wrapper.innerHTML = svgMarkup;
+
+    // Links in SVG „umschreiben“ -> jumpToSlide
+    const svgLinks = wrapper.querySelectorAll('a');
+    svgLinks.forEach(link => {
+        const href = link.getAttribute('href') || '';
+        const refid = href.split('/').at(1);
+        link.setAttribute('href', 'javascript:void(0);');
+        if (refid) link.setAttribute('onclick', `jumpToSlide(${refid})`);
     });
+
+    slide.appendChild(wrapper);
+    slidesContainer.appendChild(slide);
 }
 
 function moveSlide(direction) {
@@ -0,0 +1,65 @@
+/**
+ * EduPy Debugger – message transport
+ *
+ * openTransport() returns the connection of a page: a WebSocket to the given URL in ordinary browsers, or an
+ * in-process bridge in the tool window of the IDE. There the IDE serves this file with a definition of
+ * window.edupyQuery (a JBCefJSQuery) in front of it: outbound messages go through edupyQuery, inbound ones arrive
+ * as parsed objects through edupyTransport.receive(message), without the TCP loopback. The bridge mimics the parts
+ * of the WebSocket API the pages use (readyState, send, close, onopen, onmessage).
+ */
+const edupyTransport = {
+    socket: null,
+
+    /**
+     * Delivers an inbound message; called by the IDE.
+     * @param {object} message parsed DebugMessage
+     */
+    receive(message) {
+        const socket = this.socket;
+        if (socket && socket.readyState === WebSocket.OPEN && socket.onmessage) {
+            socket.onmessage({ data: message });
+        }
+    }
+};
+
+/**
+ * Opens the connection to the backend.
+ * @param {string} url WebSocket URL, used outside the IDE
+ * @returns {WebSocket|object} the socket or the bridge
+ */
+function openTransport(url) {
+    if (typeof window.edupyQuery !== 'function') {
+        return new WebSocket(url);
+    }
+    const bridge = {
+        readyState: WebSocket.CONNECTING,
+        onopen: null,
+        onmessage: null,
+        onclose: null,
+        onerror: null,
+        send(json) {
+            window.edupyQuery(json);
+        },
+        close() {
+            // The IDE drops the page on navigation; no reconnect
+            this.readyState = WebSocket.CLOSED;
+        }
+    };
+    edupyTransport.socket = bridge;
+    // Open after the caller has installed its handlers, like a WebSocket
+    setTimeout(() => {
+        if (bridge.readyState !== WebSocket.CONNECTING) return;
+        bridge.readyState = WebSocket.OPEN;
+        if (bridge.onopen) bridge.onopen();
+    }, 0);
+    return bridge;
+}
+
+/**
+ * Parses the data of a message event; bridge messages are already parsed.
+ * @param {string|object} data event data
+ * @returns {object} the message
+ */
+function parseMessage(data) {
+    return typeof data === 'string' ? JSON.parse(data) : data;
+}
@@ -0,0 +1,260 @@
+/**
+ * EduPy Debugger – client-side object rendering
+ *
+ * Draws object cards and the object diagram from an 'object_graph' payload, which the IDE publishes instead of
+ * SVG when started with -Dedupy.diagram.client=true. The output matches the server renderers (ObjectCardRenderer,
+ * ObjectDiagramRenderer): same card look, same element ids ('o<id>', 'o<id>-t', 'o<id>-r<i>') and links
+ * 'localhost:8026/<id>' from reference rows of cards, so the existing link and click handling applies unchanged.
+ *
+ * The diagram uses a small layered layout: back edges of a depth-first search are ignored for layering, every
+ * node is placed one layer below its deepest predecessor, layers are ordered by the mean position of the
+ * predecessors and centered.
+ *
+ * Payload: { nodes: [{id, title, type, attributes: [{name, type, value?, target?, isStatic?}]}],
+ *            edges: [{from, to, attribute}], diagram?: {nodes, edges} }
+ */
+const OG_FONT_SIZE = 14;
+const OG_FONT = `${OG_FONT_SIZE}px sans-serif`;
+const OG_PADDING = 8;
+const OG_ROW_HEIGHT = 20;
+const OG_MIN_WIDTH = 60;
+const OG_MAX_VALUE_LENGTH = 20;
+const OG_TRUNCATION_MARK = ' [...]';
+const OG_LINK_PREFIX = 'localhost:8026/';
+const OG_FILL = '#F1F1F1';
+const OG_STROKE = '#181818';
+const OG_LINK_COLOR = '#0000FF';
+const OG_LAYER_GAP = 50;
+const OG_NODE_GAP = 30;
+const OG_MARGIN = 10;
+const OG_LOOP_OFFSET = 20;
+
+let ogMeasureContext = null;
+
+/**
+ * Measures a text in the card font; uses the browser's font metrics.
+ * @param {string} text
+ * @returns {number} width in pixels
+ */
+function ogTextWidth(text) {
+    if (!ogMeasureContext) {
+        ogMeasureContext = document.createElement('canvas').getContext('2d');
+        ogMeasureContext.font = OG_FONT;
+    }
+    return ogMeasureContext.measureText(text).width;
+}
+
+function ogEscape(s) {
+    return String(s).replace(/[&<>"]/g, c => ({ '&': '&amp;', '<': '&lt;', '>': '&gt;', '"': '&quot;' })[c]);
+}
+
+function ogFormat(v) {
+    return String(Math.round(v * 10) / 10);
+}
+
+/**
+ * Lays out the rows of a card and computes its size.
+ * @param {object} node graph node
+ * @param {boolean} compact true for slider cards (cut values, linked references), false for the diagram
+ */
+function ogMeasure(node, compact) {
+    const title = node.title || '';
+    let width = ogTextWidth(title);
+    const rows = (node.attributes || []).map(a => {
+        const label = `${a.name} = `;
+        let value = a.target != null ? (compact ? a.target : `refid:${a.target}`) : (a.value ?? '');
+        if (compact && a.target == null && value.length > OG_MAX_VALUE_LENGTH) {
+            value = value.substring(0, OG_MAX_VALUE_LENGTH) + OG_TRUNCATION_MARK;
+        }
+        const link = compact && a.target != null ? a.target : null;
+        width = Math.max(width, ogTextWidth(label) + ogTextWidth(value));
+        return { label, value, link, isStatic: a.isStatic === true };
+    });
+    return {
+        title,
+        rows,
+        width: Math.max(OG_MIN_WIDTH, Math.ceil(width) + 2 * OG_PADDING),
+        height: OG_ROW_HEIGHT + OG_PADDING + rows.length * OG_ROW_HEIGHT + OG_PADDING
+    };
+}
+
+function ogText(out, id, x, y, anchor, underline) {
+    out.push('<text');
+    if (id != null) out.push(` id="${ogEscape(id)}"`);
+    out.push(` x="${ogFormat(x)}" y="${ogFormat(y)}" font-family="sans-serif" font-size="${OG_FONT_SIZE}"`,
+        ` fill="#000000" text-anchor="${anchor}"`);
+    if (underline) out.push(' text-decoration="underline"');
+    out.push('>');
+}
+
+function ogAppendCard(out, key, card, x, y) {
+    const headerHeight = OG_ROW_HEIGHT + OG_PADDING;
+    out.push(`<g id="o${ogEscape(key)}">`,
+        `<rect x="${ogFormat(x)}" y="${ogFormat(y)}" width="${card.width}" height="${card.height}" rx="2.5" ry="2.5"`,
+        ` fill="${OG_FILL}" stroke="${OG_STROKE}" stroke-width="0.5"/>`);
+    ogText(out, `o${key}-t`, x + card.width / 2, y + OG_PADDING + OG_FONT_SIZE, 'middle', false);
+    out.push(ogEscape(card.title), '</text>',
+        `<line x1="${ogFormat(x)}" y1="${ogFormat(y + headerHeight)}" x2="${ogFormat(x + card.width)}"`,
+        ` y2="${ogFormat(y + headerHeight)}" stroke="${OG_STROKE}" stroke-width="0.5"/>`);
+
+    let baseline = y + headerHeight + OG_FONT_SIZE + 2;
+    card.rows.forEach((row, i) => {
+        ogText(out, `o${key}-r${i}`, x + OG_PADDING, baseline, 'start', row.isStatic);
+        out.push(ogEscape(row.label));
+        if (row.link != null) {
+            const href = ogEscape(OG_LINK_PREFIX + row.link);
+            out.push('</text>', `<a href="${href}" xlink:href="${href}">`);
+            ogText(out, null, x + OG_PADDING + ogTextWidth(row.label), baseline, 'start', row.isStatic);
+            out.push(`<tspan fill="${OG_LINK_COLOR}">${ogEscape(row.value)}</tspan></text></a>`);
+        } else {
+            out.push(ogEscape(row.value), '</text>');
+        }
+        baseline += OG_ROW_HEIGHT;
+    });
+    out.push('</g>');
+}
+
+function ogOpenSvg(out, width, height) {
+    const w = ogFormat(width), h = ogFormat(height);
+    out.push('<svg xmlns="http://www.w3.org/2000/svg" xmlns:xlink="http://www.w3.org/1999/xlink"',
+        ` width="${w}px" height="${h}px" viewBox="0 0 ${w} ${h}" style="width:${w}px;height:${h}px;">`);
+}
+
+/**
+ * Renders the slider card of one object.
+ * @param {object} node graph node
+ * @returns {string} SVG markup
+ */
+function renderObjectCardSvg(node) {
+    const card = ogMeasure(node, true);
+    const out = [];
+    ogOpenSvg(out, card.width + 2, card.height + 2);
+    ogAppendCard(out, node.id, card, 1, 1);
+    out.push('</svg>');
+    return out.join('');
+}
+
+/**
+ * Assigns layers and positions to the measured cards.
+ * @returns {{positions: Map<string,{x:number,y:number,layer:number}>, width:number, height:number}}
+ */
+function ogLayout(nodes, edges, cards) {
+    const successors = new Map(nodes.map(n => [n.id, []]));
+    edges.forEach(e => {
+        if (successors.has(e.from) && successors.has(e.to) && e.from !== e.to) successors.get(e.from).push(e.to);
+    });
+
+    // Depth-first search: edges to nodes on the stack close a cycle and do not constrain the layers
+    const state = new Map();
+    const forward = new Map(nodes.map(n => [n.id, []]));
+    const postOrder = [];
+    nodes.forEach(start => {
+        if (state.has(start.id)) return;
+        const stack = [[start.id, 0]];
+        state.set(start.id, 1);
+        while (stack.length) {
+            const top = stack[stack.length - 1];
+            const next = successors.get(top[0])[top[1]++];
+            if (next === undefined) {
+                state.set(top[0], 2);
+                postOrder.push(top[0]);
+                stack.pop();
+            } else if (!state.has(next)) {
+                forward.get(top[0]).push(next);
+                state.set(next, 1);
+                stack.push([next, 0]);
+            } else if (state.get(next) === 2) {
+                forward.get(top[0]).push(next);
+            }
+        }
+    });
+
+    // Longest path layering in topological order (reverse post order)
+    const layerOf = new Map(nodes.map(n => [n.id, 0]));
+    const predecessors = new Map(nodes.map(n => [n.id, []]));
+    for (let i = postOrder.length - 1; i >= 0; i--) {
+        const id = postOrder[i];
+        forward.get(id).forEach(next => {
+            layerOf.set(next, Math.max(layerOf.get(next), layerOf.get(id) + 1));
+            predecessors.get(next).push(id);
+        });
+    }
+    const layers = [];
+    nodes.forEach(n => (layers[layerOf.get(n.id)] ||= []).push(n.id));
+
+    // Order every layer by the mean index of its predecessors, place it centered
+    const index = new Map();
+    const positions = new Map();
+    const widths = layers.map(layer => {
+        layer.forEach((id, i) => {
+            const preds = predecessors.get(id).filter(p => index.has(p));
+            index.set(id, preds.length ? preds.reduce((sum, p) => sum + index.get(p), 0) / preds.length : i);
+        });
+        layer.sort((a, b) => index.get(a) - index.get(b));
+        layer.forEach((id, i) => index.set(id, i));
+        return layer.reduce((sum, id) => sum + cards.get(id).width, 0) + (layer.length - 1) * OG_NODE_GAP;
+    });
+    const width = Math.max(0, ...widths) + 2 * OG_MARGIN;
+    let y = OG_MARGIN;
+    layers.forEach((layer, l) => {
+        let x = (width - widths[l]) / 2;
+        let height = 0;
+        layer.forEach(id => {
+            positions.set(id, { x, y, layer: l });
+            x += cards.get(id).width + OG_NODE_GAP;
+            height = Math.max(height, cards.get(id).height);
+        });
+        y += height + OG_LAYER_GAP;
+    });
+    return { positions, width, height: layers.length ? y - OG_LAYER_GAP + OG_MARGIN : 2 * OG_MARGIN };
+}
+
+function ogEdgePath(from, fromCard, to, toCard) {
+    if (to.layer > from.layer) {
+        const x1 = from.x + fromCard.width / 2, y1 = from.y + fromCard.height;
+        const x2 = to.x + toCard.width / 2, y2 = to.y;
+        const bend = (y2 - y1) / 2;
+        return `M${ogFormat(x1)},${ogFormat(y1)} C${ogFormat(x1)},${ogFormat(y1 + bend)} `
+            + `${ogFormat(x2)},${ogFormat(y2 - bend)} ${ogFormat(x2)},${ogFormat(y2)}`;
+    }
+    // Same layer, back up the layers or self reference: around the right side of both cards
+    const x1 = from.x + fromCard.width, x2 = to.x + toCard.width;
+    let y1 = from.y + fromCard.height / 2, y2 = to.y + toCard.height / 2;
+    const out = Math.max(x1, x2) + OG_LOOP_OFFSET;
+    if (from === to) {
+        y1 -= fromCard.height / 4;
+        y2 += toCard.height / 4;
+    }
+    return `M${ogFormat(x1)},${ogFormat(y1)} C${ogFormat(out)},${ogFormat(y1)} `
+        + `${ogFormat(out)},${ogFormat(y2)} ${ogFormat(x2)},${ogFormat(y2)}`;
+}
+
+/**
+ * Renders the object diagram of an 'object_graph' payload; uses the collapsed diagram graph if present.
+ * @param {object} payload object_graph payload
+ * @returns {string} SVG markup
+ */
+function renderObjectDiagramSvg(payload) {
+    const graph = payload?.diagram || payload || {};
+    const nodes = graph.nodes || [];
+    const edges = graph.edges || [];
+    const cards = new Map(nodes.map(n => [n.id, ogMeasure(n, false)]));
+    const { positions, width, height } = ogLayout(nodes, edges, cards);
+
+    const out = [];
+    ogOpenSvg(out, Math.ceil(width + OG_LOOP_OFFSET), Math.ceil(height));
+    out.push('<defs><marker id="arrow" viewBox="0 0 10 10" refX="10" refY="5" markerWidth="8" markerHeight="8"',
+        ` orient="auto-start-reverse"><path d="M0,0 L10,5 L0,10 z" fill="${OG_STROKE}"/></marker></defs>`);
+    nodes.forEach(n => {
+        const p = positions.get(n.id);
+        ogAppendCard(out, n.id, cards.get(n.id), p.x, p.y);
+    });
+    edges.forEach(e => {
+        const from = positions.get(e.from), to = positions.get(e.to);
+        if (!from || !to) return;
+        out.push(`<path d="${ogEdgePath(from, cards.get(e.from), to, cards.get(e.to))}" fill="none"`,
+            ` stroke="${OG_STROKE}" stroke-width="1" marker-end="url(#arrow)"/>`);
+    });
+    out.push('</svg>');
+    return out.join('');
+}
@@ -1,7 +1,11 @@
-const websocketUrl = 'ws://localhost:8025/websockets/debug';
+const websocketUrl = `ws://${location.host}/websockets/debug`;
 let socket;
 const reconnectInterval = 5000;
 
+// Large projects: overview of the modules plus one diagram per module, fetched when selected
+let overviewSvg = '';
+const shardSvgs = new Map();
+
 function goToIndex() {
     window.location.href = '../index.html';
     try { socket.close(); } catch (e) { console.error(e); }
@@ -14,7 +18,7 @@ function sendJson(type, payload = {}) {
 }
 
 function connectWebSocket() {
-    socket = new WebSocket(websocketUrl);
+    socket = openTransport(websocketUrl);
 
     socket.onopen = function () {
         console.log('WebSocket connected');
@@ -23,17 +27,18 @@ function connectWebSocket() {
 
     socket.onmessage = function (event) {
         let msg;
-        try { msg = JSON.parse(event.data); } catch { return; }
+        try { msg = parseMessage(event.data); } catch { return; }
+        if (msg && msg.type === 'class_diagram_shard') {
+            shardSvgs.set(msg.payload?.module, atob(msg.payload?.svgBase64 || ''));
+            if (shardSelect.value === msg.payload?.module) showDiagram(shardSvgs.get(shardSelect.value));
+            return;
+        }
         if (!msg || msg.type !== 'class_diagram') return;
 
-        const base64Data = msg.payload?.svgBase64 || '';
-        const container = document.getElementById('class-diagram-container');
-        container.innerHTML = '';
-
-        const decodedSVG = atob(base64Data);
-        const svgElement = document.createElement('div');
-        svgElement.innerHTML = decodedSVG;
-        container.appendChild(svgElement);
+        overviewSvg = atob(msg.payload?.svgBase64 || '');
+        shardSvgs.clear();
+        renderShardSelect(msg.payload?.shards || []);
+        showDiagram(overviewSvg);
     };
 
     socket.onclose = function () {
@@ -46,4 +51,34 @@ function connectWebSocket() {
     };
 }
 
+function showDiagram(svgMarkup) {
+    const container = document.getElementById('class-diagram-container');
+    container.innerHTML = '';
+
+    const svgElement = document.createElement('div');
+    svgElement.innerHTML = svgMarkup;
+    container.appendChild(svgElement);
+}
+
+const shardSelect = document.getElementById('class-diagram-shards');
+
+function renderShardSelect(modules) {
+    shardSelect.innerHTML = '';
+    shardSelect.hidden = modules.length === 0;
+    shardSelect.appendChild(new Option('Modulübersicht', ''));
+    modules.forEach(module => shardSelect.appendChild(new Option(module, module)));
+}
+
+shardSelect.addEventListener('change', () => {
+    const module = shardSelect.value;
+    if (!module) {
+        showDiagram(overviewSvg);
+    } else if (shardSvgs.has(module)) {
+        showDiagram(shardSvgs.get(module));
+    } else {
+        showDiagram('<p>Klassendiagramm wird erstellt …</p>');
+        sendJson('get', { resource: 'class_diagram_shard', module });
+    }
+});
+
 connectWebSocket();
\ No newline at end of file
@@ -1,4 +1,4 @@
-const websocketUrl = 'ws://localhost:8025/websockets/debug';
+const websocketUrl = `ws://${location.host}/websockets/debug`;
 let socket;
 const reconnectInterval = 5000;
 
@@ -14,26 +14,30 @@ function sendJson(type, payload = {}) {
 }
 
 function connectWebSocket() {
-    socket = new WebSocket(websocketUrl);
+    socket = openTransport(websocketUrl);
 
     socket.onopen = function () {
         console.log('WebSocket connected');
         sendJson('get', { resource: 'object_diagram' });
+        sendJson('get', { resource: 'object_graph' });
     };
 
     socket.onmessage = function (event) {
         let msg;
-        try { msg = JSON.parse(event.data); } catch { return; }
+        try { msg = parseMessage(event.data); } catch { return; }
+        if (msg && msg.type === 'object_diagram_patch') {
+            applyPatch(msg.payload || {});
+            return;
+        }
+        if (msg && msg.type === 'object_graph') {
+            // Client-side rendering mode: lay out and draw the diagram here (see object-graph.js)
+            showDiagram(renderObjectDiagramSvg(msg.payload));
+            return;
+        }
         if (!msg || msg.type !== 'object_diagram') return;
 
         const base64Data = msg.payload?.svgBase64 || '';
-        const container = document.getElementById('object-diagram-container');
-        container.innerHTML = '';
-
-        const decodedSVG = atob(base64Data);
-        const svgElement = document.createElement('div');
-        svgElement.innerHTML = decodedSVG;
-        container.appendChild(svgElement);
+        showDiagram(atob(base64Data));
     };
 
     socket.onclose = function () {
@@ -46,4 +50,32 @@ function connectWebSocket() {
     };
 }
 
+function showDiagram(svgMarkup) {
+    const container = document.getElementById('object-diagram-container');
+    container.innerHTML = '';
+
+    const svgElement = document.createElement('div');
+    svgElement.innerHTML = svgMarkup;
+    container.appendChild(svgElement);
+}
+
+// Only texts changed: replace them in place; fetch the full diagram if ours is not the patched revision
+function applyPatch(patch) {
+    const svg = document.querySelector('#object-diagram-container svg');
+    if (!svg || svg.getAttribute('data-revision') !== String(patch.base)) {
+        sendJson('get', { resource: 'object_diagram' });
+        return;
+    }
+    Object.entries(patch.texts || {}).forEach(([id, text]) => {
+        const el = document.getElementById(id);
+        if (el) el.textContent = text;
+    });
+}
+
+// Collapsed summary nodes ("901 × Node") have ids starting with "o~": a click shows their members
+document.getElementById('object-diagram-container').addEventListener('click', (event) => {
+    const cluster = event.target.closest('g[id^="o~"]');
+    if (cluster) sendJson('expand_cluster', { id: cluster.id.substring(1) });
+});
+
 connectWebSocket();
\ No newline at end of file
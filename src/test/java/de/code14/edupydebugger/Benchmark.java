@@ -0,0 +1,8 @@
+package de.code14.edupydebugger;
+
+/**
+ * JUnit category of the tests that measure and log timings. Their results depend on the machine, so the regular
+ * test run skips them; {@code ./gradlew test -Pedupy.benchmark} runs them as well.
+ */
+public interface Benchmark {
+}
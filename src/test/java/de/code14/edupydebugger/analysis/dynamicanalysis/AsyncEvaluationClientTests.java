@@ -0,0 +1,231 @@
+package de.code14.edupydebugger.analysis.dynamicanalysis;
+
+import com.jetbrains.python.debugger.PyDebugValue;
+import com.jetbrains.python.debugger.PyDebuggerException;
+import com.jetbrains.python.debugger.PyFrameAccessor;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class AsyncEvaluationClientTests {
+
+    private PyFrameAccessor accessor;
+    private ExecutorService pool;
+
+    @Before
+    public void setUp() {
+        accessor = mock(PyFrameAccessor.class);
+        pool = Executors.newFixedThreadPool(8);
+    }
+
+    @After
+    public void tearDown() {
+        pool.shutdownNow();
+        AsyncEvaluationClient.setDefaultExecutor(null);
+    }
+
+    private PyDebugValue value(String name, String v) {
+        return new PyDebugValue(name, "int", null, v, false, null, false, false, false, null, accessor);
+    }
+
+    @Test
+    public void testRequestsInFlightAreBoundedPerAccessor() throws Exception {
+        AtomicInteger running = new AtomicInteger();
+        AtomicInteger maxRunning = new AtomicInteger();
+        when(accessor.evaluate(anyString(), anyBoolean(), anyBoolean())).thenAnswer(inv -> {
+            int now = running.incrementAndGet();
+            maxRunning.accumulateAndGet(now, Math::max);
+            Thread.sleep(20);
+            running.decrementAndGet();
+            return value(inv.getArgument(0), "1");
+        });
+
+        AsyncEvaluationClient client = new AsyncEvaluationClient(new EvaluationGateway(), pool, 2);
+        List<CompletableFuture<PyDebugValue>> futures = new ArrayList<>();
+        for (int i = 0; i < 6; i++) {
+            futures.add(client.evaluate(accessor, "x.a" + i));
+        }
+        AsyncEvaluationClient.awaitAll(futures);
+
+        for (int i = 0; i < 6; i++) {
+            assertEquals("x.a" + i, futures.get(i).get(1, TimeUnit.SECONDS).getName());
+        }
+        assertEquals(2, maxRunning.get());
+    }
+
+    @Test
+    public void testIndependentRequestsOverlap() throws Exception {
+        CountDownLatch bothStarted = new CountDownLatch(2);
+        when(accessor.evaluate(anyString(), anyBoolean(), anyBoolean())).thenAnswer(inv -> {
+            bothStarted.countDown();
+            // Nur erfolgreich, wenn beide Anfragen gleichzeitig unterwegs sind
+            assertTrue(bothStarted.await(2, TimeUnit.SECONDS));
+            return value(inv.getArgument(0), "1");
+        });
+
+        AsyncEvaluationClient client = new AsyncEvaluationClient(new EvaluationGateway(), pool, 4);
+        CompletableFuture<PyDebugValue> a = client.evaluate(accessor, "a.x");
+        CompletableFuture<PyDebugValue> b = client.evaluate(accessor, "b.x");
+
+        assertEquals("1", a.get(3, TimeUnit.SECONDS).getValue());
+        assertEquals("1", b.get(3, TimeUnit.SECONDS).getValue());
+    }
+
+    @Test
+    public void testFailuresCompleteFutureExceptionally() throws Exception {
+        when(accessor.evaluate(eq("boom"), anyBoolean(), anyBoolean()))
+                .thenThrow(new PyDebuggerException("Process is running"));
+
+        AsyncEvaluationClient client = new AsyncEvaluationClient(new EvaluationGateway(), pool, 2);
+        CompletableFuture<PyDebugValue> f = client.evaluate(accessor, "boom");
+
+        try {
+            f.get(1, TimeUnit.SECONDS);
+            fail("expected failure");
+        } catch (ExecutionException e) {
+            assertTrue(AsyncEvaluationClient.unwrap(e.getCause()) instanceof PyDebuggerException);
+        }
+        // Der Slot wurde freigegeben, weitere Anfragen laufen
+        when(accessor.evaluate(eq("ok"), anyBoolean(), anyBoolean())).thenReturn(value("ok", "2"));
+        assertEquals("2", client.evaluate(accessor, "ok").get(1, TimeUnit.SECONDS).getValue());
+    }
+
+    @Test
+    public void testQueuedRequestsStartInSubmissionOrderAndCancelledOnesAreSkipped() throws Exception {
+        CountDownLatch twoRunning = new CountDownLatch(2);
+        CountDownLatch releaseFirst = new CountDownLatch(1);
+        CountDownLatch releaseSecond = new CountDownLatch(1);
+        List<String> started = Collections.synchronizedList(new ArrayList<>());
+        when(accessor.evaluate(anyString(), anyBoolean(), anyBoolean())).thenAnswer(inv -> {
+            String expression = inv.getArgument(0);
+            started.add(expression);
+            if (expression.startsWith("slow")) {
+                twoRunning.countDown();
+                CountDownLatch release = expression.equals("slow1") ? releaseFirst : releaseSecond;
+                assertTrue(release.await(2, TimeUnit.SECONDS));
+            }
+            return value(expression, "v-" + expression);
+        });
+
+        AsyncEvaluationClient client = new AsyncEvaluationClient(new EvaluationGateway(), pool, 2);
+        CompletableFuture<PyDebugValue> slow1 = client.evaluate(accessor, "slow1");
+        CompletableFuture<PyDebugValue> slow2 = client.evaluate(accessor, "slow2");
+        List<CompletableFuture<PyDebugValue>> queued = new ArrayList<>();
+        for (int i = 0; i < 5; i++) {
+            queued.add(client.evaluate(accessor, "q" + i));
+        }
+
+        // Zwei Anfragen gleichzeitig unterwegs, der Rest wartet in der Warteschlange
+        assertTrue(twoRunning.await(2, TimeUnit.SECONDS));
+        assertEquals(2, started.size());
+        assertTrue(queued.get(1).cancel(false));
+        assertTrue(queued.get(3).cancel(false));
+
+        // slow1 hält seinen Slot, die Warteschlange läuft nacheinander durch den anderen
+        releaseSecond.countDown();
+        assertEquals("v-slow2", slow2.get(2, TimeUnit.SECONDS).getValue());
+        for (int i : List.of(0, 2, 4)) {
+            // Jedes Ergebnis gehört zu seiner eigenen Anfrage
+            assertEquals("v-q" + i, queued.get(i).get(2, TimeUnit.SECONDS).getValue());
+        }
+        assertFalse(slow1.isDone());
+        releaseFirst.countDown();
+        assertEquals("v-slow1", slow1.get(2, TimeUnit.SECONDS).getValue());
+
+        // Abgebrochene Anfragen erreichen den Debugger nicht; die übrigen starten in Einreihungsreihenfolge
+        assertEquals(List.of("q0", "q2", "q4"), new ArrayList<>(started.subList(2, started.size())));
+        verify(accessor, never()).evaluate(eq("q1"), anyBoolean(), anyBoolean());
+        verify(accessor, never()).evaluate(eq("q3"), anyBoolean(), anyBoolean());
+
+        // Die Slots der abgebrochenen Anfragen wurden freigegeben
+        assertEquals("v-next", client.evaluate(accessor, "next").get(2, TimeUnit.SECONDS).getValue());
+    }
+
+    @Test
+    public void testCreateUsesInjectedExecutor() throws Exception {
+        when(accessor.evaluate(eq("x"), anyBoolean(), anyBoolean())).thenReturn(value("x", "3"));
+        AsyncEvaluationClient.setDefaultExecutor(Runnable::run);
+
+        AsyncEvaluationClient client = AsyncEvaluationClient.create(new EvaluationGateway());
+        CompletableFuture<PyDebugValue> f = client.evaluate(accessor, "x");
+
+        assertTrue(f.isDone());
+        assertEquals("3", f.get().getValue());
+        assertEquals(AsyncEvaluationClient.DEFAULT_MAX_IN_FLIGHT, client.getMaxInFlight());
+    }
+
+    @Test
+    public void testWatchdogAbandonsHungRequestAndFreesSlot() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(accessor.evaluate(eq("slow.prop"), anyBoolean(), anyBoolean())).thenAnswer(inv -> {
+            // Simuliert ein __repr__/Property, das im Debuggee nicht zurückkehrt
+            release.await(5, TimeUnit.SECONDS);
+            return value("slow.prop", "1");
+        });
+        when(accessor.evaluate(eq("ok"), anyBoolean(), anyBoolean())).thenReturn(value("ok", "2"));
+
+        System.setProperty(AsyncEvaluationClient.HARD_LIMIT_PROPERTY, "100");
+        try {
+            EvaluationGateway gateway = new EvaluationGateway();
+            AsyncEvaluationClient client = new AsyncEvaluationClient(gateway, pool, 1);
+            CompletableFuture<PyDebugValue> hung = client.evaluate(accessor, "slow.prop");
+            CompletableFuture<PyDebugValue> next = client.evaluate(accessor, "ok");
+
+            try {
+                hung.get(2, TimeUnit.SECONDS);
+                fail("expected the watchdog to abandon the request");
+            } catch (ExecutionException e) {
+                Throwable cause = AsyncEvaluationClient.unwrap(e.getCause());
+                assertTrue(cause instanceof PyDebuggerException);
+                assertTrue(EvaluationGateway.isBenign((PyDebuggerException) cause));
+            }
+            // Der Slot wurde freigegeben, obwohl der erste Aufruf noch blockiert
+            assertEquals("2", next.get(2, TimeUnit.SECONDS).getValue());
+            assertEquals(1, client.getAbandonedCount());
+
+            // Bis zum nächsten Halt wird der Platzhalter geliefert statt erneut zu fragen
+            PyDebugValue placeholder = gateway.evaluate(accessor, "slow.prop");
+            assertEquals(ProbeModule.TIMED_OUT, placeholder.getValue());
+            verify(accessor, times(1)).evaluate(eq("slow.prop"), anyBoolean(), anyBoolean());
+        } finally {
+            System.clearProperty(AsyncEvaluationClient.HARD_LIMIT_PROPERTY);
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void testStageTimeoutFallsBackToPartialResult() throws Exception {
+        System.setProperty(AsyncEvaluationClient.STAGE_TIMEOUT_PROPERTY, "50");
+        try {
+            // Der Debugger antwortet nie; die Stufe liefert nach Ablauf den Ersatzwert
+            CompletableFuture<String> never = new CompletableFuture<>();
+            CompletableFuture<String> f = AsyncEvaluationClient.withTimeout(never, "test", () -> "partial");
+
+            assertEquals("partial", f.get(2, TimeUnit.SECONDS));
+            assertFalse(never.isDone());
+        } finally {
+            System.clearProperty(AsyncEvaluationClient.STAGE_TIMEOUT_PROPERTY);
+        }
+    }
+
+    @Test
+    public void testAllSettledCompletesDespiteFailures() {
+        CompletableFuture<String> ok = CompletableFuture.completedFuture("a");
+        CompletableFuture<String> failed = CompletableFuture.failedFuture(new PyDebuggerException("boom"));
+
+        CompletableFuture<Void> all = AsyncEvaluationClient.allSettled(List.of(ok, failed));
+
+        assertTrue(all.isDone());
+        assertFalse(all.isCompletedExceptionally());
+    }
+}
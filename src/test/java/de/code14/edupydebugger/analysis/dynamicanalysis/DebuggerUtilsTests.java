@@ -1,12 +1,15 @@
 package de.code14.edupydebugger.analysis.dynamicanalysis;
 
 import com.intellij.xdebugger.XDebugSession;
+import com.intellij.xdebugger.frame.XCompositeNode;
 import com.intellij.xdebugger.frame.XExecutionStack;
+import com.intellij.xdebugger.frame.XValueChildrenList;
 import com.jetbrains.python.debugger.*;
 import org.junit.*;
 import org.mockito.MockedConstruction;
 
 import java.util.*;
+import java.util.concurrent.Callable;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -68,4 +71,32 @@ public class DebuggerUtilsTests {
             assertFalse(frames.get(suspendedThread).isEmpty());   // ≥ 1 Frame reicht
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testCallstackEntriesAreFormattedInTheLaneOfTheClient() throws PyDebuggerException {
+        PyFrameAccessor accessor = mock(PyFrameAccessor.class);
+        when(accessor.evaluate(eq(ProbeModule.installExpression()), anyBoolean(), anyBoolean()))
+                .thenReturn(new PyDebugValue("install", "int", null, String.valueOf(ProbeModule.VERSION),
+                        false, null, false, false, false, null, accessor));
+        String call = "__edupy_probe.frame('fact', '', 0)";
+        when(accessor.evaluate(eq(call), anyBoolean(), eq(false)))
+                .thenReturn(new PyDebugValue(call, "str", null, "[[\"n\", \"3\"]]",
+                        false, null, false, false, false, null, accessor));
+
+        XValueChildrenList children = new XValueChildrenList();
+        children.add(new PyDebugValue("n", "int", null, "3", false, null, false, false, false, null, accessor));
+        PyStackFrame frame = mock(PyStackFrame.class);
+        when(frame.getName()).thenReturn("fact");
+        doAnswer(inv -> {
+            XCompositeNode node = inv.getArgument(0);
+            node.addChildren(children, true);
+            return null;
+        }).when(frame).computeChildren(any());
+
+        AsyncEvaluationClient client = spy(new AsyncEvaluationClient(new EvaluationGateway(), Runnable::run, 1));
+
+        assertEquals(List.of("fact(n=3)"), DebuggerUtils.formatCallstackFrames(List.of(frame), client));
+        // Probe-Aufruf läuft über die Warteschlange des Clients (Limit + Watchdog)
+        verify(client).submit(eq(accessor), any(Callable.class));
+    }
+}
@@ -0,0 +1,295 @@
+package de.code14.edupydebugger.analysis.dynamicanalysis;
+
+import com.intellij.xdebugger.frame.XCompositeNode;
+import com.intellij.xdebugger.frame.XValueChildrenList;
+import com.jetbrains.python.debugger.PyDebugValue;
+import com.jetbrains.python.debugger.PyDebuggerException;
+import com.jetbrains.python.debugger.PyFrameAccessor;
+import com.jetbrains.python.debugger.PyStackFrame;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class EvaluationGatewayTests {
+
+    private PyFrameAccessor accessor;
+
+    @Before
+    public void setUp() {
+        accessor = mock(PyFrameAccessor.class);
+    }
+
+    private PyDebugValue value(String name, String type, String value, boolean error) {
+        return new PyDebugValue(name, type, null, value, false, null, false, false, error, null, accessor);
+    }
+
+    @Test
+    public void testIdenticalExpressionsAreEvaluatedOnce() throws PyDebuggerException {
+        PyDebugValue dir = value("dir(x)", "list", "['a', 'b']", false);
+        when(accessor.evaluate(eq("dir(x)"), anyBoolean(), anyBoolean())).thenReturn(dir);
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        assertSame(dir, gateway.evaluate(accessor, "dir(x)"));
+        assertSame(dir, gateway.evaluate(accessor, "dir(x)"));
+
+        verify(accessor, times(1)).evaluate(eq("dir(x)"), anyBoolean(), anyBoolean());
+        EvaluationGateway.KindStats stats = gateway.getStats().get("dir");
+        assertEquals(2, stats.requests());
+        assertEquals(1, stats.roundTrips());
+        assertEquals(1, stats.saved());
+    }
+
+    @Test
+    public void testIdIsSharedBetweenBuiltinsAndPlainCall() throws PyDebuggerException {
+        when(accessor.evaluate(eq("__builtins__.id(x)"), anyBoolean(), anyBoolean()))
+                .thenReturn(value("__builtins__.id(x)", "int", "140001", false));
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        gateway.evaluate(accessor, "__builtins__.id(x)");
+        assertEquals("140001", gateway.evaluate(accessor, "id(x)").getValue());
+
+        verify(accessor, never()).evaluate(eq("id(x)"), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testFailedIdIsNotShared() throws PyDebuggerException {
+        when(accessor.evaluate(eq("__builtins__.id(x)"), anyBoolean(), anyBoolean()))
+                .thenReturn(value("__builtins__.id(x)", "AttributeError", "'dict' object has no attribute 'id'", true));
+        when(accessor.evaluate(eq("id(x)"), anyBoolean(), anyBoolean()))
+                .thenReturn(value("id(x)", "int", "7", false));
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        gateway.evaluate(accessor, "__builtins__.id(x)");
+        assertEquals("7", gateway.evaluate(accessor, "id(x)").getValue());
+    }
+
+    @Test
+    public void testExceptionsAreNotMemoized() throws PyDebuggerException {
+        when(accessor.evaluate(eq("x.a"), anyBoolean(), anyBoolean()))
+                .thenThrow(new PyDebuggerException("Process is running"))
+                .thenReturn(value("x.a", "int", "1", false));
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        try {
+            gateway.evaluate(accessor, "x.a");
+            fail("expected PyDebuggerException");
+        } catch (PyDebuggerException e) {
+            assertTrue(EvaluationGateway.isBenign(e));
+        }
+        assertEquals("1", gateway.evaluate(accessor, "x.a").getValue());
+    }
+
+    @Test
+    public void testInvalidateStartsNewGeneration() throws PyDebuggerException {
+        when(accessor.evaluate(eq("repr(xs)"), anyBoolean(), anyBoolean()))
+                .thenReturn(value("repr(xs)", "str", "[1]", false))
+                .thenReturn(value("repr(xs)", "str", "[1, 2]", false));
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        assertEquals("[1]", gateway.evaluate(accessor, "repr(xs)").getValue());
+        gateway.invalidate();
+
+        assertEquals(1, gateway.getGeneration());
+        assertEquals("[1, 2]", gateway.evaluate(accessor, "repr(xs)").getValue());
+    }
+
+    @Test
+    public void testBudgetLimitsRoundTripsPerGeneration() throws PyDebuggerException {
+        when(accessor.evaluate(anyString(), anyBoolean(), anyBoolean()))
+                .thenAnswer(inv -> value(inv.getArgument(0), "int", "1", false));
+
+        EvaluationGateway gateway = new EvaluationGateway(2);
+        gateway.evaluate(accessor, "a.x");
+        gateway.evaluate(accessor, "a.y");
+        // Memoisierte Ergebnisse zählen nicht gegen das Budget
+        gateway.evaluate(accessor, "a.x");
+        try {
+            gateway.evaluate(accessor, "a.z");
+            fail("expected budget to be exhausted");
+        } catch (PyDebuggerException e) {
+            assertTrue(e.getMessage().startsWith(EvaluationGateway.BUDGET_EXHAUSTED_MESSAGE));
+            assertTrue(EvaluationGateway.isBenign(e));
+        }
+        assertEquals(2, gateway.getGenerationRoundTrips());
+
+        gateway.invalidate();
+        assertEquals("1", gateway.evaluate(accessor, "a.z").getValue());
+    }
+
+    @Test
+    public void testComputeChildrenIsReplayedWithinGeneration() {
+        XValueChildrenList children = new XValueChildrenList();
+        children.add(value("n", "int", "3", false));
+        PyStackFrame frame = mock(PyStackFrame.class);
+        doAnswer(inv -> {
+            XCompositeNode node = inv.getArgument(0);
+            node.addChildren(children, true);
+            return null;
+        }).when(frame).computeChildren(any());
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        XCompositeNode first = mock(XCompositeNode.class);
+        XCompositeNode second = mock(XCompositeNode.class);
+        gateway.computeChildren(frame, first);
+        gateway.computeChildren(frame, second);
+
+        verify(frame, times(1)).computeChildren(any());
+        verify(first).addChildren(children, true);
+        verify(second).addChildren(children, true);
+
+        gateway.invalidate();
+        gateway.computeChildren(frame, mock(XCompositeNode.class));
+        verify(frame, times(2)).computeChildren(any());
+    }
+
+    @Test
+    public void testKindOfClassifiesAnalyzerExpressions() {
+        assertEquals("id", EvaluationGateway.kindOf("__builtins__.id(x)"));
+        assertEquals("id", EvaluationGateway.kindOf("id(x.next)"));
+        assertEquals("dir", EvaluationGateway.kindOf("dir(x)"));
+        assertEquals("len", EvaluationGateway.kindOf("len(xs)"));
+        assertEquals("page", EvaluationGateway.kindOf(VariableAnalyzer.pageExpression("globals()['xs']", 0, 20)));
+        assertEquals("scope", EvaluationGateway.kindOf("locals().get('x', None) is not None"));
+        assertEquals("globals", EvaluationGateway.kindOf("globals().get('x', None)"));
+        assertEquals("static", EvaluationGateway.kindOf("x.__class__.__dict__.get('a', None) is not None"));
+        assertEquals("attribute", EvaluationGateway.kindOf("x.a"));
+    }
+
+    @Test
+    public void testFormatStatsListsRequestsAndRoundTripsPerKind() throws PyDebuggerException {
+        when(accessor.evaluate(anyString(), anyBoolean(), anyBoolean()))
+                .thenAnswer(inv -> value(inv.getArgument(0), "int", "5", false));
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        gateway.evaluate(accessor, "__builtins__.id(x)");
+        gateway.evaluate(accessor, "id(x)");
+        gateway.evaluate(accessor, "x.a");
+
+        Map<String, EvaluationGateway.KindStats> stats = gateway.getStats();
+        assertEquals(new EvaluationGateway.KindStats(2, 1), stats.get("id"));
+        assertEquals("attribute=1/1 id=2/1", gateway.formatStats());
+    }
+
+    @Test
+    public void testComputeChildrenAsyncCompletesOnLastChunk() throws Exception {
+        XValueChildrenList first = new XValueChildrenList();
+        first.add(value("a", "int", "1", false));
+        XValueChildrenList second = new XValueChildrenList();
+        second.add(value("b", "int", "2", false));
+        PyStackFrame frame = mock(PyStackFrame.class);
+        doAnswer(inv -> {
+            XCompositeNode node = inv.getArgument(0);
+            node.addChildren(first, false);
+            node.addChildren(second, true);
+            return null;
+        }).when(frame).computeChildren(any());
+
+        List<XValueChildrenList> chunks = new EvaluationGateway().computeChildrenAsync(frame).get();
+
+        assertEquals(List.of(first, second), chunks);
+    }
+
+    @Test
+    public void testComputeChildrenAsyncFailsOnErrorMessage() {
+        PyStackFrame frame = mock(PyStackFrame.class);
+        doAnswer(inv -> {
+            XCompositeNode node = inv.getArgument(0);
+            node.setErrorMessage("Frame is gone");
+            return null;
+        }).when(frame).computeChildren(any());
+
+        CompletableFuture<List<XValueChildrenList>> f = new EvaluationGateway().computeChildrenAsync(frame);
+
+        assertTrue(f.isCompletedExceptionally());
+    }
+
+    @Test
+    public void testSameNameInTwoFramesIsMemoizedPerFrame() throws PyDebuggerException {
+        String caller = EvaluationGateway.frameExpression("2002", "id(node)");
+        when(accessor.evaluate(eq("id(node)"), anyBoolean(), anyBoolean()))
+                .thenReturn(value("id(node)", "int", "100", false));
+        when(accessor.evaluate(eq(caller), anyBoolean(), anyBoolean()))
+                .thenReturn(value("id(node)", "int", "200", false));
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        gateway.setCurrentFrameId("1001");
+        assertEquals("100", gateway.evaluate(accessor, "1001", "id(node)", true).getValue());
+        assertEquals("200", gateway.evaluate(accessor, "2002", "id(node)", true).getValue());
+        // Ohne Frame gilt der aktuelle; die geteilte Id bleibt auf den Frame beschränkt
+        assertEquals("100", gateway.evaluate(accessor, "id(node)").getValue());
+        assertEquals("200", gateway.evaluate(accessor, "2002", "__builtins__.id(node)", true).getValue());
+
+        verify(accessor, times(1)).evaluate(eq("id(node)"), anyBoolean(), anyBoolean());
+        verify(accessor, times(1)).evaluate(eq(caller), anyBoolean(), anyBoolean());
+        verify(accessor, never()).evaluate(contains("__builtins__.id(node)"), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testFramesWithoutPydevdIdAreEvaluatedInTheCurrentFrame() throws PyDebuggerException {
+        when(accessor.evaluate(eq("x"), anyBoolean(), anyBoolean())).thenReturn(value("x", "int", "1", false));
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        assertEquals("1", gateway.evaluate(accessor, "frame-1", "x", true).getValue());
+
+        verify(accessor, times(1)).evaluate(eq("x"), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testResultsOfAnUnknownCurrentFrameAreDroppedOnceItIsKnown() throws PyDebuggerException {
+        when(accessor.evaluate(eq("x"), anyBoolean(), anyBoolean())).thenReturn(value("x", "int", "1", false));
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        gateway.evaluate(accessor, "x");
+        gateway.setCurrentFrameId("1001");
+        gateway.evaluate(accessor, "x");
+        gateway.evaluate(accessor, "1001", "x", true);
+        // Ein anderer aktueller Frame macht die Ergebnisse des bisherigen nicht ungültig
+        gateway.setCurrentFrameId("2002");
+        gateway.evaluate(accessor, "1001", "x", true);
+
+        verify(accessor, times(2)).evaluate(eq("x"), anyBoolean(), anyBoolean());
+        verify(accessor, never()).evaluate(contains("__f"), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testFrameExpressionEvaluatesInTheTargetFrame() throws Exception {
+        // Derselbe Name ist im Aufrufer, im aktuellen Frame und in einem anderen Thread an je ein Objekt gebunden
+        String template = EvaluationGateway.frameExpression("4242", "node.label");
+        List<String> lines = ProbeModuleTests.runPython("import sys, threading\n"
+                + "TEMPLATE = " + ProbeModule.pyString(template) + "\n"
+                + "def at(frame):\n"
+                + "    return eval(TEMPLATE.replace('4242', str(id(frame))))\n"
+                + "class Node:\n"
+                + "    def __init__(self, label):\n"
+                + "        self.label = label\n"
+                + "def worker(ready, done):\n"
+                + "    node = Node('thread')\n"
+                + "    frames['worker'] = sys._getframe()\n"
+                + "    ready.set()\n"
+                + "    done.wait()\n"
+                + "def inner(node):\n"
+                + "    print(at(sys._getframe(1)))\n"
+                + "    print(at(sys._getframe()))\n"
+                + "    print(at(frames['worker']))\n"
+                + "def outer():\n"
+                + "    node = Node('outer')\n"
+                + "    inner(Node('inner'))\n"
+                + "frames = {}\n"
+                + "ready, done = threading.Event(), threading.Event()\n"
+                + "thread = threading.Thread(target=worker, args=(ready, done))\n"
+                + "thread.start()\n"
+                + "ready.wait()\n"
+                + "outer()\n"
+                + "done.set()\n"
+                + "thread.join()\n");
+
+        assertEquals(List.of("outer", "inner", "thread"), lines);
+    }
+}
@@ -4,6 +4,7 @@ import com.intellij.xdebugger.frame.*;
 import com.jetbrains.python.debugger.*;
 import org.junit.*;
 
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 
@@ -70,4 +71,88 @@ public class ObjectAnalyzerTests {
         assertEquals("int", attr.type());
         assertEquals("7",   attr.value());
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testOnlyTopAndModuleFramesAreAnalyzedEagerly() {
+        List<PyStackFrame> frames = List.of(mock(PyStackFrame.class), mock(PyStackFrame.class),
+                mock(PyStackFrame.class), mock(PyStackFrame.class));
+        ObjectAnalyzer analyzer = new ObjectAnalyzer(frames);
+
+        assertEquals(List.of(0, 3), analyzer.getEagerFrameIndices());
+        assertEquals(List.of(1, 2), analyzer.getDeferredFrameIndices());
+    }
+
+    @Test
+    public void testAnalyzeObjectsVisitsOnlyRequestedFrames() {
+        PyStackFrame top = mock(PyStackFrame.class);
+        PyStackFrame caller = mock(PyStackFrame.class);
+        PyStackFrame module = mock(PyStackFrame.class);
+        // Leere Kinderliste, damit die Analyse sofort abgeschlossen ist
+        doAnswer(inv -> {
+            XCompositeNode node = inv.getArgument(0);
+            node.addChildren(new XValueChildrenList(), true);
+            return null;
+        }).when(caller).computeChildren(any());
+
+        new ObjectAnalyzer(List.of(top, caller, module)).analyzeObjects(List.of(1, 7));
+
+        verify(caller).computeChildren(any());
+        verify(top, never()).computeChildren(any());
+        verify(module, never()).computeChildren(any());
+    }
+
+    @Test
+    public void testSameNameInTwoFramesYieldsTheObjectsOfEachFrame() throws PyDebuggerException {
+        // "node" ist im aktuellen Frame (1001) und im Aufrufer (2002) an verschiedene Objekte gebunden
+        PyFrameAccessor accessor = mock(PyFrameAccessor.class);
+        Map<String, PyDebugValue> answers = new HashMap<>();
+        for (String frameId : List.of("1001", "2002")) {
+            boolean current = frameId.equals("1001");
+            answer(answers, accessor, frameId, current, "id(node)", "int", current ? "100" : "200");
+            answer(answers, accessor, frameId, current, ObjectAnalyzer.userInstanceExpression("node"), "bool", "True");
+            answer(answers, accessor, frameId, current, "dir(node)", "list", "['label']");
+            answer(answers, accessor, frameId, current, "node.label", "str", current ? "'inner'" : "'outer'");
+            answer(answers, accessor, frameId, current, ObjectAnalyzer.staticAttributeExpression("node", "label"),
+                    "bool", "False");
+        }
+        when(accessor.evaluate(anyString(), anyBoolean(), anyBoolean()))
+                .thenAnswer(inv -> answers.get(inv.<String>getArgument(0)));
+
+        PyStackFrame top = frame("1001", new PyDebugValue("node", "Node", null, "<Node object>", false, null,
+                false, false, false, null, accessor));
+        PyStackFrame caller = frame("2002", new PyDebugValue("node", "Node", null, "<Node object>", false, null,
+                false, false, false, null, accessor));
+
+        EvaluationGateway gateway = new EvaluationGateway();
+        gateway.setCurrentFrameId("1001");
+        ObjectAnalyzer analyzer = new ObjectAnalyzer(List.of(top, caller), gateway);
+        analyzer.analyzeObjects(List.of(0, 1));
+
+        Map<String, ObjectInfo> objs = analyzer.getObjects();
+        assertEquals(2, objs.size());
+        assertEquals("'inner'", objs.get("100").attributes().get(0).value());
+        assertEquals("'outer'", objs.get("200").attributes().get(0).value());
+    }
+
+    /** Registers the answer to an expression evaluated in the given frame, wrapped unless it is the current one. */
+    private static void answer(Map<String, PyDebugValue> answers, PyFrameAccessor accessor, String frameId,
+                               boolean current, String expression, String type, String value) {
+        answers.put(current ? expression : EvaluationGateway.frameExpression(frameId, expression),
+                new PyDebugValue(expression, type, null, value, false, null, false, false, false, null, accessor));
+    }
+
+    private static PyStackFrame frame(String frameId, PyDebugValue... values) {
+        PyStackFrame frame = mock(PyStackFrame.class);
+        when(frame.getFrameId()).thenReturn(frameId);
+        XValueChildrenList children = new XValueChildrenList();
+        for (PyDebugValue value : values) {
+            children.add(value);
+        }
+        doAnswer(inv -> {
+            XCompositeNode node = inv.getArgument(0);
+            node.addChildren(children, true);
+            return null;
+        }).when(frame).computeChildren(any());
+        return frame;
+    }
+}
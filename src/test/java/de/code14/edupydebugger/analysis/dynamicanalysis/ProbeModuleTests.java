@@ -0,0 +1,226 @@
+package de.code14.edupydebugger.analysis.dynamicanalysis;
+
+import com.jetbrains.python.debugger.PyDebugValue;
+import com.jetbrains.python.debugger.PyDebuggerException;
+import com.jetbrains.python.debugger.PyFrameAccessor;
+import org.junit.Assume;
+import org.junit.Before;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+public class ProbeModuleTests {
+
+    private PyFrameAccessor accessor;
+    private EvaluationGateway gateway;
+
+    @Before
+    public void setUp() throws PyDebuggerException {
+        accessor = mock(PyFrameAccessor.class);
+        gateway = new EvaluationGateway();
+        when(accessor.evaluate(eq(ProbeModule.installExpression()), anyBoolean(), anyBoolean()))
+                .thenReturn(value("install", "int", String.valueOf(ProbeModule.VERSION), false));
+    }
+
+    private PyDebugValue value(String name, String type, String value, boolean error) {
+        return new PyDebugValue(name, type, null, value, false, null, false, false, error, null, accessor);
+    }
+
+    @Test
+    public void testInstallExpressionShipsModuleSource() {
+        String expression = ProbeModule.installExpression();
+        assertNotNull(expression);
+        assertTrue(expression.contains("b64decode('"));
+        assertTrue(expression.contains("'" + ProbeModule.MODULE_NAME + "'"));
+        // Zeitbudgets werden bei der Installation gesetzt
+        assertTrue(expression.contains("__m.configure(" + ProbeModule.DEFAULT_ITEM_BUDGET_MS + ", "
+                + ProbeModule.DEFAULT_CALL_BUDGET_MS + ")"));
+        assertEquals("probe", EvaluationGateway.kindOf(expression));
+    }
+
+    @Test
+    public void testModuleIsInstalledOncePerProcess() throws PyDebuggerException {
+        ProbeModule module = new ProbeModule(gateway, true);
+        assertTrue(module.ensureInstalled(accessor));
+        gateway.invalidate();
+        // Auch nach dem nächsten Halt wird nicht erneut installiert
+        assertTrue(module.ensureInstalled(accessor));
+
+        verify(accessor, times(1)).evaluate(eq(ProbeModule.installExpression()), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testFailedInstallationFallsBackWithoutRetry() throws PyDebuggerException {
+        when(accessor.evaluate(eq(ProbeModule.installExpression()), anyBoolean(), anyBoolean()))
+                .thenReturn(value("install", "NameError", "name 'exec' is not defined", true));
+
+        ProbeModule module = new ProbeModule(gateway, true);
+        assertFalse(module.ensureInstalled(accessor));
+        assertFalse(module.prefetchVariables(accessor));
+        gateway.invalidate();
+        assertFalse(module.ensureInstalled(accessor));
+
+        verify(accessor, times(1)).evaluate(eq(ProbeModule.installExpression()), anyBoolean(), anyBoolean());
+        verify(accessor, never()).evaluate(startsWith(ProbeModule.MODULE_NAME + "."), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testDisabledModuleIsNeverInstalled() throws PyDebuggerException {
+        ProbeModule module = new ProbeModule(gateway, false);
+        assertFalse(module.ensureInstalled(accessor));
+        verify(accessor, never()).evaluate(anyString(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testFrameArgumentsAreParsedFromOneCall() throws PyDebuggerException {
+        String call = "__edupy_probe.frame('fact', 'main.py', 2)";
+        when(accessor.evaluate(eq(call), anyBoolean(), eq(false)))
+                .thenReturn(value(call, "str", "[[\"n\", \"3\"], [\"node\", \"refid:140001\"]]", false));
+
+        List<String[]> args = new ProbeModule(gateway, true).frameArguments(accessor, "fact", "main.py", 2);
+
+        assertNotNull(args);
+        assertEquals(2, args.size());
+        assertArrayEquals(new String[]{"n", "3"}, args.get(0));
+        assertArrayEquals(new String[]{"node", "refid:140001"}, args.get(1));
+    }
+
+    @Test
+    public void testMissingFrameYieldsNull() throws PyDebuggerException {
+        String call = "__edupy_probe.frame('gone', '', 0)";
+        when(accessor.evaluate(eq(call), anyBoolean(), eq(false))).thenReturn(value(call, "str", "null", false));
+
+        assertNull(new ProbeModule(gateway, true).frameArguments(accessor, "gone", "", 0));
+    }
+
+    @Test
+    public void testPrefetchedVariablesAreServedFromGateway() throws PyDebuggerException {
+        String call = "__edupy_probe.variables(locals(), globals(), " + VariableAnalyzer.PREVIEW_ITEMS + ")";
+        when(accessor.evaluate(eq(call), anyBoolean(), eq(false))).thenReturn(value(call, "str",
+                "{\"v\": " + ProbeModule.VERSION + ", \"locals\": {\"xs\": {\"id\": \"7\", \"local\": true, \"global\": false, \"user\": false,"
+                        + " \"len\": 2, \"page\": [\"1\", \"2\"]}},"
+                        + " \"globals\": [\"__name__\", \"count\"],"
+                        + " \"globalValues\": {\"count\": {\"type\": \"int\", \"value\": \"3\", \"id\": \"9\"}}}", false));
+
+        ProbeModule module = new ProbeModule(gateway, true);
+        assertTrue(module.prefetchVariables(accessor));
+
+        assertEquals("7", gateway.evaluate(accessor, "__builtins__.id(xs)").getValue());
+        assertEquals("7", gateway.evaluate(accessor, "id(xs)").getValue());
+        assertEquals("True", gateway.evaluate(accessor, "locals().get('xs', None) is not None").getValue());
+        assertEquals("False", gateway.evaluate(accessor, "isinstance(xs, object) and not isinstance(xs, (int, float, str, bool, list, dict, tuple, set))").getValue());
+        assertEquals("2", gateway.evaluate(accessor, "len(xs)").getValue());
+        assertEquals("[\"1\",\"2\"]", gateway.evaluate(accessor,
+                VariableAnalyzer.pageExpression("xs", 0, VariableAnalyzer.PREVIEW_ITEMS), false).getValue());
+        assertEquals("__name__,count", gateway.evaluate(accessor, "','.join([k for k in globals().keys()])").getValue());
+        assertEquals("int", gateway.evaluate(accessor, "globals().get('count', None)").getType());
+        assertEquals("9", gateway.evaluate(accessor, "__builtins__.id(globals()['count'])").getValue());
+
+        // Nur Installation und ein einziger Helferaufruf gingen an den Debugger
+        verify(accessor, times(2)).evaluate(anyString(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testPrefetchedObjectIsServedFromGateway() throws PyDebuggerException {
+        String call = "__edupy_probe.obj(node)";
+        when(accessor.evaluate(eq(call), anyBoolean(), eq(false))).thenReturn(value(call, "str",
+                "{\"v\": " + ProbeModule.VERSION + ", \"dir\": [\"__class__\", \"kind\", \"next\", \"show\"], \"attrs\": {"
+                        + "\"kind\": {\"type\": \"str\", \"value\": \"n\", \"static\": true},"
+                        + "\"next\": {\"type\": \"Node\", \"value\": \"<__main__.Node object at 0x10>\", \"static\": false, \"id\": \"16\"},"
+                        + "\"show\": {\"type\": \"method\"}}}", false));
+
+        assertTrue(new ProbeModule(gateway, true).prefetchObject(accessor, "node"));
+
+        assertEquals("['__class__', 'kind', 'next', 'show']", gateway.evaluate(accessor, "dir(node)").getValue());
+        assertEquals("True", gateway.evaluate(accessor, "node.__class__.__dict__.get('kind', None) is not None").getValue());
+        PyDebugValue next = gateway.evaluate(accessor, "node.next");
+        assertEquals("node.next", next.getName());
+        assertEquals("Node", next.getType());
+        assertEquals("16", gateway.evaluate(accessor, "id(node.next)").getValue());
+        assertEquals("method", gateway.evaluate(accessor, "node.show").getType());
+
+        verify(accessor, times(2)).evaluate(anyString(), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testPrefetchOfACallerFrameIsServedForThatFrameOnly() throws PyDebuggerException {
+        String call = EvaluationGateway.frameExpression("2002", "__edupy_probe.obj(node)");
+        when(accessor.evaluate(eq(call), anyBoolean(), eq(false))).thenReturn(value(call, "str",
+                "{\"v\": " + ProbeModule.VERSION + ", \"dir\": [\"label\"],"
+                        + " \"attrs\": {\"label\": {\"type\": \"str\", \"value\": \"'outer'\", \"static\": false}}}", false));
+        when(accessor.evaluate(eq("node.label"), anyBoolean(), anyBoolean())).thenReturn(value("node.label", "str", "'inner'", false));
+        gateway.setCurrentFrameId("1001");
+
+        assertTrue(new ProbeModule(gateway, true).prefetchObject(accessor, "2002", "node"));
+
+        assertEquals("'outer'", gateway.evaluate(accessor, "2002", "node.label", true).getValue());
+        // Im aktuellen Frame ist "node" ein anderes Objekt
+        assertEquals("'inner'", gateway.evaluate(accessor, "node.label").getValue());
+        verify(accessor, never()).evaluate(eq("__edupy_probe.obj(node)"), anyBoolean(), anyBoolean());
+    }
+
+    @Test
+    public void testVersionMismatchIsIgnored() throws PyDebuggerException {
+        String call = "__edupy_probe.obj(node)";
+        when(accessor.evaluate(eq(call), anyBoolean(), eq(false)))
+                .thenReturn(value(call, "str", "{\"v\": 0, \"dir\": [], \"attrs\": {}}", false));
+
+        assertFalse(new ProbeModule(gateway, true).prefetchObject(accessor, "node"));
+    }
+
+    @Test
+    public void testFrameSkipsTheWrapperOfTheProbeModule() throws Exception {
+        // Läuft gegen das echte Modul; ohne python3 wird der Test übersprungen
+        List<String> lines = runPython(ProbeModule.installExpression() + "\n"
+                + "def run(count, name):\n"
+                + "    print(__edupy_probe.frame('run', 'main.py', 0))\n"
+                // Keine Datei passt: die Suche nach dem Namen allein darf nicht beim Wrapper 'run' landen
+                + "    print(__edupy_probe.frame('run', 'other.py', 0))\n"
+                + "run(2, 'x')\n");
+
+        assertEquals(List.of("[[\"count\", \"2\"], [\"name\", \"'x'\"]]",
+                "[[\"count\", \"2\"], [\"name\", \"'x'\"]]"), lines);
+    }
+
+    /**
+     * Runs a Python program as {@code main.py} in a temporary directory; skips the test if python3 is missing.
+     *
+     * @return the lines printed by the program
+     */
+    static List<String> runPython(String source) throws IOException, InterruptedException {
+        Path directory = Files.createTempDirectory("edupy-probe");
+        try {
+            Path script = directory.resolve("main.py");
+            Files.writeString(script, source, StandardCharsets.UTF_8);
+            Process process;
+            try {
+                process = new ProcessBuilder("python3", script.getFileName().toString())
+                        .directory(directory.toFile())
+                        .redirectErrorStream(true)
+                        .start();
+            } catch (IOException e) {
+                Assume.assumeNoException("python3 not installed", e);
+                throw e;
+            }
+            String output = new String(process.getInputStream().readAllBytes(), StandardCharsets.UTF_8);
+            assertTrue(process.waitFor(30, TimeUnit.SECONDS));
+            assertEquals(output, 0, process.exitValue());
+            return output.lines().toList();
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
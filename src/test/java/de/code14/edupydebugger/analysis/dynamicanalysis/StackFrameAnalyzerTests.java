@@ -3,12 +3,15 @@ package de.code14.edupydebugger.analysis.dynamicanalysis;
 import com.jetbrains.python.debugger.PyStackFrame;
 import org.junit.Before;
 import org.junit.Test;
+import org.mockito.InOrder;
 
 import java.util.Collections;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 
-import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.anyCollection;
 import static org.mockito.Mockito.*;
 
 
@@ -49,12 +52,35 @@ public class StackFrameAnalyzerTests {
 
     @Test
     public void testAnalyzeFrames() {
+        when(mockVariableAnalyzer.analyzeVariablesAsync()).thenReturn(CompletableFuture.completedFuture(Map.of()));
+        when(mockObjectAnalyzer.getEagerFrameIndices()).thenReturn(List.of());
+        when(mockObjectAnalyzer.analyzeObjectsAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+
         // Ausführen der Methode
         stackFrameAnalyzer.analyzeFrames();
 
-        // Überprüfen, ob die Methoden der Abhängigkeiten aufgerufen wurden
-        verify(mockVariableAnalyzer, times(1)).analyzeVariables();
-        verify(mockObjectAnalyzer, times(1)).analyzeObjects();
+        // Überprüfen, ob die Methoden der Abhängigkeiten aufgerufen wurden – Objekte erst nach den Variablen
+        InOrder order = inOrder(mockVariableAnalyzer, mockObjectAnalyzer);
+        order.verify(mockVariableAnalyzer, times(1)).analyzeVariablesAsync();
+        order.verify(mockObjectAnalyzer, times(1)).analyzeObjectsAsync(List.of());
+    }
+
+    @Test
+    public void testAnalyzeFramesAsyncWaitsForVariablesBeforeObjects() {
+        CompletableFuture<Map<String, List<String>>> variables = new CompletableFuture<>();
+        when(mockVariableAnalyzer.analyzeVariablesAsync()).thenReturn(variables);
+        when(mockObjectAnalyzer.getEagerFrameIndices()).thenReturn(List.of(0));
+        when(mockObjectAnalyzer.analyzeObjectsAsync(anyCollection())).thenReturn(CompletableFuture.completedFuture(Map.of()));
+
+        CompletableFuture<Void> done = stackFrameAnalyzer.analyzeFramesAsync();
+
+        // Kein blockierendes Warten: der Aufruf kehrt zurück, solange die Variablen ausstehen
+        assertFalse(done.isDone());
+        verify(mockObjectAnalyzer, never()).analyzeObjectsAsync(anyCollection());
+
+        variables.complete(Map.of());
+        assertTrue(done.isDone());
+        verify(mockObjectAnalyzer, times(1)).analyzeObjectsAsync(List.of(0));
     }
 
     @Test
@@ -287,8 +287,10 @@ public class VariableAnalyzerTests {
         when(acc.evaluate(eq("globals().get('nums', None)"), anyBoolean(), anyBoolean())).thenReturn(gv);
         when(acc.evaluate(eq("__builtins__.id(globals()['nums'])"), anyBoolean(), anyBoolean()))
                 .thenReturn(new PyDebugValue("id", "int", null, "555", false, null, false, false, false, null, acc));
-        when(acc.evaluate(eq("repr(globals()['nums'])"), anyBoolean(), anyBoolean()))
-                .thenReturn(new PyDebugValue("repr", "str", null, "[1, 2, 3]", false, null, false, false, false, null, acc));
+        when(acc.evaluate(eq("len(globals()['nums'])"), anyBoolean(), anyBoolean()))
+                .thenReturn(new PyDebugValue("len", "int", null, "3", false, null, false, false, false, null, acc));
+        when(acc.evaluate(eq(VariableAnalyzer.pageExpression("globals()['nums']", 0, VariableAnalyzer.PREVIEW_ITEMS)), anyBoolean(), eq(false)))
+                .thenReturn(new PyDebugValue("page", "str", null, "[\"1\", \"2\", \"3\"]", false, null, false, false, false, null, acc));
 
         variableAnalyzer.analyzeVariables();
         Map<String, List<String>> vars = variableAnalyzer.getVariables();
@@ -302,6 +304,52 @@ public class VariableAnalyzerTests {
         assertNotNull(idForNums);
         assertEquals("[1, 2, 3]", vars.get(idForNums).get(2).replace("~", ", "));
         assertEquals("global", vars.get(idForNums).get(3));
+        assertEquals("3", vars.get(idForNums).get(4));
+    }
+
+    @Test
+    public void testAnalyzeVariables_containersShipLengthAndArePagedOnDemand() throws PyDebuggerException {
+        doAnswer(invocation -> {
+            XValueChildrenList childrenList = new XValueChildrenList();
+            childrenList.add(mockValue);
+            invocation.getArgument(0, XCompositeNode.class).addChildren(childrenList, true);
+            return null;
+        }).when(mockStackFrame).computeChildren(any(XCompositeNode.class));
+
+        when(mockValue.getName()).thenReturn("big");
+        when(mockValue.getType()).thenReturn("list");
+        when(mockValue.getValue()).thenReturn("[0, 1, 2, 3, ...]");
+
+        PyFrameAccessor acc = mock(PyFrameAccessor.class);
+        when(mockValue.getFrameAccessor()).thenReturn(acc);
+        when(acc.evaluate(eq("__builtins__.id(big)"), anyBoolean(), anyBoolean()))
+                .thenReturn(new PyDebugValue("id", "int", null, "7", false, null, false, false, false, null, acc));
+        when(acc.evaluate(eq("locals().get('big', None) is not None"), anyBoolean(), anyBoolean()))
+                .thenReturn(new PyDebugValue("isLocal", "bool", null, "True", false, null, false, false, false, null, acc));
+        when(acc.evaluate(eq("len(big)"), anyBoolean(), anyBoolean()))
+                .thenReturn(new PyDebugValue("len", "int", null, "1000000", false, null, false, false, false, null, acc));
+        when(acc.evaluate(eq(VariableAnalyzer.pageExpression("big", 40, 2)), anyBoolean(), eq(false)))
+                .thenReturn(new PyDebugValue("page", "str", null, "[\"40\", \"41\"]", false, null, false, false, false, null, acc));
+
+        variableAnalyzer.analyzeVariables();
+
+        List<String> meta = variableAnalyzer.getVariables().get("7");
+        assertNotNull(meta);
+        assertEquals("[0, 1, 2, 3, ...]", meta.get(2).replace("~", ", "));
+        assertEquals("1000000", meta.get(4));
+        // Der Inhalt wird erst auf Anfrage seitenweise geholt, nie als vollständiges repr
+        verify(acc, never()).evaluate(startsWith("repr("), anyBoolean(), anyBoolean());
+        verify(acc, never()).evaluate(contains("islice("), anyBoolean(), anyBoolean());
+
+        assertEquals(List.of("40", "41"), variableAnalyzer.fetchContainerPage("7", 40, 2).join());
+        assertTrue(variableAnalyzer.fetchContainerPage("unknown", 0, 2).join().isEmpty());
+    }
+
+    @Test
+    public void testFormatPreviewMarksMissingItems() {
+        assertEquals("[1, 2, ...]", VariableAnalyzer.formatPreview("list", List.of("1", "2"), "5"));
+        assertEquals("('a', 'b')", VariableAnalyzer.formatPreview("tuple", List.of("'a'", "'b'"), "2"));
+        assertEquals("{'k': 1}", VariableAnalyzer.formatPreview("dict", List.of("'k': 1"), ""));
     }
 
     @Test
@@ -0,0 +1,214 @@
+package de.code14.edupydebugger.analysis.staticanalysis;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.jetbrains.python.psi.*;
+import com.jetbrains.python.psi.types.PyType;
+import com.jetbrains.python.psi.types.TypeEvalContext;
+import de.code14.edupydebugger.Benchmark;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+/**
+ * Compares the one-pass {@link PythonClassExtractor} with the former extraction (attributes inferred a second time
+ * for the references, one class search per attribute for the static modifier, no shared type names) on a generated
+ * project of 1,000 classes with ten attributes and five methods each. The regular test checks the number of type
+ * inferences and type namings; the PSI is mocked, so the numbers of calls are what carries over to the IDE. The wall
+ * time per run is only logged by the {@link Benchmark} test ({@code -Pedupy.benchmark}).
+ */
+public class PythonClassExtractorBenchmarkTests {
+
+    private static final Logger LOGGER = Logger.getInstance(PythonClassExtractorBenchmarkTests.class);
+
+    private static final int CLASSES = 1000;
+    private static final int ATTRIBUTES = 10;
+    private static final int CLASS_ATTRIBUTES = 3;
+    private static final int METHODS = 5;
+    private static final int RUNS = 3;
+
+    private final Map<Object, PyType> typeOf = new HashMap<>();
+    private final int[] inferences = new int[1];
+    private final int[] namings = new int[1];
+
+    private PyType type(String name) {
+        PyType type = mock(PyType.class);
+        when(type.getName()).thenAnswer(invocation -> {
+            namings[0]++;
+            return name;
+        });
+        return type;
+    }
+
+    private TypeEvalContext context() {
+        TypeEvalContext context = mock(TypeEvalContext.class);
+        when(context.getType(any())).thenAnswer(invocation -> {
+            inferences[0]++;
+            return typeOf.get(invocation.getArgument(0));
+        });
+        when(context.getReturnType(any())).thenAnswer(invocation -> {
+            inferences[0]++;
+            return typeOf.get(invocation.getArgument(0));
+        });
+        return context;
+    }
+
+    private List<PyClass> project() {
+        PyType intType = type("int");
+        PyType strType = type("str");
+        List<PyType> classTypes = new ArrayList<>();
+        for (int i = 0; i < CLASSES; i++) {
+            classTypes.add(type("C" + i));
+        }
+
+        List<PyClass> classes = new ArrayList<>();
+        for (int i = 0; i < CLASSES; i++) {
+            List<PyTargetExpression> instanceAttributes = new ArrayList<>();
+            List<PyTargetExpression> classAttributes = new ArrayList<>();
+            for (int j = 0; j < ATTRIBUTES; j++) {
+                PyTargetExpression attribute = mock(PyTargetExpression.class);
+                when(attribute.getName()).thenReturn("a" + j);
+                typeOf.put(attribute, j % 3 == 0 ? classTypes.get((i + j + 1) % CLASSES) : j % 3 == 1 ? intType : strType);
+                (j < ATTRIBUTES - CLASS_ATTRIBUTES ? instanceAttributes : classAttributes).add(attribute);
+            }
+            PyFunction[] methods = new PyFunction[METHODS];
+            for (int m = 0; m < METHODS; m++) {
+                PyNamedParameter self = mock(PyNamedParameter.class);
+                when(self.getName()).thenReturn("self");
+                typeOf.put(self, classTypes.get(i));
+                PyNamedParameter value = mock(PyNamedParameter.class);
+                when(value.getName()).thenReturn("value");
+                typeOf.put(value, intType);
+                PyParameterList parameterList = mock(PyParameterList.class);
+                when(parameterList.getParameters()).thenReturn(new PyParameter[]{self, value});
+                methods[m] = mock(PyFunction.class);
+                when(methods[m].getName()).thenReturn("m" + m);
+                when(methods[m].getParameterList()).thenReturn(parameterList);
+                typeOf.put(methods[m], strType);
+            }
+
+            PyClass pyClass = mock(PyClass.class);
+            when(pyClass.getInstanceAttributes()).thenReturn(instanceAttributes);
+            when(pyClass.getClassAttributes()).thenReturn(classAttributes);
+            when(pyClass.getMethods()).thenReturn(methods);
+            when(pyClass.getSuperClassExpressions()).thenReturn(new PyExpression[0]);
+            when(pyClass.findClassAttribute(anyString(), anyBoolean(), any())).thenAnswer(invocation -> {
+                for (PyTargetExpression attribute : classAttributes) {
+                    if (attribute.getName().equals(invocation.getArgument(0))) {
+                        return attribute;
+                    }
+                }
+                return null;
+            });
+            classes.add(pyClass);
+        }
+        return classes;
+    }
+
+    // Die Extraktion vor dem One-Pass-Extractor
+    private static ClassInfo formerExtraction(PyClass pyClass, TypeEvalContext context) {
+        List<String> methods = new ArrayList<>();
+        for (PyFunction method : pyClass.getMethods()) {
+            methods.add(PythonAnalysisHelper.getMethodSignature(method, context));
+        }
+        Set<String> references = new HashSet<>();
+        for (String attribute : formerAttributes(pyClass, context)) {
+            String type = attribute.split(" : ")[1];
+            if (!PythonAnalysisHelper.defaultTypes.contains(type)) {
+                references.add(type);
+            }
+        }
+        return new ClassInfo(formerAttributes(pyClass, context), methods, new ArrayList<>(references), List.of());
+    }
+
+    private static List<String> formerAttributes(PyClass pyClass, TypeEvalContext context) {
+        List<PyTargetExpression> attributes = new ArrayList<>(pyClass.getInstanceAttributes());
+        attributes.addAll(pyClass.getClassAttributes());
+        List<String> attributesList = new ArrayList<>();
+        for (PyTargetExpression attribute : attributes) {
+            String staticModifier = pyClass.findClassAttribute(Objects.requireNonNull(attribute.getName()), false, null) != null ? "{static} " : "";
+            attributesList.add(staticModifier + PythonAnalysisHelper.determineVisibility(attribute.getName())
+                    + attribute.getName() + " : " + PythonAnalysisHelper.getTypeString(attribute, context));
+        }
+        return attributesList;
+    }
+
+    private static Map<PyClass, ClassInfo> extractFormer(List<PyClass> classes, TypeEvalContext context) {
+        Map<PyClass, ClassInfo> infos = new HashMap<>();
+        for (PyClass pyClass : classes) {
+            infos.put(pyClass, formerExtraction(pyClass, context));
+        }
+        return infos;
+    }
+
+    private static Map<PyClass, ClassInfo> extractOnePass(List<PyClass> classes, TypeEvalContext context) {
+        PythonClassExtractor extractor = new PythonClassExtractor(new TypeStringCache());
+        Map<PyClass, ClassInfo> infos = new HashMap<>();
+        for (PyClass pyClass : classes) {
+            infos.put(pyClass, extractor.extract(pyClass, context));
+        }
+        return infos;
+    }
+
+    @Test
+    public void testOnePassExtractsTheSameWithFewerInferences() {
+        List<PyClass> classes = project();
+        TypeEvalContext context = context();
+
+        inferences[0] = 0;
+        namings[0] = 0;
+        Map<PyClass, ClassInfo> former = extractFormer(classes, context);
+        int formerInferences = inferences[0];
+
+        inferences[0] = 0;
+        namings[0] = 0;
+        Map<PyClass, ClassInfo> onePass = extractOnePass(classes, context);
+
+        for (PyClass pyClass : classes) {
+            assertEquals(former.get(pyClass).attributes(), onePass.get(pyClass).attributes());
+            assertEquals(former.get(pyClass).methods(), onePass.get(pyClass).methods());
+            assertEquals(Set.copyOf(former.get(pyClass).references()), Set.copyOf(onePass.get(pyClass).references()));
+        }
+        // Attribute werden nur noch einmal inferiert, jeder Typ nur einmal benannt
+        int perClass = ATTRIBUTES + METHODS * 3;
+        assertEquals(CLASSES * (perClass + ATTRIBUTES), formerInferences);
+        assertEquals(CLASSES * perClass, inferences[0]);
+        assertEquals(CLASSES + 2, namings[0]);
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void testOnePassAgainstFormerExtraction() {
+        List<PyClass> classes = project();
+        TypeEvalContext context = context();
+        extractFormer(classes, context); // Aufwärmen
+        extractOnePass(classes, context);
+
+        long start = System.nanoTime();
+        for (int run = 0; run < RUNS; run++) {
+            extractFormer(classes, context);
+        }
+        double formerMillis = (System.nanoTime() - start) / (RUNS * 1e6);
+
+        start = System.nanoTime();
+        for (int run = 0; run < RUNS; run++) {
+            extractOnePass(classes, context);
+        }
+        double onePassMillis = (System.nanoTime() - start) / (RUNS * 1e6);
+
+        LOGGER.info(String.format("%,d classes   former: %8.1f ms%n%,d classes  one-pass: %8.1f ms",
+                CLASSES, formerMillis, CLASSES, onePassMillis));
+    }
+}
@@ -0,0 +1,100 @@
+package de.code14.edupydebugger.analysis.staticanalysis;
+
+import com.jetbrains.python.psi.*;
+import com.jetbrains.python.psi.types.PyType;
+import com.jetbrains.python.psi.types.TypeEvalContext;
+import org.junit.Before;
+import org.junit.Test;
+import org.mockito.Mock;
+import org.mockito.MockitoAnnotations;
+
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+
+public class PythonClassExtractorTests {
+
+    @Mock
+    private TypeEvalContext mockContext;
+
+    @Mock
+    private PyType pointType;
+
+    @Mock
+    private PyType intType;
+
+    @Before
+    public void setUp() {
+        MockitoAnnotations.openMocks(this);
+        when(pointType.getName()).thenReturn("Point");
+        when(intType.getName()).thenReturn("int");
+    }
+
+    private PyTargetExpression attribute(String name, PyType type) {
+        PyTargetExpression attribute = mock(PyTargetExpression.class);
+        when(attribute.getName()).thenReturn(name);
+        when(mockContext.getType(attribute)).thenReturn(type);
+        return attribute;
+    }
+
+    private static PyClass pyClass(List<PyTargetExpression> instanceAttributes, List<PyTargetExpression> classAttributes,
+                                   String... superClasses) {
+        PyClass pyClass = mock(PyClass.class);
+        when(pyClass.getInstanceAttributes()).thenReturn(instanceAttributes);
+        when(pyClass.getClassAttributes()).thenReturn(classAttributes);
+        when(pyClass.getMethods()).thenReturn(new PyFunction[0]);
+        PyExpression[] expressions = new PyExpression[superClasses.length];
+        for (int i = 0; i < superClasses.length; i++) {
+            expressions[i] = mock(PyExpression.class);
+            when(expressions[i].getText()).thenReturn(superClasses[i]);
+        }
+        when(pyClass.getSuperClassExpressions()).thenReturn(expressions);
+        return pyClass;
+    }
+
+    @Test
+    public void testEveryAttributeIsInferredOnce() {
+        PyTargetExpression center = attribute("center", pointType);
+        PyTargetExpression origin = attribute("_origin", pointType);
+        PyTargetExpression count = attribute("count", intType);
+        PyClass circle = pyClass(List.of(center, origin), List.of(count), "Shape");
+
+        ClassInfo info = new PythonClassExtractor(new TypeStringCache()).extract(circle, mockContext);
+
+        assertEquals(List.of("+center : Point", "#_origin : Point", "{static} +count : int"), info.attributes());
+        // Referenzen stammen aus demselben Durchlauf, ohne Duplikate
+        assertEquals(List.of("Point"), info.references());
+        assertEquals(List.of("Shape"), info.superClasses());
+        verify(mockContext, times(1)).getType(center);
+        verify(mockContext, times(1)).getType(count);
+        verify(circle, never()).findClassAttribute(anyString(), anyBoolean(), any());
+    }
+
+    @Test
+    public void testTypeNamesAreSharedAcrossClasses() {
+        TypeStringCache types = new TypeStringCache();
+        PythonClassExtractor extractor = new PythonClassExtractor(types);
+
+        extractor.extract(pyClass(List.of(attribute("a", pointType), attribute("n", intType)), List.of()), mockContext);
+        extractor.extract(pyClass(List.of(attribute("b", pointType)), List.of()), mockContext);
+
+        verify(pointType, times(1)).getName();
+        verify(intType, times(1)).getName();
+        assertEquals(2, types.size());
+    }
+
+    @Test
+    public void testUnknownTypesAreNotNamed() {
+        PyTargetExpression unknown = attribute("data", null);
+
+        List<PythonClassExtractor.Attribute> attributes = new PythonClassExtractor(new TypeStringCache())
+                .extractAttributes(pyClass(List.of(unknown), List.of()), mockContext);
+
+        assertEquals(List.of(new PythonClassExtractor.Attribute("data", "?", false)), attributes);
+    }
+}
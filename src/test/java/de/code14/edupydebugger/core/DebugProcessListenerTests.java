@@ -6,12 +6,14 @@ import com.intellij.execution.process.ProcessHandler;
 import com.intellij.openapi.project.Project;
 import com.intellij.openapi.wm.ToolWindow;
 import com.intellij.openapi.wm.ToolWindowManager;
+import com.intellij.xdebugger.XDebugProcess;
 import com.intellij.xdebugger.XDebugSession;
 import com.jetbrains.python.debugger.PyDebugProcess;
+import de.code14.edupydebugger.diagram.DiagramWarmUp;
 import de.code14.edupydebugger.server.DebugServerEndpoint;
-import de.code14.edupydebugger.server.DebugWebServer;
 import de.code14.edupydebugger.server.DebugWebSocketServer;
 import de.code14.edupydebugger.ui.DebuggerToolWindowFactory;
+import de.code14.edupydebugger.ui.JcefTransport;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.*;
@@ -61,9 +63,11 @@ public class DebugProcessListenerTests {
 
     @Test
     public void testProcessStarted() {
+        // Loopback-Server nur im Socket-Modus
+        System.setProperty(JcefTransport.PROPERTY, "socket");
         try (MockedStatic<DebugWebSocketServer> webSocketServerMock = Mockito.mockStatic(DebugWebSocketServer.class);
-             MockedStatic<DebugWebServer> webServerMock = Mockito.mockStatic(DebugWebServer.class);
              MockedStatic<DebugServerEndpoint> debugServerEndpointMock = Mockito.mockStatic(DebugServerEndpoint.class);
+             MockedStatic<DiagramWarmUp> warmUpMock = Mockito.mockStatic(DiagramWarmUp.class);
              // Intercept the construction of DebugSessionListener to prevent static analysis from running.
              MockedConstruction<DebugSessionListener> listenerConstruction =
                      Mockito.mockConstruction(DebugSessionListener.class, (mockListener, context) -> {
@@ -72,31 +76,67 @@ public class DebugProcessListenerTests {
 
             // Set up the singleton mocks:
             DebugWebSocketServer mockWebSocketServer = mock(DebugWebSocketServer.class);
-            DebugWebServer mockWebServer = mock(DebugWebServer.class);
             webSocketServerMock.when(DebugWebSocketServer::getInstance).thenReturn(mockWebSocketServer);
-            webServerMock.when(DebugWebServer::getInstance).thenReturn(mockWebServer);
 
-            // Ensure that both servers are reported as not running so that start...() will be called.
+            // Ensure that the server is reported as not running so that startWebSocketServer() will be called.
             when(mockWebSocketServer.isRunning()).thenReturn(false);
-            when(mockWebServer.isRunning()).thenReturn(false);
 
             // Act: simulate starting the process.
             debugProcessListener.processStarted(pyDebugProcess);
 
-            // Verify that the WebSocket and HTTP servers are started (async background)
+            // Verify that the server is started (async background)
             verify(mockWebSocketServer, timeout(1000).times(1)).startWebSocketServer();
-            verify(mockWebServer, timeout(1000).times(1)).startWebServer();
 
             // Verify that the DebugServerEndpoint methods are called to set the debug process and process handler.
             debugServerEndpointMock.verify(() -> DebugServerEndpoint.setDebugProcess(pyDebugProcess), times(1));
             debugServerEndpointMock.verify(() -> DebugServerEndpoint.setProcessHandler(processHandler), times(1));
 
+            // Die Diagramm-Engines werden mit der Python-Session vorgewärmt
+            warmUpMock.verify(DiagramWarmUp::start, times(1));
+
             // Verify that attachConsoleListeners() is called on the spy instance of ConsoleOutputListener.
             verify(consoleOutputListener, times(1)).attachConsoleListeners();
 
             // Finally, verify that a DebugSessionListener instance was constructed.
             assertFalse("A new DebugSessionListener instance should have been constructed",
                     listenerConstruction.constructed().isEmpty());
+        } finally {
+            System.clearProperty(JcefTransport.PROPERTY);
+        }
+    }
+
+    @Test
+    public void testProcessStartedWithInProcessTransportStartsNoServer() {
+        try (MockedStatic<DebugWebSocketServer> webSocketServerMock = Mockito.mockStatic(DebugWebSocketServer.class);
+             MockedStatic<DebugServerEndpoint> debugServerEndpointMock = Mockito.mockStatic(DebugServerEndpoint.class);
+             MockedStatic<DiagramWarmUp> warmUpMock = Mockito.mockStatic(DiagramWarmUp.class);
+             MockedConstruction<DebugSessionListener> listenerConstruction =
+                     Mockito.mockConstruction(DebugSessionListener.class)) {
+
+            debugProcessListener.processStarted(pyDebugProcess);
+
+            // Das Tool-Fenster spricht den Endpoint direkt an
+            webSocketServerMock.verifyNoInteractions();
+            debugServerEndpointMock.verify(() -> DebugServerEndpoint.setDebugProcess(pyDebugProcess), times(1));
+        }
+    }
+
+    @Test
+    public void testOtherDebugProcessesAreIgnored() {
+        XDebugProcess javaDebugProcess = mock(XDebugProcess.class);
+
+        try (MockedStatic<DebugWebSocketServer> webSocketServerMock = Mockito.mockStatic(DebugWebSocketServer.class);
+             MockedStatic<DebugServerEndpoint> debugServerEndpointMock = Mockito.mockStatic(DebugServerEndpoint.class);
+             MockedStatic<DiagramWarmUp> warmUpMock = Mockito.mockStatic(DiagramWarmUp.class)) {
+
+            debugProcessListener.processStarted(javaDebugProcess);
+            debugProcessListener.processStopped(javaDebugProcess);
+
+            // Keine Server, kein Endpoint, kein Warm-up für Nicht-Python-Sessions
+            webSocketServerMock.verifyNoInteractions();
+            debugServerEndpointMock.verifyNoInteractions();
+            warmUpMock.verifyNoInteractions();
+            verify(javaDebugProcess, never()).getSession();
         }
     }
 
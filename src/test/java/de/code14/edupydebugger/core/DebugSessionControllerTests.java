@@ -1,17 +1,28 @@
 package de.code14.edupydebugger.core;
 
 import com.intellij.xdebugger.XDebugSession;
+import com.intellij.xdebugger.frame.XSuspendContext;
 import com.jetbrains.python.debugger.PyDebugProcess;
 import com.jetbrains.python.debugger.PyStackFrame;
 import com.jetbrains.python.debugger.PyThreadInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.AsyncEvaluationClient;
+import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
 import de.code14.edupydebugger.analysis.dynamicanalysis.DebuggerUtils;
+import de.code14.edupydebugger.analysis.dynamicanalysis.EvaluationGateway;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectAnalyzer;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
 import de.code14.edupydebugger.analysis.dynamicanalysis.StackFrameAnalyzer;
+import de.code14.edupydebugger.core.publish.PayloadPublisher;
+import de.code14.edupydebugger.diagram.ObjectCardRenderer;
 import de.code14.edupydebugger.diagram.ObjectDiagramParser;
+import de.code14.edupydebugger.diagram.ObjectDiagramRenderer;
+import de.code14.edupydebugger.diagram.ObjectGraph;
 import de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator;
 import de.code14.edupydebugger.server.DebugServerEndpoint;
 import de.code14.edupydebugger.server.dto.CallstackPayload;
 import de.code14.edupydebugger.server.dto.ObjectCardPayload;
 import de.code14.edupydebugger.server.dto.VariablesPayload;
+import org.junit.After;
 import org.junit.Before;
 import org.junit.Test;
 import org.mockito.ArgumentCaptor;
@@ -21,7 +32,9 @@ import org.mockito.MockedStatic;
 import org.mockito.MockitoAnnotations;
 
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
 
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -46,6 +59,19 @@ public class DebugSessionControllerTests {
 
         sut = new DebugSessionController();
         sut.setDebugProcess(mockPyDebugProcess);
+        // Aufrufer-Frames werden nur in den Tests vorab analysiert, die einen Executor setzen
+        DebugSessionController.setPrefetchExecutor(command -> {});
+
+        // Die Tests prüfen die PlantUML-Kette (Parser-/Generator-Mocks), nicht die nativen SVG-Renderer
+        System.setProperty(ObjectCardRenderer.PLANTUML_PROPERTY, "true");
+        System.setProperty(ObjectDiagramRenderer.PLANTUML_PROPERTY, "true");
+    }
+
+    @After
+    public void tearDown() {
+        DebugSessionController.setPrefetchExecutor(null);
+        System.clearProperty(ObjectCardRenderer.PLANTUML_PROPERTY);
+        System.clearProperty(ObjectDiagramRenderer.PLANTUML_PROPERTY);
     }
 
     @Test
@@ -105,7 +131,7 @@ public class DebugSessionControllerTests {
              MockedStatic<DebugServerEndpoint> endpoint = mockStatic(DebugServerEndpoint.class);
              MockedConstruction<StackFrameAnalyzer> analyzerCtor =
                      mockConstruction(StackFrameAnalyzer.class, (mockAnalyzer, ctx) -> {
-                         doNothing().when(mockAnalyzer).analyzeFrames();
+                         when(mockAnalyzer.analyzeFramesAsync()).thenReturn(CompletableFuture.completedFuture(null));
                          // Leere Variablen, damit wir nur prüfen, dass publishVariables überhaupt aufgerufen wird
                          when(mockAnalyzer.getVariables()).thenReturn(Collections.emptyMap());
                          // Leere Objektmenge – die Karten/Diagramme kommen aus den statischen Parser-Mocks
@@ -113,12 +139,12 @@ public class DebugSessionControllerTests {
                      })) {
 
             dbg.when(() -> DebuggerUtils.getStackFramesPerThread(mockXDebugSession)).thenReturn(framesMap);
-            dbg.when(() -> DebuggerUtils.formatCallstackFrames(Arrays.asList(f1, f2)))
+            dbg.when(() -> DebuggerUtils.formatCallstackFrames(eq(Arrays.asList(f1, f2)), any(AsyncEvaluationClient.class)))
                     .thenReturn(Arrays.asList("frame1()", "frame2()"));
 
             // Object cards + object diagram werden über die Parser-/Generator-Kette erzeugt
-            odp.when(() -> ObjectDiagramParser.generateObjectCards(anyMap())).thenReturn(fakeCardsPuml);
-            odp.when(() -> ObjectDiagramParser.generateObjectDiagram(anyMap())).thenReturn(fakeObjectDiagramPuml);
+            odp.when(() -> ObjectDiagramParser.generateObjectCards(any(ObjectGraph.class))).thenReturn(fakeCardsPuml);
+            odp.when(() -> ObjectDiagramParser.generateObjectDiagram(any(ObjectGraph.class))).thenReturn(fakeObjectDiagramPuml);
 
             plant.when(() -> PlantUMLDiagramGenerator.generateDiagramAsBase64("puml1")).thenReturn("b64-1");
             plant.when(() -> PlantUMLDiagramGenerator.generateDiagramAsBase64("puml2")).thenReturn("b64-2");
@@ -191,15 +217,15 @@ public class DebugSessionControllerTests {
                      mockConstruction(de.code14.edupydebugger.analysis.dynamicanalysis.StackFrameAnalyzer.class,
                              (mockAnalyzer, ctx) -> {
                                  // Keine echte Analyse
-                                 doNothing().when(mockAnalyzer).analyzeFrames();
+                                 when(mockAnalyzer.analyzeFramesAsync()).thenReturn(CompletableFuture.completedFuture(null));
 
-                                 // Minimale Daten für handleVariables()
+                                 // Minimale Daten für die Variablentabelle
                                  Map<String, List<String>> vars = new LinkedHashMap<>();
                                  // id, names, type, value, scope
                                  vars.put("1", Arrays.asList("x###y", "int", "42", "local"));
                                  when(mockAnalyzer.getVariables()).thenReturn(vars);
 
-                                 // Minimale Daten für handleObjects()
+                                 // Minimale Daten für Objektkarten und -diagramm
                                  when(mockAnalyzer.getObjects()).thenReturn(Collections.emptyMap());
                              })) {
 
@@ -208,9 +234,9 @@ public class DebugSessionControllerTests {
                     .thenReturn(framesPerThread);
 
             // Objektkarten/Diagramm minimal stubben
-            odpMock.when(() -> de.code14.edupydebugger.diagram.ObjectDiagramParser.generateObjectCards(anyMap()))
+            odpMock.when(() -> de.code14.edupydebugger.diagram.ObjectDiagramParser.generateObjectCards(any(ObjectGraph.class)))
                     .thenReturn(Collections.singletonMap("1", "puml"));
-            odpMock.when(() -> de.code14.edupydebugger.diagram.ObjectDiagramParser.generateObjectDiagram(anyMap()))
+            odpMock.when(() -> de.code14.edupydebugger.diagram.ObjectDiagramParser.generateObjectDiagram(any(ObjectGraph.class)))
                     .thenReturn("puml");
             pumlMock.when(() -> de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator.generateDiagramAsBase64(anyString()))
                     .thenReturn("b64");
@@ -228,4 +254,299 @@ public class DebugSessionControllerTests {
             endpoint.verify(() -> DebugServerEndpoint.publishObjectDiagram(eq("b64")), times(1));
         }
     }
+
+    @Test
+    public void testSelectFrame_analyzesDeferredFrameOnceAndMergesObjects() throws Exception {
+        PyThreadInfo suspended = mock(PyThreadInfo.class);
+        when(suspended.getName()).thenReturn("MainThread");
+        when(suspended.getState()).thenReturn(PyThreadInfo.State.SUSPENDED);
+        PyStackFrame top = mock(PyStackFrame.class);
+        PyStackFrame caller = mock(PyStackFrame.class);
+        PyStackFrame module = mock(PyStackFrame.class);
+        Map<PyThreadInfo, List<PyStackFrame>> framesPerThread = new LinkedHashMap<>();
+        framesPerThread.put(suspended, Arrays.asList(top, caller, module));
+
+        ObjectInfo topObject = new ObjectInfo(new ArrayList<>(List.of("self:Node")), new ArrayList<>());
+        ObjectInfo callerObject = new ObjectInfo(new ArrayList<>(List.of("node:Node")), new ArrayList<>());
+
+        try (MockedStatic<DebuggerUtils> dbg = mockStatic(DebuggerUtils.class);
+             MockedStatic<PayloadPublisher> publisher = mockStatic(PayloadPublisher.class);
+             MockedConstruction<StackFrameAnalyzer> analyzerCtor =
+                     mockConstruction(StackFrameAnalyzer.class, (mockAnalyzer, ctx) -> {
+                         when(mockAnalyzer.analyzeFramesAsync()).thenReturn(CompletableFuture.completedFuture(null));
+                         when(mockAnalyzer.getVariables()).thenReturn(Collections.emptyMap());
+                         when(mockAnalyzer.getObjects()).thenReturn(Map.of("1", topObject));
+                         when(mockAnalyzer.getDeferredFrameIndices()).thenReturn(List.of(1));
+                     });
+             MockedConstruction<ObjectAnalyzer> objectCtor =
+                     mockConstruction(ObjectAnalyzer.class, (mockAnalyzer, ctx) ->
+                             when(mockAnalyzer.analyzeObjectsAsync(anyCollection()))
+                                     .thenReturn(CompletableFuture.completedFuture(Map.of("2", callerObject))))) {
+
+            dbg.when(() -> DebuggerUtils.getStackFramesPerThread(mockXDebugSession)).thenReturn(framesPerThread);
+            sut.performDynamicAnalysis(null);
+
+            // Nur der ausgewählte Aufrufer-Frame wird nachträglich analysiert
+            sut.selectFrame(1);
+            sut.selectFrame(1);
+            assertEquals(1, objectCtor.constructed().size());
+            verify(objectCtor.constructed().get(0)).analyzeObjectsAsync(List.of(1));
+
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<String, ObjectInfo>> objectsCap = ArgumentCaptor.forClass(Map.class);
+            publisher.verify(() -> PayloadPublisher.publishObjects(objectsCap.capture()), times(3));
+            assertEquals(Set.of("1"), objectsCap.getAllValues().get(0).keySet());
+            assertEquals(Set.of("1", "2"), objectsCap.getAllValues().get(1).keySet());
+            assertEquals(Set.of("1", "2"), objectsCap.getAllValues().get(2).keySet());
+
+            // Eager analysierte Frames benötigen keine weitere Analyse
+            sut.selectFrame(0);
+            assertEquals(1, objectCtor.constructed().size());
+            assertEquals(1, analyzerCtor.constructed().size());
+        }
+    }
+
+    @Test
+    public void testFramePrefetch_analyzesDeferredFramesWhilePaused() throws Exception {
+        PyThreadInfo suspended = mock(PyThreadInfo.class);
+        when(suspended.getName()).thenReturn("MainThread");
+        when(suspended.getState()).thenReturn(PyThreadInfo.State.SUSPENDED);
+        Map<PyThreadInfo, List<PyStackFrame>> framesPerThread = new LinkedHashMap<>();
+        framesPerThread.put(suspended, Arrays.asList(mock(PyStackFrame.class), mock(PyStackFrame.class),
+                mock(PyStackFrame.class), mock(PyStackFrame.class)));
+
+        ObjectInfo topObject = new ObjectInfo(new ArrayList<>(List.of("self:Node")), new ArrayList<>());
+        ObjectInfo callerObject = new ObjectInfo(new ArrayList<>(List.of("node:Node")), new ArrayList<>());
+        // Der Executor läuft im Testthread, damit die statischen Mocks gelten
+        DebugSessionController.setPrefetchExecutor(Runnable::run);
+
+        try (MockedStatic<DebuggerUtils> dbg = mockStatic(DebuggerUtils.class);
+             MockedStatic<PayloadPublisher> publisher = mockStatic(PayloadPublisher.class);
+             MockedConstruction<StackFrameAnalyzer> analyzerCtor =
+                     mockConstruction(StackFrameAnalyzer.class, (mockAnalyzer, ctx) -> {
+                         when(mockAnalyzer.analyzeFramesAsync()).thenReturn(CompletableFuture.completedFuture(null));
+                         when(mockAnalyzer.getVariables()).thenReturn(Collections.emptyMap());
+                         when(mockAnalyzer.getObjects()).thenReturn(Map.of("1", topObject));
+                         when(mockAnalyzer.getDeferredFrameIndices()).thenReturn(List.of(1, 2));
+                     });
+             MockedConstruction<ObjectAnalyzer> objectCtor =
+                     mockConstruction(ObjectAnalyzer.class, (mockAnalyzer, ctx) ->
+                             when(mockAnalyzer.analyzeObjectsAsync(anyCollection()))
+                                     .thenReturn(CompletableFuture.completedFuture(Map.of("2", callerObject))))) {
+
+            dbg.when(() -> DebuggerUtils.getStackFramesPerThread(mockXDebugSession)).thenReturn(framesPerThread);
+            sut.performDynamicAnalysis(null);
+
+            // Beide Aufrufer-Frames wurden ohne Auswahl nacheinander analysiert
+            assertEquals(2, objectCtor.constructed().size());
+            verify(objectCtor.constructed().get(0)).analyzeObjectsAsync(List.of(1));
+            verify(objectCtor.constructed().get(1)).analyzeObjectsAsync(List.of(2));
+
+            // Die Auswahl wird aus dem Cache beantwortet
+            sut.selectFrame(2);
+            assertEquals(2, objectCtor.constructed().size());
+            @SuppressWarnings("unchecked")
+            ArgumentCaptor<Map<String, ObjectInfo>> objectsCap = ArgumentCaptor.forClass(Map.class);
+            publisher.verify(() -> PayloadPublisher.publishObjects(objectsCap.capture()), times(2));
+            assertEquals(Set.of("1", "2"), objectsCap.getAllValues().get(1).keySet());
+        }
+    }
+
+    @Test
+    public void testFramePrefetch_stopsAfterResume() throws Exception {
+        PyThreadInfo suspended = mock(PyThreadInfo.class);
+        when(suspended.getName()).thenReturn("MainThread");
+        when(suspended.getState()).thenReturn(PyThreadInfo.State.SUSPENDED);
+        Map<PyThreadInfo, List<PyStackFrame>> framesPerThread = new LinkedHashMap<>();
+        framesPerThread.put(suspended, Arrays.asList(mock(PyStackFrame.class), mock(PyStackFrame.class),
+                mock(PyStackFrame.class)));
+        List<Runnable> queued = new ArrayList<>();
+        DebugSessionController.setPrefetchExecutor(queued::add);
+
+        try (MockedStatic<DebuggerUtils> dbg = mockStatic(DebuggerUtils.class);
+             MockedStatic<PayloadPublisher> publisher = mockStatic(PayloadPublisher.class);
+             MockedConstruction<StackFrameAnalyzer> analyzerCtor =
+                     mockConstruction(StackFrameAnalyzer.class, (mockAnalyzer, ctx) -> {
+                         when(mockAnalyzer.analyzeFramesAsync()).thenReturn(CompletableFuture.completedFuture(null));
+                         when(mockAnalyzer.getDeferredFrameIndices()).thenReturn(List.of(1));
+                     });
+             MockedConstruction<ObjectAnalyzer> objectCtor = mockConstruction(ObjectAnalyzer.class)) {
+
+            dbg.when(() -> DebuggerUtils.getStackFramesPerThread(mockXDebugSession)).thenReturn(framesPerThread);
+            sut.performDynamicAnalysis(null);
+            sut.invalidateEvaluations();
+            // Die Vorabanalyse startet erst nach dem Fortsetzen
+            while (!queued.isEmpty()) {
+                queued.remove(0).run();
+            }
+
+            assertEquals(0, objectCtor.constructed().size());
+        }
+    }
+
+    @Test
+    public void testSelectFrame_isIgnoredAfterResume() throws Exception {
+        PyThreadInfo suspended = mock(PyThreadInfo.class);
+        when(suspended.getName()).thenReturn("MainThread");
+        when(suspended.getState()).thenReturn(PyThreadInfo.State.SUSPENDED);
+        Map<PyThreadInfo, List<PyStackFrame>> framesPerThread = new LinkedHashMap<>();
+        framesPerThread.put(suspended, Arrays.asList(mock(PyStackFrame.class), mock(PyStackFrame.class)));
+
+        try (MockedStatic<DebuggerUtils> dbg = mockStatic(DebuggerUtils.class);
+             MockedStatic<PayloadPublisher> publisher = mockStatic(PayloadPublisher.class);
+             MockedConstruction<StackFrameAnalyzer> analyzerCtor =
+                     mockConstruction(StackFrameAnalyzer.class, (mockAnalyzer, ctx) -> {
+                         when(mockAnalyzer.analyzeFramesAsync()).thenReturn(CompletableFuture.completedFuture(null));
+                         when(mockAnalyzer.getDeferredFrameIndices()).thenReturn(List.of(1));
+                     });
+             MockedConstruction<ObjectAnalyzer> objectCtor = mockConstruction(ObjectAnalyzer.class)) {
+
+            dbg.when(() -> DebuggerUtils.getStackFramesPerThread(mockXDebugSession)).thenReturn(framesPerThread);
+            sut.performDynamicAnalysis(null);
+            sut.invalidateEvaluations();
+
+            sut.selectFrame(1);
+            sut.selectFrame(7);
+
+            assertEquals(0, objectCtor.constructed().size());
+            publisher.verify(() -> PayloadPublisher.publishObjects(anyMap()), times(1));
+        }
+    }
+
+    @Test
+    public void testThreadSelected_keepsTheSnapshotOfEveryThreadUntilResume() throws Exception {
+        PyThreadInfo main = mock(PyThreadInfo.class);
+        when(main.getName()).thenReturn("MainThread");
+        when(main.getState()).thenReturn(PyThreadInfo.State.SUSPENDED);
+        PyThreadInfo worker = mock(PyThreadInfo.class);
+        when(worker.getName()).thenReturn("Worker-1");
+        when(worker.getState()).thenReturn(PyThreadInfo.State.SUSPENDED);
+        PyStackFrame mainFrame = mock(PyStackFrame.class);
+        when(mainFrame.getFrameId()).thenReturn("1001");
+        List<PyStackFrame> mainFrames = List.of(mainFrame);
+        PyStackFrame workerFrame = mock(PyStackFrame.class);
+        Map<PyThreadInfo, List<PyStackFrame>> framesPerThread = new LinkedHashMap<>();
+        framesPerThread.put(main, mainFrames);
+        framesPerThread.put(worker, List.of(workerFrame));
+        // Der aktuelle Frame der Sitzung gehört zum Hauptthread
+        when(mockXDebugSession.getCurrentStackFrame()).thenReturn(mainFrame);
+
+        ObjectInfo info = new ObjectInfo(new ArrayList<>(List.of("w:Worker")), new ArrayList<>());
+        List<Object> analyzedFrames = new ArrayList<>();
+
+        try (MockedStatic<DebuggerUtils> dbg = mockStatic(DebuggerUtils.class);
+             MockedStatic<PayloadPublisher> publisher = mockStatic(PayloadPublisher.class);
+             MockedConstruction<StackFrameAnalyzer> analyzerCtor =
+                     mockConstruction(StackFrameAnalyzer.class, (mockAnalyzer, ctx) -> {
+                         analyzedFrames.add(ctx.arguments().get(0));
+                         when(mockAnalyzer.analyzeFramesAsync()).thenReturn(CompletableFuture.completedFuture(null));
+                         when(mockAnalyzer.getVariables()).thenReturn(Collections.emptyMap());
+                         when(mockAnalyzer.getObjects()).thenReturn(Map.of("7", info));
+                     })) {
+
+            dbg.when(() -> DebuggerUtils.getStackFramesPerThread(mockXDebugSession)).thenReturn(framesPerThread);
+            dbg.when(() -> DebuggerUtils.formatCallstackFrames(anyList(), any(AsyncEvaluationClient.class)))
+                    .thenReturn(List.of("run()"));
+            EvaluationGateway gateway = sut.getEvaluationGateway();
+
+            sut.performDynamicAnalysis("MainThread");
+            long generation = gateway.getGeneration();
+            assertEquals("1001", gateway.getCurrentFrameId());
+            // Erneute Auswahl desselben Threads: Snapshot aus dem Cache
+            sut.performDynamicAnalysis("MainThread");
+            assertEquals(1, analyzerCtor.constructed().size());
+
+            // Kein Thread wird im Hintergrund analysiert
+            Thread.sleep(100);
+            verifyNoInteractions(workerFrame);
+
+            // Anderer Thread: wird in seinen eigenen Frames ausgewertet, das Memo bleibt gültig
+            sut.performDynamicAnalysis("Worker-1");
+            assertEquals(2, analyzerCtor.constructed().size());
+            assertEquals(List.of(mainFrames, List.of(workerFrame)), analyzedFrames);
+            assertEquals(generation, gateway.getGeneration());
+            assertEquals("1001", gateway.getCurrentFrameId());
+
+            // Zurück zum ersten Thread: Snapshot aus dem Cache
+            sut.performDynamicAnalysis("MainThread");
+            assertEquals(2, analyzerCtor.constructed().size());
+            publisher.verify(() -> PayloadPublisher.publishObjects(Map.of("7", info)), times(4));
+
+            // Nach dem Fortsetzen ist der Cache ungültig
+            sut.invalidateEvaluations();
+            sut.performDynamicAnalysis("MainThread");
+            assertEquals(3, analyzerCtor.constructed().size());
+            assertNotEquals(generation, gateway.getGeneration());
+        }
+    }
+
+    @Test
+    public void testNextPause_startsANewGenerationWithoutResumeEvent() throws Exception {
+        PyThreadInfo suspended = mock(PyThreadInfo.class);
+        when(suspended.getName()).thenReturn("MainThread");
+        when(suspended.getState()).thenReturn(PyThreadInfo.State.SUSPENDED);
+        Map<PyThreadInfo, List<PyStackFrame>> framesPerThread = new LinkedHashMap<>();
+        framesPerThread.put(suspended, List.of(mock(PyStackFrame.class)));
+
+        try (MockedStatic<DebuggerUtils> dbg = mockStatic(DebuggerUtils.class);
+             MockedStatic<PayloadPublisher> publisher = mockStatic(PayloadPublisher.class);
+             MockedConstruction<StackFrameAnalyzer> analyzerCtor =
+                     mockConstruction(StackFrameAnalyzer.class, (mockAnalyzer, ctx) ->
+                             when(mockAnalyzer.analyzeFramesAsync()).thenReturn(CompletableFuture.completedFuture(null)))) {
+
+            dbg.when(() -> DebuggerUtils.getStackFramesPerThread(mockXDebugSession)).thenReturn(framesPerThread);
+            when(mockXDebugSession.getSuspendContext()).thenReturn(mock(XSuspendContext.class));
+            sut.performDynamicAnalysis(null);
+            long generation = sut.getEvaluationGateway().getGeneration();
+
+            when(mockXDebugSession.getSuspendContext()).thenReturn(mock(XSuspendContext.class));
+            sut.performDynamicAnalysis(null);
+
+            assertEquals(2, analyzerCtor.constructed().size());
+            assertNotEquals(generation, sut.getEvaluationGateway().getGeneration());
+        }
+    }
+
+    @Test
+    public void testPerformDynamicAnalysis_rendersObjectCardsNativelyByDefault() throws Exception {
+        // Standardpfad ohne Fallback-Property: Karten als natives SVG, ohne PlantUML-Parser
+        System.clearProperty(ObjectCardRenderer.PLANTUML_PROPERTY);
+
+        PyThreadInfo suspended = mock(PyThreadInfo.class);
+        when(suspended.getName()).thenReturn("MainThread");
+        when(suspended.getState()).thenReturn(PyThreadInfo.State.SUSPENDED);
+        Map<PyThreadInfo, List<PyStackFrame>> framesPerThread = new LinkedHashMap<>();
+        framesPerThread.put(suspended, List.of(mock(PyStackFrame.class)));
+
+        ObjectInfo node = new ObjectInfo(List.of("node:Node"), List.of(new AttributeInfo("value", "int", "3", "public")));
+
+        try (MockedStatic<DebuggerUtils> dbg = mockStatic(DebuggerUtils.class);
+             MockedStatic<PlantUMLDiagramGenerator> plant = mockStatic(PlantUMLDiagramGenerator.class);
+             MockedStatic<DebugServerEndpoint> endpoint = mockStatic(DebugServerEndpoint.class);
+             MockedConstruction<StackFrameAnalyzer> analyzerCtor =
+                     mockConstruction(StackFrameAnalyzer.class, (mockAnalyzer, ctx) -> {
+                         when(mockAnalyzer.analyzeFramesAsync()).thenReturn(CompletableFuture.completedFuture(null));
+                         when(mockAnalyzer.getVariables()).thenReturn(Collections.emptyMap());
+                         when(mockAnalyzer.getObjects()).thenReturn(Map.of("1", node));
+                     })) {
+
+            dbg.when(() -> DebuggerUtils.getStackFramesPerThread(mockXDebugSession)).thenReturn(framesPerThread);
+            plant.when(() -> PlantUMLDiagramGenerator.generateDiagramAsBase64(anyString())).thenReturn("b64-od");
+
+            sut.performDynamicAnalysis(null);
+
+            ArgumentCaptor<ObjectCardPayload> cardsCap = ArgumentCaptor.forClass(ObjectCardPayload.class);
+            endpoint.verify(() -> DebugServerEndpoint.publishObjectCards(cardsCap.capture()), times(1));
+            assertEquals(1, cardsCap.getValue().cards.size());
+            assertEquals("1", cardsCap.getValue().cards.get(0).id);
+            String svg = new String(Base64.getDecoder().decode(cardsCap.getValue().cards.get(0).svgBase64),
+                    StandardCharsets.UTF_8);
+            assertTrue(svg.startsWith("<svg"));
+            assertTrue(svg.contains(">node:Node</text>"));
+            assertTrue(svg.contains(">value = 3</text>"));
+
+            // PlantUML nur noch für das Objektdiagramm, nicht pro Karte
+            plant.verify(() -> PlantUMLDiagramGenerator.generateDiagramAsBase64(anyString()), times(1));
+        }
+    }
 }
@@ -93,4 +93,16 @@ public class DebugSessionListenerTests {
             // Kein verifyNoInteractions mehr – es gibt legitime weitere Aufrufe.
         }
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testSessionResumed_invalidatesMemoizedEvaluations() {
+        try (MockedStatic<DebugServerEndpoint> endpoint = Mockito.mockStatic(DebugServerEndpoint.class)) {
+            DebugSessionController controller = mock(DebugSessionController.class);
+            endpoint.when(DebugServerEndpoint::getDebugSessionController).thenReturn(controller);
+
+            sut.sessionResumed();
+
+            verify(controller, times(1)).invalidateEvaluations();
+        }
+    }
+}
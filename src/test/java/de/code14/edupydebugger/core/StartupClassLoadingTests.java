@@ -0,0 +1,104 @@
+package de.code14.edupydebugger.core;
+
+import com.intellij.openapi.diagnostic.Logger;
+import com.intellij.openapi.project.Project;
+import com.intellij.openapi.wm.ToolWindow;
+import org.junit.Test;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.util.List;
+import java.util.Set;
+import java.util.TreeSet;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+/**
+ * Opens a project as the IDE does towards the plugin (project listeners, tool window registration) with the plugin
+ * and its bundled libraries in a class loader of their own, and checks that none of the libraries is loaded.
+ * Logs the time and the number of plugin classes that project opening costs; only the class check is asserted.
+ */
+public class StartupClassLoadingTests {
+
+    private static final Logger LOGGER = Logger.getInstance(StartupClassLoadingTests.class);
+
+    private static final List<String> PLUGIN = List.of("de.code14.edupydebugger.");
+    private static final List<String> LIBRARIES = List.of(
+            "net.sourceforge.plantuml.", "org.glassfish.", "com.google.gson.");
+
+    /**
+     * Defines plugin and library classes itself (from the test classpath) and delegates everything else, so that
+     * every plugin or library class touched is recorded.
+     */
+    private static final class IsolatingClassLoader extends ClassLoader {
+
+        final Set<String> loaded = new TreeSet<>();
+
+        IsolatingClassLoader(ClassLoader parent) {
+            super(parent);
+        }
+
+        @Override
+        protected Class<?> loadClass(String name, boolean resolve) throws ClassNotFoundException {
+            if (!isIsolated(name)) {
+                return super.loadClass(name, resolve);
+            }
+            synchronized (getClassLoadingLock(name)) {
+                Class<?> type = findLoadedClass(name);
+                if (type == null) {
+                    try (InputStream in = getParent().getResourceAsStream(name.replace('.', '/') + ".class")) {
+                        if (in == null) {
+                            throw new ClassNotFoundException(name);
+                        }
+                        byte[] bytes = in.readAllBytes();
+                        type = defineClass(name, bytes, 0, bytes.length);
+                        loaded.add(name);
+                    } catch (IOException e) {
+                        throw new ClassNotFoundException(name, e);
+                    }
+                }
+                if (resolve) {
+                    resolveClass(type);
+                }
+                return type;
+            }
+        }
+
+        private static boolean isIsolated(String name) {
+            return PLUGIN.stream().anyMatch(name::startsWith) || LIBRARIES.stream().anyMatch(name::startsWith);
+        }
+    }
+
+    @Test
+    public void testProjectOpenLoadsNoBundledLibrary() throws Exception {
+        IsolatingClassLoader loader = new IsolatingClassLoader(getClass().getClassLoader());
+        Project project = mock(Project.class);
+
+        long start = System.nanoTime();
+        // Projekt-Listener
+        Class<?> projectListener = loader.loadClass("de.code14.edupydebugger.core.EduPyProjectManagerListener");
+        Object listener = projectListener.getConstructor().newInstance();
+        projectListener.getMethod("projectOpened", Project.class).invoke(listener, project);
+        Class<?> debugListener = loader.loadClass("de.code14.edupydebugger.core.DebugProcessListener");
+        debugListener.getConstructor(Project.class).newInstance(project);
+        // Registrierung des Tool-Windows, ohne es zu öffnen
+        Class<?> factoryClass = loader.loadClass("de.code14.edupydebugger.ui.DebuggerToolWindowFactory");
+        Object factory = factoryClass.getConstructor().newInstance();
+        factoryClass.getMethod("init", ToolWindow.class).invoke(factory, mock(ToolWindow.class));
+        assertEquals(true, factoryClass.getMethod("shouldBeAvailable", Project.class).invoke(factory, project));
+        double millis = (System.nanoTime() - start) / 1e6;
+
+        Set<String> libraries = new TreeSet<>();
+        int pluginClasses = 0;
+        for (String name : loader.loaded) {
+            if (LIBRARIES.stream().anyMatch(name::startsWith)) {
+                libraries.add(name);
+            } else {
+                pluginClasses++;
+            }
+        }
+        LOGGER.info(String.format("Project open: %.1f ms, %d plugin classes: %s", millis, pluginClasses, loader.loaded));
+        assertTrue("Bundled libraries loaded on project open: " + libraries, libraries.isEmpty());
+    }
+}
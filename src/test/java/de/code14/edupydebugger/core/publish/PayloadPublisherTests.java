@@ -2,7 +2,10 @@ package de.code14.edupydebugger.core.publish;
 
 import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
 import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import com.google.gson.Gson;
 import de.code14.edupydebugger.server.DebugServerEndpoint;
+import de.code14.edupydebugger.server.dto.ObjectCardPayload;
+import de.code14.edupydebugger.server.dto.ObjectGraphPayload;
 import de.code14.edupydebugger.server.dto.ValueDTO;
 import de.code14.edupydebugger.server.dto.VariableDTO;
 import de.code14.edupydebugger.server.dto.VariablesPayload;
@@ -15,6 +18,7 @@ import java.util.*;
 import static org.junit.Assert.*;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.mockStatic;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.times;
 
 public class PayloadPublisherTests {
@@ -61,5 +65,64 @@ public class PayloadPublisherTests {
             assertTrue(got.value.full.contains("count: 42"));
         }
     }
-}
 
+    @Test
+    public void publishVariablesWithSnippet_pagedContainerKeepsPreviewOnly() {
+        VariableDTO dto = new VariableDTO();
+        dto.id = "7";
+        dto.names = Collections.singletonList("big");
+        dto.pyType = "list";
+        dto.scope = "local";
+        dto.value = new ValueDTO();
+        dto.value.repr = "[0~1~2~3~4~5~6~7~8~9~10~11~12~13~14~15~16~17~18~19~20~21~22~23~24~25]";
+        dto.value.length = 1000000;
+
+        try (MockedStatic<DebugServerEndpoint> endpoint = mockStatic(DebugServerEndpoint.class)) {
+            ArgumentCaptor<VariablesPayload> cap = ArgumentCaptor.forClass(VariablesPayload.class);
+            endpoint.when(() -> DebugServerEndpoint.publishVariables(any(VariablesPayload.class))).thenAnswer(inv -> null);
+
+            PayloadPublisher.publishVariablesWithSnippet(new ArrayList<>(List.of(dto)), Collections.emptyMap());
+
+            endpoint.verify(() -> DebugServerEndpoint.publishVariables(cap.capture()), times(1));
+            VariableDTO got = cap.getValue().variables.get(0);
+            assertEquals("primitive", got.value.kind);
+            // Kein vollständiger Inhalt, die UI lädt Seiten über container_page nach
+            assertNull(got.value.full);
+            assertEquals(Integer.valueOf(1000000), got.value.length);
+            assertTrue(got.value.repr.endsWith(" [...]"));
+        }
+    }
+
+    @Test
+    public void publishObjects_clientRenderingPublishesGraphInsteadOfSvg() throws Exception {
+        Map<String, ObjectInfo> objects = new HashMap<>();
+        objects.put("1", new ObjectInfo(List.of("head:Node"), List.of(
+                new AttributeInfo("next", "Node", "refid:2", "public"),
+                new AttributeInfo("count", "int", "2", "static"))));
+        objects.put("2", new ObjectInfo(List.of("tail:Node"), List.of()));
+
+        System.setProperty(PayloadPublisher.CLIENT_RENDERING_PROPERTY, "true");
+        try (MockedStatic<DebugServerEndpoint> endpoint = mockStatic(DebugServerEndpoint.class)) {
+            ArgumentCaptor<ObjectGraphPayload> cap = ArgumentCaptor.forClass(ObjectGraphPayload.class);
+
+            PayloadPublisher.publishObjects(objects);
+
+            endpoint.verify(() -> DebugServerEndpoint.publishObjectGraph(cap.capture()), times(1));
+            endpoint.verify(() -> DebugServerEndpoint.publishObjectCards(any(ObjectCardPayload.class)), never());
+            endpoint.verify(() -> DebugServerEndpoint.publishObjectDiagram(any(String.class)), never());
+            ObjectGraphPayload payload = cap.getValue();
+            assertEquals(2, payload.nodes.size());
+            assertEquals("2", payload.nodes.get(0).attributes.get(0).target);
+            assertEquals(1, payload.edges.size());
+            // Klein genug für das Knotenbudget: kein eigener Diagramm-Graph
+            assertNull(payload.diagram);
+            // Referenzen ohne Wert, "isStatic" nur wenn gesetzt
+            String json = new Gson().toJson(payload.nodes.get(0).attributes);
+            assertEquals("[{\"name\":\"next\",\"type\":\"Node\",\"target\":\"2\"},"
+                    + "{\"name\":\"count\",\"type\":\"int\",\"value\":\"2\",\"isStatic\":true}]", json);
+        } finally {
+            System.clearProperty(PayloadPublisher.CLIENT_RENDERING_PROPERTY);
+            PayloadPublisher.resetObjectDiagram();
+        }
+    }
+}
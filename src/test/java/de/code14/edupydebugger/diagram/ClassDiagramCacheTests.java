@@ -0,0 +1,138 @@
+package de.code14.edupydebugger.diagram;
+
+import de.code14.edupydebugger.analysis.staticanalysis.ClassInfo;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.stream.Stream;
+
+import static org.junit.Assert.*;
+
+
+public class ClassDiagramCacheTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    private static ClassDiagramCache.Entry entry(String hash) {
+        Map<String, String> files = new TreeMap<>();
+        files.put("/main.py", hash);
+        files.put("/shapes/point.py", "ab12");
+        Map<String, ClassInfo> classes = new LinkedHashMap<>();
+        classes.put("Point", new ClassInfo(List.of("+ x : int", "{static} + count : int"), List.of("+ move(dx : int)"),
+                List.of(), List.of()));
+        classes.put("Circle", new ClassInfo(List.of("+ center : Point"), List.of(), List.of("Point"), List.of("Shape")));
+        return new ClassDiagramCache.Entry("layout=smetana", files, classes, Map.of("Point", "shapes.point", "Circle", "main"),
+                "PHN2Zz48L3N2Zz4=");
+    }
+
+    private static long countFiles(Path directory) throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.count();
+        }
+    }
+
+    @Test
+    public void testEntrySurvivesANewCacheInstance() throws IOException {
+        Path directory = folder.getRoot().toPath().resolve("class-diagrams");
+        new ClassDiagramCache(directory, 4, 1 << 20).store("/home/student/exercise", entry("ff00"));
+
+        // Neue Instanz = neuer IDE-Start
+        ClassDiagramCache.Entry loaded = new ClassDiagramCache(directory, 4, 1 << 20).load("/home/student/exercise");
+
+        assertEquals(entry("ff00"), loaded);
+        assertEquals(List.of("Point", "Circle"), List.copyOf(loaded.classes().keySet()));
+        assertNull(new ClassDiagramCache(directory, 4, 1 << 20).load("/home/student/other"));
+    }
+
+    @Test
+    public void testStoreReplacesTheEntryOfTheProject() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ClassDiagramCache cache = new ClassDiagramCache(directory, 4, 1 << 20);
+
+        cache.store("/p", entry("1111"));
+        cache.store("/p", entry("2222"));
+
+        assertEquals("2222", cache.load("/p").fileHashes().get("/main.py"));
+        assertEquals(1, countFiles(directory));
+    }
+
+    @Test
+    public void testFailedStoreLeavesNoTemporaryFile() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ClassDiagramCache cache = new ClassDiagramCache(directory, 4, 1 << 20);
+        ClassDiagramCache.Entry valid = entry("1111");
+        Map<String, String> files = new TreeMap<>(valid.fileHashes());
+        // writeUTF() scheitert an Strings über 64 KB
+        files.put("/" + "x".repeat(70_000) + ".py", "ab12");
+
+        cache.store("/p", new ClassDiagramCache.Entry(valid.renderSettings(), files, valid.classes(),
+                valid.classModules(), valid.svgBase64()));
+
+        assertEquals(0, countFiles(directory));
+        assertNull(cache.load("/p"));
+    }
+
+    @Test
+    public void testLeastRecentlyUsedEntriesAreEvicted() throws IOException {
+        Path directory = folder.getRoot().toPath();
+        ClassDiagramCache cache = new ClassDiagramCache(directory, 2, 1 << 20);
+        cache.store("/a", entry("aa"));
+        cache.store("/b", entry("bb"));
+        // "/a" gilt als älter, wird aber durch load() wieder aufgefrischt
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.toList()) {
+                Files.setLastModifiedTime(file, FileTime.fromMillis(1_000));
+            }
+        }
+        assertNotNull(cache.load("/a"));
+
+        cache.store("/c", entry("cc"));
+
+        assertEquals(2, countFiles(directory));
+        assertNotNull(cache.load("/a"));
+        assertNull(cache.load("/b"));
+        assertNotNull(cache.load("/c"));
+    }
+
+    @Test
+    public void testEntryOnlyMatchesTheSameSourcesAndRenderSettings() {
+        ClassDiagramCache.Entry entry = entry("ff00");
+
+        assertTrue(entry.matches("layout=smetana", entry("ff00").fileHashes()));
+        assertFalse(entry.matches("layout=smetana", entry("ff01").fileHashes()));
+        // Gleiche Quellen, aber mit dot gelayoutet
+        assertFalse(entry.matches("layout=dot", entry("ff00").fileHashes()));
+    }
+
+    @Test
+    public void testClassModelStaysValidWithOtherRenderSettings() {
+        ClassDiagramCache.Entry entry = entry("ff00");
+
+        // Nur das Diagramm muss neu gerendert werden, nicht das Klassenmodell
+        assertTrue(entry.hasSources(entry("ff00").fileHashes()));
+        assertFalse(entry.matches("layout=dot", entry("ff00").fileHashes()));
+        assertFalse(entry.hasSources(entry("ff01").fileHashes()));
+    }
+
+    @Test
+    public void testRenderSettingsFollowTheShardThreshold() {
+        String before = ClassDiagramCache.renderSettings();
+        System.setProperty(ClassDiagramShards.THRESHOLD_PROPERTY, "5");
+        try {
+            assertNotEquals(before, ClassDiagramCache.renderSettings());
+        } finally {
+            System.clearProperty(ClassDiagramShards.THRESHOLD_PROPERTY);
+        }
+        assertEquals(before, ClassDiagramCache.renderSettings());
+    }
+}
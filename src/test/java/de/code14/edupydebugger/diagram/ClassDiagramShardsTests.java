@@ -0,0 +1,86 @@
+package de.code14.edupydebugger.diagram;
+
+import de.code14.edupydebugger.analysis.staticanalysis.ClassInfo;
+import org.junit.After;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import static org.junit.Assert.*;
+
+
+public class ClassDiagramShardsTests {
+
+    private static ClassInfo info(List<String> references, List<String> superClasses) {
+        return new ClassInfo(List.of(), List.of(), references, superClasses);
+    }
+
+    private static ClassDiagramShards shapes() {
+        Map<String, ClassInfo> classes = new HashMap<>();
+        classes.put("Shape", info(List.of(), List.of("ABC")));
+        classes.put("Point", info(List.of(), List.of()));
+        classes.put("Circle", info(List.of("Point"), List.of("Shape")));
+        classes.put("Canvas", info(List.of("Shape", "Color"), List.of()));
+        Map<String, String> modules = Map.of(
+                "Shape", "shapes.base", "Point", "geometry", "Circle", "shapes.circle", "Canvas", "main");
+        return new ClassDiagramShards(classes, modules);
+    }
+
+    @After
+    public void tearDown() {
+        System.clearProperty(ClassDiagramShards.THRESHOLD_PROPERTY);
+    }
+
+    @Test
+    public void testModulesDependOnTheModulesOfReferencedAndExtendedClasses() {
+        ClassDiagramShards shards = shapes();
+
+        assertEquals(List.of("geometry", "main", "shapes.base", "shapes.circle"), shards.modules());
+        // "Color" ist keine Projektklasse und erzeugt keine Abhängigkeit
+        assertEquals(Map.of(
+                "main", Set.of("shapes.base"),
+                "shapes.circle", Set.of("geometry", "shapes.base")), shards.dependencies());
+    }
+
+    @Test
+    public void testOverviewListsTheClassesOfEveryModule() {
+        String overview = shapes().overviewPlantUml();
+
+        assertTrue(overview.startsWith("@startuml"));
+        assertTrue(overview.contains("class \"geometry\" as m0 << (M,#ADD1B2) >> {\n  Point\n}"));
+        assertTrue(overview.contains("class \"shapes.circle\" as m3 << (M,#ADD1B2) >> {\n  Circle\n}"));
+        assertTrue(overview.contains("m3 ..> m0\n"));
+        assertTrue(overview.contains("m3 ..> m2\n"));
+        assertTrue(overview.contains("m1 ..> m2\n"));
+        assertFalse(overview.contains("Canvas ..>"));
+    }
+
+    @Test
+    public void testShardContainsOnlyTheClassesOfItsModule() {
+        String shard = shapes().shardPlantUml("shapes.circle");
+
+        assertTrue(shard.contains("class Circle {"));
+        // Klassen anderer Module erscheinen nur als Ziel von Beziehungen
+        assertTrue(shard.contains("Circle ..> Point"));
+        assertFalse(shard.contains("class Point {"));
+        assertNull(shapes().shardPlantUml("unknown"));
+    }
+
+    @Test
+    public void testOnlyModelsAboveTheThresholdAreSharded() {
+        Map<String, ClassInfo> classes = new HashMap<>();
+        for (int i = 0; i < ClassDiagramShards.DEFAULT_THRESHOLD; i++) {
+            classes.put("C" + i, info(List.of(), List.of()));
+        }
+        assertFalse(ClassDiagramShards.shouldShard(classes));
+
+        classes.put("One", info(List.of(), List.of()));
+        assertTrue(ClassDiagramShards.shouldShard(classes));
+
+        System.setProperty(ClassDiagramShards.THRESHOLD_PROPERTY, "100");
+        assertFalse(ClassDiagramShards.shouldShard(classes));
+    }
+}
@@ -0,0 +1,43 @@
+package de.code14.edupydebugger.diagram;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.IOException;
+
+import static org.junit.Assert.*;
+
+
+public class DiagramWarmUpTests {
+
+    @After
+    public void tearDown() {
+        System.clearProperty(DiagramWarmUp.PROPERTY);
+        System.clearProperty(ObjectCardRenderer.PLANTUML_PROPERTY);
+        System.clearProperty(ObjectDiagramRenderer.PLANTUML_PROPERTY);
+    }
+
+    @Test
+    public void testRunRendersEveryDiagramKind() throws IOException {
+        // PlantUML auch für Objekte, damit jeder Pfad einmal durchlaufen wird
+        System.setProperty(ObjectCardRenderer.PLANTUML_PROPERTY, "true");
+        System.setProperty(ObjectDiagramRenderer.PLANTUML_PROPERTY, "true");
+
+        DiagramWarmUp.Report report = DiagramWarmUp.run();
+
+        assertTrue(report.classDiagramMillis() >= 0);
+        assertTrue(report.objectDiagramMillis() >= 0);
+        assertTrue(report.objectCardsMillis() >= 0);
+        assertEquals(report.classDiagramMillis() + report.objectDiagramMillis() + report.objectCardsMillis(),
+                report.totalMillis());
+    }
+
+    @Test
+    public void testWarmUpCanBeDisabled() {
+        assertTrue(DiagramWarmUp.isEnabled());
+
+        System.setProperty(DiagramWarmUp.PROPERTY, "false");
+
+        assertFalse(DiagramWarmUp.isEnabled());
+    }
+}
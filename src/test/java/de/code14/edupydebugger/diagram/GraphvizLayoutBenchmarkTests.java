@@ -0,0 +1,64 @@
+package de.code14.edupydebugger.diagram;
+
+import com.intellij.openapi.diagnostic.Logger;
+import de.code14.edupydebugger.Benchmark;
+import de.code14.edupydebugger.analysis.staticanalysis.ClassInfo;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+/**
+ * Compares Smetana with native Graphviz {@code dot} on class diagrams of 10, 50 and 150 classes with associations
+ * and inheritance, and logs the wall time per diagram. Without an installed {@code dot} only Smetana is measured.
+ * A {@link Benchmark} test, run with {@code -Pedupy.benchmark}.
+ */
+public class GraphvizLayoutBenchmarkTests {
+
+    private static final Logger LOGGER = Logger.getInstance(GraphvizLayoutBenchmarkTests.class);
+
+    private static final int[] SIZES = {10, 50, 150};
+
+    private static Map<String, ClassInfo> classes(int count) {
+        Map<String, ClassInfo> classes = new LinkedHashMap<>();
+        for (int i = 0; i < count; i++) {
+            List<String> references = i + 1 < count ? List.of("C" + (i + 1)) : List.of();
+            List<String> superClasses = i > 0 && i % 4 == 0 ? List.of("C" + (i / 4)) : List.of();
+            classes.put("C" + i, new ClassInfo(List.of("+value : int", "+next : C" + (i + 1)),
+                    List.of("+update(self, value : int)"), references, superClasses));
+        }
+        return classes;
+    }
+
+    private static double millis(String plantUmlSource) throws IOException {
+        long start = System.nanoTime();
+        assertNotNull(PlantUMLDiagramGenerator.generateDiagramAsBase64(plantUmlSource));
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void testSmetanaAgainstDot() throws IOException {
+        String dot = GraphvizLayout.probe().join();
+        // Aufwärmen, damit der erste Messwert nicht das Laden von PlantUML enthält
+        millis(GraphvizLayout.toSmetana(ClassDiagramParser.toPlantUml(classes(3))));
+
+        StringBuilder report = new StringBuilder();
+        for (int size : SIZES) {
+            String source = GraphvizLayout.toSmetana(ClassDiagramParser.toPlantUml(classes(size)));
+            double smetana = millis(source);
+            if (dot != null) {
+                double native_ = millis(source.replace(GraphvizLayout.SMETANA_PRAGMA, GraphvizLayout.dotSkinparam(dot)));
+                report.append(String.format("%4d classes  smetana: %8.1f ms  dot: %8.1f ms%n", size, smetana, native_));
+            } else {
+                report.append(String.format("%4d classes  smetana: %8.1f ms  dot: not installed%n", size, smetana));
+            }
+        }
+        LOGGER.info("\n" + report);
+    }
+}
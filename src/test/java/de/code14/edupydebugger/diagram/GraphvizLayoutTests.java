@@ -0,0 +1,67 @@
+package de.code14.edupydebugger.diagram;
+
+import org.junit.After;
+import org.junit.Test;
+
+import static org.junit.Assert.*;
+
+
+public class GraphvizLayoutTests {
+
+    @After
+    public void tearDown() {
+        System.clearProperty(GraphvizLayout.MIN_NODES_PROPERTY);
+    }
+
+    @Test
+    public void testSmallDiagramsStayWithSmetana() {
+        assertEquals(GraphvizLayout.SMETANA_PRAGMA, GraphvizLayout.pragma(1));
+        assertEquals(GraphvizLayout.SMETANA_PRAGMA, GraphvizLayout.pragma(GraphvizLayout.DEFAULT_MIN_NODES - 1));
+    }
+
+    @Test
+    public void testLargeDiagramsUseDotOnlyIfInstalled() {
+        System.setProperty(GraphvizLayout.MIN_NODES_PROPERTY, "0");
+        String dot = GraphvizLayout.probe().join();
+
+        // Ohne installiertes Graphviz bleibt es bei Smetana
+        assertEquals(dot != null ? GraphvizLayout.dotSkinparam(dot) : GraphvizLayout.SMETANA_PRAGMA, GraphvizLayout.pragma(500));
+        assertEquals(dot != null, GraphvizLayout.isAvailable());
+        assertSame(GraphvizLayout.probe(), GraphvizLayout.probe());
+    }
+
+    @Test
+    public void testDotLineNamesTheExecutableAndMarksTheSource() {
+        String dotSource = "@startuml\n" + GraphvizLayout.dotSkinparam("/opt/graphviz/bin/dot") + "class A\nA --> B\n@enduml";
+
+        String smetanaSource = GraphvizLayout.toSmetana(dotSource);
+
+        assertEquals("@startuml\nskinparam dotExecutable \"/opt/graphviz/bin/dot\"\nclass A\nA --> B\n@enduml", dotSource);
+        assertTrue(GraphvizLayout.usesDot(dotSource));
+        assertFalse(GraphvizLayout.usesDot(smetanaSource));
+        assertEquals("@startuml\n!pragma layout smetana\nclass A\nA --> B\n@enduml", smetanaSource);
+        assertSame(smetanaSource, GraphvizLayout.toSmetana(smetanaSource));
+    }
+
+    @Test
+    public void testSourcesWithoutLayoutLineAreNotRoutedToDot() {
+        String source = "@startuml\nclass A\nA --> B\n@enduml";
+
+        // Nur die ausdrückliche dot-Zeile führt zu dot, alles andere wird mit Smetana gelayoutet
+        assertFalse(GraphvizLayout.usesDot(source));
+        assertEquals("@startuml\n!pragma layout smetana\nclass A\nA --> B\n@enduml", GraphvizLayout.toSmetana(source));
+    }
+
+    @Test
+    public void testWindowsPathsAreWrittenWithForwardSlashes() {
+        assertEquals("skinparam dotExecutable \"C:/Program Files/Graphviz/bin/dot.exe\"\n",
+                GraphvizLayout.dotSkinparam("C:\\Program Files\\Graphviz\\bin\\dot.exe"));
+    }
+
+    @Test
+    public void testGraphvizErrorImagesAreRecognized() {
+        assertTrue(GraphvizLayout.isDotFailure("<svg><text>Dot Executable: /usr/bin/dot</text></svg>".getBytes()));
+        assertTrue(GraphvizLayout.isDotFailure("<svg><text>Cannot find Graphviz.</text></svg>".getBytes()));
+        assertFalse(GraphvizLayout.isDotFailure("<svg><text>Foo</text></svg>".getBytes()));
+    }
+}
@@ -0,0 +1,126 @@
+package de.code14.edupydebugger.diagram;
+
+import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import org.junit.After;
+import org.junit.Test;
+import org.w3c.dom.Document;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+
+public class ObjectCardRendererTests {
+
+    @After
+    public void tearDown() {
+        System.clearProperty(ObjectCardRenderer.PLANTUML_PROPERTY);
+    }
+
+    private static String render(ObjectInfo info) {
+        return ObjectCardRenderer.renderCard(ObjectGraph.of(Map.of("1", info)).node("1"));
+    }
+
+    private static Document parse(String svg) throws Exception {
+        DocumentBuilderFactory factory = DocumentBuilderFactory.newInstance();
+        factory.setNamespaceAware(true);
+        return factory.newDocumentBuilder().parse(new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Test
+    public void testCardShowsTitleAndAttributes() throws Exception {
+        ObjectInfo info = new ObjectInfo(List.of("node:Node"), List.of(
+                new AttributeInfo("value", "int", "3", "public"),
+                new AttributeInfo("name", "str", "'abc'", "public")));
+
+        String svg = render(info);
+
+        Document doc = parse(svg);
+        assertEquals("svg", doc.getDocumentElement().getLocalName());
+        assertTrue(svg.contains(">node:Node</text>"));
+        assertTrue(svg.contains(">value = 3</text>"));
+        assertTrue(svg.contains(">name = 'abc'</text>"));
+        assertTrue(svg.contains("id=\"o1\""));
+    }
+
+    @Test
+    public void testReferenceBecomesLinkTheUiCanRewrite() throws Exception {
+        ObjectInfo info = new ObjectInfo(List.of("a:Node"), List.of(new AttributeInfo("next", "Node", "refid:42", "public")));
+
+        String svg = render(info);
+
+        parse(svg);
+        // app.js liest die ID aus href.split('/').at(1)
+        assertTrue(svg.contains("<a href=\"localhost:8026/42\""));
+        assertTrue(svg.contains(">next = </text>"));
+        assertTrue(svg.contains(">42</tspan>"));
+    }
+
+    @Test
+    public void testLongValuesAreTruncatedAndStaticIsUnderlined() {
+        ObjectInfo info = new ObjectInfo(List.of("c:Counter"), List.of(
+                new AttributeInfo("text", "str", "abcdefghijklmnopqrstuvwxyz", "public"),
+                new AttributeInfo("count", "int", "7", "static")));
+
+        String svg = render(info);
+
+        assertTrue(svg.contains(">text = abcdefghijklmnopqrst [...]</text>"));
+        assertFalse(svg.contains("uvwxyz"));
+        assertTrue(svg.contains("text-decoration=\"underline\">count = 7</text>"));
+    }
+
+    @Test
+    public void testMarkupInValuesIsEscaped() throws Exception {
+        ObjectInfo info = new ObjectInfo(List.of("o:<Weird & \"Co\">"), List.of(
+                new AttributeInfo("tag", "str", "<b>", "public")));
+
+        String svg = render(info);
+
+        parse(svg);
+        assertTrue(svg.contains("o:&lt;Weird &amp; &quot;Co&quot;&gt;"));
+        assertTrue(svg.contains("tag = &lt;b&gt;"));
+    }
+
+    @Test
+    public void testCardWidthFollowsTextWidth() throws Exception {
+        ObjectInfo narrow = new ObjectInfo(List.of("a:A"), List.of(new AttributeInfo("i", "int", "1", "public")));
+        ObjectInfo wide = new ObjectInfo(List.of("a:A"), List.of(new AttributeInfo("WWWWWWWWWWWW", "int", "1", "public")));
+
+        double narrowWidth = Double.parseDouble(parse(render(narrow))
+                .getDocumentElement().getAttribute("width").replace("px", ""));
+        double wideWidth = Double.parseDouble(parse(render(wide))
+                .getDocumentElement().getAttribute("width").replace("px", ""));
+
+        assertTrue(wideWidth > narrowWidth);
+        assertTrue(ObjectCardRenderer.textWidth("W") > ObjectCardRenderer.textWidth("i"));
+        assertEquals(0.0, ObjectCardRenderer.textWidth(""), 0.0);
+    }
+
+    @Test
+    public void testRenderCardsAsBase64SkipsMissingObjects() {
+        Map<String, ObjectInfo> objects = new HashMap<>();
+        objects.put("1", new ObjectInfo(List.of("x:X"), Collections.emptyList()));
+        objects.put("2", null);
+
+        Map<String, String> cards = ObjectCardRenderer.renderCardsAsBase64(ObjectGraph.of(objects));
+
+        assertEquals(1, cards.size());
+        String svg = new String(Base64.getDecoder().decode(cards.get("1")), StandardCharsets.UTF_8);
+        assertTrue(svg.startsWith("<svg"));
+    }
+
+    @Test
+    public void testPlantUmlFallbackCanBeSelected() {
+        assertTrue(ObjectCardRenderer.isEnabled());
+        System.setProperty(ObjectCardRenderer.PLANTUML_PROPERTY, "true");
+        assertFalse(ObjectCardRenderer.isEnabled());
+    }
+}
@@ -0,0 +1,147 @@
+package de.code14.edupydebugger.diagram;
+
+import com.google.gson.Gson;
+import com.intellij.openapi.diagnostic.Logger;
+import de.code14.edupydebugger.Benchmark;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import de.code14.edupydebugger.server.dto.ObjectGraphPayload;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.io.IOException;
+import java.util.List;
+import java.util.Map;
+
+import static de.code14.edupydebugger.diagram.ObjectGraphFixtures.binaryTree;
+import static de.code14.edupydebugger.diagram.ObjectGraphFixtures.linkedList;
+import static org.junit.Assert.*;
+
+/**
+ * Compares the native layered object diagram with PlantUML/Smetana for linked lists and binary trees of 10, 100
+ * and 1,000 objects, and logs the wall time per diagram. Smetana is only measured up to
+ * {@code -Dedupy.diagram.benchmark.smetanaMax} objects (default 100), since a single 1,000-object diagram can take
+ * minutes; pass {@code -Pedupy.diagram.benchmark.smetanaMax=1000} for the full comparison.
+ * <p>
+ * A second report compares the IDE-side cost of the two publishing paths per step: SVG for cards and diagram
+ * versus the graph JSON of client-side rendering, which leaves layout and drawing to the browser.
+ * </p>
+ * <p>
+ * Both reports are {@link Benchmark} tests and only run with {@code -Pedupy.benchmark}; the regular run keeps the
+ * checks that do not depend on timing.
+ * </p>
+ */
+public class ObjectDiagramBenchmarkTests {
+
+    private static final Logger LOGGER = Logger.getInstance(ObjectDiagramBenchmarkTests.class);
+
+    private static final int[] SIZES = {10, 100, 1000};
+    private static final int RUNS = 5;
+
+    private static double nativeMillis(Map<String, ObjectInfo> objects, boolean incremental) {
+        ObjectDiagramRenderer renderer = new ObjectDiagramRenderer();
+        ObjectGraph graph = ObjectGraph.of(objects);
+        renderer.render(graph); // Aufwärmen bzw. Ausgangslage für den inkrementellen Fall
+        long start = System.nanoTime();
+        for (int run = 0; run < RUNS; run++) {
+            if (!incremental) {
+                renderer.reset();
+            }
+            assertTrue(renderer.render(graph).startsWith("<svg"));
+        }
+        return (System.nanoTime() - start) / (RUNS * 1e6);
+    }
+
+    private static double smetanaMillis(Map<String, ObjectInfo> objects) throws IOException {
+        long start = System.nanoTime();
+        assertNotNull(PlantUMLDiagramGenerator.generateDiagramAsBase64(ObjectDiagramParser.generateObjectDiagram(objects)));
+        return (System.nanoTime() - start) / 1e6;
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void testNativeLayoutAgainstSmetana() throws IOException {
+        int smetanaMax = Integer.getInteger("edupy.diagram.benchmark.smetanaMax", 100);
+
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-6s %6s %14s %14s %14s%n", "Graph", "Nodes", "native [ms]", "incr. [ms]", "Smetana [ms]"));
+        for (String shape : List.of("list", "tree")) {
+            for (int size : SIZES) {
+                Map<String, ObjectInfo> objects = "list".equals(shape) ? linkedList(size) : binaryTree(size);
+                double full = nativeMillis(objects, false);
+                double incremental = nativeMillis(objects, true);
+                String smetana = size <= smetanaMax ? String.format("%.1f", smetanaMillis(objects)) : "übersprungen";
+                report.append(String.format("%-6s %6d %14.2f %14.2f %14s%n", shape, size, full, incremental, smetana));
+            }
+        }
+        LOGGER.info("\n" + report);
+    }
+
+    // Server: alle Karten und das Diagramm als Base64-SVG; Ergebnis[0] = ms, Ergebnis[1] = Zeichen
+    private static double[] serverSvg(ObjectGraph graph) {
+        long start = System.nanoTime();
+        long chars = 0;
+        for (int run = 0; run < RUNS; run++) {
+            chars = 0;
+            for (String card : ObjectCardRenderer.renderCardsAsBase64(graph).values()) {
+                chars += card.length();
+            }
+            chars += new ObjectDiagramRenderer().update(graph).svg().length() * 4L / 3;
+        }
+        return new double[]{(System.nanoTime() - start) / (RUNS * 1e6), chars};
+    }
+
+    // Client: nur Knotenbudget anwenden und den Graphen serialisieren
+    private static double[] clientJson(ObjectGraph graph) {
+        Gson gson = new Gson();
+        long start = System.nanoTime();
+        long chars = 0;
+        for (int run = 0; run < RUNS; run++) {
+            ObjectDiagramRenderer renderer = new ObjectDiagramRenderer();
+            chars = gson.toJson(ObjectGraphPayload.of(graph, renderer.collapse(graph))).length();
+        }
+        return new double[]{(System.nanoTime() - start) / (RUNS * 1e6), chars};
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void testServerSvgAgainstClientGraphJson() {
+        StringBuilder report = new StringBuilder();
+        report.append(String.format("%-6s %6s %12s %12s %12s %12s%n",
+                "Graph", "Nodes", "SVG [ms]", "SVG [KB]", "JSON [ms]", "JSON [KB]"));
+        for (String shape : List.of("list", "tree")) {
+            for (int size : SIZES) {
+                ObjectGraph graph = ObjectGraph.of("list".equals(shape) ? linkedList(size) : binaryTree(size));
+                serverSvg(graph); // Aufwärmen
+                clientJson(graph);
+                double[] svg = serverSvg(graph);
+                double[] json = clientJson(graph);
+                report.append(String.format("%-6s %6d %12.2f %12.1f %12.2f %12.1f%n",
+                        shape, size, svg[0], svg[1] / 1024, json[0], json[1] / 1024));
+            }
+        }
+        LOGGER.info("\n" + report);
+    }
+
+    @Test
+    public void testClientGraphJsonIsSmallerThanServerSvg() {
+        for (ObjectGraph graph : List.of(ObjectGraph.of(linkedList(100)), ObjectGraph.of(binaryTree(100)))) {
+            long svgChars = new ObjectDiagramRenderer().update(graph).svg().length();
+            for (String card : ObjectCardRenderer.renderCardsAsBase64(graph).values()) {
+                svgChars += card.length();
+            }
+            long jsonChars = new Gson().toJson(ObjectGraphPayload.of(graph, new ObjectDiagramRenderer().collapse(graph))).length();
+
+            // Der Graph ist immer kleiner als die fertigen SVGs
+            assertTrue(jsonChars < svgChars);
+        }
+    }
+
+    @Test
+    public void testThousandObjectsAreDrawnWithAllReferences() {
+        ObjectDiagramRenderer renderer = new ObjectDiagramRenderer();
+        String svg = renderer.render(ObjectGraph.of(binaryTree(1000)));
+
+        assertTrue(svg.contains("id=\"o1000\""));
+        assertEquals(999, svg.split("marker-end=", -1).length - 1);
+    }
+}
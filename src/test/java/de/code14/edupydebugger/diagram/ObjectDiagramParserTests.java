@@ -117,4 +117,19 @@ public class ObjectDiagramParserTests {
         assertTrue(result.contains("object \"Object2\" as o2"));
         assertTrue(result.contains("o1 --> o2"));
     }
+
+    @Test
+    public void testGenerateObjectDiagramKeepsEveryAssociationOfAnObject() {
+        ObjectInfo root = new ObjectInfo(List.of("root:Node"), List.of(
+                new AttributeInfo("left", "Node", "refid:2", "public"),
+                new AttributeInfo("right", "Node", "refid:3", "public")));
+        ObjectInfo left = new ObjectInfo(List.of("l:Node"), Collections.emptyList());
+        ObjectInfo right = new ObjectInfo(List.of("r:Node"), Collections.emptyList());
+
+        String result = ObjectDiagramParser.generateObjectDiagram(Map.of("1", root, "2", left, "3", right));
+
+        // Früher blieb pro Objekt nur eine Assoziation übrig
+        assertTrue(result.contains("o1 --> o2"));
+        assertTrue(result.contains("o1 --> o3"));
+    }
 }
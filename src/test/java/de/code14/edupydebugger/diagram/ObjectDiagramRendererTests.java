@@ -0,0 +1,176 @@
+package de.code14.edupydebugger.diagram;
+
+import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import org.junit.After;
+import org.junit.Test;
+
+import javax.xml.parsers.DocumentBuilderFactory;
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.code14.edupydebugger.diagram.ObjectGraphFixtures.linkedList;
+import static org.junit.Assert.*;
+
+
+public class ObjectDiagramRendererTests {
+
+    @After
+    public void tearDown() {
+        System.clearProperty(ObjectDiagramRenderer.PLANTUML_PROPERTY);
+        System.clearProperty(ObjectDiagramRenderer.BUDGET_PROPERTY);
+    }
+
+    private static int count(String text, String part) {
+        int count = 0;
+        for (int i = text.indexOf(part); i >= 0; i = text.indexOf(part, i + 1)) {
+            count++;
+        }
+        return count;
+    }
+
+    @Test
+    public void testDiagramContainsAllObjectsAndOneArrowPerReference() throws Exception {
+        String svg = new ObjectDiagramRenderer().render(ObjectGraph.of(linkedList(3)));
+
+        DocumentBuilderFactory.newInstance().newDocumentBuilder()
+                .parse(new ByteArrayInputStream(svg.getBytes(StandardCharsets.UTF_8)));
+        assertTrue(svg.contains("id=\"o1\""));
+        assertTrue(svg.contains("id=\"o2\""));
+        assertTrue(svg.contains("id=\"o3\""));
+        assertEquals(2, count(svg, "marker-end=\"url(#arrow)\""));
+        // Werte erscheinen wie im PlantUML-Diagramm unverkürzt
+        assertTrue(svg.contains(">next = refid:2</text>"));
+    }
+
+    @Test
+    public void testMultipleReferencesOfOneObjectAreAllDrawn() {
+        Map<String, ObjectInfo> objects = new HashMap<>();
+        objects.put("1", new ObjectInfo(List.of("root:Node"), List.of(
+                new AttributeInfo("left", "Node", "refid:2", "public"),
+                new AttributeInfo("right", "Node", "refid:3", "public"))));
+        objects.put("2", new ObjectInfo(List.of("l:Node"), List.of()));
+        objects.put("3", new ObjectInfo(List.of("r:Node"), List.of()));
+
+        String svg = new ObjectDiagramRenderer().render(ObjectGraph.of(objects));
+
+        assertEquals(2, count(svg, "marker-end=\"url(#arrow)\""));
+    }
+
+    @Test
+    public void testRenderAsBase64SkipsMissingObjects() {
+        Map<String, ObjectInfo> objects = new HashMap<>(linkedList(1));
+        objects.put("2", null);
+
+        String base64 = new ObjectDiagramRenderer().renderAsBase64(ObjectGraph.of(objects));
+        String svg = new String(Base64.getDecoder().decode(base64), StandardCharsets.UTF_8);
+
+        assertTrue(svg.startsWith("<svg"));
+        assertTrue(svg.contains("id=\"o1\""));
+        assertFalse(svg.contains("id=\"o2\""));
+    }
+
+    @Test
+    public void testChangedValuesYieldTextPatchWithoutLayout() {
+        ObjectDiagramRenderer renderer = new ObjectDiagramRenderer();
+        ObjectDiagramRenderer.Update first = renderer.update(ObjectGraph.of(linkedList(3)));
+        assertFalse(first.isPatch());
+        assertTrue(first.svg().contains("data-revision=\"" + first.revision() + "\""));
+
+        Map<String, ObjectInfo> changed = new HashMap<>(linkedList(3));
+        changed.put("2", new ObjectInfo(List.of("n2:Node"), List.of(
+                new AttributeInfo("value", "int", "7", "public"),
+                new AttributeInfo("next", "Node", "refid:3", "public"))));
+        ObjectDiagramRenderer.Update second = renderer.update(ObjectGraph.of(changed));
+
+        assertTrue(second.isPatch());
+        assertEquals(first.revision(), second.revision());
+        assertEquals(Map.of("o2-r0", "value = 7"), second.texts());
+
+        // Unverändert: leerer Patch
+        ObjectDiagramRenderer.Update third = renderer.update(ObjectGraph.of(changed));
+        assertTrue(third.isPatch());
+        assertTrue(third.texts().isEmpty());
+    }
+
+    @Test
+    public void testPatchedElementIdsExistInDiagram() {
+        ObjectDiagramRenderer renderer = new ObjectDiagramRenderer();
+        String svg = renderer.update(ObjectGraph.of(linkedList(2))).svg();
+
+        assertTrue(svg.contains("id=\"o1-t\""));
+        assertTrue(svg.contains("id=\"o1-r0\""));
+        assertTrue(svg.contains("id=\"o1-r1\""));
+    }
+
+    @Test
+    public void testStructuralChangesRenderFullDiagram() {
+        ObjectDiagramRenderer renderer = new ObjectDiagramRenderer();
+        int revision = renderer.update(ObjectGraph.of(linkedList(3))).revision();
+
+        // Neues Objekt
+        ObjectDiagramRenderer.Update added = renderer.update(ObjectGraph.of(linkedList(4)));
+        assertFalse(added.isPatch());
+        assertEquals(revision + 1, added.revision());
+
+        // Umgehängte Referenz
+        Map<String, ObjectInfo> rewired = new HashMap<>(linkedList(4));
+        rewired.put("1", new ObjectInfo(List.of("n1:Node"), List.of(
+                new AttributeInfo("value", "int", "1", "public"),
+                new AttributeInfo("next", "Node", "refid:3", "public"))));
+        assertFalse(renderer.update(ObjectGraph.of(rewired)).isPatch());
+
+        // Wert, der nicht mehr in die Karte passt
+        Map<String, ObjectInfo> wider = new HashMap<>(rewired);
+        wider.put("4", new ObjectInfo(List.of("n4:Node"), List.of(
+                new AttributeInfo("value", "int", "a much longer value than before", "public"))));
+        assertFalse(renderer.update(ObjectGraph.of(wider)).isPatch());
+    }
+
+    @Test
+    public void testCurrentDiagramIncludesPatches() {
+        ObjectDiagramRenderer renderer = new ObjectDiagramRenderer();
+        assertNull(renderer.currentAsBase64());
+        renderer.update(ObjectGraph.of(linkedList(2)));
+
+        Map<String, ObjectInfo> changed = new HashMap<>(linkedList(2));
+        changed.put("2", new ObjectInfo(List.of("n2:Node"), List.of(new AttributeInfo("value", "int", "9", "public"))));
+        assertTrue(renderer.update(ObjectGraph.of(changed)).isPatch());
+
+        String svg = new String(Base64.getDecoder().decode(renderer.currentAsBase64()), StandardCharsets.UTF_8);
+        assertTrue(svg.contains(">value = 9</text>"));
+        assertFalse(svg.contains(">value = 2</text>"));
+    }
+
+    @Test
+    public void testUpdateCollapsesObjectsBeyondBudgetAndExpandsOnDemand() {
+        System.setProperty(ObjectDiagramRenderer.BUDGET_PROPERTY, "10");
+        ObjectDiagramRenderer renderer = new ObjectDiagramRenderer();
+
+        String svg = renderer.update(ObjectGraph.of(linkedList(50))).svg();
+        assertEquals(10, count(svg, "<g id=\"o"));
+        assertTrue(svg.contains("id=\"o~10\""));
+        assertTrue(svg.contains(">41 × Node</text>"));
+
+        // Aufklappen zeigt die nächsten Objekte zusätzlich zum Budget
+        assertNull(renderer.expand("~99"));
+        ObjectDiagramRenderer.Update expanded = renderer.expand("~10");
+        assertFalse(expanded.isPatch());
+        assertTrue(expanded.svg().contains("id=\"o19\""));
+        assertTrue(expanded.svg().contains(">31 × Node</text>"));
+
+        // Das vollständige Diagramm bleibt ungekürzt
+        assertEquals(50, count(new ObjectDiagramRenderer().render(ObjectGraph.of(linkedList(50))), "<g id=\"o"));
+    }
+
+    @Test
+    public void testPlantUmlFallbackCanBeSelected() {
+        assertTrue(ObjectDiagramRenderer.isEnabled());
+        System.setProperty(ObjectDiagramRenderer.PLANTUML_PROPERTY, "true");
+        assertFalse(ObjectDiagramRenderer.isEnabled());
+    }
+}
@@ -0,0 +1,135 @@
+package de.code14.edupydebugger.diagram;
+
+import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.code14.edupydebugger.diagram.ObjectGraphFixtures.binaryTree;
+import static de.code14.edupydebugger.diagram.ObjectGraphFixtures.linkedList;
+import static org.junit.Assert.*;
+
+
+public class ObjectGraphClusteringTests {
+
+    // Summe der Zähler in den Sammelknoten plus sichtbare Objekte
+    private static int represented(ObjectGraph reduced) {
+        int total = 0;
+        for (ObjectGraph.Node node : reduced.nodes()) {
+            if (node.id().startsWith(ObjectGraphClustering.CLUSTER_PREFIX)) {
+                total += Integer.parseInt(node.title().substring(0, node.title().indexOf(' ')));
+            } else {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private static String target(ObjectGraph.Node node, String name) {
+        return node.attributes().stream().filter(a -> a.name().equals(name)).findFirst().orElseThrow().target();
+    }
+
+    private static List<ObjectGraph.Node> summaries(ObjectGraph reduced) {
+        return reduced.nodes().stream().filter(n -> n.id().startsWith(ObjectGraphClustering.CLUSTER_PREFIX)).toList();
+    }
+
+    @Test
+    public void testGraphWithinBudgetIsReturnedUnchanged() {
+        ObjectGraph graph = ObjectGraph.of(linkedList(10));
+
+        assertSame(graph, new ObjectGraphClustering().reduce(graph, 10));
+    }
+
+    @Test
+    public void testLongChainEndsInOneSummaryNode() {
+        ObjectGraph reduced = new ObjectGraphClustering().reduce(ObjectGraph.of(linkedList(1000)), 100);
+
+        assertEquals(100, reduced.size());
+        assertEquals(1000, represented(reduced));
+        // Kopf bleibt sichtbar, das Listenende wird zu "901 × Node"
+        assertNotNull(reduced.node("1"));
+        assertEquals("~100", target(reduced.node("99"), "next"));
+        assertEquals("901 × Node", reduced.node("~100").title());
+    }
+
+    @Test
+    public void testTreeIsCutIntoSubtreeSummariesWithinBudget() {
+        ObjectGraph reduced = new ObjectGraphClustering().reduce(ObjectGraph.of(binaryTree(1000)), 50);
+
+        assertTrue(reduced.size() <= 50);
+        assertEquals(1000, represented(reduced));
+        assertNotNull(reduced.node("1"));
+        assertNotNull(reduced.node("2"));
+        assertNotNull(reduced.node("3"));
+        // Jede Referenz zeigt auf einen Knoten des reduzierten Diagramms
+        for (ObjectGraph.Edge edge : reduced.edges()) {
+            assertNotNull(edge.to(), reduced.node(edge.to()));
+        }
+    }
+
+    @Test
+    public void testUnreferencedObjectsOfOneTypeShareASummary() {
+        Map<String, ObjectInfo> objects = new HashMap<>();
+        for (int i = 1; i <= 500; i++) {
+            objects.put(String.valueOf(i), new ObjectInfo(List.of("p" + i + ":Point"),
+                    List.of(new AttributeInfo("x", "int", String.valueOf(i), "public"))));
+        }
+
+        ObjectGraph reduced = new ObjectGraphClustering().reduce(ObjectGraph.of(objects), 20);
+
+        assertEquals(20, reduced.size());
+        assertEquals("481 × Point", reduced.node("~20").title());
+        assertTrue(reduced.node("~20").attributes().isEmpty());
+    }
+
+    @Test
+    public void testSummariesAreHomogeneousAndKeepTheirReferences() {
+        // Liste von Knoten, die jeweils ein Item halten
+        Map<String, ObjectInfo> objects = new HashMap<>();
+        for (int i = 1; i <= 100; i++) {
+            List<AttributeInfo> attributes = new ArrayList<>();
+            attributes.add(new AttributeInfo("item", "Item", "refid:" + (1000 + i), "public"));
+            if (i < 100) {
+                attributes.add(new AttributeInfo("next", "Node", "refid:" + (i + 1), "public"));
+            }
+            objects.put(String.valueOf(i), new ObjectInfo(List.of("n" + i + ":Node"), attributes));
+            objects.put(String.valueOf(1000 + i), new ObjectInfo(List.of("i" + i + ":Item"), List.of()));
+        }
+
+        ObjectGraph reduced = new ObjectGraphClustering().reduce(ObjectGraph.of(objects), 20);
+
+        assertTrue(reduced.size() <= 20);
+        assertEquals(200, represented(reduced));
+        List<ObjectGraph.Node> summaries = summaries(reduced);
+        assertEquals(2, summaries.size());
+        ObjectGraph.Node nodes = summaries.stream().filter(n -> n.type().equals("Node")).findFirst().orElseThrow();
+        ObjectGraph.Node items = summaries.stream().filter(n -> n.type().equals("Item")).findFirst().orElseThrow();
+        assertTrue(nodes.title().endsWith("× Node"));
+        assertTrue(items.title().endsWith("× Item"));
+        // Der Sammelknoten der Knoten verweist auf den der Items
+        assertEquals(items.id(), target(nodes, "item"));
+    }
+
+    @Test
+    public void testExpandShowsMembersInAdditionToTheBudget() {
+        ObjectGraphClustering clustering = new ObjectGraphClustering();
+        ObjectGraph graph = ObjectGraph.of(linkedList(1000));
+        clustering.reduce(graph, 100);
+
+        assertFalse(clustering.expand("~1", 100));
+        assertTrue(clustering.expand("~100", 100));
+        ObjectGraph reduced = clustering.reduce(graph, 100);
+
+        assertNotNull(reduced.node("100"));
+        assertNotNull(reduced.node("199"));
+        assertEquals(1000, represented(reduced));
+        assertTrue(reduced.size() <= 200);
+
+        clustering.reset();
+        assertNull(clustering.reduce(graph, 100).node("100"));
+    }
+}
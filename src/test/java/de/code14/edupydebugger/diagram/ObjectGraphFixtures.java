@@ -0,0 +1,72 @@
+package de.code14.edupydebugger.diagram;
+
+import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Object models shared by the diagram tests: linked lists and complete binary trees of any size. Objects are keyed by
+ * their id {@code 1..n}; the tree is numbered level by level, so object {@code i} refers to {@code 2i} and
+ * {@code 2i + 1}.
+ */
+final class ObjectGraphFixtures {
+
+    private ObjectGraphFixtures() {
+    }
+
+    /**
+     * @param length the number of nodes
+     * @return nodes {@code n1:Node ... nN:Node}, each with a {@code value} and a {@code next} reference but the last
+     */
+    static Map<String, ObjectInfo> linkedList(int length) {
+        Map<String, ObjectInfo> objects = new HashMap<>();
+        for (int i = 1; i <= length; i++) {
+            List<AttributeInfo> attributes = new ArrayList<>();
+            attributes.add(new AttributeInfo("value", "int", String.valueOf(i), "public"));
+            if (i < length) {
+                attributes.add(new AttributeInfo("next", "Node", "refid:" + (i + 1), "public"));
+            }
+            objects.put(String.valueOf(i), new ObjectInfo(List.of("n" + i + ":Node"), attributes));
+        }
+        return objects;
+    }
+
+    /**
+     * @param size the number of nodes
+     * @return nodes {@code t1:Node ... tN:Node}, each with a {@code key} and {@code left}/{@code right} references
+     */
+    static Map<String, ObjectInfo> binaryTree(int size) {
+        Map<String, ObjectInfo> objects = new HashMap<>();
+        for (int i = 1; i <= size; i++) {
+            List<AttributeInfo> attributes = new ArrayList<>();
+            attributes.add(new AttributeInfo("key", "int", String.valueOf(i), "public"));
+            if (2 * i <= size) {
+                attributes.add(new AttributeInfo("left", "Node", "refid:" + (2 * i), "public"));
+            }
+            if (2 * i + 1 <= size) {
+                attributes.add(new AttributeInfo("right", "Node", "refid:" + (2 * i + 1), "public"));
+            }
+            objects.put(String.valueOf(i), new ObjectInfo(List.of("t" + i + ":Node"), attributes));
+        }
+        return objects;
+    }
+
+    /**
+     * @param size the number of nodes
+     * @return the references of {@link #binaryTree(int)} as layout edges, parents before children
+     */
+    static List<ObjectGraphLayout.Edge> binaryTreeEdges(int size) {
+        List<ObjectGraphLayout.Edge> edges = new ArrayList<>();
+        for (int i = 1; 2 * i <= size; i++) {
+            edges.add(new ObjectGraphLayout.Edge(String.valueOf(i), String.valueOf(2 * i)));
+            if (2 * i + 1 <= size) {
+                edges.add(new ObjectGraphLayout.Edge(String.valueOf(i), String.valueOf(2 * i + 1)));
+            }
+        }
+        return edges;
+    }
+}
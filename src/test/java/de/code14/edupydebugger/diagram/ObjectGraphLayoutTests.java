@@ -0,0 +1,133 @@
+package de.code14.edupydebugger.diagram;
+
+import org.junit.Test;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import static de.code14.edupydebugger.diagram.ObjectGraphFixtures.binaryTreeEdges;
+import static org.junit.Assert.*;
+
+
+public class ObjectGraphLayoutTests {
+
+    private static Map<String, ObjectGraphLayout.Size> nodes(int count) {
+        Map<String, ObjectGraphLayout.Size> sizes = new LinkedHashMap<>();
+        for (int i = 1; i <= count; i++) {
+            sizes.put(String.valueOf(i), new ObjectGraphLayout.Size(80, 60));
+        }
+        return sizes;
+    }
+
+    private static ObjectGraphLayout.Edge edge(int from, int to) {
+        return new ObjectGraphLayout.Edge(String.valueOf(from), String.valueOf(to));
+    }
+
+    private static void assertNoOverlaps(ObjectGraphLayout.Result result) {
+        List<ObjectGraphLayout.Node> all = new ArrayList<>(result.nodes().values());
+        for (int i = 0; i < all.size(); i++) {
+            for (int j = i + 1; j < all.size(); j++) {
+                ObjectGraphLayout.Node a = all.get(i);
+                ObjectGraphLayout.Node b = all.get(j);
+                boolean apart = a.x() + a.width() <= b.x() || b.x() + b.width() <= a.x()
+                        || a.y() + a.height() <= b.y() || b.y() + b.height() <= a.y();
+                assertTrue(a + " überlappt " + b, apart);
+            }
+        }
+    }
+
+    @Test
+    public void testChainIsLaidOutTopDownInOneColumn() {
+        List<ObjectGraphLayout.Edge> edges = List.of(edge(1, 2), edge(2, 3), edge(3, 4));
+
+        ObjectGraphLayout.Result result = new ObjectGraphLayout().layout(nodes(4), edges);
+
+        for (int i = 1; i <= 4; i++) {
+            ObjectGraphLayout.Node node = result.nodes().get(String.valueOf(i));
+            assertEquals(i - 1, node.layer());
+            assertEquals(result.nodes().get("1").x(), node.x(), 0.001);
+        }
+        assertEquals(ObjectGraphLayout.MARGIN, result.nodes().get("1").x(), 0.001);
+    }
+
+    @Test
+    public void testTreeCentersParentsAboveChildrenWithoutOverlap() {
+        ObjectGraphLayout.Result result = new ObjectGraphLayout().layout(nodes(15), binaryTreeEdges(15));
+
+        assertNoOverlaps(result);
+        ObjectGraphLayout.Node root = result.nodes().get("1");
+        double childrenCenter = (result.nodes().get("2").centerX() + result.nodes().get("3").centerX()) / 2;
+        assertEquals(childrenCenter, root.centerX(), 0.001);
+        assertEquals(3, result.nodes().get("8").layer());
+        assertTrue(result.width() > 8 * 80);
+    }
+
+    @Test
+    public void testCyclesAndSelfReferencesAreLaidOut() {
+        List<ObjectGraphLayout.Edge> edges = List.of(edge(1, 2), edge(2, 3), edge(3, 1), edge(2, 2));
+
+        ObjectGraphLayout.Result result = new ObjectGraphLayout().layout(nodes(3), edges);
+
+        assertEquals(0, result.nodes().get("1").layer());
+        assertEquals(1, result.nodes().get("2").layer());
+        assertEquals(2, result.nodes().get("3").layer());
+        // Alle Kanten bleiben erhalten, auch Rück- und Selbstreferenzen
+        assertEquals(edges, result.edges());
+    }
+
+    @Test
+    public void testEdgesToUnknownObjectsAreDropped() {
+        List<ObjectGraphLayout.Edge> edges = List.of(edge(1, 2), edge(1, 99));
+
+        ObjectGraphLayout.Result result = new ObjectGraphLayout().layout(nodes(2), edges);
+
+        assertEquals(List.of(edge(1, 2)), result.edges());
+    }
+
+    @Test
+    public void testKnownNodesKeepTheirPlaceWhenNodesAreAdded() {
+        ObjectGraphLayout layout = new ObjectGraphLayout();
+        ObjectGraphLayout.Result before = layout.layout(nodes(7), binaryTreeEdges(7));
+
+        List<ObjectGraphLayout.Edge> edges = new ArrayList<>(binaryTreeEdges(7));
+        edges.add(edge(7, 8));
+        ObjectGraphLayout.Result after = layout.layout(nodes(8), edges);
+
+        for (int i = 1; i <= 7; i++) {
+            String id = String.valueOf(i);
+            assertEquals(id, before.nodes().get(id).x(), after.nodes().get(id).x(), 0.001);
+            assertEquals(id, before.nodes().get(id).y(), after.nodes().get(id).y(), 0.001);
+        }
+        // Der neue Knoten landet unter seinem Vorgänger
+        assertEquals(3, after.nodes().get("8").layer());
+        assertEquals(after.nodes().get("7").centerX(), after.nodes().get("8").centerX(), 0.001);
+        assertNoOverlaps(after);
+    }
+
+    @Test
+    public void testNewReferenceMovesKnownNodeDown() {
+        ObjectGraphLayout layout = new ObjectGraphLayout();
+        layout.layout(nodes(3), List.of(edge(1, 2)));
+
+        ObjectGraphLayout.Result after = layout.layout(nodes(3), List.of(edge(1, 2), edge(2, 3)));
+
+        assertEquals(2, after.nodes().get("3").layer());
+        assertNoOverlaps(after);
+    }
+
+    @Test
+    public void testResetForgetsPlacement() {
+        ObjectGraphLayout layout = new ObjectGraphLayout();
+        layout.layout(nodes(3), List.of(edge(1, 2), edge(2, 3)));
+        layout.reset();
+
+        // Ohne Historie liegen alle unverbundenen Knoten wieder nebeneinander in Schicht 0
+        ObjectGraphLayout.Result result = layout.layout(nodes(3), List.of());
+        for (ObjectGraphLayout.Node node : result.nodes().values()) {
+            assertEquals(0, node.layer());
+        }
+        assertNoOverlaps(result);
+    }
+}
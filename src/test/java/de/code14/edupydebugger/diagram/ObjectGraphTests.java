@@ -0,0 +1,54 @@
+package de.code14.edupydebugger.diagram;
+
+import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import org.junit.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.junit.Assert.*;
+
+
+public class ObjectGraphTests {
+
+    @Test
+    public void testEveryReferenceBecomesAnEdge() {
+        Map<String, ObjectInfo> objects = new HashMap<>();
+        objects.put("1", new ObjectInfo(List.of("root:Node"), List.of(
+                new AttributeInfo("left", "Node", "refid:2", "public"),
+                new AttributeInfo("right", "Node", "refid:2", "public"),
+                new AttributeInfo("value", "int", "3", "public"))));
+        objects.put("2", new ObjectInfo(List.of("child:Node"), List.of()));
+
+        ObjectGraph graph = ObjectGraph.of(objects);
+
+        // Beide Kanten zum selben Objekt bleiben erhalten
+        assertEquals(List.of(new ObjectGraph.Edge("1", "2", "left"), new ObjectGraph.Edge("1", "2", "right")),
+                graph.edges());
+        ObjectGraph.Attribute left = graph.node("1").attributes().get(0);
+        assertTrue(left.isReference());
+        assertEquals("2", left.target());
+        assertEquals("refid:2", left.value());
+        assertFalse(graph.node("1").attributes().get(2).isReference());
+    }
+
+    @Test
+    public void testNodesAreParsedOnceAndOrderedById() {
+        Map<String, ObjectInfo> objects = new HashMap<>();
+        objects.put("140", new ObjectInfo(List.of("b:Point"), List.of(new AttributeInfo("x", "int", "1", "static"))));
+        objects.put("20", new ObjectInfo(List.of("a:Point"), List.of()));
+        objects.put("3", null);
+
+        ObjectGraph graph = ObjectGraph.of(objects);
+
+        assertEquals(2, graph.size());
+        assertEquals("20", graph.nodes().get(0).id());
+        assertEquals("140", graph.nodes().get(1).id());
+        assertEquals("b:Point", graph.node("140").title());
+        assertEquals("Point", graph.node("140").type());
+        assertTrue(graph.node("140").attributes().get(0).isStatic());
+        assertNull(graph.node("3"));
+    }
+}
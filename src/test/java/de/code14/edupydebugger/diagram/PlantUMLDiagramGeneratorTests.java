@@ -3,7 +3,12 @@ package de.code14.edupydebugger.diagram;
 import org.junit.*;
 
 import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
 import java.util.Base64;
+import java.util.Comparator;
+import java.util.Locale;
+import java.util.stream.Stream;
 
 import static org.junit.Assert.*;
 
@@ -27,4 +32,29 @@ public class PlantUMLDiagramGeneratorTests {
         assertTrue("SVG muss <svg …> enthalten", svg.contains("<svg"));
         assertTrue(svg.contains("Foo"));
     }
-}
\ No newline at end of file
+
+    @Test
+    public void testDotDiagramsRunTheNamedExecutableAndFallBackWhenItFails() throws Exception {
+        Assume.assumeFalse(System.getProperty("os.name", "").toLowerCase(Locale.ROOT).startsWith("windows"));
+        Path directory = Files.createTempDirectory("edupy-dot");
+        try {
+            Path calls = directory.resolve("calls");
+            Path dot = directory.resolve("dot");
+            // Falsches dot: protokolliert den Aufruf und scheitert
+            Files.writeString(dot, "#!/bin/sh\ncat > /dev/null\necho \"$@\" >> '" + calls + "'\nexit 1\n");
+            assertTrue(dot.toFile().setExecutable(true));
+            String src = "@startuml\n" + GraphvizLayout.dotSkinparam(dot.toString()) + "class Foo\nFoo --> Bar\n@enduml\n";
+
+            byte[] svg = Base64.getDecoder().decode(PlantUMLDiagramGenerator.generateDiagramAsBase64(src));
+
+            assertTrue("PlantUML muss das angegebene dot aufrufen", Files.exists(calls));
+            // Statt des Fehlerbilds von PlantUML kommt das mit Smetana gelayoutete Diagramm
+            assertFalse(GraphvizLayout.isDotFailure(svg));
+            assertTrue(new String(svg, StandardCharsets.UTF_8).contains("Foo"));
+        } finally {
+            try (Stream<Path> files = Files.walk(directory)) {
+                files.sorted(Comparator.reverseOrder()).forEach(p -> p.toFile().delete());
+            }
+        }
+    }
+}
@@ -0,0 +1,97 @@
+package de.code14.edupydebugger.diagram;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.EOFException;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+
+public class PlantUMLRenderServiceTests {
+
+    private static final String SOURCE = """
+            @startuml
+            class Foo
+            @enduml
+            """;
+
+    private PlantUMLRenderService service;
+
+    @After
+    public void tearDown() {
+        if (service != null) {
+            service.shutdown();
+        }
+    }
+
+    // Worker-JVMs laufen mit dem Klassenpfad der Tests
+    private static PlantUMLRenderService service(long timeoutMillis, int maxJobs) {
+        return new PlantUMLRenderService(1, System.getProperty("java.class.path"), 256, timeoutMillis, maxJobs);
+    }
+
+    @Test
+    public void testFramesRoundTrip() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bytes);
+        PlantUMLRenderWorker.writeFrame(out, "äöü".getBytes(StandardCharsets.UTF_8));
+        PlantUMLRenderWorker.writeFrame(out, new byte[0]);
+
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(bytes.toByteArray()));
+        assertEquals("äöü", new String(PlantUMLRenderWorker.readFrame(in), StandardCharsets.UTF_8));
+        assertEquals(0, PlantUMLRenderWorker.readFrame(in).length);
+        try {
+            PlantUMLRenderWorker.readFrame(in);
+            fail("EOFException expected");
+        } catch (EOFException expected) {
+            // Ende des Streams
+        }
+    }
+
+    @Test
+    public void testInvalidFrameLengthIsRejected() {
+        DataInputStream in = new DataInputStream(new ByteArrayInputStream(new byte[]{(byte) 0xFF, 0, 0, 0}));
+
+        try {
+            PlantUMLRenderWorker.readFrame(in);
+            fail("IOException expected");
+        } catch (IOException e) {
+            assertTrue(e.getMessage().contains("Invalid frame length"));
+        }
+    }
+
+    @Test
+    public void testWorkerRendersAndIsRecycled() throws IOException {
+        service = service(60_000, 2);
+
+        for (int i = 0; i < 3; i++) {
+            String svg = new String(service.render(SOURCE), StandardCharsets.UTF_8);
+            assertTrue(svg.contains("<svg"));
+            assertTrue(svg.contains("Foo"));
+        }
+        // Nach zwei Aufträgen wird der Worker ersetzt
+        assertEquals(2, service.startedWorkers());
+    }
+
+    @Test
+    public void testTimeoutKillsTheWorker() {
+        service = service(1, 100);
+
+        // Zwei Aufträge, beide zu langsam: jeder bekommt einen neuen Worker
+        for (int i = 0; i < 2; i++) {
+            try {
+                service.render(SOURCE);
+                fail("IOException expected");
+            } catch (IOException e) {
+                assertTrue(e.getMessage().contains("timed out"));
+            }
+        }
+        assertEquals(2, service.startedWorkers());
+    }
+}
@@ -0,0 +1,634 @@
+package de.code14.edupydebugger.replay;
+
+import com.google.gson.JsonArray;
+import com.google.gson.JsonElement;
+import com.google.gson.JsonObject;
+import com.google.gson.JsonPrimitive;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ProbeModule;
+
+import java.util.*;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Answers the Python expressions issued by the analyzers against a recorded {@link ReplayProgram.Step}.
+ * <p>
+ * This is not a Python interpreter. It recognizes the expression shapes that
+ * {@code VariableAnalyzer}, {@code ObjectAnalyzer} and {@code DebuggerUtils.formatCallstackFrames}
+ * send to the debuggee (name/attribute paths, {@code id()}, {@code repr()}, {@code len()}, container pages, {@code dir()}, scope and
+ * {@code isinstance} probes, {@code globals()} enumeration and the {@code inspect}-based call stack
+ * lambdas) and evaluates them the way CPython would for the recorded state. The installation of the
+ * {@link ProbeModule} and its calls are answered the way {@code edupy_probe.py} would answer them.
+ * Like the real debugger, names are resolved in the current (top) frame, then in the module globals.
+ * <p>
+ * Expressions that are not understood produce an error result and are counted as unresolved, so a
+ * benchmark run can tell when an analyzer started sending a shape the corpus cannot answer.
+ */
+public class ExpressionResolver {
+
+    private static final List<String> OBJECT_DUNDERS = List.of(
+            "__class__", "__delattr__", "__dict__", "__dir__", "__doc__", "__eq__", "__format__", "__ge__",
+            "__getattribute__", "__gt__", "__hash__", "__init__", "__init_subclass__", "__le__", "__lt__",
+            "__module__", "__ne__", "__new__", "__reduce__", "__reduce_ex__", "__repr__", "__setattr__",
+            "__sizeof__", "__str__", "__subclasshook__", "__weakref__");
+
+    private static final Set<String> BUILTIN_TYPES = Set.of(
+            "int", "float", "str", "bool", "list", "dict", "tuple", "set");
+
+    private static final String QUOTED = "'((?:[^'\\\\]|\\\\.)*)'";
+
+    private static final Pattern SCOPE_PROBE =
+            Pattern.compile("^(locals|globals)\\(\\)\\.get\\(" + QUOTED + ", None\\) is not None$");
+    private static final Pattern GLOBAL_GET =
+            Pattern.compile("^globals\\(\\)\\.get\\(" + QUOTED + ", None\\)$");
+    private static final Pattern USER_INSTANCE_PROBE =
+            Pattern.compile("^isinstance\\((.+), object\\) and not isinstance\\(\\1, \\(int, float, str, bool, list, dict, tuple, set\\)\\)$");
+    private static final Pattern CLASS_DICT_PROBE =
+            Pattern.compile("^(.+)\\.__class__\\.__dict__\\.get\\(" + QUOTED + ", None\\) is not None$");
+    private static final Pattern ID_CALL = Pattern.compile("^(?:__builtins__\\.)?id\\((.+)\\)$");
+    private static final Pattern REPR_CALL = Pattern.compile("^repr\\((.+)\\)$");
+    private static final Pattern DIR_CALL = Pattern.compile("^dir\\((.+)\\)$");
+    private static final Pattern LEN_CALL = Pattern.compile("^len\\((.+)\\)$");
+    private static final Pattern PAGE_CALL = Pattern.compile(
+            "^\\(lambda __c, __t: .+, (\\d+), (\\d+)\\)]\\)\\)\\((.+), lambda __s: .+$");
+    private static final Pattern PATH = Pattern.compile(
+            "^(?:globals\\(\\)\\[" + QUOTED + "]|([A-Za-z_][A-Za-z0-9_]*))((?:\\.[A-Za-z_][A-Za-z0-9_]*)*)$");
+
+    private static final Pattern STACK_FUNCTION = Pattern.compile("getattr\\(fi,'function',''\\)==" + QUOTED);
+    private static final Pattern STACK_FILE = Pattern.compile("getattr\\(fi,'filename',''\\)\\.endswith\\(" + QUOTED + "\\)");
+    private static final Pattern STACK_OCCURRENCE = Pattern.compile("__matches\\[(\\d+)]");
+    private static final Pattern LOCALS_GET = Pattern.compile("\\.locals\\.get\\(" + QUOTED + ", None\\)");
+    private static final Pattern DEPTH_NAMES = Pattern.compile("__import__\\('inspect'\\), (\\d+)\\)$");
+    private static final Pattern DEPTH_VALUE = Pattern.compile("__import__\\('inspect'\\), (\\d+), " + QUOTED + "\\)$");
+
+    private static final Set<String> CONTAINER_TYPES = Set.of("list", "set", "dict", "tuple");
+    private static final Set<String> METHOD_TYPES = Set.of("method", "function", "builtin_function_or_method");
+    private static final Set<String> NOISY_GLOBAL_TYPES = Set.of("module", "function", "builtin_function_or_method", "type");
+    private static final String PROBE_PREFIX = ProbeModule.MODULE_NAME + ".";
+    private static final Pattern PROBE_FRAME = Pattern.compile(
+            "^" + Pattern.quote(PROBE_PREFIX) + "frame\\(" + QUOTED + ", " + QUOTED + ", (\\d+)\\)$");
+    private static final Pattern PROBE_OBJ = Pattern.compile("^" + Pattern.quote(PROBE_PREFIX) + "obj\\((.+)\\)$");
+    private static final Pattern PROBE_VARIABLES = Pattern.compile(
+            "^" + Pattern.quote(PROBE_PREFIX) + "variables\\(locals\\(\\), globals\\(\\), (\\d+)\\)$");
+    private static final int MAX_ITEM_LENGTH = 1000;
+
+    /**
+     * Outcome of an evaluation, mirroring what a {@code PyDebugValue} returned by the debugger carries.
+     *
+     * @param type       Python type name of the result (exception class name for errors)
+     * @param value      the value string as PyCharm would show it (raw text for {@code str}, {@code repr} otherwise)
+     * @param container  whether the result has children
+     * @param error      whether evaluation raised
+     * @param unresolved whether the expression shape was not recognized by the resolver
+     */
+    public record Result(String type, String value, boolean container, boolean error, boolean unresolved) {
+    }
+
+    private final ReplayProgram.Step step;
+
+    public ExpressionResolver(ReplayProgram.Step step) {
+        this.step = step;
+    }
+
+    /**
+     * Evaluates an expression in the context of the current (top) frame.
+     *
+     * @param expression the expression sent by an analyzer
+     * @return the evaluation result, never {@code null}
+     */
+    public Result evaluate(String expression) {
+        String expr = expression.trim();
+        try {
+            if (expr.endsWith("ModuleType('" + ProbeModule.MODULE_NAME + "'))")) {
+                return new Result("int", String.valueOf(ProbeModule.VERSION), false, false, false);
+            }
+            if (expr.startsWith(PROBE_PREFIX)) {
+                return evaluateProbe(expr);
+            }
+            if (expr.contains("__ins.stack()")) {
+                return evaluateStackLookup(expr);
+            }
+            if (expr.contains("_sys._getframe(_n)")) {
+                return evaluateDepthLookup(expr);
+            }
+            if (expr.equals("','.join([k for k in globals().keys()])")) {
+                return str(String.join(",", step.globals.keySet()));
+            }
+            if (expr.equals("list(globals().keys())")) {
+                List<String> quoted = new ArrayList<>();
+                for (String k : step.globals.keySet()) quoted.add(quote(k));
+                return new Result("list", "[" + String.join(", ", quoted) + "]", true, false, false);
+            }
+
+            Matcher m = SCOPE_PROBE.matcher(expr);
+            if (m.matches()) {
+                Map<String, JsonElement> scope = m.group(1).equals("locals") ? currentLocals() : step.globals;
+                JsonElement v = scope.get(unescape(m.group(2)));
+                return bool(v != null && !v.isJsonNull());
+            }
+            m = GLOBAL_GET.matcher(expr);
+            if (m.matches()) {
+                JsonElement v = step.globals.get(unescape(m.group(1)));
+                return describe(v);
+            }
+            m = USER_INSTANCE_PROBE.matcher(expr);
+            if (m.matches()) {
+                JsonElement v = resolvePath(m.group(1));
+                return bool(!BUILTIN_TYPES.contains(typeOf(v)));
+            }
+            m = CLASS_DICT_PROBE.matcher(expr);
+            if (m.matches()) {
+                ReplayProgram.HeapObject obj = heapObject(resolvePath(m.group(1)));
+                String attr = unescape(m.group(2));
+                return bool(obj != null && (obj.statics.containsKey(attr) || obj.methods.contains(attr)));
+            }
+            m = ID_CALL.matcher(expr);
+            if (m.matches()) {
+                return new Result("int", idOf(resolvePath(m.group(1))), false, false, false);
+            }
+            m = REPR_CALL.matcher(expr);
+            if (m.matches()) {
+                return str(repr(resolvePath(m.group(1))));
+            }
+            m = DIR_CALL.matcher(expr);
+            if (m.matches()) {
+                return dir(resolvePath(m.group(1)));
+            }
+            m = LEN_CALL.matcher(expr);
+            if (m.matches()) {
+                return new Result("int", String.valueOf(items(resolvePath(m.group(1))).size()), false, false, false);
+            }
+            m = PAGE_CALL.matcher(expr);
+            if (m.matches()) {
+                return str(page(resolvePath(m.group(3)), Integer.parseInt(m.group(1)), Integer.parseInt(m.group(2))).toString());
+            }
+            if (PATH.matcher(expr).matches()) {
+                return describe(resolvePath(expr));
+            }
+            return new Result("SyntaxError", "SyntaxError: replay cannot evaluate: " + expr, false, true, true);
+        } catch (PythonError e) {
+            return new Result(e.type, e.type + ": " + e.getMessage(), false, true, false);
+        }
+    }
+
+    /**
+     * Describes a value the way a frame child is shown by PyCharm.
+     *
+     * @param value the JSON encoded value
+     * @return type and value string of the given value
+     */
+    public Result describe(JsonElement value) {
+        String type = typeOf(value);
+        String shown = "str".equals(type) ? value.getAsString() : repr(value);
+        return new Result(type, shown, heapObject(value) != null, false, false);
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // inspect based call stack lookups (DebuggerUtils.formatCallstackFrames)
+    // ---------------------------------------------------------------------------------------------
+
+    private Result evaluateStackLookup(String expr) {
+        Matcher fn = STACK_FUNCTION.matcher(expr);
+        Matcher occ = STACK_OCCURRENCE.matcher(expr);
+        if (!fn.find() || !occ.find()) {
+            return new Result("SyntaxError", "SyntaxError: replay cannot evaluate: " + expr, false, true, true);
+        }
+        String function = unescape(fn.group(1));
+        Matcher file = STACK_FILE.matcher(expr);
+        String fileSuffix = file.find() ? unescape(file.group(1)) : null;
+        int occurrence = Integer.parseInt(occ.group(1));
+
+        List<ReplayProgram.Frame> matches = new ArrayList<>();
+        for (ReplayProgram.Frame f : step.frames) {
+            if (function.equals(f.name) && (fileSuffix == null || (f.file != null && f.file.endsWith(fileSuffix)))) {
+                matches.add(f);
+            }
+        }
+        if (matches.size() <= occurrence) {
+            return str("");
+        }
+        Matcher local = LOCALS_GET.matcher(expr);
+        return frameLookup(matches.get(occurrence), local.find() ? unescape(local.group(1)) : null);
+    }
+
+    private Result evaluateDepthLookup(String expr) {
+        Matcher value = DEPTH_VALUE.matcher(expr);
+        Matcher names = DEPTH_NAMES.matcher(expr);
+        int depth;
+        String localName = null;
+        if (value.find()) {
+            depth = Integer.parseInt(value.group(1));
+            localName = unescape(value.group(2));
+        } else if (names.find()) {
+            depth = Integer.parseInt(names.group(1));
+        } else {
+            return new Result("SyntaxError", "SyntaxError: replay cannot evaluate: " + expr, false, true, true);
+        }
+        if (depth >= step.frames.size()) {
+            return new Result("ValueError", "ValueError: call stack is not deep enough", false, true, false);
+        }
+        return frameLookup(step.frames.get(depth), localName);
+    }
+
+    /**
+     * Returns the parameter names of a frame as CSV, or the value of one of its locals when
+     * {@code localName} is given (as {@code refid:ID} for non-builtin values, {@code repr} otherwise).
+     */
+    private Result frameLookup(ReplayProgram.Frame frame, String localName) {
+        if (localName != null) {
+            JsonElement v = frame.locals.get(localName);
+            if (v != null && !BUILTIN_TYPES.contains(typeOf(v))) {
+                return str("refid:" + idOf(v));
+            }
+            return str(repr(v));
+        }
+        return str(String.join(",", frame.args));
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // __edupy_probe calls (ProbeModule)
+    // ---------------------------------------------------------------------------------------------
+
+    private Result evaluateProbe(String expr) {
+        Matcher m = PROBE_VARIABLES.matcher(expr);
+        if (m.matches()) {
+            return str(probeVariables(Integer.parseInt(m.group(1))).toString());
+        }
+        m = PROBE_FRAME.matcher(expr);
+        if (m.matches()) {
+            return str(probeFrame(unescape(m.group(1)), unescape(m.group(2)), Integer.parseInt(m.group(3))));
+        }
+        m = PROBE_OBJ.matcher(expr);
+        if (m.matches()) {
+            return str(probeObject(resolvePath(m.group(1))).toString());
+        }
+        return new Result("SyntaxError", "SyntaxError: replay cannot evaluate: " + expr, false, true, true);
+    }
+
+    private String probeFrame(String function, String fileSuffix, int occurrence) {
+        ReplayProgram.Frame frame = findFrame(function, fileSuffix, occurrence);
+        if (frame == null && !fileSuffix.isEmpty()) frame = findFrame(function, "", occurrence);
+        if (frame == null) return "null";
+        JsonArray out = new JsonArray();
+        for (String arg : frame.args) {
+            if (arg.startsWith("__") || arg.startsWith("_pydev_")) continue;
+            JsonArray pair = new JsonArray();
+            pair.add(arg);
+            pair.add(frameLookup(frame, arg).value());
+            out.add(pair);
+        }
+        return out.toString();
+    }
+
+    private ReplayProgram.Frame findFrame(String function, String fileSuffix, int occurrence) {
+        int seen = 0;
+        for (ReplayProgram.Frame f : step.frames) {
+            if (function.equals(f.name) && (fileSuffix.isEmpty() || (f.file != null && f.file.endsWith(fileSuffix)))) {
+                if (seen++ == occurrence) return f;
+            }
+        }
+        return null;
+    }
+
+    private JsonObject probeVariables(int limit) {
+        JsonObject locals = new JsonObject();
+        for (Map.Entry<String, JsonElement> e : currentLocals().entrySet()) {
+            JsonElement v = e.getValue();
+            JsonElement g = step.globals.get(e.getKey());
+            JsonObject info = new JsonObject();
+            info.addProperty("id", idOf(v));
+            info.addProperty("local", v != null && !v.isJsonNull());
+            info.addProperty("global", g != null && !g.isJsonNull());
+            info.addProperty("user", !BUILTIN_TYPES.contains(typeOf(v)));
+            if (CONTAINER_TYPES.contains(typeOf(v))) addContainer(info, v, limit);
+            locals.add(e.getKey(), info);
+        }
+        JsonArray names = new JsonArray();
+        JsonObject globalValues = new JsonObject();
+        for (Map.Entry<String, JsonElement> e : step.globals.entrySet()) {
+            String name = e.getKey();
+            names.add(name);
+            if (name.startsWith("__") || name.startsWith("_pydev_")) continue;
+            JsonElement v = e.getValue();
+            String type = typeOf(v);
+            JsonObject info = new JsonObject();
+            info.addProperty("type", type);
+            if (!NOISY_GLOBAL_TYPES.contains(type)) {
+                info.addProperty("value", describe(v).value());
+                info.addProperty("id", idOf(v));
+                if (CONTAINER_TYPES.contains(type)) addContainer(info, v, limit);
+            }
+            globalValues.add(name, info);
+        }
+        JsonObject root = new JsonObject();
+        root.addProperty("v", ProbeModule.VERSION);
+        root.add("locals", locals);
+        root.add("globals", names);
+        root.add("globalValues", globalValues);
+        return root;
+    }
+
+    private void addContainer(JsonObject info, JsonElement v, int limit) {
+        info.addProperty("len", items(v).size());
+        info.add("page", page(v, 0, limit));
+    }
+
+    /** Item reprs of a builtin container as {@code page()} answers them ({@code key: value} for dicts). */
+    private List<String> items(JsonElement v) {
+        ReplayProgram.HeapObject obj = heapObject(v);
+        List<String> out = new ArrayList<>();
+        if (obj == null) return out;
+        if (obj.type.equals("dict")) {
+            if (obj.entries != null) {
+                for (List<JsonElement> e : obj.entries) out.add(repr(e.get(0)) + ": " + repr(e.get(1)));
+            }
+        } else if (obj.items != null) {
+            for (JsonElement item : obj.items) out.add(repr(item));
+        }
+        return out;
+    }
+
+    private JsonArray page(JsonElement v, int offset, int end) {
+        List<String> all = items(v);
+        JsonArray page = new JsonArray();
+        for (int i = offset; i < Math.min(end, all.size()); i++) {
+            String item = all.get(i);
+            page.add(item.length() <= MAX_ITEM_LENGTH ? item : item.substring(0, MAX_ITEM_LENGTH) + "...");
+        }
+        return page;
+    }
+
+    private JsonObject probeObject(JsonElement v) {
+        ReplayProgram.HeapObject obj = heapObject(v);
+        JsonArray names = new JsonArray();
+        JsonObject attrs = new JsonObject();
+        for (String name : dirNames(v)) {
+            names.add(name);
+            if (name.endsWith("__")) continue;
+            JsonElement attr;
+            try {
+                attr = lookupAttribute(v, name);
+            } catch (PythonError e) {
+                continue;
+            }
+            String type = typeOf(attr);
+            JsonObject info = new JsonObject();
+            info.addProperty("type", type);
+            if (!METHOD_TYPES.contains(type)) {
+                String text = describe(attr).value();
+                info.addProperty("value", text);
+                info.addProperty("static", obj != null && (obj.statics.containsKey(name) || obj.methods.contains(name)));
+                if (text.contains("object")) info.addProperty("id", idOf(attr));
+            }
+            attrs.add(name, info);
+        }
+        JsonObject root = new JsonObject();
+        root.addProperty("v", ProbeModule.VERSION);
+        root.add("dir", names);
+        root.add("attrs", attrs);
+        return root;
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Name resolution
+    // ---------------------------------------------------------------------------------------------
+
+    private Map<String, JsonElement> currentLocals() {
+        return step.frames.isEmpty() ? Collections.emptyMap() : step.frames.get(0).locals;
+    }
+
+    private JsonElement resolvePath(String path) {
+        Matcher m = PATH.matcher(path.trim());
+        if (!m.matches()) {
+            throw new PythonError("SyntaxError", "invalid syntax: " + path);
+        }
+        JsonElement current;
+        if (m.group(1) != null) {
+            String name = unescape(m.group(1));
+            current = step.globals.get(name);
+            if (current == null) {
+                throw new PythonError("KeyError", quote(name));
+            }
+        } else {
+            current = lookupName(m.group(2));
+        }
+        String attrs = m.group(3);
+        if (attrs != null && !attrs.isEmpty()) {
+            for (String attr : attrs.substring(1).split("\\.")) {
+                current = lookupAttribute(current, attr);
+            }
+        }
+        return current;
+    }
+
+    private JsonElement lookupName(String name) {
+        Map<String, JsonElement> locals = currentLocals();
+        if (locals.containsKey(name)) return locals.get(name);
+        if (step.globals.containsKey(name)) return step.globals.get(name);
+        if (name.equals("__builtins__")) return moduleValue("builtins");
+        throw new PythonError("NameError", "name '" + name + "' is not defined");
+    }
+
+    private JsonElement lookupAttribute(JsonElement owner, String attr) {
+        ReplayProgram.HeapObject obj = heapObject(owner);
+        if (obj != null) {
+            if (obj.attrs.containsKey(attr)) return obj.attrs.get(attr);
+            if (obj.statics.containsKey(attr)) return obj.statics.get(attr);
+            if (obj.methods.contains(attr)) return callable("method", attr);
+        }
+        if (isTagged(owner, "type")) {
+            String className = owner.getAsJsonObject().get("type").getAsString();
+            for (ReplayProgram.HeapObject candidate : step.heap.values()) {
+                if (!className.equals(candidate.type)) continue;
+                if (candidate.statics.containsKey(attr)) return candidate.statics.get(attr);
+                if (candidate.methods.contains(attr)) return callable("function", attr);
+            }
+        }
+        throw new PythonError("AttributeError", "'" + typeOf(owner) + "' object has no attribute '" + attr + "'");
+    }
+
+    // ---------------------------------------------------------------------------------------------
+    // Python value semantics
+    // ---------------------------------------------------------------------------------------------
+
+    private ReplayProgram.HeapObject heapObject(JsonElement v) {
+        if (v != null && v.isJsonPrimitive() && v.getAsJsonPrimitive().isString()) {
+            String s = v.getAsString();
+            if (s.startsWith("@")) return step.heap.get(s.substring(1));
+        }
+        return null;
+    }
+
+    private static boolean isTagged(JsonElement v, String tag) {
+        return v != null && v.isJsonObject() && v.getAsJsonObject().has(tag);
+    }
+
+    private static JsonElement moduleValue(String name) {
+        JsonObject o = new JsonObject();
+        o.addProperty("module", name);
+        return o;
+    }
+
+    private static JsonElement callable(String kind, String name) {
+        JsonObject o = new JsonObject();
+        o.addProperty(kind, name);
+        return o;
+    }
+
+    String typeOf(JsonElement v) {
+        if (v == null || v.isJsonNull()) return "NoneType";
+        if (v.isJsonObject()) {
+            JsonObject o = v.getAsJsonObject();
+            if (o.has("function")) return "function";
+            if (o.has("method")) return "method";
+            if (o.has("type")) return "type";
+            if (o.has("module")) return "module";
+            return "object";
+        }
+        if (v.isJsonArray()) return "list";
+        JsonPrimitive p = v.getAsJsonPrimitive();
+        if (p.isBoolean()) return "bool";
+        if (p.isNumber()) return isIntegral(p) ? "int" : "float";
+        ReplayProgram.HeapObject obj = heapObject(v);
+        if (obj != null) return obj.type;
+        if (p.getAsString().startsWith("@")) {
+            throw new PythonError("ReferenceError", "dangling heap reference " + p.getAsString());
+        }
+        return "str";
+    }
+
+    String idOf(JsonElement v) {
+        ReplayProgram.HeapObject obj = heapObject(v);
+        if (obj != null) return v.getAsString().substring(1);
+        // Stable synthetic ids for values without a heap entry (equal values share an id,
+        // which matches CPython's behaviour for small ints and interned strings)
+        String key = typeOf(v) + ":" + (v == null || v.isJsonNull() ? "None" : v.toString());
+        return String.valueOf(9_000_000_000L + (key.hashCode() & 0xffffffL));
+    }
+
+    String repr(JsonElement v) {
+        return repr(v, new HashSet<>());
+    }
+
+    private String repr(JsonElement v, Set<String> visiting) {
+        String type = typeOf(v);
+        switch (type) {
+            case "NoneType":
+                return "None";
+            case "bool":
+                return v.getAsBoolean() ? "True" : "False";
+            case "int":
+                return v.getAsJsonPrimitive().getAsBigDecimal().toBigInteger().toString();
+            case "float":
+                return v.getAsJsonPrimitive().getAsBigDecimal().toPlainString();
+            case "str":
+                return quote(v.getAsString());
+            case "function":
+                return "<function " + v.getAsJsonObject().get("function").getAsString() + " at 0x" + hexId(v) + ">";
+            case "method":
+                return "<bound method " + v.getAsJsonObject().get("method").getAsString() + ">";
+            case "type":
+                return "<class '__main__." + v.getAsJsonObject().get("type").getAsString() + "'>";
+            case "module":
+                return "<module '" + v.getAsJsonObject().get("module").getAsString() + "' (built-in)>";
+            default:
+                break;
+        }
+        ReplayProgram.HeapObject obj = heapObject(v);
+        if (obj == null) return "<object>";
+        String id = idOf(v);
+        if (!BUILTIN_TYPES.contains(obj.type)) {
+            return "<__main__." + obj.type + " object at 0x" + hexId(v) + ">";
+        }
+        if (!visiting.add(id)) {
+            return obj.type.equals("dict") ? "{...}" : "[...]";
+        }
+        try {
+            List<String> parts = new ArrayList<>();
+            if (obj.type.equals("dict")) {
+                if (obj.entries != null) {
+                    for (List<JsonElement> e : obj.entries) {
+                        parts.add(repr(e.get(0), visiting) + ": " + repr(e.get(1), visiting));
+                    }
+                }
+                return "{" + String.join(", ", parts) + "}";
+            }
+            if (obj.items != null) {
+                for (JsonElement item : obj.items) parts.add(repr(item, visiting));
+            }
+            switch (obj.type) {
+                case "tuple":
+                    return parts.size() == 1 ? "(" + parts.get(0) + ",)" : "(" + String.join(", ", parts) + ")";
+                case "set":
+                    return parts.isEmpty() ? "set()" : "{" + String.join(", ", parts) + "}";
+                default:
+                    return "[" + String.join(", ", parts) + "]";
+            }
+        } finally {
+            visiting.remove(id);
+        }
+    }
+
+    private Result dir(JsonElement v) {
+        List<String> quoted = new ArrayList<>();
+        for (String n : dirNames(v)) quoted.add(quote(n));
+        return new Result("list", "[" + String.join(", ", quoted) + "]", true, false, false);
+    }
+
+    private SortedSet<String> dirNames(JsonElement v) {
+        SortedSet<String> names = new TreeSet<>(OBJECT_DUNDERS);
+        ReplayProgram.HeapObject obj = heapObject(v);
+        if (obj != null) {
+            names.addAll(obj.attrs.keySet());
+            names.addAll(obj.statics.keySet());
+            names.addAll(obj.methods);
+        } else if (isTagged(v, "type")) {
+            String className = v.getAsJsonObject().get("type").getAsString();
+            for (ReplayProgram.HeapObject candidate : step.heap.values()) {
+                if (!className.equals(candidate.type)) continue;
+                names.addAll(candidate.statics.keySet());
+                names.addAll(candidate.methods);
+            }
+        }
+        return names;
+    }
+
+    private String hexId(JsonElement v) {
+        return Long.toHexString(Long.parseLong(idOf(v)));
+    }
+
+    private static boolean isIntegral(JsonPrimitive p) {
+        try {
+            p.getAsBigDecimal().toBigIntegerExact();
+            return !p.getAsString().contains(".");
+        } catch (ArithmeticException e) {
+            return false;
+        }
+    }
+
+    private static Result str(String s) {
+        return new Result("str", s, false, false, false);
+    }
+
+    private static Result bool(boolean b) {
+        return new Result("bool", b ? "True" : "False", false, false, false);
+    }
+
+    static String quote(String s) {
+        return "'" + s.replace("\\", "\\\\").replace("'", "\\'") + "'";
+    }
+
+    private static String unescape(String s) {
+        return s.replace("\\'", "'").replace("\\\\", "\\");
+    }
+
+    /** A Python exception raised while evaluating an expression against the recording. */
+    private static final class PythonError extends RuntimeException {
+        private final String type;
+
+        PythonError(String type, String message) {
+            super(message);
+            this.type = type;
+        }
+    }
+}
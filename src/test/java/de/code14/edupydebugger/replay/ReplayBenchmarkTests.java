@@ -0,0 +1,220 @@
+package de.code14.edupydebugger.replay;
+
+import com.intellij.openapi.diagnostic.Logger;
+import de.code14.edupydebugger.Benchmark;
+import de.code14.edupydebugger.analysis.dynamicanalysis.AttributeInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.EvaluationGateway;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ProbeModule;
+import de.code14.edupydebugger.server.dto.VariablesPayload;
+import org.junit.BeforeClass;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+
+import java.util.*;
+
+import static org.junit.Assert.*;
+
+/**
+ * Replays the shipped corpus (lists, trees, recursion, OOP) through the analysis pipeline and checks round trips,
+ * bytes and published messages per step. The {@link Benchmark} tests log the full report with wall times; run them
+ * with {@code -Pedupy.benchmark} and, optionally, {@code -Pedupy.replay.latencyMs=5} (or any other value) to
+ * simulate a slower debugger connection.
+ */
+public class ReplayBenchmarkTests {
+
+    private static final Logger LOGGER = Logger.getInstance(ReplayBenchmarkTests.class);
+
+    private static Map<String, ReplayProgram> corpus;
+    private static ReplayHarness harness;
+
+    @BeforeClass
+    public static void loadCorpus() throws Exception {
+        corpus = new LinkedHashMap<>();
+        for (ReplayProgram p : ReplayProgram.loadCorpus()) {
+            corpus.put(p.program, p);
+        }
+        harness = new ReplayHarness();
+    }
+
+    @Test
+    public void testCorpusContainsRepresentativePrograms() {
+        assertTrue(corpus.keySet().containsAll(List.of("lists", "tree", "recursion", "oop")));
+        for (ReplayProgram p : corpus.values()) {
+            assertFalse("Programm ohne Schritte: " + p.program, p.steps.isEmpty());
+        }
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void testReplayWholeCorpus_reportsRoundTripsBytesAndWallTime() throws Exception {
+        List<ReplayHarness.StepResult> all = new ArrayList<>();
+        for (ReplayProgram p : corpus.values()) {
+            all.addAll(harness.replay(p));
+        }
+        LOGGER.info(harness.formatReport(all));
+    }
+
+    @Test
+    public void testReplayWholeCorpus_publishesEveryStep() throws Exception {
+        List<ReplayHarness.StepResult> all = new ArrayList<>();
+        for (ReplayProgram p : corpus.values()) {
+            all.addAll(harness.replay(p));
+        }
+
+        for (ReplayHarness.StepResult r : all) {
+            String where = r.program() + "#" + r.stepIndex();
+            // Jede Phase muss mit dem Debuggee sprechen
+            assertTrue(where, r.analysis().metrics().roundTrips() > 0);
+            assertTrue(where, r.callstack().metrics().roundTrips() > 0);
+            assertTrue(where, r.endToEnd().metrics().roundTrips() > 0);
+            assertTrue(where, r.analysis().metrics().bytesSent() > 0);
+            // Alle Ausdrücke der Analyzer müssen vom Korpus beantwortet werden können
+            assertEquals(where + " " + r.analysis().metrics().evaluationsByKind(), 0, r.analysis().metrics().unresolved());
+            assertEquals(where, 0, r.callstack().metrics().unresolved());
+            assertEquals(where, 0, r.endToEnd().metrics().unresolved());
+            // End-to-End: alle UI-Nachrichten wurden erzeugt
+            assertTrue(where, r.publishedPayloads().keySet().containsAll(List.of(
+                    "publishCallstack", "publishObjectCards", "publishVariables")));
+            // Objektdiagramm: vollständig oder als Text-Patch, wenn sich nur Werte geändert haben
+            assertTrue(where, r.publishedPayloads().containsKey("publishObjectDiagram")
+                    || r.publishedPayloads().containsKey("publishObjectDiagramPatch"));
+            assertTrue(where, r.endToEnd().metrics().totalPayloadBytes() > 0);
+        }
+    }
+
+    @Test
+    public void testEndToEndSharesEvaluationsBetweenAnalyzersAndCallstack() throws Exception {
+        for (ReplayProgram p : corpus.values()) {
+            for (ReplayHarness.StepResult r : harness.replay(p)) {
+                String where = r.program() + "#" + r.stepIndex();
+                long separate = r.analysis().metrics().roundTrips() + r.callstack().metrics().roundTrips();
+                assertTrue(where, r.endToEnd().metrics().roundTrips() < separate);
+                // Die Gateway-Zähler decken alle tatsächlich gesendeten Anfragen ab
+                long gatewayTrips = r.gatewayStats().values().stream()
+                        .mapToLong(EvaluationGateway.KindStats::roundTrips).sum();
+                assertEquals(where, r.endToEnd().metrics().roundTrips(), gatewayTrips);
+            }
+        }
+    }
+
+    @Test
+    public void testRecursionCallstackShowsArgumentsPerFrame() throws Exception {
+        ReplayHarness.StepResult r = harness.replayStep(corpus.get("recursion"), 0);
+
+        assertEquals(List.of("fact(n=1)", "fact(n=2)", "fact(n=3)", "fact(n=4)", "fact(n=5)", "<module>()"),
+                r.callstackFrames());
+        assertEquals(6, r.frameCount());
+    }
+
+    @Test
+    public void testTreeObjectsAreCollectedTransitively() throws Exception {
+        ReplayHarness.StepResult r = harness.replayStep(corpus.get("tree"), 0);
+        Map<String, ObjectInfo> objects = r.objects();
+
+        for (String id : List.of("140200001", "140200010", "140200011", "140200012", "140200013")) {
+            assertTrue("Objekt fehlt: " + id, objects.containsKey(id));
+        }
+        AttributeInfo root = attribute(objects.get("140200001"), "root");
+        assertEquals("refid:140200010", root.value());
+        assertEquals("4", attribute(objects.get("140200001"), "size").value());
+    }
+
+    @Test
+    public void testOopStaticAttributeAndLocalScope() throws Exception {
+        ReplayHarness.StepResult r = harness.replayStep(corpus.get("oop"), 0);
+
+        AttributeInfo bankName = attribute(r.objects().get("140300003"), "bank_name");
+        assertEquals("static", bankName.visibility());
+        assertEquals("refid:140300002", attribute(r.objects().get("140300003"), "owner").value());
+
+        // 'self' (lokal) und 'account' (global) zeigen auf dasselbe Objekt
+        List<String> meta = r.variables().get("140300003");
+        assertNotNull(meta);
+        assertTrue(meta.get(0).contains("self"));
+        assertTrue(meta.get(0).contains("account"));
+        assertEquals("local", meta.get(3));
+    }
+
+    @Test
+    public void testListsPublishesContainerVariables() throws Exception {
+        ReplayHarness.StepResult r = harness.replayStep(corpus.get("lists"), 0);
+
+        VariablesPayload payload = (VariablesPayload) r.publishedPayloads().get("publishVariables");
+        assertNotNull(payload);
+        assertTrue(payload.variables.stream().anyMatch(v ->
+                v.names.contains("numbers") && "[3, 1, 4, 1, 5]".equals(v.value.repr)
+                        && Integer.valueOf(5).equals(v.value.length) && v.value.full == null));
+    }
+
+    @Test
+    public void testLatencyIsAddedPerRoundTrip() throws Exception {
+        ReplayHarness slow = new ReplayHarness(2.0);
+        ReplayHarness.StepResult r = slow.replayStep(corpus.get("recursion"), 1);
+
+        long trips = r.analysis().metrics().roundTrips();
+        assertTrue(r.analysis().wallMillis() >= trips * 2.0);
+    }
+
+    @Test
+    public void testPipelinedAnalysisMatchesSequential() throws Exception {
+        ReplayHarness sequential = new ReplayHarness(0, 1);
+        ReplayHarness pipelined = new ReplayHarness(0, 4);
+        for (String program : List.of("tree", "oop")) {
+            ReplayHarness.StepResult a = sequential.replayStep(corpus.get(program), 0);
+            ReplayHarness.StepResult b = pipelined.replayStep(corpus.get(program), 0);
+
+            // Gleiche Ergebnisse und gleiche Anzahl Roundtrips, nur überlappend
+            assertEquals(program, a.variables(), b.variables());
+            assertEquals(program, a.objects().keySet(), b.objects().keySet());
+            assertEquals(program, a.analysis().metrics().roundTrips(), b.analysis().metrics().roundTrips());
+        }
+    }
+
+    @Test
+    @Category(Benchmark.class)
+    public void testPipelinedAnalysisIsFaster() throws Exception {
+        ReplayHarness sequential = new ReplayHarness(2.0, 1);
+        ReplayHarness pipelined = new ReplayHarness(2.0, 4);
+        for (String program : List.of("tree", "oop")) {
+            ReplayHarness.StepResult a = sequential.replayStep(corpus.get(program), 0);
+            ReplayHarness.StepResult b = pipelined.replayStep(corpus.get(program), 0);
+
+            LOGGER.info(String.format(Locale.ROOT, "%s: sequential %.1f ms, pipelined %.1f ms",
+                    program, a.analysis().wallMillis(), b.analysis().wallMillis()));
+            assertTrue(program, b.analysis().wallNanos() < a.analysis().wallNanos());
+        }
+    }
+
+    @Test
+    public void testProbeModuleAnswersLikeInlineExpressionsWithFewerRoundTrips() throws Exception {
+        for (String program : List.of("recursion", "tree", "oop")) {
+            ReplayHarness.StepResult inline;
+            System.setProperty(ProbeModule.ENABLED_PROPERTY, "false");
+            try {
+                inline = harness.replayStep(corpus.get(program), 0);
+            } finally {
+                System.clearProperty(ProbeModule.ENABLED_PROPERTY);
+            }
+            ReplayHarness.StepResult probed = harness.replayStep(corpus.get(program), 0);
+
+            // Gleiche Ergebnisse, aber nur noch ein Helferaufruf pro Frame bzw. Objekt
+            assertEquals(program, inline.callstackFrames(), probed.callstackFrames());
+            assertEquals(program, inline.variables(), probed.variables());
+            assertEquals(program, inline.objects().keySet(), probed.objects().keySet());
+            assertEquals(program, 0, probed.analysis().metrics().unresolved());
+            assertTrue(program, probed.analysis().metrics().evaluationsByKind().containsKey("probe"));
+            assertTrue(program, probed.analysis().metrics().roundTrips() < inline.analysis().metrics().roundTrips());
+            assertTrue(program, probed.callstack().metrics().roundTrips() <= inline.callstack().metrics().roundTrips());
+        }
+    }
+
+    private static AttributeInfo attribute(ObjectInfo info, String name) {
+        assertNotNull(info);
+        for (AttributeInfo a : info.attributes()) {
+            if (a.name().equals(name)) return a;
+        }
+        fail("Attribut fehlt: " + name);
+        return null;
+    }
+}
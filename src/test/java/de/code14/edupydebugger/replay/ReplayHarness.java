@@ -0,0 +1,207 @@
+package de.code14.edupydebugger.replay;
+
+import com.google.gson.Gson;
+import de.code14.edupydebugger.analysis.dynamicanalysis.AsyncEvaluationClient;
+import de.code14.edupydebugger.analysis.dynamicanalysis.DebuggerUtils;
+import de.code14.edupydebugger.analysis.dynamicanalysis.EvaluationGateway;
+import de.code14.edupydebugger.analysis.dynamicanalysis.ObjectInfo;
+import de.code14.edupydebugger.analysis.dynamicanalysis.StackFrameAnalyzer;
+import de.code14.edupydebugger.core.DebugSessionController;
+import de.code14.edupydebugger.server.DebugServerEndpoint;
+import org.mockito.MockedStatic;
+
+import java.io.IOException;
+import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.mockito.Mockito.RETURNS_DEFAULTS;
+import static org.mockito.Mockito.mockStatic;
+
+/**
+ * Replays recorded programs against the real analysis pipeline and measures each pause point.
+ * <p>
+ * For every {@link ReplayProgram.Step} three phases are run, each against a fresh
+ * {@link SimulatedDebugSession} so their numbers do not mix:
+ * <ol>
+ *   <li><b>analysis</b> – {@link StackFrameAnalyzer#analyzeFrames()} on the recorded frames</li>
+ *   <li><b>callstack</b> – {@link DebuggerUtils#formatCallstackFrames(List)}</li>
+ *   <li><b>end-to-end</b> – {@link DebugSessionController#performDynamicAnalysis(String)} for the
+ *       selected thread, including diagram generation; UI messages are captured instead of sent</li>
+ * </ol>
+ * The per-call latency is read from the system property {@value #LATENCY_PROPERTY} (milliseconds,
+ * default {@code 0}) so the same corpus can be replayed against a fast local or a slow remote
+ * debugger connection. With {@value #MAX_IN_FLIGHT_PROPERTY} greater than {@code 1} the analysis phase
+ * pipelines its probes through an {@link AsyncEvaluationClient} backed by a thread pool.
+ */
+public class ReplayHarness {
+
+    public static final String LATENCY_PROPERTY = "edupy.replay.latencyMs";
+    public static final String MAX_IN_FLIGHT_PROPERTY = "edupy.replay.maxInFlight";
+
+    private static final Gson GSON = new Gson();
+
+    private final double latencyMillis;
+    private final int maxInFlight;
+
+    public ReplayHarness() {
+        this(Double.parseDouble(System.getProperty(LATENCY_PROPERTY, "0")),
+                Integer.getInteger(MAX_IN_FLIGHT_PROPERTY, 1));
+    }
+
+    public ReplayHarness(double latencyMillis) {
+        this(latencyMillis, 1);
+    }
+
+    public ReplayHarness(double latencyMillis, int maxInFlight) {
+        this.latencyMillis = latencyMillis;
+        this.maxInFlight = maxInFlight;
+    }
+
+    public double getLatencyMillis() {
+        return latencyMillis;
+    }
+
+    /**
+     * Metrics and wall time of one phase.
+     *
+     * @param metrics   round trips and bytes of the phase
+     * @param wallNanos elapsed wall clock time in nanoseconds
+     */
+    public record PhaseResult(ReplayMetrics metrics, long wallNanos) {
+        public double wallMillis() {
+            return wallNanos / 1_000_000.0;
+        }
+    }
+
+    /**
+     * Everything measured and produced for one replayed pause point.
+     */
+    public record StepResult(String program, int stepIndex, int line, int frameCount,
+                             PhaseResult analysis, PhaseResult callstack, PhaseResult endToEnd,
+                             Map<String, List<String>> variables, Map<String, ObjectInfo> objects,
+                             List<String> callstackFrames, Map<String, Object> publishedPayloads,
+                             Map<String, EvaluationGateway.KindStats> gatewayStats) {
+    }
+
+    /**
+     * Replays all steps of the given program.
+     *
+     * @param program the recorded program
+     * @return one result per step, in order
+     * @throws IOException if the end-to-end phase fails to publish
+     */
+    public List<StepResult> replay(ReplayProgram program) throws IOException {
+        List<StepResult> results = new ArrayList<>();
+        for (int i = 0; i < program.steps.size(); i++) {
+            results.add(replayStep(program, i));
+        }
+        return results;
+    }
+
+    /**
+     * Replays a single step of the given program.
+     */
+    public StepResult replayStep(ReplayProgram program, int index) throws IOException {
+        ReplayProgram.Step step = program.steps.get(index);
+
+        // Phase 1: variable and object analysis
+        ReplayMetrics analysisMetrics = new ReplayMetrics();
+        SimulatedDebugSession analysisSession = new SimulatedDebugSession(step, analysisMetrics, latencyMillis);
+        ExecutorService pool = maxInFlight > 1 ? Executors.newFixedThreadPool(maxInFlight) : null;
+        StackFrameAnalyzer analyzer = new StackFrameAnalyzer(analysisSession.getFrames(),
+                new AsyncEvaluationClient(new EvaluationGateway(), pool != null ? pool : Runnable::run, maxInFlight));
+        long start = System.nanoTime();
+        try {
+            analyzer.analyzeFrames();
+        } finally {
+            if (pool != null) pool.shutdownNow();
+        }
+        PhaseResult analysis = new PhaseResult(analysisMetrics, System.nanoTime() - start);
+
+        // Phase 2: call stack formatting
+        ReplayMetrics callstackMetrics = new ReplayMetrics();
+        SimulatedDebugSession callstackSession = new SimulatedDebugSession(step, callstackMetrics, latencyMillis);
+        start = System.nanoTime();
+        List<String> callstackFrames = DebuggerUtils.formatCallstackFrames(callstackSession.getFrames());
+        PhaseResult callstack = new PhaseResult(callstackMetrics, System.nanoTime() - start);
+
+        // Phase 3: the controller path as triggered by a pause event
+        ReplayMetrics endToEndMetrics = new ReplayMetrics();
+        SimulatedDebugSession endToEndSession = new SimulatedDebugSession(step, endToEndMetrics, latencyMillis);
+        Map<String, Object> published = new LinkedHashMap<>();
+        DebugSessionController controller = new DebugSessionController();
+        controller.setDebugProcess(endToEndSession.getDebugProcess());
+
+        try (MockedStatic<DebuggerUtils> ignoredUtils = mockStatic(DebuggerUtils.class, invocation -> {
+                 if (invocation.getMethod().getName().equals("getStackFramesPerThread")) {
+                     return endToEndSession.getStackFramesPerThread();
+                 }
+                 return invocation.callRealMethod();
+             });
+             MockedStatic<DebugServerEndpoint> ignoredEndpoint = mockStatic(DebugServerEndpoint.class, invocation -> {
+                 String method = invocation.getMethod().getName();
+                 if (method.startsWith("publish") && invocation.getArguments().length == 1) {
+                     Object payload = invocation.getArgument(0);
+                     published.put(method, payload);
+                     endToEndMetrics.recordPayload(method, GSON.toJson(payload).length());
+                     return null;
+                 }
+                 return RETURNS_DEFAULTS.answer(invocation);
+             })) {
+            // Only the analysis triggered by the pause is measured, not the background prefetch of caller frames
+            DebugSessionController.setPrefetchExecutor(command -> {});
+            start = System.nanoTime();
+            controller.performDynamicAnalysis(SimulatedDebugSession.THREAD_NAME);
+        } finally {
+            DebugSessionController.setPrefetchExecutor(null);
+        }
+        PhaseResult endToEnd = new PhaseResult(endToEndMetrics, System.nanoTime() - start);
+
+        return new StepResult(program.program, index, step.line, step.frames.size(),
+                analysis, callstack, endToEnd,
+                analyzer.getVariables(), analyzer.getObjects(), callstackFrames, published,
+                controller.getEvaluationGateway().getStats());
+    }
+
+    /**
+     * Formats results as a fixed-width table, one line per step and phase.
+     *
+     * @param results the results to format
+     * @return the report text
+     */
+    public String formatReport(List<StepResult> results) {
+        StringBuilder sb = new StringBuilder();
+        sb.append(String.format(Locale.ROOT, "EduPy replay benchmark (latency %.2f ms per round trip, %d in flight)%n",
+                latencyMillis, maxInFlight));
+        sb.append(String.format(Locale.ROOT, "%-12s %4s %5s %6s %-10s %7s %7s %9s %9s %9s %10s%n",
+                "program", "step", "line", "frames", "phase", "trips", "evals", "sent[B]", "recv[B]", "ui[B]", "wall[ms]"));
+        for (StepResult r : results) {
+            appendPhase(sb, r, "analysis", r.analysis());
+            appendPhase(sb, r, "callstack", r.callstack());
+            appendPhase(sb, r, "end-to-end", r.endToEnd());
+        }
+
+        // Where the remaining end-to-end round trips come from, summed over all steps
+        Map<String, long[]> byKind = new TreeMap<>();
+        for (StepResult r : results) {
+            r.gatewayStats().forEach((kind, stats) -> {
+                long[] sum = byKind.computeIfAbsent(kind, k -> new long[2]);
+                sum[0] += stats.requests();
+                sum[1] += stats.roundTrips();
+            });
+        }
+        sb.append(String.format(Locale.ROOT, "%n%-12s %9s %7s %7s%n", "kind", "requests", "trips", "saved"));
+        byKind.forEach((kind, sum) -> sb.append(String.format(Locale.ROOT, "%-12s %9d %7d %7d%n",
+                kind, sum[0], sum[1], sum[0] - sum[1])));
+        return sb.toString();
+    }
+
+    private void appendPhase(StringBuilder sb, StepResult r, String phase, PhaseResult p) {
+        ReplayMetrics m = p.metrics();
+        sb.append(String.format(Locale.ROOT, "%-12s %4d %5d %6d %-10s %7d %7d %9d %9d %9d %10.2f%n",
+                r.program(), r.stepIndex(), r.line(), r.frameCount(), phase,
+                m.roundTrips(), m.evaluateCalls(), m.bytesSent(), m.bytesReceived(), m.totalPayloadBytes(),
+                p.wallMillis()));
+    }
+}
@@ -0,0 +1,103 @@
+package de.code14.edupydebugger.replay;
+
+import de.code14.edupydebugger.analysis.dynamicanalysis.EvaluationGateway;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Counters collected while replaying a step: debugger round trips, bytes crossing the debugger
+ * connection and bytes published to the browser UI.
+ * <p>
+ * A round trip is any request that has to travel to the debuggee and back, i.e. every
+ * {@code PyFrameAccessor.evaluate} call and every {@code PyStackFrame.computeChildren} call.
+ */
+public class ReplayMetrics {
+
+    private final AtomicLong evaluateCalls = new AtomicLong();
+    private final AtomicLong childrenCalls = new AtomicLong();
+    private final AtomicLong bytesSent = new AtomicLong();
+    private final AtomicLong bytesReceived = new AtomicLong();
+    private final AtomicLong unresolved = new AtomicLong();
+    private final AtomicLong errors = new AtomicLong();
+    private final Map<String, AtomicLong> evaluationsByKind = new ConcurrentHashMap<>();
+    private final Map<String, AtomicLong> payloadBytes = new ConcurrentHashMap<>();
+
+    void recordEvaluate(String expression, ExpressionResolver.Result result) {
+        evaluateCalls.incrementAndGet();
+        bytesSent.addAndGet(utf8Length(expression));
+        bytesReceived.addAndGet(utf8Length(result.type()) + utf8Length(result.value()));
+        if (result.unresolved()) unresolved.incrementAndGet();
+        if (result.error()) errors.incrementAndGet();
+        evaluationsByKind.computeIfAbsent(classify(expression), k -> new AtomicLong()).incrementAndGet();
+    }
+
+    void recordChildren(long receivedBytes) {
+        childrenCalls.incrementAndGet();
+        bytesReceived.addAndGet(receivedBytes);
+    }
+
+    void recordPayload(String messageType, long bytes) {
+        payloadBytes.computeIfAbsent(messageType, k -> new AtomicLong()).addAndGet(bytes);
+    }
+
+    public long roundTrips() {
+        return evaluateCalls.get() + childrenCalls.get();
+    }
+
+    public long evaluateCalls() {
+        return evaluateCalls.get();
+    }
+
+    public long childrenCalls() {
+        return childrenCalls.get();
+    }
+
+    public long bytesSent() {
+        return bytesSent.get();
+    }
+
+    public long bytesReceived() {
+        return bytesReceived.get();
+    }
+
+    public long unresolved() {
+        return unresolved.get();
+    }
+
+    public long errors() {
+        return errors.get();
+    }
+
+    /** Evaluations grouped by the kind of probe (id, repr, dir, scope, ...), sorted by kind. */
+    public Map<String, Long> evaluationsByKind() {
+        Map<String, Long> out = new TreeMap<>();
+        evaluationsByKind.forEach((k, v) -> out.put(k, v.get()));
+        return out;
+    }
+
+    /** Serialized bytes handed to the UI, grouped by message type. */
+    public Map<String, Long> payloadBytes() {
+        Map<String, Long> out = new TreeMap<>();
+        payloadBytes.forEach((k, v) -> out.put(k, v.get()));
+        return out;
+    }
+
+    public long totalPayloadBytes() {
+        return payloadBytes.values().stream().mapToLong(AtomicLong::get).sum();
+    }
+
+    /**
+     * Groups an analyzer expression into a coarse probe kind for reporting, using the same kinds as
+     * the production {@link EvaluationGateway}.
+     */
+    static String classify(String expression) {
+        return EvaluationGateway.kindOf(expression);
+    }
+
+    private static long utf8Length(String s) {
+        return s == null ? 0 : s.getBytes(java.nio.charset.StandardCharsets.UTF_8).length;
+    }
+}
@@ -0,0 +1,107 @@
+package de.code14.edupydebugger.replay;
+
+import com.google.gson.Gson;
+import com.google.gson.JsonElement;
+import com.google.gson.annotations.SerializedName;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.*;
+import java.util.stream.Stream;
+
+/**
+ * A recorded student program of the replay corpus.
+ * <p>
+ * Each program consists of a sequence of pause points ({@link Step}s). A step captures what the
+ * debugger would see while suspended: the stack frames (top frame first) with their locals,
+ * the module globals and a heap of referenced objects keyed by their Python {@code id()}.
+ * <p>
+ * Values inside frames, globals, attributes and container items use a compact JSON notation:
+ * <ul>
+ *   <li>JSON primitives ({@code null}, numbers, booleans, strings) map to {@code None}, int/float, bool, str</li>
+ *   <li>a string starting with {@code @} (e.g. {@code "@140100001"}) is a reference into the heap</li>
+ *   <li>{@code {"function": "name"}}, {@code {"type": "Name"}} and {@code {"module": "name"}} describe
+ *       functions, classes and modules</li>
+ * </ul>
+ * The corpus files live under {@code src/test/testData/replay}.
+ */
+public class ReplayProgram {
+
+    /** Directory containing the shipped replay corpus. */
+    public static final Path CORPUS_DIR = Paths.get("src", "test", "testData", "replay");
+
+    private static final Gson GSON = new Gson();
+
+    public String program;
+    public String description;
+    public String source;
+    public List<Step> steps = new ArrayList<>();
+
+    /** One pause point of the recorded program. */
+    public static class Step {
+        public int line;
+        public List<Frame> frames = new ArrayList<>();
+        public Map<String, JsonElement> globals = new LinkedHashMap<>();
+        public Map<String, HeapObject> heap = new LinkedHashMap<>();
+    }
+
+    /** One stack frame; {@code args} lists the parameter names in declaration order. */
+    public static class Frame {
+        public String name;
+        public String file;
+        public List<String> args = new ArrayList<>();
+        public Map<String, JsonElement> locals = new LinkedHashMap<>();
+    }
+
+    /**
+     * A heap object. User-defined instances use {@code attrs}, {@code static} and {@code methods};
+     * builtin containers use {@code items} (list, tuple, set) or {@code entries} (dict).
+     */
+    public static class HeapObject {
+        public String type;
+        public Map<String, JsonElement> attrs = new LinkedHashMap<>();
+        @SerializedName("static")
+        public Map<String, JsonElement> statics = new LinkedHashMap<>();
+        public List<String> methods = new ArrayList<>();
+        public List<JsonElement> items;
+        public List<List<JsonElement>> entries;
+    }
+
+    /**
+     * Loads a single corpus file.
+     *
+     * @param file path to the JSON file
+     * @return the parsed program
+     * @throws IOException if the file cannot be read
+     */
+    public static ReplayProgram load(Path file) throws IOException {
+        try (Reader reader = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            ReplayProgram program = GSON.fromJson(reader, ReplayProgram.class);
+            if (program.program == null) {
+                program.program = file.getFileName().toString().replace(".json", "");
+            }
+            return program;
+        }
+    }
+
+    /**
+     * Loads all programs of the shipped corpus, sorted by file name.
+     *
+     * @return the corpus programs
+     * @throws IOException if the corpus directory cannot be read
+     */
+    public static List<ReplayProgram> loadCorpus() throws IOException {
+        List<ReplayProgram> programs = new ArrayList<>();
+        try (Stream<Path> files = Files.list(CORPUS_DIR)) {
+            List<Path> sorted = files.filter(p -> p.toString().endsWith(".json")).sorted().toList();
+            for (Path file : sorted) {
+                programs.add(load(file));
+            }
+        }
+        return programs;
+    }
+}
@@ -0,0 +1,163 @@
+package de.code14.edupydebugger.replay;
+
+import com.google.gson.JsonElement;
+import com.intellij.openapi.vfs.VirtualFile;
+import com.intellij.xdebugger.XDebugSession;
+import com.intellij.xdebugger.XSourcePosition;
+import com.intellij.xdebugger.frame.XCompositeNode;
+import com.intellij.xdebugger.frame.XValueChildrenList;
+import com.jetbrains.python.debugger.PyDebugProcess;
+import com.jetbrains.python.debugger.PyDebugValue;
+import com.jetbrains.python.debugger.PyFrameAccessor;
+import com.jetbrains.python.debugger.PyStackFrame;
+import com.jetbrains.python.debugger.PyThreadInfo;
+
+import java.util.*;
+import java.util.concurrent.TimeUnit;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+/**
+ * A simulated, suspended PyCharm debug session for one recorded {@link ReplayProgram.Step}.
+ * <p>
+ * The session consists of Mockito doubles for {@link PyDebugProcess}, {@link XDebugSession},
+ * a single suspended {@link PyThreadInfo} named {@value #THREAD_NAME}, one {@link PyStackFrame}
+ * per recorded frame and a shared {@link PyFrameAccessor}. Every {@code evaluate} and
+ * {@code computeChildren} call is answered from the recording through the
+ * {@link ExpressionResolver}, delayed by the configured latency and accounted in the
+ * {@link ReplayMetrics}. Callbacks run on the calling thread, like the synchronous paths of the
+ * analyzers expect from a fast debugger connection.
+ */
+public class SimulatedDebugSession {
+
+    public static final String THREAD_NAME = "MainThread";
+
+    private final ReplayProgram.Step step;
+    private final ExpressionResolver resolver;
+    private final ReplayMetrics metrics;
+    private final long latencyNanos;
+
+    private final PyFrameAccessor frameAccessor;
+    private final List<PyStackFrame> frames = new ArrayList<>();
+    private final PyThreadInfo threadInfo;
+    private final PyDebugProcess debugProcess;
+    private final XDebugSession session;
+
+    /**
+     * @param step          the recorded pause point to simulate
+     * @param metrics       the metrics sink receiving round trips and bytes
+     * @param latencyMillis artificial latency added to every round trip (may be fractional)
+     */
+    public SimulatedDebugSession(ReplayProgram.Step step, ReplayMetrics metrics, double latencyMillis) {
+        this.step = step;
+        this.resolver = new ExpressionResolver(step);
+        this.metrics = metrics;
+        this.latencyNanos = (long) (latencyMillis * 1_000_000L);
+
+        this.frameAccessor = mock(PyFrameAccessor.class, invocation -> {
+            if (invocation.getMethod().getName().equals("evaluate")) {
+                return evaluate(invocation.getArgument(0));
+            }
+            return RETURNS_DEFAULTS.answer(invocation);
+        });
+
+        for (int i = 0; i < step.frames.size(); i++) {
+            frames.add(createFrame(step.frames.get(i), i));
+        }
+
+        this.threadInfo = mock(PyThreadInfo.class);
+        when(threadInfo.getName()).thenReturn(THREAD_NAME);
+        when(threadInfo.getState()).thenReturn(PyThreadInfo.State.SUSPENDED);
+
+        this.debugProcess = mock(PyDebugProcess.class);
+        this.session = mock(XDebugSession.class);
+        when(debugProcess.getSession()).thenReturn(session);
+        when(debugProcess.getThreads()).thenReturn(List.of(threadInfo));
+        when(session.getDebugProcess()).thenReturn(debugProcess);
+        when(session.isPaused()).thenReturn(true);
+    }
+
+    private PyStackFrame createFrame(ReplayProgram.Frame recorded, int depth) {
+        PyStackFrame frame = mock(PyStackFrame.class);
+        when(frame.getName()).thenReturn(recorded.name);
+        when(frame.getFrameId()).thenReturn("frame-" + depth);
+
+        if (recorded.file != null) {
+            VirtualFile file = mock(VirtualFile.class);
+            when(file.getName()).thenReturn(recorded.file);
+            XSourcePosition position = mock(XSourcePosition.class);
+            when(position.getFile()).thenReturn(file);
+            when(position.getLine()).thenReturn(Math.max(0, step.line - 1));
+            when(frame.getSourcePosition()).thenReturn(position);
+        }
+
+        doAnswer(inv -> {
+            XCompositeNode node = inv.getArgument(0);
+            node.addChildren(computeChildren(recorded), true);
+            return null;
+        }).when(frame).computeChildren(any());
+        return frame;
+    }
+
+    private XValueChildrenList computeChildren(ReplayProgram.Frame recorded) {
+        pause();
+        XValueChildrenList children = new XValueChildrenList();
+        long bytes = 0;
+        for (Map.Entry<String, JsonElement> local : recorded.locals.entrySet()) {
+            ExpressionResolver.Result r = resolver.describe(local.getValue());
+            children.add(toDebugValue(local.getKey(), r));
+            bytes += local.getKey().length() + r.type().length() + r.value().length();
+        }
+        metrics.recordChildren(bytes);
+        return children;
+    }
+
+    private PyDebugValue evaluate(String expression) {
+        pause();
+        ExpressionResolver.Result r = resolver.evaluate(expression);
+        metrics.recordEvaluate(expression, r);
+        return toDebugValue(expression, r);
+    }
+
+    private PyDebugValue toDebugValue(String name, ExpressionResolver.Result r) {
+        return new PyDebugValue(name, r.type(), null, r.value(), r.container(), null,
+                false, false, r.error(), null, frameAccessor);
+    }
+
+    private void pause() {
+        if (latencyNanos <= 0) return;
+        try {
+            TimeUnit.NANOSECONDS.sleep(latencyNanos);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public List<PyStackFrame> getFrames() {
+        return Collections.unmodifiableList(frames);
+    }
+
+    public PyThreadInfo getThreadInfo() {
+        return threadInfo;
+    }
+
+    public PyDebugProcess getDebugProcess() {
+        return debugProcess;
+    }
+
+    public XDebugSession getSession() {
+        return session;
+    }
+
+    public PyFrameAccessor getFrameAccessor() {
+        return frameAccessor;
+    }
+
+    /** Frames of the simulated session grouped per thread, as returned by {@code DebuggerUtils}. */
+    public Map<PyThreadInfo, List<PyStackFrame>> getStackFramesPerThread() {
+        Map<PyThreadInfo, List<PyStackFrame>> perThread = new LinkedHashMap<>();
+        perThread.put(threadInfo, getFrames());
+        return perThread;
+    }
+}
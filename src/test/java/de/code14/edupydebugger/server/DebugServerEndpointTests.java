@@ -8,6 +8,7 @@ import de.code14.edupydebugger.core.console.ConsoleController;
 import de.code14.edupydebugger.core.DebugProcessController;
 import de.code14.edupydebugger.server.dto.CallstackPayload;
 import de.code14.edupydebugger.server.dto.DebugMessage;
+import de.code14.edupydebugger.server.dto.DiagramPatchPayload;
 import jakarta.websocket.RemoteEndpoint;
 import jakarta.websocket.Session;
 import org.junit.Before;
@@ -49,6 +50,10 @@ public class DebugServerEndpointTests {
         Set<Session> sessions = (Set<Session>) sessionsField.get(null);
         sessions.clear();
 
+        Field localClientsField = DebugServerEndpoint.class.getDeclaredField("localClients");
+        localClientsField.setAccessible(true);
+        ((Set<?>) localClientsField.get(null)).clear();
+
         Field messageQueueField = DebugServerEndpoint.class.getDeclaredField("messageQueue");
         messageQueueField.setAccessible(true);
         @SuppressWarnings("unchecked")
@@ -59,8 +64,11 @@ public class DebugServerEndpointTests {
         setStatic("selectedThread", null);
 
         setStatic("lastClassDiagram", null);
+        setStatic("classDiagramShards", null);
         setStatic("lastObjectCards", null);
         setStatic("lastObjectDiagram", null);
+        setStatic("objectDiagramSource", null);
+        setStatic("lastObjectGraph", null);
         setStatic("lastVariables", null);
         setStatic("lastCallstack", null);
         setStatic("lastThreads", null);
@@ -196,6 +204,40 @@ public class DebugServerEndpointTests {
         ep.onMessage(json, mockSession);
     }
 
+    @Test
+    public void testFrameSelected_invalidIndex_isIgnored() {
+        DebugServerEndpoint ep = new DebugServerEndpoint();
+        ep.onOpen(mockSession);
+
+        // Keine Zahl bzw. kein Index → wird ignoriert, ohne Exception
+        ep.onMessage("{\"type\":\"frame_selected\",\"payload\":{\"index\":\"abc\"}}", mockSession);
+        ep.onMessage("{\"type\":\"frame_selected\",\"payload\":{}}", mockSession);
+        ep.onMessage("{\"type\":\"frame_selected\",\"payload\":{\"index\":2}}", mockSession);
+    }
+
+    @Test
+    public void testContainerPage_invalidPayload_isIgnored() {
+        DebugServerEndpoint ep = new DebugServerEndpoint();
+        ep.onOpen(mockSession);
+
+        // Ohne id, mit negativem Offset oder ohne Limit → wird ignoriert, ohne Exception
+        ep.onMessage("{\"type\":\"container_page\",\"payload\":{\"offset\":0,\"limit\":50}}", mockSession);
+        ep.onMessage("{\"type\":\"container_page\",\"payload\":{\"id\":\"7\",\"offset\":-1,\"limit\":50}}", mockSession);
+        ep.onMessage("{\"type\":\"container_page\",\"payload\":{\"id\":\"7\"}}", mockSession);
+        // Gültig, aber keine laufende Analyse → keine Antwort
+        ep.onMessage("{\"type\":\"container_page\",\"payload\":{\"id\":\"7\",\"offset\":0,\"limit\":50}}", mockSession);
+    }
+
+    @Test
+    public void testExpandCluster_withoutDiagram_isIgnored() {
+        DebugServerEndpoint ep = new DebugServerEndpoint();
+        ep.onOpen(mockSession);
+
+        // Ohne id bzw. ohne gerendertes Diagramm → keine Antwort, ohne Exception
+        ep.onMessage("{\"type\":\"expand_cluster\",\"payload\":{}}", mockSession);
+        ep.onMessage("{\"type\":\"expand_cluster\",\"payload\":{\"id\":\"~7\"}}", mockSession);
+    }
+
     @Test
     public void testGet_ignoresNullResource() {
         DebugServerEndpoint ep = new DebugServerEndpoint();
@@ -262,6 +304,38 @@ public class DebugServerEndpointTests {
         assertEquals(Arrays.asList("f1", "f2"), msg.payload.frames);
     }
 
+    @Test
+    public void testObjectDiagramPatch_isSentWithoutSupplier_andGetMaterializesCurrentDiagram() throws Exception {
+        DebugServerEndpoint.publishObjectDiagram("OLD");
+
+        DebugServerEndpoint ep = new DebugServerEndpoint();
+        when(mockSession.getBasicRemote()).thenReturn(mockBasicRemote);
+        ArgumentCaptor<String> cap = ArgumentCaptor.forClass(String.class);
+        doNothing().when(mockBasicRemote).sendText(cap.capture());
+        ep.onOpen(mockSession);
+
+        DiagramPatchPayload patch = new DiagramPatchPayload();
+        patch.base = 1;
+        patch.texts = Map.of("o1-r0", "value = 2");
+        patch.fullSvgBase64 = () -> "NEW";
+        DebugServerEndpoint.publishObjectDiagramPatch(patch);
+
+        // Späte Clients erhalten das vollständige, gepatchte Diagramm
+        ep.onMessage("{\"type\":\"get\",\"payload\":{\"resource\":\"object_diagram\"}}", mockSession);
+
+        List<String> sent = cap.getAllValues();
+        assertEquals(3, sent.size());
+        Type t = new TypeToken<DebugMessage<Map<String, Object>>>(){}.getType();
+        DebugMessage<Map<String, Object>> patchMsg = gson.fromJson(sent.get(1), t);
+        assertEquals("object_diagram_patch", patchMsg.type);
+        assertEquals(Map.of("o1-r0", "value = 2"), patchMsg.payload.get("texts"));
+        assertFalse(patchMsg.payload.containsKey("fullSvgBase64"));
+
+        DebugMessage<Map<String, Object>> full = gson.fromJson(sent.get(2), t);
+        assertEquals("object_diagram", full.type);
+        assertEquals("NEW", full.payload.get("svgBase64"));
+    }
+
     @Test
     public void testOnMessage_withInvalidJson_isIgnored() throws Exception {
         DebugServerEndpoint ep = new DebugServerEndpoint();
@@ -327,6 +401,51 @@ public class DebugServerEndpointTests {
         assertEquals("object_diagram", m2.type);
     }
 
+    @Test
+    public void testLocalClient_receivesQueuedAndAnsweredMessages() throws Exception {
+        CallstackPayload cached = new CallstackPayload();
+        cached.frames = List.of("main");
+        setStatic("lastCallstack", cached);
+        // Vor dem Verbinden → Queue
+        DebugServerEndpoint.publishClassDiagram("AAA");
+
+        List<String> received = new ArrayList<>();
+        java.util.function.Consumer<String> client = received::add;
+        DebugServerEndpoint.connectLocalClient(client);
+        assertTrue(isConnected());
+
+        // Eingehende Nachrichten des eingebetteten Browsers laufen durch denselben Dispatch
+        DebugServerEndpoint.receiveLocalMessage("{\"type\":\"get\",\"payload\":{\"resource\":\"callstack\"}}");
+
+        Type t = new TypeToken<DebugMessage<Map<String, Object>>>(){}.getType();
+        assertEquals(2, received.size());
+        assertEquals("class_diagram", gson.<DebugMessage<Map<String, Object>>>fromJson(received.get(0), t).type);
+        assertEquals("callstack", gson.<DebugMessage<Map<String, Object>>>fromJson(received.get(1), t).type);
+
+        DebugServerEndpoint.disconnectLocalClient(client);
+        assertFalse(isConnected());
+        DebugServerEndpoint.publishObjectDiagram("BBB");
+        assertEquals(2, received.size());
+        assertEquals(1, getQueue().size());
+    }
+
+    @Test
+    public void testLocalClient_andSessionsShareBroadcasts() throws Exception {
+        DebugServerEndpoint ep = new DebugServerEndpoint();
+        when(mockSession.getBasicRemote()).thenReturn(mockBasicRemote);
+        ep.onOpen(mockSession);
+        List<String> received = new ArrayList<>();
+        DebugServerEndpoint.connectLocalClient(received::add);
+
+        DebugServerEndpoint.publishObjectDiagram("BBB");
+
+        verify(mockBasicRemote, times(1)).sendText(received.get(0));
+
+        // Schließt der Browser-Tab, bleibt der eingebettete Client verbunden
+        ep.onClose(mockSession);
+        assertTrue(isConnected());
+    }
+
     @Test
     public void testReplStart_clearsCallstackOnEnter() throws Exception {
         // Prepare: cache a non-empty callstack
@@ -369,6 +488,46 @@ public class DebugServerEndpointTests {
         }
     }
 
+    @Test
+    public void testGetClassDiagramShard_rendersModuleOnFirstRequestOnly() throws Exception {
+        DebugServerEndpoint ep = new DebugServerEndpoint();
+        when(mockSession.getBasicRemote()).thenReturn(mockBasicRemote);
+        ArgumentCaptor<String> cap = ArgumentCaptor.forClass(String.class);
+        doNothing().when(mockBasicRemote).sendText(cap.capture());
+        ep.onOpen(mockSession);
+
+        Map<String, de.code14.edupydebugger.analysis.staticanalysis.ClassInfo> classes = new HashMap<>();
+        classes.put("Point", new de.code14.edupydebugger.analysis.staticanalysis.ClassInfo(
+                List.of(), List.of(), List.of(), List.of()));
+        de.code14.edupydebugger.diagram.ClassDiagramShards shards =
+                new de.code14.edupydebugger.diagram.ClassDiagramShards(classes, Map.of("Point", "geometry"));
+
+        try (MockedStatic<de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator> puml = mockStatic(de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator.class)) {
+            puml.when(() -> de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator.generateDiagramAsBase64(anyString()))
+                .thenReturn("b64-geometry");
+
+            DebugServerEndpoint.publishClassDiagramShards("b64-overview", shards);
+            String json = "{\"type\":\"get\",\"payload\":{\"resource\":\"class_diagram_shard\",\"module\":\"geometry\"}}";
+            ep.onMessage(json, mockSession);
+            ep.onMessage(json, mockSession);
+            // Unbekanntes Modul: keine Antwort
+            ep.onMessage(json.replace("geometry", "unknown"), mockSession);
+
+            // Übersicht + zwei Antworten, gerendert wird das Modul nur einmal
+            assertEquals(3, cap.getAllValues().size());
+            puml.verify(() -> de.code14.edupydebugger.diagram.PlantUMLDiagramGenerator.generateDiagramAsBase64(anyString()), times(1));
+            Type overviewType = new TypeToken<DebugMessage<de.code14.edupydebugger.server.dto.DiagramPayload>>(){}.getType();
+            DebugMessage<de.code14.edupydebugger.server.dto.DiagramPayload> overview = gson.fromJson(cap.getAllValues().get(0), overviewType);
+            assertEquals("class_diagram", overview.type);
+            assertEquals(List.of("geometry"), overview.payload.shards);
+            Type shardType = new TypeToken<DebugMessage<de.code14.edupydebugger.server.dto.ClassDiagramShardPayload>>(){}.getType();
+            DebugMessage<de.code14.edupydebugger.server.dto.ClassDiagramShardPayload> shard = gson.fromJson(cap.getAllValues().get(2), shardType);
+            assertEquals("class_diagram_shard", shard.type);
+            assertEquals("geometry", shard.payload.module);
+            assertEquals("b64-geometry", shard.payload.svgBase64);
+        }
+    }
+
     @Test
     public void testGetClassDiagram_inRepl_generatesWhenMissing() throws Exception {
         DebugServerEndpoint ep = new DebugServerEndpoint();
@@ -1,9 +1,23 @@
 package de.code14.edupydebugger.server;
 
+import jakarta.websocket.DeploymentException;
+import org.glassfish.grizzly.threadpool.ThreadPoolConfig;
+import org.glassfish.tyrus.container.grizzly.server.GrizzlyServerContainer;
 import org.glassfish.tyrus.server.Server;
 import org.junit.Before;
 import org.junit.Test;
 
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Stream;
+
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.*;
 
@@ -24,8 +38,8 @@ public class DebugWebSocketServerTests {
         // Simulate that the server starts successfully
         doNothing().when(mockServer).start();
 
-        // Start the WebSocket server
-        webSocketServer.startWebSocketServer();
+        // Start the WebSocket server and wait for the bind
+        webSocketServer.startWebSocketServer().get(5, TimeUnit.SECONDS);
 
         // Verify that server.start() was called
         verify(mockServer, times(1)).start();
@@ -34,13 +48,59 @@ public class DebugWebSocketServerTests {
         assertTrue(webSocketServer.isRunning());
     }
 
+    @Test
+    public void testStartReturnsBeforeTheServerIsBound() throws Exception {
+        CountDownLatch bind = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            bind.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(mockServer).start();
+
+        CompletableFuture<Void> first = webSocketServer.startWebSocketServer();
+        CompletableFuture<Void> second = webSocketServer.startWebSocketServer();
+
+        // Der Aufrufer wartet nicht auf das Binden; ein zweiter Start liefert dieselbe Future
+        assertFalse(first.isDone());
+        assertFalse(webSocketServer.isRunning());
+        assertTrue(webSocketServer.isStarting());
+        assertSame(first, second);
+
+        bind.countDown();
+        first.get(5, TimeUnit.SECONDS);
+        assertTrue(webSocketServer.isRunning());
+        assertFalse(webSocketServer.isStarting());
+        assertSame(first, webSocketServer.startWebSocketServer());
+        verify(mockServer, times(1)).start();
+    }
+
+    @Test
+    public void testBindFailureCompletesTheFutureExceptionally() throws Exception {
+        DeploymentException bindFailure = new DeploymentException("Address already in use");
+        doThrow(bindFailure).doNothing().when(mockServer).start();
+
+        CompletableFuture<Void> failed = webSocketServer.startWebSocketServer();
+
+        try {
+            failed.get(5, TimeUnit.SECONDS);
+            fail("ExecutionException expected");
+        } catch (ExecutionException expected) {
+            assertSame(bindFailure, expected.getCause());
+        }
+        assertTrue(failed.isCompletedExceptionally());
+        assertFalse(webSocketServer.isRunning());
+
+        // Der nächste Start versucht es erneut
+        webSocketServer.startWebSocketServer().get(5, TimeUnit.SECONDS);
+        assertTrue(webSocketServer.isRunning());
+    }
+
     @Test
     public void testStopWebSocketServerSuccess() throws Exception {
         // Simulate starting and stopping the server
         doNothing().when(mockServer).start();
         doNothing().when(mockServer).stop();
 
-        webSocketServer.startWebSocketServer();
+        webSocketServer.startWebSocketServer().get(5, TimeUnit.SECONDS);
         assertTrue(webSocketServer.isRunning());
 
         webSocketServer.stopWebSocketServer();
@@ -60,6 +120,43 @@ public class DebugWebSocketServerTests {
         assertFalse(webSocketServer.isRunning());
     }
 
+    @Test
+    public void testServerPropertiesServeTheWebUiWithSmallThreadPools() {
+        Map<String, Object> properties = DebugWebSocketServer.serverProperties(Path.of("/tmp/edupy-web"));
+
+        // Statische Dateien und WebSocket teilen sich einen Grizzly-Transport
+        assertEquals(Path.of("/tmp/edupy-web").toString(), properties.get(Server.STATIC_CONTENT_ROOT));
+
+        ThreadPoolConfig selector = (ThreadPoolConfig) properties.get(GrizzlyServerContainer.SELECTOR_THREAD_POOL_CONFIG);
+        assertEquals(1, selector.getMaxPoolSize());
+        ThreadPoolConfig workers = (ThreadPoolConfig) properties.get(GrizzlyServerContainer.WORKER_THREAD_POOL_CONFIG);
+        assertEquals(DebugWebSocketServer.WORKER_THREADS, workers.getCorePoolSize());
+        assertEquals(DebugWebSocketServer.MAX_WORKER_THREADS, workers.getMaxPoolSize());
+    }
+
+    @Test
+    public void testFailedUnpackingLeavesNoTempDirectory() throws IOException {
+        long before = countTempDirectories();
+        // Ein Class Loader ohne Web-UI
+        ClassLoader empty = new ClassLoader(null) {
+        };
+
+        try {
+            DebugWebSocketServer.unpackWebUi(empty);
+            fail("IOException expected");
+        } catch (IOException expected) {
+            // Web-UI fehlt
+        }
+
+        assertEquals(before, countTempDirectories());
+    }
+
+    private static long countTempDirectories() throws IOException {
+        try (Stream<Path> files = Files.list(Paths.get(System.getProperty("java.io.tmpdir")))) {
+            return files.filter(file -> file.getFileName().toString().startsWith(DebugWebSocketServer.TEMP_PREFIX)).count();
+        }
+    }
+
     @Test
     public void testGetInstance() {
         // Verify that the singleton instance is not null and remains the same across multiple calls
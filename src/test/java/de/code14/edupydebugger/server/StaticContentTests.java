@@ -0,0 +1,73 @@
+package de.code14.edupydebugger.server;
+
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.rules.TemporaryFolder;
+
+import java.io.IOException;
+import java.net.URL;
+import java.net.URLClassLoader;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.jar.JarEntry;
+import java.util.jar.JarOutputStream;
+
+import static org.junit.Assert.*;
+
+
+public class StaticContentTests {
+
+    @Rule
+    public TemporaryFolder folder = new TemporaryFolder();
+
+    @Test
+    public void testCopiesTheWebUiFromTheResourceDirectory() throws IOException {
+        Path target = folder.getRoot().toPath().resolve("web");
+
+        StaticContent.copyTo(target, StaticContent.class.getClassLoader());
+
+        assertTrue(Files.isRegularFile(target.resolve("index.html")));
+        assertTrue(Files.isRegularFile(target.resolve("app.js")));
+        assertTrue(Files.isRegularFile(target.resolve("pages/object-diagram.js")));
+    }
+
+    @Test
+    public void testCopiesTheWebUiFromTheArchive() throws IOException {
+        Path jar = folder.getRoot().toPath().resolve("plugin.jar");
+        try (JarOutputStream out = new JarOutputStream(Files.newOutputStream(jar))) {
+            writeEntry(out, "static/index.html", "<html></html>");
+            writeEntry(out, "static/pages/help.html", "Hilfe");
+            writeEntry(out, "other/ignored.txt", "-");
+        }
+        Path target = folder.getRoot().toPath().resolve("web");
+
+        // Nur das Archiv, nicht die Ressourcen des Test-Klassenpfads
+        try (URLClassLoader loader = new URLClassLoader(new URL[]{jar.toUri().toURL()}, null)) {
+            StaticContent.copyTo(target, loader);
+        }
+
+        assertEquals("<html></html>", Files.readString(target.resolve("index.html")));
+        assertEquals("Hilfe", Files.readString(target.resolve("pages/help.html")));
+        assertFalse(Files.exists(target.resolve("other")));
+
+        StaticContent.delete(target);
+        assertFalse(Files.exists(target));
+    }
+
+    @Test
+    public void testMissingWebUiFails() throws IOException {
+        try (URLClassLoader empty = new URLClassLoader(new URL[0], null)) {
+            StaticContent.copyTo(folder.getRoot().toPath(), empty);
+            fail("IOException expected");
+        } catch (IOException expected) {
+            // erwartet: ohne index.html gibt es nichts zu bedienen
+        }
+    }
+
+    private static void writeEntry(JarOutputStream out, String name, String content) throws IOException {
+        out.putNextEntry(new JarEntry(name));
+        out.write(content.getBytes(StandardCharsets.UTF_8));
+        out.closeEntry();
+    }
+}
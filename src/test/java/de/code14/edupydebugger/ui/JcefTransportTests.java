@@ -0,0 +1,60 @@
+package de.code14.edupydebugger.ui;
+
+import org.junit.After;
+import org.junit.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.Assert.*;
+
+
+public class JcefTransportTests {
+
+    @After
+    public void tearDown() {
+        System.clearProperty(JcefTransport.PROPERTY);
+    }
+
+    @Test
+    public void testResourcePathMapsTheVirtualOrigin() {
+        assertEquals("index.html", JcefTransport.resourcePath(JcefTransport.INDEX_URL));
+        assertEquals("index.html", JcefTransport.resourcePath("http://edupy-debugger/"));
+        assertEquals("pages/class-diagram.html",
+                JcefTransport.resourcePath("http://edupy-debugger/pages/class-diagram.html?x=1#top"));
+
+        // Fremde Seiten (z. B. Python Tutor) und Pfade nach oben werden nicht bedient
+        assertNull(JcefTransport.resourcePath("https://pythontutor.com/python-compiler.html"));
+        assertNull(JcefTransport.resourcePath("http://edupy-debugger/../secret.txt"));
+        assertNull(JcefTransport.resourcePath(null));
+    }
+
+    @Test
+    public void testMimeTypes() {
+        assertEquals("text/html", JcefTransport.mimeType("pages/help.html"));
+        assertEquals("text/javascript", JcefTransport.mimeType("bridge.js"));
+        assertEquals("image/svg+xml", JcefTransport.mimeType("icons/resume.svg"));
+        assertEquals("application/octet-stream", JcefTransport.mimeType("LICENSE"));
+    }
+
+    @Test
+    public void testBridgeScriptDefinesTheQueryBeforeTheTransport() {
+        byte[] script = JcefTransport.bridgeScript("window.cefQuery_1({request: json});",
+                "const edupyTransport = {};".getBytes(StandardCharsets.UTF_8));
+
+        assertEquals("window.edupyQuery = function (json) { window.cefQuery_1({request: json}); };\n"
+                + "const edupyTransport = {};", new String(script, StandardCharsets.UTF_8));
+    }
+
+    @Test
+    public void testDeliveryScriptPassesTheMessageAsObject() {
+        assertEquals("edupyTransport.receive({\"type\":\"threads\",\"payload\":{}});",
+                JcefTransport.deliveryScript("{\"type\":\"threads\",\"payload\":{}}"));
+    }
+
+    @Test
+    public void testSocketPropertyDisablesTheTransport() {
+        assertTrue(JcefTransport.isEnabled());
+        System.setProperty(JcefTransport.PROPERTY, "socket");
+        assertFalse(JcefTransport.isEnabled());
+    }
+}